@@ -1,21 +1,20 @@
 package io.statusmvp.pricebackend.auth;
 
+import io.statusmvp.pricebackend.service.RedisRateLimiter;
 import java.time.Duration;
 import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.TimeUnit;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
 @Service
 public class AuthRiskService {
-  private final StringRedisTemplate redis;
+  private final RedisRateLimiter rateLimiter;
   private final AuthProperties authProperties;
   private final AuthMetrics metrics;
 
   public AuthRiskService(
-      StringRedisTemplate redis, AuthProperties authProperties, AuthMetrics metrics) {
-    this.redis = redis;
+      RedisRateLimiter rateLimiter, AuthProperties authProperties, AuthMetrics metrics) {
+    this.rateLimiter = rateLimiter;
     this.authProperties = authProperties;
     this.metrics = metrics;
   }
@@ -38,51 +37,55 @@ public class AuthRiskService {
   }
 
   public void checkLoginRateLimits(String ip, String deviceId) {
-    int windowSeconds = Math.max(1, authProperties.getRisk().getWindowSeconds());
-    checkLimit(
-        "login-ip",
-        key("login:ip", normalizeKey(ip)),
-        Math.max(1, authProperties.getRisk().getLoginIpLimit()),
-        windowSeconds);
-    if (deviceId != null && !deviceId.isBlank()) {
-      checkLimit(
-          "login-device",
-          key("login:device", normalizeKey(deviceId)),
-          Math.max(1, authProperties.getRisk().getLoginDeviceLimit()),
-          windowSeconds);
-    }
+    Duration window = window();
+    checkLimits(
+        new RedisRateLimiter.Limit(
+            "login-ip",
+            key("login:ip", normalizeKey(ip)),
+            Math.max(1, authProperties.getRisk().getLoginIpLimit()),
+            window),
+        new RedisRateLimiter.Limit(
+            "login-device",
+            key("login:device", normalizeKey(deviceId)),
+            Math.max(1, authProperties.getRisk().getLoginDeviceLimit()),
+            window));
   }
 
   public void checkLoginDeviceRateLimit(String deviceId) {
     if (deviceId == null || deviceId.isBlank()) return;
-    int windowSeconds = Math.max(1, authProperties.getRisk().getWindowSeconds());
-    checkLimit(
-        "login-device",
-        key("login:device", normalizeKey(deviceId)),
-        Math.max(1, authProperties.getRisk().getLoginDeviceLimit()),
-        windowSeconds);
+    checkLimits(
+        new RedisRateLimiter.Limit(
+            "login-device",
+            key("login:device", normalizeKey(deviceId)),
+            Math.max(1, authProperties.getRisk().getLoginDeviceLimit()),
+            window()));
   }
 
   public void checkBindRateLimit(String walletSub) {
-    int windowSeconds = Math.max(1, authProperties.getRisk().getWindowSeconds());
-    checkLimit(
-        "bind-account",
-        key("bind:wallet", normalizeKey(walletSub)),
-        Math.max(1, authProperties.getRisk().getBindAccountLimit()),
-        windowSeconds);
+    checkLimits(
+        new RedisRateLimiter.Limit(
+            "bind-account",
+            key("bind:wallet", normalizeKey(walletSub)),
+            Math.max(1, authProperties.getRisk().getBindAccountLimit()),
+            window()));
   }
 
-  private void checkLimit(String scope, String key, int limit, int windowSeconds) {
-    if (key == null || key.isBlank()) return;
-    Long count = redis.opsForValue().increment(key);
-    if (count != null && count == 1L) {
-      redis.expire(key, Duration.ofSeconds(windowSeconds));
-    }
-    if (count != null && count > limit) {
-      Long ttl = redis.getExpire(key, TimeUnit.SECONDS);
-      int retryAfter = ttl == null || ttl < 1 ? windowSeconds : ttl.intValue();
-      metrics.rateLimited(scope);
-      throw new AuthException(AuthErrorCode.RATE_LIMITED, "rate limited", 429, retryAfter, java.util.Map.of("scope", scope));
+  private Duration window() {
+    return Duration.ofSeconds(Math.max(1, authProperties.getRisk().getWindowSeconds()));
+  }
+
+  private void checkLimits(RedisRateLimiter.Limit... limits) {
+    // Fail closed: a Redis outage must not lift login / bind throttling.
+    RedisRateLimiter.Decision decision =
+        rateLimiter.checkBlocking("auth", List.of(limits), /* failOpen= */ false);
+    if (!decision.allowed()) {
+      metrics.rateLimited(decision.deniedScope());
+      throw new AuthException(
+          AuthErrorCode.RATE_LIMITED,
+          "rate limited",
+          429,
+          decision.retryAfterSeconds(),
+          java.util.Map.of("scope", decision.deniedScope()));
     }
   }
 
@@ -6,21 +6,28 @@ import io.statusmvp.pricebackend.model.PriceMarketData;
 import java.net.URI;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
 
 @Component
 public class BinanceClient {
   private static final Logger log = LoggerFactory.getLogger(BinanceClient.class);
+  private static final String USDT_SUFFIX = "USDT";
   private final WebClient webClient;
+  private final ProviderHealthRegistry.ProviderHealth health;
 
-  public BinanceClient(WebClient webClient) {
+  public BinanceClient(
+      @Qualifier("binanceWebClient") WebClient webClient, ProviderHealthRegistry providerHealth) {
     this.webClient = webClient;
+    this.health = providerHealth.provider("binance");
   }
 
   /**
@@ -73,32 +80,65 @@ public class BinanceClient {
   /**
    * Binance doesn't provide USD directly; use USDT pair and assume USDT≈USD for MVP.
    */
-  public Optional<PriceMarketData> fetchUsdQuoteViaUsdtPair(String baseSymbol) {
-    if (baseSymbol == null || baseSymbol.isBlank()) return Optional.empty();
+  public Mono<PriceMarketData> fetchUsdQuoteViaUsdtPair(String baseSymbol) {
+    if (baseSymbol == null || baseSymbol.isBlank()) return Mono.empty();
     String symbol = baseSymbol.toUpperCase() + "USDT";
 
-    try {
-      URI uri =
-          UriComponentsBuilder.fromUriString("https://api.binance.com/api/v3/ticker/24hr")
-              .queryParam("symbol", symbol)
-              .build(true)
-              .toUri();
-      JsonNode root =
-          webClient
-              .get()
-              .uri(uri)
-              .retrieve()
-              .bodyToMono(JsonNode.class)
-              .timeout(Duration.ofSeconds(8))
-              .block();
-      if (root == null) return Optional.empty();
-      Double price = parseMaybeDouble(root.path("lastPrice"));
-      if (price == null || price <= 0d) return Optional.empty();
-      Double change24hPct = parseMaybeDouble(root.path("priceChangePercent"));
-      return Optional.of(new PriceMarketData(price, change24hPct));
-    } catch (Exception ignored) {
-      return Optional.empty();
-    }
+    URI uri =
+        UriComponentsBuilder.fromUriString("https://api.binance.com/api/v3/ticker/24hr")
+            .queryParam("symbol", symbol)
+            .build(true)
+            .toUri();
+    return webClient
+        .get()
+        .uri(uri)
+        .retrieve()
+        .bodyToMono(JsonNode.class)
+        .transform(health.guard(Duration.ofSeconds(8)))
+        .flatMap(
+            root -> {
+              Double price = parseMaybeDouble(root.path("lastPrice"));
+              if (price == null || price <= 0d) return Mono.<PriceMarketData>empty();
+              Double change24hPct = parseMaybeDouble(root.path("priceChangePercent"));
+              return Mono.just(new PriceMarketData(price, change24hPct));
+            })
+        .onErrorResume(ignored -> Mono.empty());
+  }
+
+  /**
+   * Full 24hr ticker list in a single request, reduced to USDT pairs.
+   *
+   * Returns: map(baseSymbol -> quote), e.g. "ETH" for ETHUSDT. Pairs without trades in the window
+   * (halted/delisted) are skipped.
+   */
+  public Mono<Map<String, PriceMarketData>> fetchUsdtTickers() {
+    URI uri =
+        UriComponentsBuilder.fromUriString("https://api.binance.com/api/v3/ticker/24hr")
+            .build(true)
+            .toUri();
+    return webClient
+        .get()
+        .uri(uri)
+        .retrieve()
+        .bodyToMono(JsonNode.class)
+        .timeout(Duration.ofSeconds(15))
+        .map(
+            root -> {
+              Map<String, PriceMarketData> out = new HashMap<>();
+              if (!root.isArray()) return out;
+              for (JsonNode row : root) {
+                String symbol = row.path("symbol").asText("");
+                if (symbol.length() <= USDT_SUFFIX.length() || !symbol.endsWith(USDT_SUFFIX)) continue;
+                if (row.path("count").asLong(0L) <= 0L) continue;
+                Double price = parseMaybeDouble(row.path("lastPrice"));
+                if (price == null || price <= 0d) continue;
+                Double change24hPct = parseMaybeDouble(row.path("priceChangePercent"));
+                out.put(
+                    symbol.substring(0, symbol.length() - USDT_SUFFIX.length()),
+                    new PriceMarketData(price, change24hPct));
+              }
+              return out;
+            });
   }
 
   private static Double parseMaybeDouble(JsonNode node) {
@@ -6,30 +6,43 @@ import io.statusmvp.pricebackend.model.PriceMarketData;
 import java.net.URI;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Component
 public class CoinGeckoClient {
   private static final Logger log = LoggerFactory.getLogger(CoinGeckoClient.class);
+  // Keeps the /simple/price query string comfortably below common URL length limits.
+  private static final int MAX_IDS_PER_REQUEST = 100;
+  private static final int SIMPLE_PRICE_CHUNK_CONCURRENCY = 2;
   private final WebClient webClient;
+  private final ProviderHealthRegistry.ProviderHealth health;
+  private final ProviderHealthRegistry.ProviderHealth onchainHealth;
   private final String apiKey;
   private final boolean allowPublic;
   private final String baseUrl;
 
   public CoinGeckoClient(
-      WebClient webClient,
+      @Qualifier("coinGeckoWebClient") WebClient webClient,
+      ProviderHealthRegistry providerHealth,
       @Value("${COINGECKO_PRO_API_KEY:}") String apiKey,
       @Value("${COINGECKO_ALLOW_PUBLIC:false}") boolean allowPublic) {
     this.webClient = webClient;
+    this.health = providerHealth.provider("coingecko");
+    // The onchain (GeckoTerminal) API is a separate backend that degrades independently.
+    this.onchainHealth = providerHealth.provider("coingecko_onchain");
     this.apiKey = apiKey == null ? "" : apiKey.trim();
     this.allowPublic = allowPublic;
     // Prefer Pro API when key is provided; optionally fall back to the public API (rate-limited).
@@ -46,53 +59,90 @@ public class CoinGeckoClient {
     return !baseUrl.isBlank();
   }
 
-  public Optional<PriceMarketData> fetchSimpleUsdQuote(String coinId) {
-    if (!isEnabled() || coinId == null || coinId.isBlank()) {
+  /** Upstream requests {@link #fetchSimpleUsdQuotes} sends for {@code coinIds} distinct ids. */
+  public static int simplePriceRequests(int coinIds) {
+    return (Math.max(0, coinIds) + MAX_IDS_PER_REQUEST - 1) / MAX_IDS_PER_REQUEST;
+  }
+
+  /**
+   * USD quotes for several coin ids via {@code /simple/price}, which accepts a comma-separated id
+   * list. Ids are de-duplicated and sent in chunks of {@link #MAX_IDS_PER_REQUEST}.
+   *
+   * Returns: map(coinId -> quote); ids without a usable price are absent.
+   */
+  public Mono<Map<String, PriceMarketData>> fetchSimpleUsdQuotes(Collection<String> coinIds) {
+    if (!isEnabled() || coinIds == null || coinIds.isEmpty()) {
       if (log.isDebugEnabled()) {
         log.debug(
-            "CoinGecko simple price skipped: apiKeyBlank={} coinId='{}'",
+            "CoinGecko simple price skipped: apiKeyBlank={} coinIds={}",
             apiKey.isBlank(),
-            coinId);
+            coinIds);
       }
-      return Optional.empty();
+      return Mono.just(Map.of());
     }
 
+    List<String> ids =
+        coinIds.stream()
+            .filter(id -> id != null && !id.isBlank())
+            .map(String::trim)
+            .distinct()
+            .toList();
+    if (ids.isEmpty()) return Mono.just(Map.of());
+
+    List<List<String>> chunks = new ArrayList<>();
+    for (int i = 0; i < ids.size(); i += MAX_IDS_PER_REQUEST) {
+      chunks.add(ids.subList(i, Math.min(ids.size(), i + MAX_IDS_PER_REQUEST)));
+    }
+    return Flux.fromIterable(chunks)
+        .flatMap(this::fetchSimpleUsdQuoteChunk, SIMPLE_PRICE_CHUNK_CONCURRENCY)
+        .collectList()
+        .map(
+            results -> {
+              Map<String, PriceMarketData> out = new HashMap<>();
+              results.forEach(out::putAll);
+              return out;
+            });
+  }
+
+  private Mono<Map<String, PriceMarketData>> fetchSimpleUsdQuoteChunk(List<String> ids) {
+    String csv = String.join(",", ids);
     URI uri =
         UriComponentsBuilder.fromUriString(baseUrl + "/simple/price")
-            .queryParam("ids", coinId)
+            .queryParam("ids", csv)
             .queryParam("vs_currencies", "usd")
             .queryParam("include_24hr_change", "true")
             .build(true)
             .toUri();
 
-    try {
-      JsonNode root =
-          webClient
-              .get()
-              .uri(uri)
-              .headers(h -> {
-                if (!apiKey.isBlank()) h.set("x-cg-pro-api-key", apiKey);
-              })
-              .retrieve()
-              .bodyToMono(JsonNode.class)
-              .timeout(Duration.ofSeconds(10))
-              .block();
-      if (root == null) {
-        log.warn("CoinGecko simple price returned null body for id='{}'", coinId);
-        return Optional.empty();
-      }
-      JsonNode priceNode = root.path(coinId).path("usd");
-      Double price = parseMaybeDouble(priceNode);
-      if (price == null || price <= 0d) {
-        log.warn("CoinGecko simple price missing numeric 'usd' for id='{}', body={}", coinId, root);
-        return Optional.empty();
-      }
-      Double change24hPct = parseMaybeDouble(root.path(coinId).path("usd_24h_change"));
-      return Optional.of(new PriceMarketData(price, change24hPct));
-    } catch (Exception e) {
-      log.warn("CoinGecko simple price request failed for id='{}' uri={}", coinId, uri, e);
-      return Optional.empty();
-    }
+    return webClient
+        .get()
+        .uri(uri)
+        .headers(h -> {
+          if (!apiKey.isBlank()) h.set("x-cg-pro-api-key", apiKey);
+        })
+        .retrieve()
+        .bodyToMono(JsonNode.class)
+        .transform(health.guard(Duration.ofSeconds(10)))
+        .map(
+            root -> {
+              Map<String, PriceMarketData> out = new HashMap<>();
+              for (String coinId : ids) {
+                Double price = parseMaybeDouble(root.path(coinId).path("usd"));
+                if (price == null || price <= 0d) {
+                  log.warn("CoinGecko simple price missing numeric 'usd' for id='{}'", coinId);
+                  continue;
+                }
+                Double change24hPct = parseMaybeDouble(root.path(coinId).path("usd_24h_change"));
+                out.put(coinId, new PriceMarketData(price, change24hPct));
+              }
+              return out;
+            })
+        .onErrorResume(
+            e -> {
+              log.warn("CoinGecko simple price request failed for ids='{}' uri={}", csv, uri, e);
+              return Mono.just(Map.of());
+            })
+        .defaultIfEmpty(Map.of());
   }
 
   /**
@@ -100,9 +150,8 @@ public class CoinGeckoClient {
    *
    * Returns: map(contractAddressCanonical -> quote)
    */
-  public Map<String, PriceMarketData> fetchTokenQuotesByContract(
+  public Mono<Map<String, PriceMarketData>> fetchTokenQuotesByContract(
       int chainId, String platformId, String addressesCsv) {
-    Map<String, PriceMarketData> out = new HashMap<>();
     if (!isEnabled() || platformId == null || platformId.isBlank()) {
       if (log.isDebugEnabled()) {
         log.debug(
@@ -111,9 +160,9 @@ public class CoinGeckoClient {
             platformId,
             addressesCsv);
       }
-      return out;
+      return Mono.just(Map.of());
     }
-    if (addressesCsv == null || addressesCsv.isBlank()) return out;
+    if (addressesCsv == null || addressesCsv.isBlank()) return Mono.just(Map.of());
 
     URI uri =
         UriComponentsBuilder.fromUriString(
@@ -124,59 +173,60 @@ public class CoinGeckoClient {
             .build(true)
             .toUri();
 
-    try {
-      JsonNode root =
-          webClient
-              .get()
-              .uri(uri)
-              .headers(h -> {
-                if (!apiKey.isBlank()) h.set("x-cg-pro-api-key", apiKey);
-              })
-              .retrieve()
-              .bodyToMono(JsonNode.class)
-              .timeout(Duration.ofSeconds(15))
-              .block();
-      if (root == null || !root.isObject()) {
-        log.warn(
-            "CoinGecko token_price returned invalid body for chainId={} platformId='{}' addresses='{}' body={}",
-            chainId,
-            platformId,
-            addressesCsv,
-            root);
-        return out;
-      }
-
-      root.fieldNames()
-          .forEachRemaining(
-              (addr) -> {
-                Double price = parseMaybeDouble(root.path(addr).path("usd"));
-                if (price == null || price <= 0d) return;
-                Double change24hPct =
-                    parseMaybeDouble(root.path(addr).path("usd_24h_change"));
-                out.put(
-                    normalizeAddressKey(chainId, addr),
-                    new PriceMarketData(price, change24hPct));
-              });
+    return webClient
+        .get()
+        .uri(uri)
+        .headers(h -> {
+          if (!apiKey.isBlank()) h.set("x-cg-pro-api-key", apiKey);
+        })
+        .retrieve()
+        .bodyToMono(JsonNode.class)
+        .transform(health.guard(Duration.ofSeconds(15)))
+        .map(
+            root -> {
+              Map<String, PriceMarketData> out = new HashMap<>();
+              if (!root.isObject()) {
+                log.warn(
+                    "CoinGecko token_price returned invalid body for chainId={} platformId='{}' addresses='{}' body={}",
+                    chainId,
+                    platformId,
+                    addressesCsv,
+                    root);
+                return out;
+              }
 
-      return out;
-    } catch (Exception e) {
-      log.warn(
-          "CoinGecko token_price request failed for chainId={} platformId='{}' addresses='{}' uri={}",
-          chainId,
-          platformId,
-          addressesCsv,
-          uri,
-          e);
-      return out;
-    }
+              root.fieldNames()
+                  .forEachRemaining(
+                      (addr) -> {
+                        Double price = parseMaybeDouble(root.path(addr).path("usd"));
+                        if (price == null || price <= 0d) return;
+                        Double change24hPct =
+                            parseMaybeDouble(root.path(addr).path("usd_24h_change"));
+                        out.put(
+                            normalizeAddressKey(chainId, addr),
+                            new PriceMarketData(price, change24hPct));
+                      });
+              return out;
+            })
+        .onErrorResume(
+            e -> {
+              log.warn(
+                  "CoinGecko token_price request failed for chainId={} platformId='{}' addresses='{}' uri={}",
+                  chainId,
+                  platformId,
+                  addressesCsv,
+                  uri,
+                  e);
+              return Mono.just(Map.of());
+            })
+        .defaultIfEmpty(Map.of());
   }
 
-  public Map<String, PriceMarketData> fetchOnchainTokenQuotes(
+  public Mono<Map<String, PriceMarketData>> fetchOnchainTokenQuotes(
       int chainId,
       String networkId,
       String addressesCsv,
       boolean includeInactiveSource) {
-    Map<String, PriceMarketData> out = new HashMap<>();
     if (!isEnabled() || networkId == null || networkId.isBlank()) {
       if (log.isDebugEnabled()) {
         log.debug(
@@ -185,9 +235,9 @@ public class CoinGeckoClient {
             networkId,
             addressesCsv);
       }
-      return out;
+      return Mono.just(Map.of());
     }
-    if (addressesCsv == null || addressesCsv.isBlank()) return out;
+    if (addressesCsv == null || addressesCsv.isBlank()) return Mono.just(Map.of());
 
     URI uri =
         UriComponentsBuilder.fromUriString(
@@ -197,54 +247,57 @@ public class CoinGeckoClient {
             .build(true)
             .toUri();
 
-    try {
-      JsonNode root =
-          webClient
-              .get()
-              .uri(uri)
-              .headers(h -> {
-                if (!apiKey.isBlank()) h.set("x-cg-pro-api-key", apiKey);
-              })
-              .retrieve()
-              .bodyToMono(JsonNode.class)
-              .timeout(Duration.ofSeconds(20))
-              .block();
-      if (root == null || !root.isObject()) {
-        log.warn(
-            "CoinGecko onchain token_price returned invalid body for chainId={} networkId='{}' addresses='{}' body={}",
-            chainId,
-            networkId,
-            addressesCsv,
-            root);
-        return out;
-      }
+    return webClient
+        .get()
+        .uri(uri)
+        .headers(h -> {
+          if (!apiKey.isBlank()) h.set("x-cg-pro-api-key", apiKey);
+        })
+        .retrieve()
+        .bodyToMono(JsonNode.class)
+        .transform(onchainHealth.guard(Duration.ofSeconds(20)))
+        .map(
+            root -> {
+              Map<String, PriceMarketData> out = new HashMap<>();
+              if (!root.isObject()) {
+                log.warn(
+                    "CoinGecko onchain token_price returned invalid body for chainId={} networkId='{}' addresses='{}' body={}",
+                    chainId,
+                    networkId,
+                    addressesCsv,
+                    root);
+                return out;
+              }
 
-      JsonNode attrs = root.path("data").path("attributes");
-      JsonNode tokenPrices = attrs.path("token_prices");
-      JsonNode changes = attrs.path("h24_price_change_percentage");
-      if (!tokenPrices.isObject()) return out;
-
-      tokenPrices.fieldNames()
-          .forEachRemaining(
-              (addr) -> {
-                Double price = parseMaybeDouble(tokenPrices.path(addr));
-                if (price == null || price <= 0d) return;
-                Double change24hPct = parseMaybeDouble(changes.path(addr));
-                out.put(
-                    normalizeAddressKey(chainId, addr),
-                    new PriceMarketData(price, change24hPct));
-              });
-      return out;
-    } catch (Exception e) {
-      log.warn(
-          "CoinGecko onchain token_price request failed for chainId={} networkId='{}' addresses='{}' uri={}",
-          chainId,
-          networkId,
-          addressesCsv,
-          uri,
-          e);
-      return out;
-    }
+              JsonNode attrs = root.path("data").path("attributes");
+              JsonNode tokenPrices = attrs.path("token_prices");
+              JsonNode changes = attrs.path("h24_price_change_percentage");
+              if (!tokenPrices.isObject()) return out;
+
+              tokenPrices.fieldNames()
+                  .forEachRemaining(
+                      (addr) -> {
+                        Double price = parseMaybeDouble(tokenPrices.path(addr));
+                        if (price == null || price <= 0d) return;
+                        Double change24hPct = parseMaybeDouble(changes.path(addr));
+                        out.put(
+                            normalizeAddressKey(chainId, addr),
+                            new PriceMarketData(price, change24hPct));
+                      });
+              return out;
+            })
+        .onErrorResume(
+            e -> {
+              log.warn(
+                  "CoinGecko onchain token_price request failed for chainId={} networkId='{}' addresses='{}' uri={}",
+                  chainId,
+                  networkId,
+                  addressesCsv,
+                  uri,
+                  e);
+              return Mono.just(Map.of());
+            })
+        .defaultIfEmpty(Map.of());
   }
 
   /**
@@ -4,19 +4,25 @@ import com.fasterxml.jackson.databind.JsonNode;
 import io.statusmvp.pricebackend.model.PriceMarketData;
 import java.net.URI;
 import java.time.Duration;
-import java.util.Optional;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
 
 @Component
 public class CoinMarketCapClient {
   private final WebClient webClient;
+  private final ProviderHealthRegistry.ProviderHealth health;
   private final String apiKey;
 
-  public CoinMarketCapClient(WebClient webClient, @Value("${COINMARKETCAP_API_KEY:}") String apiKey) {
+  public CoinMarketCapClient(
+      @Qualifier("coinMarketCapWebClient") WebClient webClient,
+      ProviderHealthRegistry providerHealth,
+      @Value("${COINMARKETCAP_API_KEY:}") String apiKey) {
     this.webClient = webClient;
+    this.health = providerHealth.provider("coinmarketcap");
     this.apiKey = apiKey == null ? "" : apiKey.trim();
   }
 
@@ -24,42 +30,40 @@ public class CoinMarketCapClient {
     return !apiKey.isBlank();
   }
 
-  public Optional<PriceMarketData> fetchUsdQuoteBySymbol(String symbol) {
-    if (apiKey.isBlank() || symbol == null || symbol.isBlank()) return Optional.empty();
+  public Mono<PriceMarketData> fetchUsdQuoteBySymbol(String symbol) {
+    if (apiKey.isBlank() || symbol == null || symbol.isBlank()) return Mono.empty();
 
-    try {
-      URI uri =
-          UriComponentsBuilder.fromUriString(
-                  "https://pro-api.coinmarketcap.com/v1/cryptocurrency/quotes/latest")
-              .queryParam("symbol", symbol.toUpperCase())
-              .queryParam("convert", "USD")
-              .build(true)
-              .toUri();
-      JsonNode root =
-          webClient
-              .get()
-              .uri(uri)
-              .header("X-CMC_PRO_API_KEY", apiKey)
-              .retrieve()
-              .bodyToMono(JsonNode.class)
-              .timeout(Duration.ofSeconds(10))
-              .block();
-      if (root == null) return Optional.empty();
-
-      JsonNode symbolNode = root.path("data").path(symbol.toUpperCase());
-      if (symbolNode.isArray()) {
-        symbolNode = symbolNode.size() > 0 ? symbolNode.get(0) : null;
-      }
-      if (symbolNode == null) return Optional.empty();
+    String upper = symbol.toUpperCase();
+    URI uri =
+        UriComponentsBuilder.fromUriString(
+                "https://pro-api.coinmarketcap.com/v1/cryptocurrency/quotes/latest")
+            .queryParam("symbol", upper)
+            .queryParam("convert", "USD")
+            .build(true)
+            .toUri();
+    return webClient
+        .get()
+        .uri(uri)
+        .header("X-CMC_PRO_API_KEY", apiKey)
+        .retrieve()
+        .bodyToMono(JsonNode.class)
+        .transform(health.guard(Duration.ofSeconds(10)))
+        .flatMap(root -> Mono.justOrEmpty(parseQuote(root, upper)))
+        .onErrorResume(ignored -> Mono.empty());
+  }
 
-      JsonNode usdQuote = symbolNode.path("quote").path("USD");
-      Double price = parseMaybeDouble(usdQuote.path("price"));
-      if (price == null || price <= 0d) return Optional.empty();
-      Double change24hPct = parseMaybeDouble(usdQuote.path("percent_change_24h"));
-      return Optional.of(new PriceMarketData(price, change24hPct));
-    } catch (Exception ignored) {
-      return Optional.empty();
+  private static PriceMarketData parseQuote(JsonNode root, String upperSymbol) {
+    JsonNode symbolNode = root.path("data").path(upperSymbol);
+    if (symbolNode.isArray()) {
+      symbolNode = symbolNode.size() > 0 ? symbolNode.get(0) : null;
     }
+    if (symbolNode == null) return null;
+
+    JsonNode usdQuote = symbolNode.path("quote").path("USD");
+    Double price = parseMaybeDouble(usdQuote.path("price"));
+    if (price == null || price <= 0d) return null;
+    Double change24hPct = parseMaybeDouble(usdQuote.path("percent_change_24h"));
+    return new PriceMarketData(price, change24hPct);
   }
 
   private static Double parseMaybeDouble(JsonNode node) {
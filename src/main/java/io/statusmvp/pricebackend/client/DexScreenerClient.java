@@ -12,15 +12,19 @@ import java.util.Map;
 import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Component
 public class DexScreenerClient {
   private static final Logger log = LoggerFactory.getLogger(DexScreenerClient.class);
   private static final int MAX_ADDRESSES_PER_REQUEST = 30;
+  private static final int CHUNK_CONCURRENCY = 4;
   private static final Map<Integer, String> CHAIN_SLUGS =
       Map.of(
           1, "ethereum",
@@ -31,14 +35,17 @@ public class DexScreenerClient {
           42161, "arbitrum");
 
   private final WebClient webClient;
+  private final ProviderHealthRegistry.ProviderHealth health;
   private final boolean enabled;
   private final String baseUrl;
 
   public DexScreenerClient(
-      WebClient webClient,
+      @Qualifier("dexScreenerWebClient") WebClient webClient,
+      ProviderHealthRegistry providerHealth,
       @Value("${app.dexscreener.enabled:true}") boolean enabled,
       @Value("${app.dexscreener.baseUrl:https://api.dexscreener.com}") String baseUrl) {
     this.webClient = webClient;
+    this.health = providerHealth.provider("dexscreener");
     this.enabled = enabled;
     this.baseUrl = normalizeBaseUrl(baseUrl);
   }
@@ -47,12 +54,16 @@ public class DexScreenerClient {
     return enabled && !baseUrl.isBlank();
   }
 
-  public Map<String, PriceMarketData> fetchTokenQuotesByContract(
+  /** Upstream requests {@link #fetchTokenQuotesByContract} sends for {@code addresses} distinct addresses. */
+  public static int requestsFor(int addresses) {
+    return (Math.max(0, addresses) + MAX_ADDRESSES_PER_REQUEST - 1) / MAX_ADDRESSES_PER_REQUEST;
+  }
+
+  public Mono<Map<String, PriceMarketData>> fetchTokenQuotesByContract(
       int chainId, List<String> contractAddresses) {
-    Map<String, PriceMarketData> out = new HashMap<>();
     String chainSlug = CHAIN_SLUGS.get(chainId);
     if (!isEnabled() || chainSlug == null || contractAddresses == null || contractAddresses.isEmpty()) {
-      return out;
+      return Mono.just(Map.of());
     }
 
     List<String> addresses =
@@ -61,59 +72,75 @@ public class DexScreenerClient {
             .filter(address -> !address.isBlank())
             .distinct()
             .toList();
-    if (addresses.isEmpty()) return out;
-
-    for (List<String> chunk : chunks(addresses, MAX_ADDRESSES_PER_REQUEST)) {
-      fetchChunk(chainId, chainSlug, chunk, out);
-    }
-    return out;
+    if (addresses.isEmpty()) return Mono.just(Map.of());
+
+    return Flux.fromIterable(chunks(addresses, MAX_ADDRESSES_PER_REQUEST))
+        .flatMap(chunk -> fetchChunk(chainId, chainSlug, chunk), CHUNK_CONCURRENCY)
+        .collectList()
+        .map(
+            results -> {
+              Map<String, PriceMarketData> out = new HashMap<>();
+              results.forEach(out::putAll);
+              return out;
+            });
   }
 
-  private void fetchChunk(
-      int chainId, String chainSlug, List<String> addresses, Map<String, PriceMarketData> out) {
+  private Mono<Map<String, PriceMarketData>> fetchChunk(
+      int chainId, String chainSlug, List<String> addresses) {
     String csv = String.join(",", addresses);
     Set<String> requested = Set.copyOf(addresses);
-    Map<String, Double> liquidityByAddress = new HashMap<>();
     URI uri =
         UriComponentsBuilder.fromUriString(baseUrl + "/tokens/v1/" + chainSlug + "/" + csv)
             .build(true)
             .toUri();
 
-    try {
-      JsonNode root =
-          webClient
-              .get()
-              .uri(uri)
-              .retrieve()
-              .bodyToMono(JsonNode.class)
-              .timeout(Duration.ofSeconds(10))
-              .block();
-
-      if (root == null || !root.isArray()) {
-        log.warn("DEX Screener returned invalid body for chainId={} addresses='{}' body={}", chainId, csv, root);
-        return;
-      }
+    return webClient
+        .get()
+        .uri(uri)
+        .retrieve()
+        .bodyToMono(JsonNode.class)
+        .transform(health.guard(Duration.ofSeconds(10)))
+        .map(root -> parseChunk(chainId, csv, requested, root))
+        .onErrorResume(
+            e -> {
+              log.warn(
+                  "DEX Screener token quote request failed for chainId={} addresses='{}' uri={}",
+                  chainId,
+                  csv,
+                  uri,
+                  e);
+              return Mono.just(Map.of());
+            })
+        .defaultIfEmpty(Map.of());
+  }
+
+  private static Map<String, PriceMarketData> parseChunk(
+      int chainId, String csv, Set<String> requested, JsonNode root) {
+    Map<String, PriceMarketData> out = new HashMap<>();
+    Map<String, Double> liquidityByAddress = new HashMap<>();
+    if (!root.isArray()) {
+      log.warn("DEX Screener returned invalid body for chainId={} addresses='{}' body={}", chainId, csv, root);
+      return out;
+    }
 
-      for (JsonNode pair : root) {
-        String tokenAddress = resolveRequestedTokenAddress(chainId, pair, requested);
-        if (tokenAddress.isBlank()) continue;
-
-        Double price = parseMaybeDouble(pair.path("priceUsd"));
-        if (price == null || price <= 0d) continue;
-
-        Double liquidityUsd = parseMaybeDouble(pair.path("liquidity").path("usd"));
-        PriceMarketData incoming =
-            new PriceMarketData(price, parseMaybeDouble(pair.path("priceChange").path("h24")));
-        PriceMarketData existing = out.get(tokenAddress);
-        Double existingLiquidityUsd = liquidityByAddress.get(tokenAddress);
-        if (existing == null || isBetterQuote(liquidityUsd, existingLiquidityUsd)) {
-          out.put(tokenAddress, incoming);
-          liquidityByAddress.put(tokenAddress, liquidityUsd == null ? 0d : liquidityUsd);
-        }
+    for (JsonNode pair : root) {
+      String tokenAddress = resolveRequestedTokenAddress(chainId, pair, requested);
+      if (tokenAddress.isBlank()) continue;
+
+      Double price = parseMaybeDouble(pair.path("priceUsd"));
+      if (price == null || price <= 0d) continue;
+
+      Double liquidityUsd = parseMaybeDouble(pair.path("liquidity").path("usd"));
+      PriceMarketData incoming =
+          new PriceMarketData(price, parseMaybeDouble(pair.path("priceChange").path("h24")));
+      PriceMarketData existing = out.get(tokenAddress);
+      Double existingLiquidityUsd = liquidityByAddress.get(tokenAddress);
+      if (existing == null || isBetterQuote(liquidityUsd, existingLiquidityUsd)) {
+        out.put(tokenAddress, incoming);
+        liquidityByAddress.put(tokenAddress, liquidityUsd == null ? 0d : liquidityUsd);
       }
-    } catch (Exception e) {
-      log.warn("DEX Screener token quote request failed for chainId={} addresses='{}' uri={}", chainId, csv, uri, e);
     }
+    return out;
   }
 
   private static boolean isBetterQuote(Double incomingLiquidityUsd, Double existingLiquidityUsd) {
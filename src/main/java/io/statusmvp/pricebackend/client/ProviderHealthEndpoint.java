@@ -0,0 +1,22 @@
+package io.statusmvp.pricebackend.client;
+
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/** {@code /actuator/providers}: circuit breaker state and recent latency of each price provider. */
+@Component
+@Endpoint(id = "providers")
+public class ProviderHealthEndpoint {
+  private final ProviderHealthRegistry registry;
+
+  public ProviderHealthEndpoint(ProviderHealthRegistry registry) {
+    this.registry = registry;
+  }
+
+  @ReadOperation
+  public Map<String, ProviderHealthRegistry.Snapshot> providers() {
+    return registry.snapshots();
+  }
+}
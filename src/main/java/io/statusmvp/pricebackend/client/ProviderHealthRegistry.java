@@ -0,0 +1,331 @@
+package io.statusmvp.pricebackend.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Health of the market data providers, one circuit breaker per provider.
+ *
+ * <p>Each provider keeps its last {@code windowSize} call outcomes. Once at least {@code minCalls} are
+ * recorded and the failure rate reaches {@code failureRateThreshold}, the breaker opens and calls
+ * complete empty immediately, so the price fallback chain moves on without waiting for a timeout.
+ * After {@code openMs} a single probe call is let through (half-open): success closes the breaker
+ * with a fresh window, failure re-opens it. Timeouts, connection errors, 429s, 5xx and unreadable
+ * bodies count as failures; other 4xx (e.g. an unknown symbol) mean the provider is up. A call its
+ * caller gave up on (deadline, lost hedge race) after the adaptive timeout below is recorded as a
+ * slow call, with the time it had taken so far as its latency.
+ *
+ * <p>The timeout of a call adapts to the provider: {@code p99 * timeoutMultiplier} of recent
+ * successful latencies, clamped between {@code minTimeoutMs} and the call's own ceiling. State is
+ * published as {@code price_provider.state} / {@code price_provider.p99_ms} gauges and through the
+ * {@code providers} actuator endpoint.
+ */
+@Component
+public class ProviderHealthRegistry {
+  private static final Logger log = LoggerFactory.getLogger(ProviderHealthRegistry.class);
+
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  public record Snapshot(
+      State state,
+      int calls,
+      double failureRate,
+      long p95LatencyMs,
+      long p99LatencyMs,
+      long openForMs) {}
+
+  private final MeterRegistry meterRegistry;
+  private final int windowSize;
+  private final int minCalls;
+  private final double failureRateThreshold;
+  private final long openMillis;
+  private final double timeoutMultiplier;
+  private final long minTimeoutMillis;
+  private final Clock clock;
+  private final ConcurrentHashMap<String, ProviderHealth> providers = new ConcurrentHashMap<>();
+
+  @Autowired
+  public ProviderHealthRegistry(
+      MeterRegistry meterRegistry,
+      @Value("${app.price.providerHealth.windowSize:100}") int windowSize,
+      @Value("${app.price.providerHealth.minCalls:10}") int minCalls,
+      @Value("${app.price.providerHealth.failureRateThreshold:0.5}") double failureRateThreshold,
+      @Value("${app.price.providerHealth.openMs:30000}") long openMs,
+      @Value("${app.price.providerHealth.timeoutMultiplier:1.5}") double timeoutMultiplier,
+      @Value("${app.price.providerHealth.minTimeoutMs:1000}") long minTimeoutMs) {
+    this(
+        meterRegistry,
+        windowSize,
+        minCalls,
+        failureRateThreshold,
+        openMs,
+        timeoutMultiplier,
+        minTimeoutMs,
+        Clock.systemUTC());
+  }
+
+  ProviderHealthRegistry(
+      MeterRegistry meterRegistry,
+      int windowSize,
+      int minCalls,
+      double failureRateThreshold,
+      long openMs,
+      double timeoutMultiplier,
+      long minTimeoutMs,
+      Clock clock) {
+    this.meterRegistry = meterRegistry;
+    this.windowSize = Math.max(10, windowSize);
+    this.minCalls = Math.max(1, Math.min(this.windowSize, minCalls));
+    this.failureRateThreshold = Math.max(0.01d, Math.min(1d, failureRateThreshold));
+    this.openMillis = Math.max(1000L, openMs);
+    this.timeoutMultiplier = Math.max(1d, timeoutMultiplier);
+    this.minTimeoutMillis = Math.max(100L, minTimeoutMs);
+    this.clock = clock;
+  }
+
+  public ProviderHealth provider(String name) {
+    return providers.computeIfAbsent(
+        name,
+        key -> {
+          ProviderHealth health = new ProviderHealth(key);
+          Tags tags = Tags.of("provider", key);
+          meterRegistry.gauge("price_provider.state", tags, health, h -> h.snapshot().state().ordinal());
+          meterRegistry.gauge("price_provider.p99_ms", tags, health, h -> h.latencyPercentileMillis(0.99d));
+          return health;
+        });
+  }
+
+  /** Snapshot of every provider that has been called, by name. */
+  public Map<String, Snapshot> snapshots() {
+    Map<String, Snapshot> out = new TreeMap<>();
+    providers.forEach((name, health) -> out.put(name, health.snapshot()));
+    return out;
+  }
+
+  public final class ProviderHealth {
+    private final String name;
+    // Guarded by this. Ring buffer of the last windowSize calls; latency is -1 for failures.
+    private final long[] latencies = new long[windowSize];
+    private int next;
+    private int recorded;
+    private State state = State.CLOSED;
+    private long openUntilMs;
+    private boolean probeInFlight;
+
+    private ProviderHealth(String name) {
+      this.name = name;
+    }
+
+    /**
+     * Wraps one provider call: completes empty at once while the breaker is open, otherwise applies
+     * the adaptive timeout (at most {@code maxTimeout}) and records the outcome.
+     */
+    public <T> Function<Mono<T>, Mono<T>> guard(Duration maxTimeout) {
+      return call ->
+          Mono.defer(
+              () -> {
+                Permit permit = acquire();
+                if (permit == Permit.DENIED) {
+                  return Mono.<T>empty();
+                }
+                long startedAt = System.nanoTime();
+                return call.timeout(Duration.ofMillis(timeoutMillis(maxTimeout.toMillis())))
+                    .doOnSuccess(ignored -> onSuccess(permit, elapsedMillis(startedAt)))
+                    .doOnError(
+                        error -> {
+                          if (isFailure(error)) {
+                            onFailure(permit);
+                          } else {
+                            onSuccess(permit, elapsedMillis(startedAt));
+                          }
+                        })
+                    .doFinally(
+                        signal -> {
+                          if (signal == SignalType.CANCEL) onCancel(permit, elapsedMillis(startedAt));
+                        });
+              });
+    }
+
+    public boolean isAvailable() {
+      synchronized (this) {
+        return state == State.CLOSED
+            || (state == State.OPEN && clock.millis() >= openUntilMs)
+            || (state == State.HALF_OPEN && !probeInFlight);
+      }
+    }
+
+    /** Latency percentile ({@code 0 < q <= 1}) of recent successful calls, or -1 without enough samples. */
+    public long latencyPercentileMillis(double q) {
+      long[] successes;
+      synchronized (this) {
+        successes = successfulLatencies();
+      }
+      if (successes.length < minCalls) return -1L;
+      Arrays.sort(successes);
+      int index = (int) Math.ceil(q * successes.length) - 1;
+      return successes[Math.max(0, Math.min(successes.length - 1, index))];
+    }
+
+    public long timeoutMillis(long maxTimeoutMillis) {
+      long adaptive = adaptiveTimeoutMillis();
+      if (adaptive < 0) return maxTimeoutMillis;
+      return Math.min(maxTimeoutMillis, Math.max(minTimeoutMillis, adaptive));
+    }
+
+    /** {@code p99 * timeoutMultiplier} of recent successful calls, or -1 without enough samples. */
+    private long adaptiveTimeoutMillis() {
+      long p99 = latencyPercentileMillis(0.99d);
+      return p99 < 0 ? -1L : (long) Math.ceil(p99 * timeoutMultiplier);
+    }
+
+    public Snapshot snapshot() {
+      synchronized (this) {
+        long openFor = state == State.OPEN ? Math.max(0L, openUntilMs - clock.millis()) : 0L;
+        return new Snapshot(
+            state,
+            recorded,
+            failureRate(),
+            latencyPercentileMillis(0.95d),
+            latencyPercentileMillis(0.99d),
+            openFor);
+      }
+    }
+
+    private synchronized Permit acquire() {
+      if (state == State.OPEN && clock.millis() >= openUntilMs) {
+        state = State.HALF_OPEN;
+        probeInFlight = false;
+      }
+      return switch (state) {
+        case CLOSED -> Permit.NORMAL;
+        case OPEN -> Permit.DENIED;
+        case HALF_OPEN -> {
+          if (probeInFlight) yield Permit.DENIED;
+          probeInFlight = true;
+          yield Permit.PROBE;
+        }
+      };
+    }
+
+    private void onSuccess(Permit permit, long latencyMs) {
+      synchronized (this) {
+        if (permit == Permit.PROBE) {
+          if (state != State.HALF_OPEN) return;
+          probeInFlight = false;
+          state = State.CLOSED;
+          next = 0;
+          recorded = 0;
+        }
+        record(Math.max(0L, latencyMs));
+      }
+      if (permit == Permit.PROBE) {
+        log.info("price.provider.closed provider={}", name);
+      }
+    }
+
+    private void onFailure(Permit permit) {
+      boolean opened = false;
+      double failureRate;
+      synchronized (this) {
+        if (permit == Permit.PROBE) {
+          if (state != State.HALF_OPEN) return;
+          probeInFlight = false;
+          open();
+          opened = true;
+        } else {
+          record(-1L);
+          if (state == State.CLOSED && recorded >= minCalls && failureRate() >= failureRateThreshold) {
+            open();
+            opened = true;
+          }
+        }
+        failureRate = failureRate();
+      }
+      if (opened) {
+        log.warn(
+            "price.provider.opened provider={} failureRate={} openMs={}",
+            name,
+            String.format("%.2f", failureRate),
+            openMillis);
+      }
+    }
+
+    /**
+     * Cancelled calls say nothing about the provider unless they had already run past the adaptive
+     * timeout; those go into the window as slow calls so the timeout keeps up with them. A probe
+     * only gives its slot back.
+     */
+    private synchronized void onCancel(Permit permit, long elapsedMs) {
+      if (permit == Permit.PROBE) {
+        if (state == State.HALF_OPEN) probeInFlight = false;
+        return;
+      }
+      long slowAfterMs = adaptiveTimeoutMillis();
+      if (slowAfterMs >= 0 && elapsedMs >= slowAfterMs) {
+        record(elapsedMs);
+      }
+    }
+
+    private void open() {
+      state = State.OPEN;
+      openUntilMs = clock.millis() + openMillis;
+    }
+
+    private void record(long latencyMs) {
+      latencies[next] = latencyMs;
+      next = (next + 1) % latencies.length;
+      recorded = Math.min(latencies.length, recorded + 1);
+    }
+
+    private double failureRate() {
+      if (recorded == 0) return 0d;
+      int failures = 0;
+      for (int i = 0; i < recorded; i++) {
+        if (latencies[i] < 0) failures++;
+      }
+      return (double) failures / recorded;
+    }
+
+    private long[] successfulLatencies() {
+      return Arrays.stream(latencies, 0, recorded).filter(latency -> latency >= 0).toArray();
+    }
+  }
+
+  private enum Permit {
+    DENIED,
+    NORMAL,
+    PROBE
+  }
+
+  private static long elapsedMillis(long startedAtNanos) {
+    return (System.nanoTime() - startedAtNanos) / 1_000_000L;
+  }
+
+  private static boolean isFailure(Throwable error) {
+    if (error instanceof WebClientResponseException response) {
+      int status = response.getStatusCode().value();
+      return status == 429 || status >= 500;
+    }
+    // Timeouts, connect/read errors and undecodable bodies.
+    return true;
+  }
+}
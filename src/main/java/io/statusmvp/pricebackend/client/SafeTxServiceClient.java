@@ -1,9 +1,12 @@
 package io.statusmvp.pricebackend.client;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import io.statusmvp.pricebackend.service.ProxyRelay;
 import java.net.URI;
 import java.time.Duration;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -12,6 +15,7 @@ import org.springframework.util.MultiValueMap;
 import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Component
@@ -22,7 +26,7 @@ public class SafeTxServiceClient {
   private final Duration timeout;
 
   public SafeTxServiceClient(
-      WebClient webClient,
+      @Qualifier("safeTxWebClient") WebClient webClient,
       @Value("${SAFE_TX_SERVICE_BASE_URL:https://api.safe.global/tx-service}") String baseUrl,
       @Value("${SAFE_TX_SERVICE_API_KEY:}") String apiKey,
       @Value("${SAFE_TX_SERVICE_TIMEOUT_MS:12000}") long timeoutMs) {
@@ -55,6 +59,10 @@ public class SafeTxServiceClient {
     return b.build(true).toUri();
   }
 
+  private static ResponseEntity<String> notConfiguredResponse() {
+    return ResponseEntity.status(503).body("{\"error\":\"SAFE_TX_SERVICE_BASE_URL not set\"}");
+  }
+
   private static MediaType responseContentType(ClientResponse resp) {
     return resp.headers().contentType().orElse(MediaType.APPLICATION_JSON);
   }
@@ -71,27 +79,86 @@ public class SafeTxServiceClient {
               if (retryAfter != null && !retryAfter.isBlank()) {
                 b.header(HttpHeaders.RETRY_AFTER, retryAfter.trim());
               }
+              // Validators, for conditional revalidation of cached responses.
+              String etag = resp.headers().asHttpHeaders().getETag();
+              if (etag != null && !etag.isBlank()) {
+                b.header(HttpHeaders.ETAG, etag);
+              }
+              String lastModified = resp.headers().asHttpHeaders().getFirst(HttpHeaders.LAST_MODIFIED);
+              if (lastModified != null && !lastModified.isBlank()) {
+                b.header(HttpHeaders.LAST_MODIFIED, lastModified.trim());
+              }
               return b.body(body);
             });
   }
 
   public Mono<ResponseEntity<String>> get(String chain, String path, MultiValueMap<String, String> query) {
+    return get(chain, path, query, null, null);
+  }
+
+  /**
+   * Conditional GET: sends {@code If-None-Match} / {@code If-Modified-Since} when given, in which
+   * case upstream may answer 304 with an empty body.
+   */
+  public Mono<ResponseEntity<String>> get(
+      String chain,
+      String path,
+      MultiValueMap<String, String> query,
+      String ifNoneMatch,
+      String ifModifiedSince) {
     if (baseUrl.isBlank()) {
-      return Mono.just(ResponseEntity.status(503).body("{\"error\":\"SAFE_TX_SERVICE_BASE_URL not set\"}"));
+      return Mono.just(notConfiguredResponse());
     }
 
     URI uri = buildUri(chain, path, query);
     return webClient
         .get()
         .uri(uri)
-        .headers(this::applyAuth)
+        .headers(
+            h -> {
+              applyAuth(h);
+              if (ifNoneMatch != null && !ifNoneMatch.isBlank()) {
+                h.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+              }
+              if (ifModifiedSince != null && !ifModifiedSince.isBlank()) {
+                h.set(HttpHeaders.IF_MODIFIED_SINCE, ifModifiedSince);
+              }
+            })
         .exchangeToMono(SafeTxServiceClient::toResponseEntity)
         .timeout(timeout);
   }
 
+  /** Relays a GET without buffering the body, for pass-through callers that do not inspect it. */
+  public Mono<ResponseEntity<Flux<DataBuffer>>> stream(
+      String chain, String path, MultiValueMap<String, String> query) {
+    if (baseUrl.isBlank()) {
+      return Mono.just(ProxyRelay.of(notConfiguredResponse()));
+    }
+    return ProxyRelay.relay(webClient.get().uri(buildUri(chain, path, query)).headers(this::applyAuth), timeout);
+  }
+
+  /** Relays a POST without buffering the response body. */
+  public Mono<ResponseEntity<Flux<DataBuffer>>> streamPost(
+      String chain, String path, MultiValueMap<String, String> query, JsonNode body) {
+    if (baseUrl.isBlank()) {
+      return Mono.just(ProxyRelay.of(notConfiguredResponse()));
+    }
+    return ProxyRelay.relay(
+        webClient
+            .post()
+            .uri(buildUri(chain, path, query))
+            .headers(
+                h -> {
+                  applyAuth(h);
+                  h.set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+                })
+            .bodyValue(body == null ? "{}" : body),
+        timeout);
+  }
+
   public Mono<ResponseEntity<String>> post(String chain, String path, MultiValueMap<String, String> query, JsonNode body) {
     if (baseUrl.isBlank()) {
-      return Mono.just(ResponseEntity.status(503).body("{\"error\":\"SAFE_TX_SERVICE_BASE_URL not set\"}"));
+      return Mono.just(notConfiguredResponse());
     }
 
     URI uri = buildUri(chain, path, query);
@@ -1,5 +1,6 @@
 package io.statusmvp.pricebackend.config;
 
+import io.statusmvp.pricebackend.service.PriceQuoteCache;
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
@@ -8,13 +9,11 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.reactive.CorsWebFilter;
 import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
-import org.springframework.web.reactive.function.client.ExchangeStrategies;
-import org.springframework.web.reactive.function.client.WebClient;
 
 @Configuration
 public class AppConfig {
@@ -25,18 +24,12 @@ public class AppConfig {
   }
 
   @Bean
-  public WebClient webClient() {
-    // Token catalogs can be a few MB, especially the Solana/Jupiter list.
-    ExchangeStrategies strategies =
-        ExchangeStrategies.builder()
-            .codecs(
-                c -> c.defaultCodecs().maxInMemorySize(8 * 1024 * 1024))
-            .build();
-
-    return WebClient.builder()
-        .exchangeStrategies(strategies)
-        .defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
-        .build();
+  public RedisMessageListenerContainer redisMessageListenerContainer(
+      RedisConnectionFactory cf, PriceQuoteCache priceQuoteCache) {
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(cf);
+    container.addMessageListener(priceQuoteCache, new ChannelTopic(PriceQuoteCache.INVALIDATION_CHANNEL));
+    return container;
   }
 
   @Bean
@@ -62,5 +55,3 @@ public class AppConfig {
     return new CorsWebFilter(source);
   }
 }
-
-
@@ -0,0 +1,175 @@
+package io.statusmvp.pricebackend.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Connection settings for the per-upstream {@code WebClient}s built in {@link WebClientConfig}.
+ *
+ * <p>{@code app.http.defaults} applies to every upstream; {@code app.http.upstreams.<name>} overrides
+ * individual fields for one of them (unset fields fall back to the defaults).
+ */
+@Component
+@ConfigurationProperties(prefix = "app.http")
+public class UpstreamHttpProperties {
+  private Pool defaults = Pool.builtInDefaults();
+  private Map<String, Pool> upstreams = new LinkedHashMap<>();
+  private long dnsCacheMaxTtlSeconds = 60L;
+  private long dnsCacheNegativeTtlSeconds = 5L;
+
+  public Pool getDefaults() {
+    return defaults;
+  }
+
+  public void setDefaults(Pool defaults) {
+    this.defaults = defaults;
+  }
+
+  public Map<String, Pool> getUpstreams() {
+    return upstreams;
+  }
+
+  public void setUpstreams(Map<String, Pool> upstreams) {
+    this.upstreams = upstreams;
+  }
+
+  public long getDnsCacheMaxTtlSeconds() {
+    return dnsCacheMaxTtlSeconds;
+  }
+
+  public void setDnsCacheMaxTtlSeconds(long dnsCacheMaxTtlSeconds) {
+    this.dnsCacheMaxTtlSeconds = dnsCacheMaxTtlSeconds;
+  }
+
+  public long getDnsCacheNegativeTtlSeconds() {
+    return dnsCacheNegativeTtlSeconds;
+  }
+
+  public void setDnsCacheNegativeTtlSeconds(long dnsCacheNegativeTtlSeconds) {
+    this.dnsCacheNegativeTtlSeconds = dnsCacheNegativeTtlSeconds;
+  }
+
+  /** Effective settings for {@code upstream}: its overrides on top of the defaults. */
+  public Pool resolve(String upstream) {
+    Pool base = Pool.builtInDefaults().overriddenBy(defaults);
+    return base.overriddenBy(upstreams.get(upstream));
+  }
+
+  public static class Pool {
+    private Integer maxConnections;
+    private Integer pendingAcquireMaxCount;
+    private Long pendingAcquireTimeoutMs;
+    private Long maxIdleTimeMs;
+    private Long maxLifeTimeMs;
+    private Long evictInBackgroundMs;
+    private Integer connectTimeoutMs;
+    private Boolean http2;
+    private Boolean compress;
+
+    static Pool builtInDefaults() {
+      Pool pool = new Pool();
+      pool.maxConnections = 50;
+      pool.pendingAcquireMaxCount = 500;
+      pool.pendingAcquireTimeoutMs = 5_000L;
+      pool.maxIdleTimeMs = 30_000L;
+      pool.maxLifeTimeMs = 300_000L;
+      pool.evictInBackgroundMs = 30_000L;
+      pool.connectTimeoutMs = 5_000;
+      pool.http2 = true;
+      pool.compress = true;
+      return pool;
+    }
+
+    Pool overriddenBy(Pool other) {
+      if (other == null) return this;
+      Pool out = new Pool();
+      out.maxConnections = other.maxConnections != null ? other.maxConnections : maxConnections;
+      out.pendingAcquireMaxCount =
+          other.pendingAcquireMaxCount != null ? other.pendingAcquireMaxCount : pendingAcquireMaxCount;
+      out.pendingAcquireTimeoutMs =
+          other.pendingAcquireTimeoutMs != null ? other.pendingAcquireTimeoutMs : pendingAcquireTimeoutMs;
+      out.maxIdleTimeMs = other.maxIdleTimeMs != null ? other.maxIdleTimeMs : maxIdleTimeMs;
+      out.maxLifeTimeMs = other.maxLifeTimeMs != null ? other.maxLifeTimeMs : maxLifeTimeMs;
+      out.evictInBackgroundMs =
+          other.evictInBackgroundMs != null ? other.evictInBackgroundMs : evictInBackgroundMs;
+      out.connectTimeoutMs = other.connectTimeoutMs != null ? other.connectTimeoutMs : connectTimeoutMs;
+      out.http2 = other.http2 != null ? other.http2 : http2;
+      out.compress = other.compress != null ? other.compress : compress;
+      return out;
+    }
+
+    public Integer getMaxConnections() {
+      return maxConnections;
+    }
+
+    public void setMaxConnections(Integer maxConnections) {
+      this.maxConnections = maxConnections;
+    }
+
+    public Integer getPendingAcquireMaxCount() {
+      return pendingAcquireMaxCount;
+    }
+
+    public void setPendingAcquireMaxCount(Integer pendingAcquireMaxCount) {
+      this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+    }
+
+    public Long getPendingAcquireTimeoutMs() {
+      return pendingAcquireTimeoutMs;
+    }
+
+    public void setPendingAcquireTimeoutMs(Long pendingAcquireTimeoutMs) {
+      this.pendingAcquireTimeoutMs = pendingAcquireTimeoutMs;
+    }
+
+    public Long getMaxIdleTimeMs() {
+      return maxIdleTimeMs;
+    }
+
+    public void setMaxIdleTimeMs(Long maxIdleTimeMs) {
+      this.maxIdleTimeMs = maxIdleTimeMs;
+    }
+
+    public Long getMaxLifeTimeMs() {
+      return maxLifeTimeMs;
+    }
+
+    public void setMaxLifeTimeMs(Long maxLifeTimeMs) {
+      this.maxLifeTimeMs = maxLifeTimeMs;
+    }
+
+    public Long getEvictInBackgroundMs() {
+      return evictInBackgroundMs;
+    }
+
+    public void setEvictInBackgroundMs(Long evictInBackgroundMs) {
+      this.evictInBackgroundMs = evictInBackgroundMs;
+    }
+
+    public Integer getConnectTimeoutMs() {
+      return connectTimeoutMs;
+    }
+
+    public void setConnectTimeoutMs(Integer connectTimeoutMs) {
+      this.connectTimeoutMs = connectTimeoutMs;
+    }
+
+    public Boolean getHttp2() {
+      return http2;
+    }
+
+    public void setHttp2(Boolean http2) {
+      this.http2 = http2;
+    }
+
+    public Boolean getCompress() {
+      return compress;
+    }
+
+    public void setCompress(Boolean compress) {
+      this.compress = compress;
+    }
+  }
+}
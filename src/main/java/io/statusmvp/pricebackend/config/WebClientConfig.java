@@ -0,0 +1,158 @@
+package io.statusmvp.pricebackend.config;
+
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * One {@link WebClient} per upstream, each on its own connection pool, so a slow or stalled upstream
+ * can only exhaust its own connections and pending-acquire queue. Pools are sized and evicted per
+ * {@link UpstreamHttpProperties} and publish Reactor Netty's Micrometer pool gauges ({@code
+ * reactor.netty.connection.provider.*}, tagged {@code name=upstream-<name>}). Every client negotiates
+ * gzip, offers HTTP/2 over TLS via ALPN (falling back to HTTP/1.1) and resolves hosts through Netty's
+ * caching DNS resolver instead of the blocking JDK lookup.
+ *
+ * <p>The unqualified {@code webClient} is the shared client for one-off upstreams (auth providers,
+ * token lists, update manifests).
+ */
+@Configuration
+public class WebClientConfig {
+  private static final Logger log = LoggerFactory.getLogger(WebClientConfig.class);
+  // Token catalogs can be a few MB, especially the Solana/Jupiter list.
+  private static final int MAX_IN_MEMORY_SIZE = 8 * 1024 * 1024;
+
+  private final UpstreamHttpProperties properties;
+  private final List<ConnectionProvider> providers = new CopyOnWriteArrayList<>();
+
+  public WebClientConfig(UpstreamHttpProperties properties) {
+    this.properties = properties;
+  }
+
+  @Bean
+  @Primary
+  public WebClient webClient() {
+    return build("default");
+  }
+
+  @Bean
+  public WebClient coinGeckoWebClient() {
+    return build("coingecko");
+  }
+
+  @Bean
+  public WebClient coinMarketCapWebClient() {
+    return build("coinmarketcap");
+  }
+
+  @Bean
+  public WebClient binanceWebClient() {
+    return build("binance");
+  }
+
+  @Bean
+  public WebClient dexScreenerWebClient() {
+    return build("dexscreener");
+  }
+
+  @Bean
+  public WebClient ankrWebClient() {
+    return build("ankr");
+  }
+
+  @Bean
+  public WebClient safeTxWebClient() {
+    return build("safe");
+  }
+
+  @Bean
+  public WebClient openOceanWebClient() {
+    return build("openocean");
+  }
+
+  @Bean
+  public WebClient uniswapWebClient() {
+    return build("uniswap");
+  }
+
+  @Bean
+  public WebClient jupiterWebClient() {
+    return build("jupiter");
+  }
+
+  @Bean
+  public WebClient relayWebClient() {
+    return build("relay");
+  }
+
+  @Bean
+  public WebClient acrossWebClient() {
+    return build("across");
+  }
+
+  @PreDestroy
+  public void disposePools() {
+    providers.forEach(ConnectionProvider::dispose);
+  }
+
+  private WebClient build(String upstream) {
+    UpstreamHttpProperties.Pool pool = properties.resolve(upstream);
+    ConnectionProvider provider =
+        ConnectionProvider.builder("upstream-" + upstream)
+            .maxConnections(Math.max(1, pool.getMaxConnections()))
+            .pendingAcquireMaxCount(Math.max(1, pool.getPendingAcquireMaxCount()))
+            .pendingAcquireTimeout(Duration.ofMillis(Math.max(100L, pool.getPendingAcquireTimeoutMs())))
+            .maxIdleTime(Duration.ofMillis(Math.max(1000L, pool.getMaxIdleTimeMs())))
+            .maxLifeTime(Duration.ofMillis(Math.max(1000L, pool.getMaxLifeTimeMs())))
+            .evictInBackground(Duration.ofMillis(Math.max(1000L, pool.getEvictInBackgroundMs())))
+            .metrics(true)
+            .build();
+    providers.add(provider);
+
+    HttpClient httpClient =
+        HttpClient.create(provider)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Math.max(100, pool.getConnectTimeoutMs()))
+            .compress(Boolean.TRUE.equals(pool.getCompress()))
+            .protocol(
+                Boolean.TRUE.equals(pool.getHttp2())
+                    ? new HttpProtocol[] {HttpProtocol.H2, HttpProtocol.HTTP11}
+                    : new HttpProtocol[] {HttpProtocol.HTTP11})
+            .resolver(
+                spec ->
+                    spec.cacheMaxTimeToLive(Duration.ofSeconds(Math.max(1L, properties.getDnsCacheMaxTtlSeconds())))
+                        .cacheNegativeTimeToLive(
+                            Duration.ofSeconds(Math.max(0L, properties.getDnsCacheNegativeTtlSeconds()))));
+
+    ExchangeStrategies strategies =
+        ExchangeStrategies.builder()
+            .codecs(c -> c.defaultCodecs().maxInMemorySize(MAX_IN_MEMORY_SIZE))
+            .build();
+
+    log.info(
+        "upstream http client initialized: upstream={}, maxConnections={}, pendingAcquireMaxCount={}, http2={}, compress={}",
+        upstream,
+        pool.getMaxConnections(),
+        pool.getPendingAcquireMaxCount(),
+        pool.getHttp2(),
+        pool.getCompress());
+    return WebClient.builder()
+        .clientConnector(new ReactorClientHttpConnector(httpClient))
+        .exchangeStrategies(strategies)
+        .defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+        .build();
+  }
+}
@@ -2,12 +2,14 @@ package io.statusmvp.pricebackend.controller;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import io.statusmvp.pricebackend.service.AnkrIndexerProxyService;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RestController
@@ -20,7 +22,7 @@ public class AnkrIndexerProxyController {
   }
 
   @PostMapping("/ankr")
-  public Mono<ResponseEntity<String>> proxyAnkr(@RequestBody(required = false) JsonNode body) {
+  public Mono<ResponseEntity<Flux<DataBuffer>>> proxyAnkr(@RequestBody(required = false) JsonNode body) {
     return proxyService.proxy(body);
   }
 }
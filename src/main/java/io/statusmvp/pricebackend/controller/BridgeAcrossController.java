@@ -8,6 +8,7 @@ import io.statusmvp.pricebackend.service.AcrossBridgeDirectoryService;
 import io.statusmvp.pricebackend.service.AcrossSwapProxyService;
 import java.util.Locale;
 import java.util.Set;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +19,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
@@ -124,28 +126,28 @@ public class BridgeAcrossController {
   }
 
   @PostMapping("/swap/approval")
-  public Mono<ResponseEntity<String>> swapApproval(@RequestBody(required = false) JsonNode body) {
+  public Mono<ResponseEntity<Flux<DataBuffer>>> swapApproval(@RequestBody(required = false) JsonNode body) {
     return swap.swapApproval(sanitizeSwapApprovalBody(body));
   }
 
   @GetMapping("/swap/chains")
-  public Mono<ResponseEntity<String>> swapChains() {
+  public Mono<ResponseEntity<Flux<DataBuffer>>> swapChains() {
     return swap.swapChains();
   }
 
   @GetMapping("/swap/tokens")
-  public Mono<ResponseEntity<String>> swapTokens() {
+  public Mono<ResponseEntity<Flux<DataBuffer>>> swapTokens() {
     return swap.swapTokens();
   }
 
   @GetMapping("/swap/sources")
-  public Mono<ResponseEntity<String>> swapSources(
+  public Mono<ResponseEntity<Flux<DataBuffer>>> swapSources(
       @RequestParam(value = "chainId", required = false) Integer chainId) {
     return swap.swapSources(chainId);
   }
 
   @GetMapping("/deposit/status")
-  public Mono<ResponseEntity<String>> depositStatus(@RequestParam("depositTxnRef") String depositTxnRef) {
+  public Mono<ResponseEntity<Flux<DataBuffer>>> depositStatus(@RequestParam("depositTxnRef") String depositTxnRef) {
     String normalized = depositTxnRef == null ? "" : depositTxnRef.trim();
     if (normalized.isBlank()) {
       throw badRequest("Missing query param: depositTxnRef");
@@ -2,12 +2,15 @@ package io.statusmvp.pricebackend.controller;
 
 import io.statusmvp.pricebackend.model.CandleResponse;
 import io.statusmvp.pricebackend.service.CandleAggregatorService;
+import io.statusmvp.pricebackend.service.CandleStreamService;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
@@ -16,9 +19,11 @@ import reactor.core.scheduler.Schedulers;
 @Validated
 public class CandlesController {
   private final CandleAggregatorService candles;
+  private final CandleStreamService candleStream;
 
-  public CandlesController(CandleAggregatorService candles) {
+  public CandlesController(CandleAggregatorService candles, CandleStreamService candleStream) {
     this.candles = candles;
+    this.candleStream = candleStream;
   }
 
   @GetMapping("/candles")
@@ -32,4 +37,18 @@ public class CandlesController {
             () -> candles.getCandles(chainId, contractAddress, symbol, interval, limit))
         .subscribeOn(Schedulers.boundedElastic());
   }
+
+  /**
+   * Live chart feed: one {@code snapshot} event with the same payload as {@code /candles}, then a
+   * {@code candle} event whenever the current (or just-closed) candle changes.
+   */
+  @GetMapping(path = "/candles/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public Flux<ServerSentEvent<Object>> streamCandles(
+      @RequestParam(value = "chainId", required = false) Integer chainId,
+      @RequestParam(value = "contractAddress", required = false) String contractAddress,
+      @RequestParam(value = "symbol", required = false) String symbol,
+      @RequestParam(value = "interval", required = false, defaultValue = "1h") String interval,
+      @RequestParam(value = "limit", required = false, defaultValue = "160") int limit) {
+    return candleStream.stream(chainId, contractAddress, symbol, interval, limit);
+  }
 }
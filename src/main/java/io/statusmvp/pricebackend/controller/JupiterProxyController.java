@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import io.statusmvp.pricebackend.service.JupiterProxyService;
 import jakarta.validation.constraints.NotBlank;
 import java.util.Set;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -14,6 +15,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.server.ResponseStatusException;
@@ -76,7 +78,7 @@ public class JupiterProxyController {
   }
 
   @GetMapping("/quote")
-  public Mono<ResponseEntity<String>> quote(
+  public Mono<ResponseEntity<Flux<DataBuffer>>> quote(
       @RequestParam(required = false) MultiValueMap<String, String> query, ServerWebExchange exchange) {
     MultiValueMap<String, String> q = filterQuery(query);
     requireParam(q, "inputMint");
@@ -86,7 +88,7 @@ public class JupiterProxyController {
   }
 
   @PostMapping("/swap")
-  public Mono<ResponseEntity<String>> swap(
+  public Mono<ResponseEntity<Flux<DataBuffer>>> swap(
       @RequestBody(required = false) JsonNode body, ServerWebExchange exchange) {
     return jupiter.swap(body, resolveClientIp(exchange));
   }
@@ -4,6 +4,7 @@ import io.statusmvp.pricebackend.auth.AuthUtils;
 import io.statusmvp.pricebackend.service.OpenOceanProxyService;
 import jakarta.validation.constraints.NotBlank;
 import java.util.Set;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -17,6 +18,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RestController
@@ -100,7 +102,7 @@ public class OpenOceanProxyController {
   }
 
   @GetMapping("/{chainId}/quote")
-  public Mono<ResponseEntity<String>> quote(
+  public Mono<ResponseEntity<Flux<DataBuffer>>> quote(
       @PathVariable("chainId") int chainId,
       @RequestParam(required = false) MultiValueMap<String, String> query,
       ServerWebExchange exchange) {
@@ -108,7 +110,7 @@ public class OpenOceanProxyController {
   }
 
   @GetMapping("/{chainId}/swap_quote")
-  public Mono<ResponseEntity<String>> swapQuote(
+  public Mono<ResponseEntity<Flux<DataBuffer>>> swapQuote(
       @PathVariable("chainId") int chainId,
       @RequestParam(required = false) MultiValueMap<String, String> query,
       ServerWebExchange exchange) {
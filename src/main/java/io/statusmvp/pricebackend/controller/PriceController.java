@@ -12,7 +12,6 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 @RestController
 @RequestMapping(path = "/api/v1", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -33,8 +32,7 @@ public class PriceController {
             .map(String::trim)
             .filter(s -> !s.isBlank())
             .toList();
-    return Mono.fromCallable(() -> prices.getPrices(list, currency))
-        .subscribeOn(Schedulers.boundedElastic());
+    return prices.fetchPrices(list, currency);
   }
 
   @GetMapping("/prices/by-contract")
@@ -47,8 +45,7 @@ public class PriceController {
             .map(String::trim)
             .filter(s -> !s.isBlank())
             .toList();
-    return Mono.fromCallable(() -> prices.getPricesByContract(chainId, list, currency))
-        .subscribeOn(Schedulers.boundedElastic());
+    return prices.fetchPricesByContract(chainId, list, currency);
   }
 }
 
@@ -7,6 +7,7 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.statusmvp.pricebackend.service.RelayProxyService;
 import java.util.Locale;
 import java.util.Set;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +19,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RestController
@@ -174,18 +176,18 @@ public class RelayProxyController {
   }
 
   @PostMapping("/quote")
-  public Mono<ResponseEntity<String>> quote(@RequestBody(required = false) JsonNode body) {
+  public Mono<ResponseEntity<Flux<DataBuffer>>> quote(@RequestBody(required = false) JsonNode body) {
     return relay.quote(sanitizeQuoteBody(body));
   }
 
   @PostMapping("/quote/multi-input")
-  public Mono<ResponseEntity<String>> quoteMultiInput(
+  public Mono<ResponseEntity<Flux<DataBuffer>>> quoteMultiInput(
       @RequestBody(required = false) JsonNode body) {
     return relay.quoteMultiInput(sanitizeMultiInputBody(body));
   }
 
   @GetMapping("/intents/status")
-  public Mono<ResponseEntity<String>> intentStatus(@RequestParam("requestId") String requestId) {
+  public Mono<ResponseEntity<Flux<DataBuffer>>> intentStatus(@RequestParam("requestId") String requestId) {
     String normalized = requestId == null ? "" : requestId.trim();
     if (normalized.isBlank()) {
       throw badRequest("Missing query param: requestId");
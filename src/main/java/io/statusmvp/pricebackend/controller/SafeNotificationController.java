@@ -38,6 +38,13 @@ public class SafeNotificationController {
     return notificationService.pull(request, fallbackDeviceUuid);
   }
 
+  @PostMapping("/ack")
+  public Mono<SafeNotificationDtos.AckResponse> ack(
+      @Valid @RequestBody SafeNotificationDtos.AckRequest request,
+      @RequestHeader(value = "X-Device-Id", required = false) String fallbackDeviceUuid) {
+    return notificationService.ack(request, fallbackDeviceUuid);
+  }
+
   @PostMapping("/subscriptions/delete-all")
   public Mono<SafeNotificationDtos.ClearSubscriptionsResponse> clearSubscriptions(
       @RequestHeader(value = "X-Device-Id", required = false) String fallbackDeviceUuid) {
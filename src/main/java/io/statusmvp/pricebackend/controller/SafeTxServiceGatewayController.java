@@ -1,6 +1,8 @@
 package io.statusmvp.pricebackend.controller;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import io.statusmvp.pricebackend.service.SafeCollaborationService;
+import io.statusmvp.pricebackend.service.SafePollScheduler;
 import io.statusmvp.pricebackend.service.SafeTxServiceGatewayService;
 import jakarta.validation.constraints.NotBlank;
 import java.util.Set;
@@ -20,6 +22,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 @RestController
 @RequestMapping(path = "/api/v1/safe/tx-service-gateway", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -41,9 +44,12 @@ public class SafeTxServiceGatewayController {
       new SafeTxServiceGatewayService.CachePolicy(10, 120, 2);
 
   private final SafeTxServiceGatewayService gateway;
+  private final SafePollScheduler pollScheduler;
 
-  public SafeTxServiceGatewayController(SafeTxServiceGatewayService gateway) {
+  public SafeTxServiceGatewayController(
+      SafeTxServiceGatewayService gateway, SafePollScheduler pollScheduler) {
     this.gateway = gateway;
+    this.pollScheduler = pollScheduler;
   }
 
   private static String normalizeChain(String chain) {
@@ -220,13 +226,25 @@ public class SafeTxServiceGatewayController {
       ServerWebExchange exchange) {
     if (deviceId == null || deviceId.isBlank()) return missingDeviceId();
     String c = normalizeChain(chain);
-    return gateway.post(
-        c,
-        "/api/v2/safes/" + address + "/multisig-transactions/",
-        null,
-        body,
-        resolveClientIp(exchange),
-        deviceId);
+    return gateway
+        .post(
+            c,
+            "/api/v2/safes/" + address + "/multisig-transactions/",
+            null,
+            body,
+            resolveClientIp(exchange),
+            deviceId)
+        .flatMap(
+            response -> {
+              if (!response.getStatusCode().is2xxSuccessful()) return Mono.just(response);
+              // A new proposal: subscribed co-signers should hear about it now, not after the
+              // Safe's idle backoff runs out.
+              String safeId = SafeCollaborationService.safeKeyForChainCode(c, address);
+              return Mono.fromRunnable(() -> pollScheduler.wake(safeId))
+                  .subscribeOn(Schedulers.boundedElastic())
+                  .onErrorResume(e -> Mono.empty())
+                  .thenReturn(response);
+            });
   }
 
   @PostMapping({"/{chain}/api/v1/multisig-transactions/{safeTxHash}/confirmations", "/{chain}/api/v1/multisig-transactions/{safeTxHash}/confirmations/"})
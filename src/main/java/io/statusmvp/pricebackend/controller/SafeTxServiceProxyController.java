@@ -2,10 +2,12 @@ package io.statusmvp.pricebackend.controller;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import io.statusmvp.pricebackend.client.SafeTxServiceClient;
+import io.statusmvp.pricebackend.service.ProxyRelay;
 import jakarta.validation.constraints.NotBlank;
 import java.util.Set;
 import java.util.function.Supplier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -20,6 +22,7 @@ import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RestController
@@ -48,29 +51,30 @@ public class SafeTxServiceProxyController {
     return c;
   }
 
-  private Mono<ResponseEntity<String>> whenEnabled(Supplier<Mono<ResponseEntity<String>>> action) {
+  private Mono<ResponseEntity<Flux<DataBuffer>>> whenEnabled(Supplier<Mono<ResponseEntity<Flux<DataBuffer>>>> action) {
     if (!proxyEnabled) {
       return Mono.just(
-          ResponseEntity.status(HttpStatus.GONE)
-              .contentType(MediaType.APPLICATION_JSON)
-              .body(DISABLED_BODY));
+          ProxyRelay.of(
+              ResponseEntity.status(HttpStatus.GONE)
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .body(DISABLED_BODY)));
     }
     return action.get();
   }
 
   @GetMapping("/{chain}/safes/{address}")
-  public Mono<ResponseEntity<String>> getSafeInfo(
+  public Mono<ResponseEntity<Flux<DataBuffer>>> getSafeInfo(
       @PathVariable("chain") String chain,
       @PathVariable("address") @NotBlank String address) {
     return whenEnabled(
         () -> {
           String c = normalizeChain(chain);
-          return safeTxService.get(c, "/api/v1/safes/" + address + "/", null);
+          return safeTxService.stream(c, "/api/v1/safes/" + address + "/", null);
         });
   }
 
   @GetMapping("/{chain}/safes/{address}/multisig-transactions")
-  public Mono<ResponseEntity<String>> listMultisigTransactions(
+  public Mono<ResponseEntity<Flux<DataBuffer>>> listMultisigTransactions(
       @PathVariable("chain") String chain,
       @PathVariable("address") @NotBlank String address,
       @RequestParam(value = "executed", required = false) Boolean executed,
@@ -85,12 +89,12 @@ public class SafeTxServiceProxyController {
           if (ordering != null && !ordering.isBlank()) q.add("ordering", ordering);
           if (limit != null) q.add("limit", String.valueOf(limit));
           if (offset != null) q.add("offset", String.valueOf(offset));
-          return safeTxService.get(c, "/api/v2/safes/" + address + "/multisig-transactions/", q);
+          return safeTxService.stream(c, "/api/v2/safes/" + address + "/multisig-transactions/", q);
         });
   }
 
   @GetMapping("/{chain}/safes/{address}/all-transactions")
-  public Mono<ResponseEntity<String>> listAllTransactions(
+  public Mono<ResponseEntity<Flux<DataBuffer>>> listAllTransactions(
       @PathVariable("chain") String chain,
       @PathVariable("address") @NotBlank String address,
       @RequestParam(value = "ordering", required = false) String ordering,
@@ -103,12 +107,12 @@ public class SafeTxServiceProxyController {
           if (ordering != null && !ordering.isBlank()) q.add("ordering", ordering);
           if (limit != null) q.add("limit", String.valueOf(limit));
           if (offset != null) q.add("offset", String.valueOf(offset));
-          return safeTxService.get(c, "/api/v1/safes/" + address + "/all-transactions/", q);
+          return safeTxService.stream(c, "/api/v1/safes/" + address + "/all-transactions/", q);
         });
   }
 
   @GetMapping("/{chain}/safes/{address}/incoming-transfers")
-  public Mono<ResponseEntity<String>> listIncomingTransfers(
+  public Mono<ResponseEntity<Flux<DataBuffer>>> listIncomingTransfers(
       @PathVariable("chain") String chain,
       @PathVariable("address") @NotBlank String address,
       @RequestParam(value = "ordering", required = false) String ordering,
@@ -121,12 +125,12 @@ public class SafeTxServiceProxyController {
           if (ordering != null && !ordering.isBlank()) q.add("ordering", ordering);
           if (limit != null) q.add("limit", String.valueOf(limit));
           if (offset != null) q.add("offset", String.valueOf(offset));
-          return safeTxService.get(c, "/api/v1/safes/" + address + "/incoming-transfers/", q);
+          return safeTxService.stream(c, "/api/v1/safes/" + address + "/incoming-transfers/", q);
         });
   }
 
   @GetMapping("/{chain}/safes/{address}/module-transactions")
-  public Mono<ResponseEntity<String>> listModuleTransactions(
+  public Mono<ResponseEntity<Flux<DataBuffer>>> listModuleTransactions(
       @PathVariable("chain") String chain,
       @PathVariable("address") @NotBlank String address,
       @RequestParam(value = "ordering", required = false) String ordering,
@@ -139,23 +143,23 @@ public class SafeTxServiceProxyController {
           if (ordering != null && !ordering.isBlank()) q.add("ordering", ordering);
           if (limit != null) q.add("limit", String.valueOf(limit));
           if (offset != null) q.add("offset", String.valueOf(offset));
-          return safeTxService.get(c, "/api/v1/safes/" + address + "/module-transactions/", q);
+          return safeTxService.stream(c, "/api/v1/safes/" + address + "/module-transactions/", q);
         });
   }
 
   @GetMapping("/{chain}/multisig-transactions/{safeTxHash}")
-  public Mono<ResponseEntity<String>> getMultisigTransaction(
+  public Mono<ResponseEntity<Flux<DataBuffer>>> getMultisigTransaction(
       @PathVariable("chain") String chain,
       @PathVariable("safeTxHash") @NotBlank String safeTxHash) {
     return whenEnabled(
         () -> {
           String c = normalizeChain(chain);
-          return safeTxService.get(c, "/api/v2/multisig-transactions/" + safeTxHash + "/", null);
+          return safeTxService.stream(c, "/api/v2/multisig-transactions/" + safeTxHash + "/", null);
         });
   }
 
   @GetMapping("/{chain}/multisig-transactions/{safeTxHash}/confirmations")
-  public Mono<ResponseEntity<String>> listConfirmations(
+  public Mono<ResponseEntity<Flux<DataBuffer>>> listConfirmations(
       @PathVariable("chain") String chain,
       @PathVariable("safeTxHash") @NotBlank String safeTxHash,
       @RequestParam(value = "limit", required = false) Integer limit,
@@ -166,31 +170,31 @@ public class SafeTxServiceProxyController {
           MultiValueMap<String, String> q = new LinkedMultiValueMap<>();
           if (limit != null) q.add("limit", String.valueOf(limit));
           if (offset != null) q.add("offset", String.valueOf(offset));
-          return safeTxService.get(c, "/api/v1/multisig-transactions/" + safeTxHash + "/confirmations/", q);
+          return safeTxService.stream(c, "/api/v1/multisig-transactions/" + safeTxHash + "/confirmations/", q);
         });
   }
 
   @PostMapping("/{chain}/safes/{address}/multisig-transactions")
-  public Mono<ResponseEntity<String>> proposeMultisigTransaction(
+  public Mono<ResponseEntity<Flux<DataBuffer>>> proposeMultisigTransaction(
       @PathVariable("chain") String chain,
       @PathVariable("address") @NotBlank String address,
       @RequestBody(required = false) JsonNode body) {
     return whenEnabled(
         () -> {
           String c = normalizeChain(chain);
-          return safeTxService.post(c, "/api/v2/safes/" + address + "/multisig-transactions/", null, body);
+          return safeTxService.streamPost(c, "/api/v2/safes/" + address + "/multisig-transactions/", null, body);
         });
   }
 
   @PostMapping("/{chain}/multisig-transactions/{safeTxHash}/confirmations")
-  public Mono<ResponseEntity<String>> confirmMultisigTransaction(
+  public Mono<ResponseEntity<Flux<DataBuffer>>> confirmMultisigTransaction(
       @PathVariable("chain") String chain,
       @PathVariable("safeTxHash") @NotBlank String safeTxHash,
       @RequestBody(required = false) JsonNode body) {
     return whenEnabled(
         () -> {
           String c = normalizeChain(chain);
-          return safeTxService.post(
+          return safeTxService.streamPost(
               c, "/api/v1/multisig-transactions/" + safeTxHash + "/confirmations/", null, body);
         });
   }
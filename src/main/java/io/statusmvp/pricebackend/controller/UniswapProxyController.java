@@ -11,6 +11,7 @@ import java.util.Locale;
 import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -21,6 +22,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RestController
@@ -232,7 +234,7 @@ public class UniswapProxyController {
   }
 
   @PostMapping("/check_approval")
-  public Mono<ResponseEntity<String>> checkApproval(
+  public Mono<ResponseEntity<Flux<DataBuffer>>> checkApproval(
       @RequestBody(required = false) JsonNode body, ServerWebExchange exchange) {
     String clientIp = resolveClientIp(exchange);
     ObjectNode request = sanitizeCheckApprovalBody(body);
@@ -248,7 +250,7 @@ public class UniswapProxyController {
   }
 
   @PostMapping("/quote")
-  public Mono<ResponseEntity<String>> quote(
+  public Mono<ResponseEntity<Flux<DataBuffer>>> quote(
       @RequestBody(required = false) JsonNode body, ServerWebExchange exchange) {
     String clientIp = resolveClientIp(exchange);
     ObjectNode request = sanitizeQuoteBody(body);
@@ -266,7 +268,7 @@ public class UniswapProxyController {
   }
 
   @PostMapping("/swap")
-  public Mono<ResponseEntity<String>> swap(
+  public Mono<ResponseEntity<Flux<DataBuffer>>> swap(
       @RequestBody(required = false) JsonNode body, ServerWebExchange exchange) {
     String clientIp = resolveClientIp(exchange);
     ObjectNode request = sanitizeSwapBody(body);
@@ -9,6 +9,8 @@ import jakarta.validation.constraints.Pattern;
 import java.util.List;
 
 public final class SafeNotificationDtos {
+  private static final String INBOX_CURSOR_REGEX = "^\\d{1,19}-\\d{1,19}$";
+
   private SafeNotificationDtos() {}
 
   public record SafeSubscription(
@@ -27,7 +29,15 @@ public final class SafeNotificationDtos {
   public record RegisterResponse(
       String deviceUuid, String transport, String registeredAt, int subscriptionCount) {}
 
-  public record PullRequest(String deviceUuid, @Min(1) @Max(100) Integer limit) {}
+  /**
+   * {@code cursor} is the {@code nextCursor} of the previous pull; everything up to it is
+   * acknowledged. {@code waitSeconds} holds the request open until a notification arrives.
+   */
+  public record PullRequest(
+      String deviceUuid,
+      @Min(1) @Max(100) Integer limit,
+      @Pattern(regexp = INBOX_CURSOR_REGEX) String cursor,
+      @Min(0) @Max(60) Integer waitSeconds) {}
 
   public record NotificationItem(
       String id,
@@ -42,7 +52,15 @@ public final class SafeNotificationDtos {
       String createdAt) {}
 
   public record PullResponse(
-      String deviceUuid, String transport, String pulledAt, List<NotificationItem> items) {}
+      String deviceUuid,
+      String transport,
+      String pulledAt,
+      List<NotificationItem> items,
+      String nextCursor) {}
+
+  public record AckRequest(String deviceUuid, @NotBlank @Pattern(regexp = INBOX_CURSOR_REGEX) String cursor) {}
+
+  public record AckResponse(String deviceUuid, String cursor, long acknowledgedCount) {}
 
   public record ClearSubscriptionsResponse(String deviceUuid, int removedCount) {}
 
@@ -19,6 +19,7 @@ import java.util.Optional;
 import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -117,7 +118,7 @@ public class AcrossBridgeDirectoryService {
   private final Set<String> allowedTokenSymbolsSet;
 
   public AcrossBridgeDirectoryService(
-      WebClient webClient,
+      @Qualifier("acrossWebClient") WebClient webClient,
       RedisCache cache,
       @Value("${app.bridge.across.apiBaseUrl:https://app.across.to/api}") String apiBaseUrl,
       @Value("${app.bridge.across.apiKey:}") String apiKey,
@@ -6,14 +6,16 @@ import java.time.Duration;
 import java.util.concurrent.TimeoutException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Service
@@ -28,7 +30,7 @@ public class AcrossSwapProxyService {
   private final Duration timeout;
 
   public AcrossSwapProxyService(
-      WebClient webClient,
+      @Qualifier("acrossWebClient") WebClient webClient,
       @Value("${app.bridge.across.apiBaseUrl:https://app.across.to/api}") String apiBaseUrl,
       @Value("${app.bridge.across.apiKey:}") String apiKey,
       @Value("${app.bridge.across.integratorId:}") String integratorId,
@@ -61,10 +63,6 @@ public class AcrossSwapProxyService {
     return !text(body, fieldName).isBlank();
   }
 
-  private static MediaType responseContentType(ClientResponse response) {
-    return response.headers().contentType().orElse(DEFAULT_CONTENT_TYPE);
-  }
-
   private static String truncateForLog(String value) {
     if (value == null) return "";
     String trimmed = value.trim();
@@ -72,26 +70,6 @@ public class AcrossSwapProxyService {
     return trimmed.substring(0, 400) + "...";
   }
 
-  private static Mono<ResponseEntity<String>> toResponseEntity(
-      String operation, ClientResponse response) {
-    return response
-        .bodyToMono(String.class)
-        .defaultIfEmpty("")
-        .map(
-            body -> {
-              if (!response.statusCode().is2xxSuccessful()) {
-                log.warn(
-                    "[across-swap-proxy] upstream {} returned {} body={}",
-                    operation,
-                    response.statusCode().value(),
-                    truncateForLog(body));
-              }
-              return ResponseEntity.status(response.statusCode())
-                  .contentType(responseContentType(response))
-                  .body(body);
-            });
-  }
-
   private static ResponseEntity<String> jsonErrorResponse(int status, String error, String detail) {
     StringBuilder body = new StringBuilder();
     body.append("{\"error\":\"").append(error).append("\"");
@@ -104,7 +82,7 @@ public class AcrossSwapProxyService {
     return ResponseEntity.status(status).contentType(DEFAULT_CONTENT_TYPE).body(body.toString());
   }
 
-  private Mono<ResponseEntity<String>> rejectIfUnconfigured(String operation) {
+  private Mono<ResponseEntity<Flux<DataBuffer>>> rejectIfUnconfigured(String operation) {
     if (!apiBaseUrl.isBlank() && !apiKey.isBlank() && !integratorId.isBlank()) {
       return null;
     }
@@ -115,26 +93,33 @@ public class AcrossSwapProxyService {
         !apiKey.isBlank(),
         !integratorId.isBlank());
     return Mono.just(
-        jsonErrorResponse(
-            503,
-            "ACROSS_SWAP_API_NOT_CONFIGURED",
-            "Across API key and integrator id are required"));
+        ProxyRelay.of(
+            jsonErrorResponse(
+                503,
+                "ACROSS_SWAP_API_NOT_CONFIGURED",
+                "Across API key and integrator id are required")));
   }
 
-  private Mono<ResponseEntity<String>> get(URI uri, String operation) {
-    Mono<ResponseEntity<String>> rejected = rejectIfUnconfigured(operation);
+  private Mono<ResponseEntity<Flux<DataBuffer>>> get(URI uri, String operation) {
+    Mono<ResponseEntity<Flux<DataBuffer>>> rejected = rejectIfUnconfigured(operation);
     if (rejected != null) return rejected;
 
-    return webClient
-        .get()
-        .uri(uri)
-        .headers(
-            headers -> {
-              headers.setBearerAuth(apiKey);
-              headers.set(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
-            })
-        .exchangeToMono(resp -> toResponseEntity(operation, resp))
-        .timeout(timeout)
+    return ProxyRelay.relay(
+            webClient
+                .get()
+                .uri(uri)
+                .headers(
+                    headers -> {
+                      headers.setBearerAuth(apiKey);
+                      headers.set(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+                    }),
+            timeout,
+            (status, body) ->
+                log.warn(
+                    "[across-swap-proxy] upstream {} returned {} body={}",
+                    operation,
+                    status.value(),
+                    truncateForLog(body)))
         .onErrorResume(
             TimeoutException.class,
             error -> {
@@ -142,13 +127,13 @@ public class AcrossSwapProxyService {
                   "[across-swap-proxy] upstream {} timed out after {} ms",
                   operation,
                   timeout.toMillis());
-              return Mono.just(jsonErrorResponse(504, "upstream timeout", operation));
+              return Mono.just(ProxyRelay.of(jsonErrorResponse(504, "upstream timeout", operation)));
             })
         .onErrorResume(
             Exception.class,
             error -> {
               log.warn("[across-swap-proxy] upstream {} failed", operation, error);
-              return Mono.just(jsonErrorResponse(502, "upstream request failed", operation));
+              return Mono.just(ProxyRelay.of(jsonErrorResponse(502, "upstream request failed", operation)));
             });
   }
 
@@ -185,26 +170,26 @@ public class AcrossSwapProxyService {
     return builder.build(true).toUri();
   }
 
-  public Mono<ResponseEntity<String>> swapApproval(JsonNode request) {
+  public Mono<ResponseEntity<Flux<DataBuffer>>> swapApproval(JsonNode request) {
     URI uri = buildSwapApprovalUri(request);
     return get(uri, "swap/approval");
   }
 
-  public Mono<ResponseEntity<String>> swapChains() {
+  public Mono<ResponseEntity<Flux<DataBuffer>>> swapChains() {
     return get(baseBuilder("/swap/chains").build(true).toUri(), "swap/chains");
   }
 
-  public Mono<ResponseEntity<String>> swapTokens() {
+  public Mono<ResponseEntity<Flux<DataBuffer>>> swapTokens() {
     return get(baseBuilder("/swap/tokens").build(true).toUri(), "swap/tokens");
   }
 
-  public Mono<ResponseEntity<String>> swapSources(Integer chainId) {
+  public Mono<ResponseEntity<Flux<DataBuffer>>> swapSources(Integer chainId) {
     UriComponentsBuilder builder = baseBuilder("/swap/sources");
     if (chainId != null && chainId > 0) builder.queryParam("chainId", chainId);
     return get(builder.build(true).toUri(), "swap/sources");
   }
 
-  public Mono<ResponseEntity<String>> depositStatus(String depositTxnRef) {
+  public Mono<ResponseEntity<Flux<DataBuffer>>> depositStatus(String depositTxnRef) {
     URI uri =
         baseBuilder("/deposit/status")
             .queryParam("depositTxnRef", depositTxnRef == null ? "" : depositTxnRef.trim())
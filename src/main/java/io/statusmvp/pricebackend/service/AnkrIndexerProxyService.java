@@ -9,13 +9,15 @@ import java.util.Set;
 import java.util.concurrent.TimeoutException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Service
@@ -51,7 +53,7 @@ public class AnkrIndexerProxyService {
   private final Duration timeout;
 
   public AnkrIndexerProxyService(
-      WebClient webClient,
+      @Qualifier("ankrWebClient") WebClient webClient,
       @Value("${app.portfolio.ankrBaseUrl:https://rpc.ankr.com/multichain}") String ankrBaseUrl,
       @Value("${app.portfolio.ankrApiKey:}") String ankrApiKey,
       @Value("${app.portfolio.timeoutMs:12000}") long timeoutMs) {
@@ -61,28 +63,29 @@ public class AnkrIndexerProxyService {
     this.timeout = Duration.ofMillis(Math.max(1000L, timeoutMs));
   }
 
-  public Mono<ResponseEntity<String>> proxy(JsonNode body) {
+  public Mono<ResponseEntity<Flux<DataBuffer>>> proxy(JsonNode body) {
     ValidationResult validation = validate(body);
     if (!validation.valid()) {
       log.warn("[ankr-indexer-proxy] 拒绝非法请求: {}", validation.message());
-      return Mono.just(badRequest(validation.message()));
+      return Mono.just(ProxyRelay.of(badRequest(validation.message())));
     }
     if (ankrBaseUrl.isBlank() || ankrApiKey.isBlank()) {
       log.error("[ankr-indexer-proxy] Ankr 上游未配置，已拒绝请求");
       return Mono.just(
-          ResponseEntity.status(503)
-              .contentType(DEFAULT_CONTENT_TYPE)
-              .body("{\"error\":\"ANKR upstream is not configured\"}"));
+          ProxyRelay.of(
+              ResponseEntity.status(503)
+                  .contentType(DEFAULT_CONTENT_TYPE)
+                  .body("{\"error\":\"ANKR upstream is not configured\"}")));
     }
 
     String method = body.path("method").asText("");
-    return webClient
-        .post()
-        .uri(URI.create(ankrBaseUrl + "/" + ankrApiKey))
-        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-        .bodyValue(body)
-        .exchangeToMono(AnkrIndexerProxyService::toResponseEntity)
-        .timeout(timeout)
+    return ProxyRelay.relay(
+            webClient
+                .post()
+                .uri(URI.create(ankrBaseUrl + "/" + ankrApiKey))
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .bodyValue(body),
+            timeout)
         .doOnNext(
             response -> {
               if (!response.getStatusCode().is2xxSuccessful()) {
@@ -97,15 +100,17 @@ public class AnkrIndexerProxyService {
               if (err instanceof TimeoutException) {
                 log.warn("[ankr-indexer-proxy] 上游超时 method={}", method);
                 return Mono.just(
-                    ResponseEntity.status(504)
-                        .contentType(DEFAULT_CONTENT_TYPE)
-                        .body("{\"error\":\"ANKR upstream timeout\"}"));
+                    ProxyRelay.of(
+                        ResponseEntity.status(504)
+                            .contentType(DEFAULT_CONTENT_TYPE)
+                            .body("{\"error\":\"ANKR upstream timeout\"}")));
               }
               log.error("[ankr-indexer-proxy] 上游请求失败 method={}", method, err);
               return Mono.just(
-                  ResponseEntity.status(502)
-                      .contentType(DEFAULT_CONTENT_TYPE)
-                      .body("{\"error\":\"ANKR upstream request failed\"}"));
+                  ProxyRelay.of(
+                      ResponseEntity.status(502)
+                          .contentType(DEFAULT_CONTENT_TYPE)
+                          .body("{\"error\":\"ANKR upstream request failed\"}")));
             });
   }
 
@@ -222,17 +227,6 @@ public class AnkrIndexerProxyService {
     return value == null ? "" : value.replace("\\", "\\\\").replace("\"", "\\\"");
   }
 
-  private static Mono<ResponseEntity<String>> toResponseEntity(ClientResponse response) {
-    return response
-        .bodyToMono(String.class)
-        .defaultIfEmpty("")
-        .map(
-            body ->
-                ResponseEntity.status(response.statusCode())
-                    .contentType(response.headers().contentType().orElse(DEFAULT_CONTENT_TYPE))
-                    .body(body));
-  }
-
   private record ValidationResult(boolean valid, String message) {
     static ValidationResult ok() {
       return new ValidationResult(true, "");
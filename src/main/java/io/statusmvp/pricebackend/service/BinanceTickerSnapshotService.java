@@ -0,0 +1,79 @@
+package io.statusmvp.pricebackend.service;
+
+import io.statusmvp.pricebackend.client.BinanceClient;
+import io.statusmvp.pricebackend.model.PriceMarketData;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * In-memory snapshot of Binance's 24hr ticker for every USDT pair, refreshed in the background with
+ * one bulk request.
+ *
+ * <p>Lets the price path answer Binance quotes (and "is XUSDT listed") with a map lookup instead of a
+ * per-symbol round trip. A snapshot older than {@code app.binance.tickerMaxAgeMs} is treated as
+ * unavailable so callers can fall back to the per-symbol ticker call.
+ */
+@Service
+public class BinanceTickerSnapshotService {
+  private static final Logger log = LoggerFactory.getLogger(BinanceTickerSnapshotService.class);
+
+  private final BinanceClient binance;
+  private final boolean enabled;
+  private final long maxAgeMs;
+  private final AtomicBoolean refreshing = new AtomicBoolean(false);
+  private volatile Snapshot snapshot = new Snapshot(Map.of(), 0L);
+
+  public BinanceTickerSnapshotService(
+      BinanceClient binance,
+      @Value("${app.binance.tickerSnapshotEnabled:true}") boolean enabled,
+      @Value("${app.binance.tickerMaxAgeMs:60000}") long maxAgeMs) {
+    this.binance = binance;
+    this.enabled = enabled;
+    this.maxAgeMs = Math.max(1000L, maxAgeMs);
+  }
+
+  @Scheduled(initialDelay = 0, fixedDelayString = "${app.binance.tickerRefreshMs:10000}")
+  public void refresh() {
+    if (!enabled) return;
+    // The scheduler thread is shared with other pollers; never block it on the bulk download.
+    if (!refreshing.compareAndSet(false, true)) return;
+    binance
+        .fetchUsdtTickers()
+        .doFinally(signal -> refreshing.set(false))
+        .subscribe(
+            quotes -> {
+              if (quotes.isEmpty()) {
+                log.warn("binance.ticker_snapshot.empty keeping previous snapshot");
+                return;
+              }
+              snapshot = new Snapshot(Map.copyOf(quotes), System.currentTimeMillis());
+            },
+            error -> log.warn("binance.ticker_snapshot.refresh_failed error={}", error.getMessage()));
+  }
+
+  /** Whether the snapshot is recent enough to be authoritative for Binance lookups. */
+  public boolean isFresh() {
+    Snapshot current = snapshot;
+    return enabled
+        && !current.quotesByBase().isEmpty()
+        && System.currentTimeMillis() - current.fetchedAtMs() <= maxAgeMs;
+  }
+
+  public Optional<PriceMarketData> quote(String baseSymbol) {
+    if (baseSymbol == null || baseSymbol.isBlank() || !isFresh()) return Optional.empty();
+    return Optional.ofNullable(snapshot.quotesByBase().get(baseSymbol.trim().toUpperCase(Locale.ROOT)));
+  }
+
+  public boolean isListed(String baseSymbol) {
+    return quote(baseSymbol).isPresent();
+  }
+
+  private record Snapshot(Map<String, PriceMarketData> quotesByBase, long fetchedAtMs) {}
+}
@@ -28,42 +28,75 @@ public class CandleAggregatorService {
   private final BinanceClient binance;
   private final CoinGeckoClient coinGecko;
   private final CoinGeckoIdResolver coinGeckoIds;
+  private final BinanceTickerSnapshotService binanceTickers;
   private final RedisCache cache;
+  private final CandleSeriesStore series;
   private final ObjectMapper mapper = new ObjectMapper();
 
   private static final long POOL_ADDRESS_TTL_SECONDS = 21_600; // pools rarely change, 6h is plenty
+  // Largest page Binance/GeckoTerminal hand out in one request.
+  private static final int MAX_FETCH_LIMIT = 500;
+
+  @FunctionalInterface
+  private interface CandleFetcher {
+    List<PriceCandle> fetch(String interval, int limit);
+  }
 
   public CandleAggregatorService(
-      BinanceClient binance, CoinGeckoClient coinGecko, CoinGeckoIdResolver coinGeckoIds, RedisCache cache) {
+      BinanceClient binance,
+      CoinGeckoClient coinGecko,
+      CoinGeckoIdResolver coinGeckoIds,
+      BinanceTickerSnapshotService binanceTickers,
+      RedisCache cache,
+      CandleSeriesStore series) {
     this.binance = binance;
     this.coinGecko = coinGecko;
     this.coinGeckoIds = coinGeckoIds;
+    this.binanceTickers = binanceTickers;
     this.cache = cache;
+    this.series = series;
   }
 
   public CandleResponse getCandles(
       Integer chainId, String contractAddress, String symbol, String interval, int limit) {
+    return resolveCandles(chainId, contractAddress, symbol, interval, limit, false);
+  }
+
+  /**
+   * Like {@link #getCandles} but always syncs the series tail with the provider, for the live chart
+   * stream. Callers are expected to share one poller per asset/interval.
+   */
+  public CandleResponse getLiveCandles(
+      Integer chainId, String contractAddress, String symbol, String interval, int limit) {
+    return resolveCandles(chainId, contractAddress, symbol, interval, limit, true);
+  }
+
+  private CandleResponse resolveCandles(
+      Integer chainId,
+      String contractAddress,
+      String symbol,
+      String interval,
+      int limit,
+      boolean forceSync) {
     String iv = normalizeInterval(interval);
     int lim = Math.max(20, Math.min(500, limit));
     String lookup = symbol == null ? "" : symbol.trim().toUpperCase(Locale.ROOT);
     String contract = contractAddress == null ? "" : contractAddress.trim().toLowerCase(Locale.ROOT);
 
-    String requestKey =
-        "candles:req:" + chainId + ":" + contract + ":" + lookup + ":" + iv + ":" + lim;
-    Optional<String> cached = cache.get(requestKey);
-    if (cached.isPresent()) {
-      try {
-        return mapper.readValue(cached.get(), CandleResponse.class);
-      } catch (Exception ignored) {
-        // fall through and refetch
-      }
-    }
-
     List<PriceCandle> candles = List.of();
     String source = null;
 
-    if (!lookup.isBlank() && isSafeExchangeSymbol(lookup)) {
-      candles = binance.fetchKlinesViaUsdtPair(lookup, iv, lim);
+    // Skip Binance outright when the ticker snapshot says the USDT pair isn't listed.
+    if (!lookup.isBlank()
+        && isSafeExchangeSymbol(lookup)
+        && (!binanceTickers.isFresh() || binanceTickers.isListed(lookup))) {
+      candles =
+          seriesCandles(
+              "binance:" + lookup,
+              iv,
+              lim,
+              forceSync,
+              (i, n) -> binance.fetchKlinesViaUsdtPair(lookup, i, n));
       if (!candles.isEmpty()) source = "binance";
     }
 
@@ -75,14 +108,32 @@ public class CandleAggregatorService {
     if (candles.isEmpty() && chainId != null && !contract.isBlank()) {
       String networkId = PriceMappings.COINGECKO_ONCHAIN_NETWORKS.get(chainId);
       if (networkId != null && coinGecko.isEnabled()) {
-        candles = fetchOnchainCandles(networkId, contract, iv, lim);
+        candles =
+            seriesCandles(
+                "geckoterminal:" + networkId + ":" + contract,
+                iv,
+                lim,
+                forceSync,
+                (i, n) -> fetchOnchainCandles(networkId, contract, i, n));
         if (!candles.isEmpty()) source = "geckoterminal";
       }
     }
 
+    // CoinGecko's OHLC granularity doesn't follow the requested interval, so it isn't kept as a
+    // series; the whole response is cached briefly instead.
+    String requestKey = null;
     if (candles.isEmpty() && !lookup.isBlank() && coinGecko.isEnabled()) {
       String coinId = coinGeckoIds.resolve(lookup);
       if (coinId != null) {
+        requestKey = "candles:req:" + chainId + ":" + contract + ":" + lookup + ":" + iv + ":" + lim;
+        Optional<String> cached = cache.get(requestKey);
+        if (cached.isPresent()) {
+          try {
+            return mapper.readValue(cached.get(), CandleResponse.class);
+          } catch (Exception ignored) {
+            // fall through and refetch
+          }
+        }
         candles = coinGecko.fetchCoinOhlc(coinId, ohlcDaysForInterval(iv));
         if (candles.size() > lim) {
           candles = candles.subList(candles.size() - lim, candles.size());
@@ -106,7 +157,7 @@ public class CandleAggregatorService {
             to,
             candles);
 
-    if (!candles.isEmpty()) {
+    if (requestKey != null && !candles.isEmpty()) {
       try {
         cache.set(requestKey, mapper.writeValueAsString(response), cacheTtlSecondsForInterval(iv));
       } catch (Exception ignored) {}
@@ -114,6 +165,79 @@ public class CandleAggregatorService {
     return response;
   }
 
+  /**
+   * Serves {@code limit} candles of one source series from {@link CandleSeriesStore}, syncing with
+   * the provider only when the series hasn't been synced within the interval's cache TTL or doesn't
+   * reach back far enough. A sync normally fetches just the candles since the last stored close.
+   * 4h/1d are rolled up from the 1h series when it already holds enough history.
+   */
+  private List<PriceCandle> seriesCandles(
+      String seriesId, String iv, int limit, boolean forceSync, CandleFetcher fetcher) {
+    long bucketMillis = intervalMillis(iv);
+    int factor = (int) (bucketMillis / intervalMillis("1h"));
+    if (factor > 1) {
+      // One extra coarse bucket so a partially covered oldest bucket can be dropped.
+      int hourlyLimit = (limit + 1) * factor;
+      if (series.closedCount(seriesId, "1h") >= hourlyLimit) {
+        List<PriceCandle> rolled =
+            CandleSeriesStore.rollUp(syncedCandles(seriesId, "1h", hourlyLimit, forceSync, fetcher), bucketMillis);
+        if (rolled.size() > limit) return rolled.subList(rolled.size() - limit, rolled.size());
+      }
+    }
+    return syncedCandles(seriesId, iv, limit, forceSync, fetcher);
+  }
+
+  private List<PriceCandle> syncedCandles(
+      String seriesId, String iv, int limit, boolean forceSync, CandleFetcher fetcher) {
+    long stepMs = intervalMillis(iv);
+    long now = Instant.now().toEpochMilli();
+    CandleSeriesStore.SyncState state = series.syncState(seriesId, iv).orElse(null);
+    List<PriceCandle> closed = series.closedTail(seriesId, iv, limit);
+
+    // +1 for the open candle that completes the window.
+    boolean storeCoversLimit = closed.size() + 1 >= limit;
+    boolean providerExhausted = state != null && state.depth() >= Math.min(limit, MAX_FETCH_LIMIT);
+    if (forceSync || state == null || !(storeCoversLimit || providerExhausted)) {
+      int fetchLimit = Math.min(limit, MAX_FETCH_LIMIT);
+      boolean incremental = false;
+      if (storeCoversLimit && !closed.isEmpty()) {
+        long sinceLastClose = (now - closed.get(closed.size() - 1).time()) / stepMs + 2;
+        if (sinceLastClose <= MAX_FETCH_LIMIT) {
+          fetchLimit = (int) Math.max(2, sinceLastClose);
+          incremental = true;
+        } else {
+          // Too far behind to stitch without a gap; start the series over.
+          series.clear(seriesId, iv);
+          closed = List.of();
+        }
+      }
+
+      List<PriceCandle> fetched = CandleSeriesStore.sortedByTime(fetcher.fetch(iv, fetchLimit));
+      List<PriceCandle> fetchedClosed = new ArrayList<>();
+      PriceCandle open = null;
+      for (PriceCandle c : fetched) {
+        if (c.time() + stepMs <= now) fetchedClosed.add(c);
+        else open = c;
+      }
+      series.putClosed(seriesId, iv, fetchedClosed);
+      int depth = incremental ? Math.max(state == null ? 0 : state.depth(), closed.size() + 1) : fetchLimit;
+      state = new CandleSeriesStore.SyncState(depth, open);
+      series.putSyncState(seriesId, iv, state, cacheTtlSecondsForInterval(iv));
+
+      List<PriceCandle> merged = new ArrayList<>(closed);
+      merged.addAll(fetchedClosed);
+      closed = CandleSeriesStore.sortedByTime(merged);
+    }
+
+    List<PriceCandle> out = new ArrayList<>(closed);
+    PriceCandle open = state.open();
+    if (open != null && (out.isEmpty() || open.time() > out.get(out.size() - 1).time())) {
+      out.add(open);
+    }
+    if (out.size() > limit) out = out.subList(out.size() - limit, out.size());
+    return out;
+  }
+
   private List<PriceCandle> fetchOnchainCandles(String networkId, String contract, String interval, int limit) {
     String poolKey = "candles:pool:" + networkId + ":" + contract;
     String poolAddress =
@@ -172,7 +296,7 @@ public class CandleAggregatorService {
     return out;
   }
 
-  private static long intervalMillis(String interval) {
+  static long intervalMillis(String interval) {
     return switch (interval) {
       case "1m" -> 60_000L;
       case "5m" -> 300_000L;
@@ -193,7 +317,7 @@ public class CandleAggregatorService {
     };
   }
 
-  private static String normalizeInterval(String interval) {
+  static String normalizeInterval(String interval) {
     if (interval == null) return "1h";
     String v = interval.trim().toLowerCase(Locale.ROOT);
     return ALLOWED_INTERVALS.contains(v) ? v : "1h";
@@ -0,0 +1,210 @@
+package io.statusmvp.pricebackend.service;
+
+import io.statusmvp.pricebackend.model.PriceCandle;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+/**
+ * Redis-backed OHLCV series, one per (source series, interval), used by {@link
+ * CandleAggregatorService}.
+ *
+ * <p>Closed candles live in a sorted set scored by open time ({@code candles:series:<series>:<iv>})
+ * and are never refetched; the set is capped at {@link #MAX_CLOSED_CANDLES} and expires only after
+ * {@link #IDLE_TTL} without writes. The still-open candle plus the depth the provider was last asked
+ * for sit in a short-lived state key whose presence means "recently synced". Blocking, like the rest
+ * of the candle path.
+ */
+@Component
+public class CandleSeriesStore {
+  static final int MAX_CLOSED_CANDLES = 5000;
+  private static final Duration IDLE_TTL = Duration.ofDays(30);
+  // KEYS: series. ARGV: from, to, max size, TTL seconds, then score/member pairs.
+  private static final DefaultRedisScript<Long> PUT_CLOSED_SCRIPT =
+      new DefaultRedisScript<>(
+          "redis.call('ZREMRANGEBYSCORE', KEYS[1], ARGV[1], ARGV[2]); "
+              + "for i = 5, #ARGV, 2 do redis.call('ZADD', KEYS[1], ARGV[i], ARGV[i + 1]) end; "
+              + "redis.call('ZREMRANGEBYRANK', KEYS[1], 0, -(tonumber(ARGV[3]) + 1)); "
+              + "redis.call('EXPIRE', KEYS[1], ARGV[4]); "
+              + "return 1",
+          Long.class);
+
+  /** Last sync of a series: the open candle (if the provider returned one) and the depth fetched. */
+  public record SyncState(int depth, PriceCandle open) {}
+
+  private final StringRedisTemplate redis;
+
+  public CandleSeriesStore(StringRedisTemplate redis) {
+    this.redis = redis;
+  }
+
+  /** Newest {@code limit} closed candles, oldest first. */
+  public List<PriceCandle> closedTail(String series, String interval, int limit) {
+    if (limit <= 0) return List.of();
+    try {
+      Set<String> members = redis.opsForZSet().reverseRange(closedKey(series, interval), 0, limit - 1L);
+      if (members == null || members.isEmpty()) return List.of();
+      return sortedByTime(members.stream().map(CandleSeriesStore::decode).toList());
+    } catch (Exception ignored) {
+      return List.of();
+    }
+  }
+
+  public long closedCount(String series, String interval) {
+    try {
+      Long count = redis.opsForZSet().zCard(closedKey(series, interval));
+      return count == null ? 0L : count;
+    } catch (Exception ignored) {
+      return 0L;
+    }
+  }
+
+  /**
+   * Stores closed candles, replacing anything already stored in their time range so revised candles
+   * don't leave duplicates behind. One script, so concurrent syncs of a series cannot interleave.
+   */
+  public void putClosed(String series, String interval, List<PriceCandle> closed) {
+    if (closed.isEmpty()) return;
+    List<PriceCandle> sorted = sortedByTime(closed);
+    List<String> args = new ArrayList<>(4 + sorted.size() * 2);
+    args.add(String.valueOf(sorted.get(0).time()));
+    args.add(String.valueOf(sorted.get(sorted.size() - 1).time()));
+    args.add(String.valueOf(MAX_CLOSED_CANDLES));
+    args.add(String.valueOf(IDLE_TTL.toSeconds()));
+    for (PriceCandle c : sorted) {
+      args.add(String.valueOf(c.time()));
+      args.add(encode(c));
+    }
+    try {
+      redis.execute(PUT_CLOSED_SCRIPT, List.of(closedKey(series, interval)), args.toArray());
+    } catch (Exception ignored) {
+      // a missed write only costs a refetch
+    }
+  }
+
+  public void clear(String series, String interval) {
+    try {
+      redis.delete(List.of(closedKey(series, interval), stateKey(series, interval)));
+    } catch (Exception ignored) {
+      // ignore cache failures
+    }
+  }
+
+  public Optional<SyncState> syncState(String series, String interval) {
+    try {
+      String raw = redis.opsForValue().get(stateKey(series, interval));
+      if (raw == null) return Optional.empty();
+      int sep = raw.indexOf('|');
+      int depth = Integer.parseInt(sep < 0 ? raw : raw.substring(0, sep));
+      String open = sep < 0 ? "" : raw.substring(sep + 1);
+      return Optional.of(new SyncState(depth, open.isEmpty() ? null : decode(open)));
+    } catch (Exception ignored) {
+      return Optional.empty();
+    }
+  }
+
+  public void putSyncState(String series, String interval, SyncState state, long ttlSeconds) {
+    String value = state.depth() + "|" + (state.open() == null ? "" : encode(state.open()));
+    try {
+      redis
+          .opsForValue()
+          .set(stateKey(series, interval), value, Duration.ofSeconds(Math.max(1, ttlSeconds)));
+    } catch (Exception ignored) {
+      // ignore cache failures
+    }
+  }
+
+  /**
+   * Aggregates finer candles into {@code bucketMillis} candles aligned to UTC. Buckets keep the first
+   * open, last close, extreme high/low and summed volume/trades of their members.
+   */
+  static List<PriceCandle> rollUp(List<PriceCandle> finer, long bucketMillis) {
+    Map<Long, List<PriceCandle>> byBucket = new TreeMap<>();
+    for (PriceCandle c : sortedByTime(finer)) {
+      byBucket.computeIfAbsent((c.time() / bucketMillis) * bucketMillis, k -> new ArrayList<>()).add(c);
+    }
+    List<PriceCandle> out = new ArrayList<>(byBucket.size());
+    byBucket.forEach(
+        (bucket, members) -> {
+          double high = Double.NEGATIVE_INFINITY;
+          double low = Double.POSITIVE_INFINITY;
+          Double volume = null;
+          Long trades = null;
+          for (PriceCandle c : members) {
+            high = Math.max(high, c.high());
+            low = Math.min(low, c.low());
+            if (c.volume() != null) volume = (volume == null ? 0d : volume) + c.volume();
+            if (c.trades() != null) trades = (trades == null ? 0L : trades) + c.trades();
+          }
+          out.add(
+              new PriceCandle(
+                  bucket,
+                  members.get(0).open(),
+                  high,
+                  low,
+                  members.get(members.size() - 1).close(),
+                  volume,
+                  trades));
+        });
+    return out;
+  }
+
+  static List<PriceCandle> sortedByTime(Collection<PriceCandle> candles) {
+    // Keyed by open time so duplicates collapse to the last one seen.
+    Map<Long, PriceCandle> byTime = new TreeMap<>();
+    for (PriceCandle c : candles) {
+      if (c != null) byTime.put(c.time(), c);
+    }
+    return new ArrayList<>(byTime.values());
+  }
+
+  static String encode(PriceCandle c) {
+    return c.time()
+        + ","
+        + c.open()
+        + ","
+        + c.high()
+        + ","
+        + c.low()
+        + ","
+        + c.close()
+        + ","
+        + (c.volume() == null ? "" : c.volume())
+        + ","
+        + (c.trades() == null ? "" : c.trades());
+  }
+
+  static PriceCandle decode(String raw) {
+    if (raw == null) return null;
+    String[] f = raw.split(",", -1);
+    if (f.length != 7) return null;
+    try {
+      return new PriceCandle(
+          Long.parseLong(f[0]),
+          Double.parseDouble(f[1]),
+          Double.parseDouble(f[2]),
+          Double.parseDouble(f[3]),
+          Double.parseDouble(f[4]),
+          f[5].isEmpty() ? null : Double.valueOf(f[5]),
+          f[6].isEmpty() ? null : Long.valueOf(f[6]));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private static String closedKey(String series, String interval) {
+    return "candles:series:" + series + ":" + interval;
+  }
+
+  private static String stateKey(String series, String interval) {
+    return "candles:series:" + series + ":" + interval + ":state";
+  }
+}
@@ -0,0 +1,170 @@
+package io.statusmvp.pricebackend.service;
+
+import io.statusmvp.pricebackend.model.CandleResponse;
+import io.statusmvp.pricebackend.model.PriceCandle;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Live candle updates for the asset chart over server-sent events.
+ *
+ * <p>Each client gets the initial window once ({@code snapshot}) and then every change to the current
+ * or just-closed candle ({@code candle}). All clients watching the same asset/interval on this node
+ * share one poller of {@link CandleAggregatorService#getLiveCandles}, which only fetches the series
+ * tail upstream; the poller stops shortly after the last client disconnects. The poll period grows
+ * with the candle interval (1/60 of it), between {@code pollMs} and {@code maxPollMs}.
+ */
+@Service
+public class CandleStreamService {
+  private static final Logger log = LoggerFactory.getLogger(CandleStreamService.class);
+  // Small window: only the last couple of candles can still change.
+  private static final int LIVE_WINDOW = 20;
+  private static final int TAIL_CANDLES = 2;
+
+  private final CandleAggregatorService candles;
+  private final long minPollMillis;
+  private final long maxPollMillis;
+  private final Duration heartbeatInterval;
+  private final Duration idleGrace;
+  // Guarded by itself, so that creating, joining and dropping a feed cannot interleave.
+  private final Map<String, Feed> feeds = new HashMap<>();
+
+  public CandleStreamService(
+      CandleAggregatorService candles,
+      @Value("${app.candles.stream.pollMs:5000}") long pollMs,
+      @Value("${app.candles.stream.maxPollMs:300000}") long maxPollMs,
+      @Value("${app.candles.stream.heartbeatSeconds:15}") long heartbeatSeconds,
+      @Value("${app.candles.stream.idleGraceSeconds:30}") long idleGraceSeconds) {
+    this.candles = candles;
+    this.minPollMillis = Math.max(1000L, pollMs);
+    this.maxPollMillis = Math.max(this.minPollMillis, maxPollMs);
+    this.heartbeatInterval = Duration.ofSeconds(Math.max(5L, heartbeatSeconds));
+    this.idleGrace = Duration.ofSeconds(Math.max(0L, idleGraceSeconds));
+  }
+
+  public Flux<ServerSentEvent<Object>> stream(
+      Integer chainId, String contractAddress, String symbol, String interval, int limit) {
+    String iv = CandleAggregatorService.normalizeInterval(interval);
+    String lookup = symbol == null ? "" : symbol.trim().toUpperCase(Locale.ROOT);
+    String contract = contractAddress == null ? "" : contractAddress.trim().toLowerCase(Locale.ROOT);
+    String feedKey = chainId + ":" + contract + ":" + lookup + ":" + iv;
+
+    return Mono.fromCallable(() -> candles.getCandles(chainId, contractAddress, symbol, iv, limit))
+        .subscribeOn(Schedulers.boundedElastic())
+        .flatMapMany(
+            initial -> {
+              List<PriceCandle> window = initial.candles();
+              long lastTime = window.isEmpty() ? Long.MIN_VALUE : window.get(window.size() - 1).time();
+              Flux<ServerSentEvent<Object>> updates =
+                  feed(feedKey, chainId, contractAddress, symbol, iv)
+                      // Candles older than the snapshot's last one are already final in the window.
+                      .filter(c -> c.time() >= lastTime)
+                      .map(c -> ServerSentEvent.<Object>builder(c).event("candle").build());
+              Flux<ServerSentEvent<Object>> heartbeats =
+                  Flux.interval(heartbeatInterval)
+                      .map(i -> ServerSentEvent.<Object>builder().comment("keepalive").build());
+              return Flux.concat(
+                  Mono.just(ServerSentEvent.<Object>builder(initial).event("snapshot").build()),
+                  Flux.merge(updates, heartbeats));
+            });
+  }
+
+  /**
+   * Joins the shared feed of {@code feedKey}, creating it if needed. The feed stays registered while
+   * it has subscribers and for {@code idleGraceSeconds} after the last one leaves, which is also how
+   * long its poller keeps running; a client joining within the grace reuses both.
+   */
+  private Flux<PriceCandle> feed(
+      String feedKey, Integer chainId, String contractAddress, String symbol, String iv) {
+    return Flux.defer(
+        () -> {
+          Feed feed;
+          synchronized (feeds) {
+            feed =
+                feeds.computeIfAbsent(
+                    feedKey, k -> new Feed(newFeed(k, chainId, contractAddress, symbol, iv)));
+            feed.subscribers++;
+          }
+          return feed.candles.doFinally(signal -> leave(feedKey, feed));
+        });
+  }
+
+  private void leave(String feedKey, Feed feed) {
+    synchronized (feeds) {
+      if (--feed.subscribers > 0) return;
+    }
+    Mono.delay(idleGrace)
+        .subscribe(
+            tick -> {
+              synchronized (feeds) {
+                if (feed.subscribers == 0) feeds.remove(feedKey, feed);
+              }
+            });
+  }
+
+  private Flux<PriceCandle> newFeed(
+      String k, Integer chainId, String contractAddress, String symbol, String iv) {
+    Duration pollInterval = pollInterval(iv);
+    return Flux.defer(
+            () -> {
+              // Last version sent per candle time; only the newest few can still change.
+              Map<Long, PriceCandle> sent = new LinkedHashMap<>();
+              return Flux.interval(Duration.ZERO, pollInterval)
+                  .onBackpressureDrop()
+                  .concatMap(
+                      tick ->
+                          Mono.fromCallable(
+                                  () -> candles.getLiveCandles(chainId, contractAddress, symbol, iv, LIVE_WINDOW))
+                              .subscribeOn(Schedulers.boundedElastic())
+                              .onErrorResume(
+                                  e -> {
+                                    log.warn("candles.stream.poll_failed feed={} error={}", k, e.getMessage());
+                                    return Mono.empty();
+                                  }))
+                  .flatMapIterable(CandleStreamService::tail)
+                  .filter(
+                      c -> {
+                        if (c.equals(sent.put(c.time(), c))) return false;
+                        while (sent.size() > TAIL_CANDLES * 2) {
+                          sent.remove(sent.keySet().iterator().next());
+                        }
+                        return true;
+                      });
+            })
+        .publish()
+        .refCount(1, idleGrace);
+  }
+
+  Duration pollInterval(String iv) {
+    long scaled = CandleAggregatorService.intervalMillis(iv) / 60;
+    return Duration.ofMillis(Math.max(minPollMillis, Math.min(maxPollMillis, scaled)));
+  }
+
+  private static List<PriceCandle> tail(CandleResponse response) {
+    List<PriceCandle> window = response.candles();
+    if (window == null || window.isEmpty()) return List.of();
+    return window.subList(Math.max(0, window.size() - TAIL_CANDLES), window.size());
+  }
+
+  private static final class Feed {
+    private final Flux<PriceCandle> candles;
+    // Guarded by feeds.
+    private int subscribers;
+
+    private Feed(Flux<PriceCandle> candles) {
+      this.candles = candles;
+    }
+  }
+}
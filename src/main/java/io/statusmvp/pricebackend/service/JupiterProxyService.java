@@ -3,44 +3,45 @@ package io.statusmvp.pricebackend.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import java.net.URI;
 import java.time.Duration;
+import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.util.MultiValueMap;
-import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 @Service
 public class JupiterProxyService {
   private static final MediaType DEFAULT_CONTENT_TYPE = MediaType.APPLICATION_JSON;
 
-  private record RateLimitDecision(boolean allowed, int retryAfterSeconds) {}
-
   private final WebClient webClient;
   private final String baseUrl;
   private final Duration timeout;
-  private final StringRedisTemplate redis;
+  private final RedisRateLimiter rateLimiter;
+  private final SwapQuoteCache quoteCache;
 
   private final int windowSeconds;
   private final int ipLimit;
 
   public JupiterProxyService(
-      WebClient webClient,
-      StringRedisTemplate redis,
+      @Qualifier("jupiterWebClient") WebClient webClient,
+      RedisRateLimiter rateLimiter,
+      SwapQuoteCache quoteCache,
       @Value("${JUPITER_LITE_API_BASE_URL:https://lite-api.jup.ag/swap/v1}") String baseUrl,
       @Value("${JUPITER_TIMEOUT_MS:12000}") long timeoutMs,
       @Value("${JUPITER_RL_WINDOW_SECONDS:60}") int windowSeconds,
       @Value("${JUPITER_RL_IP_LIMIT:600}") int ipLimit) {
     this.webClient = webClient;
-    this.redis = redis;
+    this.rateLimiter = rateLimiter;
+    this.quoteCache = quoteCache;
     this.baseUrl = normalizeBaseUrl(baseUrl);
     this.timeout = Duration.ofMillis(Math.max(1000, timeoutMs));
     this.windowSeconds = Math.max(1, windowSeconds);
@@ -54,21 +55,6 @@ public class JupiterProxyService {
     return trimmed;
   }
 
-  private static MediaType responseContentType(ClientResponse resp) {
-    return resp.headers().contentType().orElse(DEFAULT_CONTENT_TYPE);
-  }
-
-  private static Mono<ResponseEntity<String>> toResponseEntity(ClientResponse resp) {
-    return resp
-        .bodyToMono(String.class)
-        .defaultIfEmpty("")
-        .map(
-            body ->
-                ResponseEntity.status(resp.statusCode())
-                    .contentType(responseContentType(resp))
-                    .body(body));
-  }
-
   private static String normalizeKey(String value) {
     if (value == null) return "";
     return value.trim().toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9_\\-:.]", "_");
@@ -80,33 +66,10 @@ public class JupiterProxyService {
     return "jupiter:proxy:rl:ip:" + v;
   }
 
-  private int checkLimit(String key, int limit) {
-    if (key == null || key.isBlank()) return 0;
-    try {
-      Long count = redis.opsForValue().increment(key);
-      if (count != null && count == 1L) {
-        redis.expire(key, Duration.ofSeconds(windowSeconds));
-      }
-      if (count != null && count > limit) {
-        Long ttl = redis.getExpire(key, TimeUnit.SECONDS);
-        int retryAfter = ttl == null || ttl < 1 ? windowSeconds : ttl.intValue();
-        return Math.max(1, retryAfter);
-      }
-      return 0;
-    } catch (Exception ignored) {
-      return 0;
-    }
-  }
-
-  private Mono<RateLimitDecision> checkRateLimit(String ip) {
-    return Mono.fromCallable(
-            () -> {
-              if (ip == null || ip.isBlank()) return new RateLimitDecision(true, 0);
-              int retryAfter = checkLimit(rlKey(ip), ipLimit);
-              if (retryAfter > 0) return new RateLimitDecision(false, retryAfter);
-              return new RateLimitDecision(true, 0);
-            })
-        .subscribeOn(Schedulers.boundedElastic());
+  private Mono<RedisRateLimiter.Decision> checkRateLimit(String ip) {
+    return rateLimiter.check(
+        "jupiter",
+        List.of(new RedisRateLimiter.Limit("ip", rlKey(ip), ipLimit, Duration.ofSeconds(windowSeconds))));
   }
 
   private static ResponseEntity<String> rateLimitedResponse(int retryAfterSeconds) {
@@ -133,43 +96,45 @@ public class JupiterProxyService {
     return b.build(true).toUri();
   }
 
-  public Mono<ResponseEntity<String>> quote(MultiValueMap<String, String> query, String clientIp) {
+  public Mono<ResponseEntity<Flux<DataBuffer>>> quote(MultiValueMap<String, String> query, String clientIp) {
     if (baseUrl.isBlank()) {
       return Mono.just(
-          ResponseEntity.status(503).body("{\"error\":\"JUPITER_LITE_API_BASE_URL not set\"}"));
+          ProxyRelay.of(
+              ResponseEntity.status(503).body("{\"error\":\"JUPITER_LITE_API_BASE_URL not set\"}")));
     }
     return checkRateLimit(clientIp)
         .flatMap(
             rl -> {
-              if (!rl.allowed()) return Mono.just(rateLimitedResponse(rl.retryAfterSeconds()));
+              if (!rl.allowed()) return Mono.just(ProxyRelay.of(rateLimitedResponse(rl.retryAfterSeconds())));
               URI uri = buildUri("/quote", query);
-              return webClient
-                  .get()
-                  .uri(uri)
-                  .exchangeToMono(JupiterProxyService::toResponseEntity)
-                  .timeout(timeout)
-                  .onErrorResume(e -> Mono.just(upstreamTimeoutResponse()));
+              return quoteCache.get(
+                  "jupiter",
+                  quoteCache.key("jupiter", "/quote", query),
+                  () ->
+                      ProxyRelay.relay(webClient.get().uri(uri), timeout)
+                          .onErrorResume(e -> Mono.just(ProxyRelay.of(upstreamTimeoutResponse()))));
             });
   }
 
-  public Mono<ResponseEntity<String>> swap(JsonNode body, String clientIp) {
+  public Mono<ResponseEntity<Flux<DataBuffer>>> swap(JsonNode body, String clientIp) {
     if (baseUrl.isBlank()) {
       return Mono.just(
-          ResponseEntity.status(503).body("{\"error\":\"JUPITER_LITE_API_BASE_URL not set\"}"));
+          ProxyRelay.of(
+              ResponseEntity.status(503).body("{\"error\":\"JUPITER_LITE_API_BASE_URL not set\"}")));
     }
     return checkRateLimit(clientIp)
         .flatMap(
             rl -> {
-              if (!rl.allowed()) return Mono.just(rateLimitedResponse(rl.retryAfterSeconds()));
+              if (!rl.allowed()) return Mono.just(ProxyRelay.of(rateLimitedResponse(rl.retryAfterSeconds())));
               URI uri = buildUri("/swap", null);
-              return webClient
-                  .post()
-                  .uri(uri)
-                  .headers(h -> h.set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE))
-                  .bodyValue(body == null ? "{}" : body)
-                  .exchangeToMono(JupiterProxyService::toResponseEntity)
-                  .timeout(timeout)
-                  .onErrorResume(e -> Mono.just(upstreamTimeoutResponse()));
+              return ProxyRelay.relay(
+                      webClient
+                          .post()
+                          .uri(uri)
+                          .headers(h -> h.set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE))
+                          .bodyValue(body == null ? "{}" : body),
+                      timeout)
+                  .onErrorResume(e -> Mono.just(ProxyRelay.of(upstreamTimeoutResponse())));
             });
   }
 }
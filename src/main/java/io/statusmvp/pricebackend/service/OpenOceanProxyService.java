@@ -2,47 +2,48 @@ package io.statusmvp.pricebackend.service;
 
 import java.net.URI;
 import java.time.Duration;
+import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.util.MultiValueMap;
-import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 @Service
 public class OpenOceanProxyService {
   private static final Logger log = LoggerFactory.getLogger(OpenOceanProxyService.class);
   private static final MediaType DEFAULT_CONTENT_TYPE = MediaType.APPLICATION_JSON;
 
-  private record RateLimitDecision(boolean allowed, int retryAfterSeconds) {}
-
   private final WebClient webClient;
-  private final StringRedisTemplate redis;
+  private final RedisRateLimiter rateLimiter;
+  private final SwapQuoteCache quoteCache;
   private final String baseUrl;
   private final Duration timeout;
   private final int windowSeconds;
   private final int ipLimit;
 
   public OpenOceanProxyService(
-      WebClient webClient,
-      StringRedisTemplate redis,
+      @Qualifier("openOceanWebClient") WebClient webClient,
+      RedisRateLimiter rateLimiter,
+      SwapQuoteCache quoteCache,
       @Value("${app.openOcean.apiBaseUrl:https://open-api.openocean.finance/v3}") String baseUrl,
       @Value("${app.openOcean.timeoutMs:12000}") long timeoutMs,
       @Value("${app.openOcean.rateLimitWindowSeconds:60}") int windowSeconds,
       @Value("${app.openOcean.rateLimitIpLimit:600}") int ipLimit) {
     this.webClient = webClient;
-    this.redis = redis;
+    this.rateLimiter = rateLimiter;
+    this.quoteCache = quoteCache;
     this.baseUrl = normalizeBaseUrl(baseUrl);
     this.timeout = Duration.ofMillis(Math.max(1000, timeoutMs));
     this.windowSeconds = Math.max(1, windowSeconds);
@@ -62,21 +63,6 @@ public class OpenOceanProxyService {
     return trimmed;
   }
 
-  private static MediaType responseContentType(ClientResponse resp) {
-    return resp.headers().contentType().orElse(DEFAULT_CONTENT_TYPE);
-  }
-
-  private static Mono<ResponseEntity<String>> toResponseEntity(ClientResponse resp) {
-    return resp
-        .bodyToMono(String.class)
-        .defaultIfEmpty("")
-        .map(
-            body ->
-                ResponseEntity.status(resp.statusCode())
-                    .contentType(responseContentType(resp))
-                    .body(body));
-  }
-
   private static String normalizeKey(String value) {
     if (value == null) return "";
     return value.trim().toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9_\\-:.]", "_");
@@ -88,34 +74,10 @@ public class OpenOceanProxyService {
     return "openocean:proxy:rl:ip:" + value;
   }
 
-  private int checkLimit(String key, int limit) {
-    if (key == null || key.isBlank()) return 0;
-    try {
-      Long count = redis.opsForValue().increment(key);
-      if (count != null && count == 1L) {
-        redis.expire(key, Duration.ofSeconds(windowSeconds));
-      }
-      if (count != null && count > limit) {
-        Long ttl = redis.getExpire(key, TimeUnit.SECONDS);
-        int retryAfter = ttl == null || ttl < 1 ? windowSeconds : ttl.intValue();
-        return Math.max(1, retryAfter);
-      }
-      return 0;
-    } catch (Exception e) {
-      log.warn("openocean proxy rate-limit counter failed: key={}, limit={}", key, limit, e);
-      return 0;
-    }
-  }
-
-  private Mono<RateLimitDecision> checkRateLimit(String ip) {
-    return Mono.fromCallable(
-            () -> {
-              if (ip == null || ip.isBlank()) return new RateLimitDecision(true, 0);
-              int retryAfter = checkLimit(rlKey(ip), ipLimit);
-              if (retryAfter > 0) return new RateLimitDecision(false, retryAfter);
-              return new RateLimitDecision(true, 0);
-            })
-        .subscribeOn(Schedulers.boundedElastic());
+  private Mono<RedisRateLimiter.Decision> checkRateLimit(String ip) {
+    return rateLimiter.check(
+        "openocean",
+        List.of(new RedisRateLimiter.Limit("ip", rlKey(ip), ipLimit, Duration.ofSeconds(windowSeconds))));
   }
 
   private static ResponseEntity<String> rateLimitedResponse(int retryAfterSeconds) {
@@ -148,13 +110,18 @@ public class OpenOceanProxyService {
     return builder.build(true).toUri();
   }
 
-  private Mono<ResponseEntity<String>> get(
-      int chainId, String path, MultiValueMap<String, String> query, String clientIp) {
+  private Mono<ResponseEntity<Flux<DataBuffer>>> get(
+      int chainId,
+      String path,
+      MultiValueMap<String, String> query,
+      String clientIp,
+      boolean cacheable) {
     if (baseUrl.isBlank()) {
       return Mono.just(
-          ResponseEntity.status(503)
-              .contentType(DEFAULT_CONTENT_TYPE)
-              .body("{\"error\":\"OPENOCEAN_API_BASE_URL not set\"}"));
+          ProxyRelay.of(
+              ResponseEntity.status(503)
+                  .contentType(DEFAULT_CONTENT_TYPE)
+                  .body("{\"error\":\"OPENOCEAN_API_BASE_URL not set\"}")));
     }
     return checkRateLimit(clientIp)
         .flatMap(
@@ -166,63 +133,72 @@ public class OpenOceanProxyService {
                     path,
                     clientIp,
                     rl.retryAfterSeconds());
-                return Mono.just(rateLimitedResponse(rl.retryAfterSeconds()));
+                return Mono.just(ProxyRelay.of(rateLimitedResponse(rl.retryAfterSeconds())));
               }
-              URI uri = buildUri(chainId, path, query);
-              return webClient
-                  .get()
-                  .uri(uri)
-                  .headers(
-                      h -> {
-                        h.set(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
-                        h.set(HttpHeaders.USER_AGENT, "VeilWallet-Backend/1.0");
-                      })
-                  .exchangeToMono(
-                      resp -> {
-                        if (resp.statusCode().isError()) {
-                          log.warn(
-                              "openocean proxy upstream returned error: chainId={}, path={}, status={}, clientIp={}",
-                              chainId,
-                              path,
-                              resp.statusCode().value(),
-                              clientIp);
-                        }
-                        return toResponseEntity(resp);
-                      })
-                  .timeout(timeout)
-                  .onErrorResume(
-                      TimeoutException.class,
-                      e -> {
-                        log.warn(
-                            "openocean proxy upstream timeout: chainId={}, path={}, timeoutMs={}, clientIp={}",
-                            chainId,
-                            path,
-                            timeout.toMillis(),
-                            clientIp,
-                            e);
-                        return Mono.just(upstreamTimeoutResponse());
-                      })
-                  .onErrorResume(
-                      Exception.class,
-                      e -> {
-                        log.warn(
-                            "openocean proxy upstream request failed: chainId={}, path={}, clientIp={}",
-                            chainId,
-                            path,
-                            clientIp,
-                            e);
-                        return Mono.just(upstreamUnavailableResponse());
-                      });
+              if (!cacheable) return forward(chainId, path, query, clientIp);
+              return quoteCache.get(
+                  "openocean",
+                  quoteCache.key("openocean", chainId + path, query),
+                  () -> forward(chainId, path, query, clientIp));
+            });
+  }
+
+  private Mono<ResponseEntity<Flux<DataBuffer>>> forward(
+      int chainId, String path, MultiValueMap<String, String> query, String clientIp) {
+    URI uri = buildUri(chainId, path, query);
+    return ProxyRelay.relay(
+            webClient
+                .get()
+                .uri(uri)
+                .headers(
+                    h -> {
+                      h.set(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+                      h.set(HttpHeaders.USER_AGENT, "VeilWallet-Backend/1.0");
+                    }),
+            timeout)
+        .doOnNext(
+            resp -> {
+              if (resp.getStatusCode().isError()) {
+                log.warn(
+                    "openocean proxy upstream returned error: chainId={}, path={}, status={}, clientIp={}",
+                    chainId,
+                    path,
+                    resp.getStatusCode().value(),
+                    clientIp);
+              }
+            })
+        .onErrorResume(
+            TimeoutException.class,
+            e -> {
+              log.warn(
+                  "openocean proxy upstream timeout: chainId={}, path={}, timeoutMs={}, clientIp={}",
+                  chainId,
+                  path,
+                  timeout.toMillis(),
+                  clientIp,
+                  e);
+              return Mono.just(ProxyRelay.of(upstreamTimeoutResponse()));
+            })
+        .onErrorResume(
+            Exception.class,
+            e -> {
+              log.warn(
+                  "openocean proxy upstream request failed: chainId={}, path={}, clientIp={}",
+                  chainId,
+                  path,
+                  clientIp,
+                  e);
+              return Mono.just(ProxyRelay.of(upstreamUnavailableResponse()));
             });
   }
 
-  public Mono<ResponseEntity<String>> quote(
+  public Mono<ResponseEntity<Flux<DataBuffer>>> quote(
       int chainId, MultiValueMap<String, String> query, String clientIp) {
-    return get(chainId, "/quote", query, clientIp);
+    return get(chainId, "/quote", query, clientIp, true);
   }
 
-  public Mono<ResponseEntity<String>> swapQuote(
+  public Mono<ResponseEntity<Flux<DataBuffer>>> swapQuote(
       int chainId, MultiValueMap<String, String> query, String clientIp) {
-    return get(chainId, "/swap_quote", query, clientIp);
+    return get(chainId, "/swap_quote", query, clientIp, false);
   }
 }
@@ -27,6 +27,7 @@ import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -111,7 +112,7 @@ public class PortfolioAggregatorService {
   private final List<Integer> defaultChainIds;
 
   public PortfolioAggregatorService(
-      WebClient webClient,
+      @Qualifier("ankrWebClient") WebClient webClient,
       RedisCache cache,
       ObjectProvider<Web3j> bscWeb3jProvider,
       VeilxDexPriceService veilxDex,
@@ -11,32 +11,55 @@ import io.statusmvp.pricebackend.model.PriceQuote;
 import io.statusmvp.pricebackend.util.PriceMappings;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
 
 @Service
 public class PriceAggregatorService {
+  private static final Logger log = LoggerFactory.getLogger(PriceAggregatorService.class);
   private final CoinGeckoClient coinGecko;
   private final CoinMarketCapClient cmc;
   private final BinanceClient binance;
+  private final BinanceTickerSnapshotService binanceTickers;
   private final DexScreenerClient dexScreener;
-  private final RedisCache cache;
+  private final ReactiveRedisCache cache;
+  private final PriceQuoteCache quoteCache;
+  private final PriceDemandTracker demand;
   private final CoinGeckoIdResolver coinGeckoIds;
   private final VeilxDexPriceService veilxDex;
   private final PriceHistoryService priceHistory;
+  private final PriceHedgePolicy hedgePolicy;
   private final ObjectMapper mapper = new ObjectMapper();
 
-  private final long priceTtlSeconds;
   private final long requestTtlSeconds;
   private final long lastGoodPriceTtlSeconds;
+  private final Duration requestTimeout;
+
+  // Per-provider fan-out bounds; keep these well under each provider's burst rate limit.
+  private static final int CMC_CONCURRENCY = 4;
+  private static final int BINANCE_CONCURRENCY = 8;
+  private static final int VEIL_DEX_CONCURRENCY = 3;
+  private static final Set<String> VEIL_DEX_SYMBOLS = Set.of("VEIL", "VEILX", "VIPL");
 
   // Accept exchange-friendly symbols (Binance/CMC) to avoid URI encoding failures.
   private static final Pattern SAFE_EXCHANGE_SYMBOL = Pattern.compile("^[A-Z0-9]{1,20}$");
@@ -48,28 +71,51 @@ public class PriceAggregatorService {
       CoinGeckoClient coinGecko,
       CoinMarketCapClient cmc,
       BinanceClient binance,
+      BinanceTickerSnapshotService binanceTickers,
       DexScreenerClient dexScreener,
-      RedisCache cache,
+      ReactiveRedisCache cache,
+      PriceQuoteCache quoteCache,
+      PriceDemandTracker demand,
       CoinGeckoIdResolver coinGeckoIds,
       VeilxDexPriceService veilxDex,
       PriceHistoryService priceHistory,
-      @Value("${app.cache.priceTtlSeconds:120}") long priceTtlSeconds,
+      PriceHedgePolicy hedgePolicy,
       @Value("${app.cache.requestTtlSeconds:30}") long requestTtlSeconds,
-      @Value("${app.cache.lastGoodPriceTtlSeconds:259200}") long lastGoodPriceTtlSeconds) {
+      @Value("${app.cache.lastGoodPriceTtlSeconds:259200}") long lastGoodPriceTtlSeconds,
+      @Value("${app.price.requestTimeoutMs:12000}") long requestTimeoutMs) {
     this.coinGecko = coinGecko;
     this.cmc = cmc;
     this.binance = binance;
+    this.binanceTickers = binanceTickers;
     this.dexScreener = dexScreener;
     this.cache = cache;
+    this.quoteCache = quoteCache;
+    this.demand = demand;
     this.coinGeckoIds = coinGeckoIds;
     this.veilxDex = veilxDex;
     this.priceHistory = priceHistory;
-    this.priceTtlSeconds = priceTtlSeconds;
+    this.hedgePolicy = hedgePolicy;
     this.requestTtlSeconds = requestTtlSeconds;
     this.lastGoodPriceTtlSeconds = lastGoodPriceTtlSeconds;
+    this.requestTimeout = Duration.ofMillis(Math.max(1000L, requestTimeoutMs));
   }
 
+  /**
+   * Blocking variant of {@link #fetchPrices} for callers that already run on a worker thread (the
+   * portfolio aggregation).
+   */
   public List<PriceQuote> getPrices(List<String> symbols, String currency) {
+    List<PriceQuote> out = fetchPrices(symbols, currency).block();
+    return out == null ? List.of() : out;
+  }
+
+  /**
+   * Prices all requested symbols concurrently. Each provider stage only sees the symbols that the
+   * previous stages left unresolved, and the whole provider phase is bounded by {@code
+   * app.price.requestTimeoutMs}; whatever is still missing at the deadline falls through to the
+   * stablecoin / last-known-good fallbacks.
+   */
+  public Mono<List<PriceQuote>> fetchPrices(List<String> symbols, String currency) {
     String cur = normalizeCurrency(currency);
     List<String> normSymbols =
         symbols.stream()
@@ -79,188 +125,549 @@ public class PriceAggregatorService {
             .distinct()
             .sorted()
             .toList();
+    demand.recordSymbols(normSymbols);
 
-    String requestKey = "req:prices:" + cur + ":" + sha1(String.join(",", normSymbols));
-    Optional<String> cached = cache.get(requestKey);
-    if (cached.isPresent()) {
-      try {
-        return mapper.readValue(cached.get(), new TypeReference<List<PriceQuote>>() {});
-      } catch (Exception ignored) {
-        // fall through
-      }
+    // Hot path: every symbol already decoded in L1 -> answer without any I/O.
+    List<PriceQuote> local = new ArrayList<>();
+    for (String symbol : normSymbols) {
+      PriceQuote q = quoteCache.getLocal(symbolPriceKey(symbol, cur)).orElse(null);
+      if (q == null) break;
+      local.add(q);
     }
+    if (local.size() == normSymbols.size()) return Mono.just(local);
 
+    String requestKey = "req:prices:" + cur + ":" + sha1(String.join(",", normSymbols));
+    return readCachedQuotes(requestKey)
+        .switchIfEmpty(
+            Mono.defer(() -> priceSymbols(normSymbols, cur, requestKey, false, UpstreamBudget.UNLIMITED)));
+  }
+
+  /**
+   * Re-prices already-normalized symbols from the providers, ignoring cached quotes, and writes the
+   * fresh per-symbol entries. Every provider request is charged to {@code budget}; once it is spent
+   * the remaining stages are skipped. Used by {@link PriceWarmerService}; not counted as demand.
+   */
+  public Mono<List<PriceQuote>> refreshPrices(
+      List<String> normSymbols, String currency, UpstreamBudget budget) {
+    return priceSymbols(normSymbols, normalizeCurrency(currency), null, true, budget);
+  }
+
+  private Mono<List<PriceQuote>> priceSymbols(
+      List<String> normSymbols,
+      String currency,
+      String requestKey,
+      boolean bypassCache,
+      UpstreamBudget budget) {
     long ts = Instant.now().toEpochMilli();
-    List<PriceQuote> out = new ArrayList<>();
-    for (String symbol : normSymbols) {
-      out.add(getSingleSymbolPrice(symbol, cur, ts));
-    }
+    List<SymbolPricing> states =
+        normSymbols.stream()
+            // Use requested symbol as the response key, but normalize for lookup (providers often require ASCII).
+            .map(symbol -> new SymbolPricing(symbol, normalizeLookupSymbol(symbol)))
+            .toList();
+    AtomicBoolean deadlineExceeded = new AtomicBoolean(false);
 
-    try {
-      cache.set(requestKey, mapper.writeValueAsString(out), requestTtlSeconds);
-    } catch (Exception ignored) {}
+    return loadOrClaimSymbols(states, currency, bypassCache)
+        .then(
+            Mono.defer(
+                () ->
+                    resolveSymbolsFromProviders(
+                            states.stream().filter(p -> p.claimed).toList(), currency, budget)
+                        .timeout(
+                            requestTimeout,
+                            Mono.fromRunnable(
+                                () -> {
+                                  deadlineExceeded.set(true);
+                                  log.warn(
+                                      "price request deadline exceeded: symbols={} timeoutMs={}",
+                                      normSymbols.size(),
+                                      requestTimeout.toMillis());
+                                }))))
+        .then(Mono.defer(() -> finalizeClaimedQuotes(states, currency, ts, deadlineExceeded.get())))
+        .then(Mono.defer(() -> awaitJoinedQuotes(states, currency, ts)))
+        .then(Mono.defer(() -> collectSymbolQuotes(states, deadlineExceeded.get(), requestKey)))
+        .doFinally(
+            signal ->
+                states.stream()
+                    .filter(p -> p.claimed)
+                    .forEach(p -> quoteCache.release(symbolPriceKey(p.symbol, currency))));
+  }
 
-    return out;
+  /**
+   * Per-symbol cache (L1, then one MGET for the rest). Misses are claimed for this request unless
+   * another request on this node is already fetching the same symbol, in which case we wait for its
+   * result instead.
+   */
+  private Mono<Void> loadOrClaimSymbols(List<SymbolPricing> states, String currency, boolean bypassCache) {
+    Mono<Map<String, PriceQuote>> cached =
+        bypassCache
+            ? Mono.just(Map.of())
+            : quoteCache.getAll(states.stream().map(p -> symbolPriceKey(p.symbol, currency)).toList());
+    return cached
+        .doOnNext(
+            hits -> {
+              for (SymbolPricing p : states) {
+                String key = symbolPriceKey(p.symbol, currency);
+                PriceQuote hit = hits.get(key);
+                if (hit != null) {
+                  p.result = hit;
+                  continue;
+                }
+                p.joined = quoteCache.joinOrClaim(key);
+                p.claimed = p.joined == null;
+              }
+            })
+        .then();
   }
 
-  private PriceQuote getSingleSymbolPrice(String symbol, String currency, long ts) {
-    // Use requested symbol as the response key, but normalize for lookup (providers often require ASCII).
-    String lookup = normalizeLookupSymbol(symbol);
+  private Mono<Void> awaitJoinedQuotes(List<SymbolPricing> states, String currency, long ts) {
+    return Flux.fromIterable(states)
+        .filter(p -> p.joined != null)
+        .flatMap(
+            p ->
+                p.joined
+                    .timeout(requestTimeout)
+                    .onErrorResume(e -> Mono.empty())
+                    // The owning request gave up; fall back to stablecoin / last-known-good on our own.
+                    .switchIfEmpty(
+                        Mono.defer(() -> finalizeSymbolQuotes(List.of(p), currency, ts, true))
+                            .map(quotes -> quotes.get(0)))
+                    .doOnNext(q -> p.result = q))
+        .then();
+  }
 
-    // Per-symbol cache
-    String key = "price:symbol:" + symbol + ":" + currency;
-    Optional<String> cached = cache.get(key);
-    if (cached.isPresent()) {
-      try {
-        return mapper.readValue(cached.get(), PriceQuote.class);
-      } catch (Exception ignored) {}
+  private Mono<Void> resolveSymbolsFromProviders(
+      List<SymbolPricing> pending, String currency, UpstreamBudget budget) {
+    if (pending.isEmpty()) return Mono.empty();
+    List<MarketStage> marketStages =
+        List.of(
+            new MarketStage("coingecko", hedge -> coinGeckoStage(pending, hedge, budget)),
+            new MarketStage("coinmarketcap", hedge -> coinMarketCapStage(pending, hedge, budget)),
+            new MarketStage("binance", hedge -> binanceStage(pending, hedge, budget)));
+    return marketStages(pending, marketStages)
+        .then(Mono.defer(() -> onchainStage(pending, currency, budget)))
+        .then(Mono.defer(() -> dexScreenerStage(pending, currency, budget)))
+        .then(Mono.defer(() -> veilDexStage(pending, currency, budget)));
+  }
+
+  /**
+   * Stages 1-3 price the same majors, in order of preference. Without hedging (or while a stage
+   * answers within its p95) they run strictly one after another. Otherwise the next stage is started
+   * as a hedge alongside the slow one and each symbol keeps whichever price lands first; the race
+   * ends as soon as every symbol is priced, cancelling the slower side. The chain then carries on
+   * from the hedged stage, which only asks for symbols its hedge did not already try.
+   */
+  private Mono<Void> marketStages(List<SymbolPricing> pending, List<MarketStage> stages) {
+    if (stages.isEmpty()) return Mono.empty();
+    MarketStage head = stages.get(0);
+    List<MarketStage> rest = stages.subList(1, stages.size());
+    Duration hedgeAfter = rest.isEmpty() ? null : hedgePolicy.hedgeAfter(head.provider());
+    Mono<Void> headStage =
+        hedgeAfter == null
+            ? head.run().apply(false)
+            : raceWithNext(pending, head, rest.get(0), hedgeAfter);
+    return headStage.then(Mono.defer(() -> marketStages(pending, rest)));
+  }
+
+  private Mono<Void> raceWithNext(
+      List<SymbolPricing> pending, MarketStage head, MarketStage next, Duration hedgeAfter) {
+    return Mono.defer(
+        () -> {
+          Sinks.One<Boolean> headDone = Sinks.one();
+          Mono<Void> primary = head.run().apply(false).doFinally(signal -> headDone.tryEmitValue(true));
+          Mono<Void> hedge =
+              Mono.delay(hedgeAfter)
+                  .takeUntilOther(headDone.asMono())
+                  .filter(tick -> hasUnpriced(pending))
+                  .flatMap(
+                      tick -> {
+                        log.debug(
+                            "price.hedge provider={} hedge={} afterMs={} symbols={}",
+                            head.provider(),
+                            next.provider(),
+                            hedgeAfter.toMillis(),
+                            pending.size());
+                        return next.run().apply(true);
+                      });
+          return Flux.merge(primary.thenReturn(true), hedge.thenReturn(true))
+              .takeUntil(finished -> !hasUnpriced(pending))
+              .then();
+        });
+  }
+
+  /**
+   * {@code requests} upstream requests of a market stage. Primary requests earn hedge budget; a hedge
+   * request is only sent if it can be paid for. Either kind is also charged to the caller's {@code
+   * budget}.
+   */
+  private <T> Mono<T> upstreamRequest(
+      String provider, boolean hedge, UpstreamBudget budget, int requests, Supplier<Mono<T>> request) {
+    if (!hedge) {
+      if (!budget.tryAcquire(provider, requests)) return Mono.empty();
+      hedgePolicy.onPrimaryRequest();
+      return request.get();
     }
+    return hedgePolicy.tryAcquire(provider) && budget.tryAcquire(provider, requests)
+        ? request.get()
+        : Mono.empty();
+  }
 
-    // 1) CoinGecko Pro (symbol -> id)
-    Double price = null;
-    Double change24hPct = null;
-    String source = null;
-    if (coinGecko.isEnabled()) {
-      String id = coinGeckoIds.resolve(lookup);
-      if (id != null) {
-        PriceMarketData marketData = coinGecko.fetchSimpleUsdQuote(id).orElse(null);
-        if (marketData != null && positiveOrNull(marketData.price()) != null) {
-          price = marketData.price();
-          change24hPct = marketData.change24hPct();
-          source = "coingecko";
-        }
-      }
+  /** Per-symbol {@link #upstreamRequest}; skips symbols a hedge already asked {@code provider} for. */
+  private <T> Mono<T> upstreamRequest(
+      String provider, boolean hedge, UpstreamBudget budget, SymbolPricing p, Supplier<Mono<T>> request) {
+    if (p.triedProviders.contains(provider)) return Mono.empty();
+    return upstreamRequest(
+        provider,
+        hedge,
+        budget,
+        1,
+        () -> {
+          p.triedProviders.add(provider);
+          return request.get();
+        });
+  }
+
+  /** {@code requests} upstream requests outside the hedged market stages, charged to {@code budget}. */
+  private static <T> Mono<T> budgetedRequest(
+      String provider, UpstreamBudget budget, int requests, Supplier<Mono<T>> request) {
+    return budget.tryAcquire(provider, requests) ? request.get() : Mono.empty();
+  }
+
+  private static boolean hasUnpriced(List<SymbolPricing> pending) {
+    for (SymbolPricing p : pending) {
+      if (p.price == null) return true;
     }
+    return false;
+  }
 
-    // 2) CoinMarketCap
-    if (price == null && cmc.isEnabled() && isSafeExchangeSymbol(lookup)) {
-      PriceMarketData marketData = cmc.fetchUsdQuoteBySymbol(lookup).orElse(null);
-      if (marketData != null && positiveOrNull(marketData.price()) != null) {
-        price = marketData.price();
-        change24hPct = marketData.change24hPct();
-        source = "coinmarketcap";
-      }
+  // 1) CoinGecko Pro (symbol -> id). Ids are resolved up front so the whole watchlist costs one
+  // chunked /simple/price request instead of one request per symbol.
+  private Mono<Void> coinGeckoStage(List<SymbolPricing> pending, boolean hedge, UpstreamBudget budget) {
+    if (!coinGecko.isEnabled()) return Mono.empty();
+    Map<String, List<SymbolPricing>> byCoinId = new LinkedHashMap<>();
+    for (SymbolPricing p : pending) {
+      String id = coinGeckoIds.resolve(p.lookup);
+      if (id == null) continue;
+      byCoinId.computeIfAbsent(id, k -> new ArrayList<>()).add(p);
     }
+    if (byCoinId.isEmpty()) return Mono.empty();
 
-    // 3) Binance (USDT pair)
-    if (price == null && isSafeExchangeSymbol(lookup)) {
-      PriceMarketData marketData = binance.fetchUsdQuoteViaUsdtPair(lookup).orElse(null);
-      if (marketData != null && positiveOrNull(marketData.price()) != null) {
-        price = marketData.price();
-        change24hPct = marketData.change24hPct();
-        source = "binance";
-      }
+    return upstreamRequest(
+            "coingecko",
+            hedge,
+            budget,
+            CoinGeckoClient.simplePriceRequests(byCoinId.size()),
+            () -> coinGecko.fetchSimpleUsdQuotes(byCoinId.keySet()))
+        .doOnNext(
+            got ->
+                byCoinId.forEach(
+                    (id, targets) -> {
+                      PriceMarketData marketData = got.get(id);
+                      if (marketData == null) return;
+                      targets.forEach(p -> p.acceptIfMissing(marketData, "coingecko"));
+                    }))
+        .then();
+  }
+
+  // 2) CoinMarketCap
+  private Mono<Void> coinMarketCapStage(List<SymbolPricing> pending, boolean hedge, UpstreamBudget budget) {
+    if (!cmc.isEnabled()) return Mono.empty();
+    return Flux.fromIterable(pending)
+        .filter(p -> p.price == null && isSafeExchangeSymbol(p.lookup))
+        .flatMap(
+            p ->
+                upstreamRequest("coinmarketcap", hedge, budget, p, () -> cmc.fetchUsdQuoteBySymbol(p.lookup))
+                    .doOnNext(md -> p.acceptIfMissing(md, "coinmarketcap")),
+            CMC_CONCURRENCY)
+        .then();
+  }
+
+  // 3) Binance (USDT pair). Served from the in-memory 24hr ticker snapshot; the per-symbol ticker
+  // call is only used while the snapshot is unavailable (startup, Binance outage).
+  private Mono<Void> binanceStage(List<SymbolPricing> pending, boolean hedge, UpstreamBudget budget) {
+    Flux<SymbolPricing> targets =
+        Flux.fromIterable(pending).filter(p -> p.price == null && isSafeExchangeSymbol(p.lookup));
+    if (binanceTickers.isFresh()) {
+      return targets
+          .doOnNext(p -> binanceTickers.quote(p.lookup).ifPresent(md -> p.acceptIfMissing(md, "binance")))
+          .then();
     }
+    return targets
+        .flatMap(
+            p ->
+                upstreamRequest(
+                        "binance", hedge, budget, p, () -> binance.fetchUsdQuoteViaUsdtPair(p.lookup))
+                    .doOnNext(md -> p.acceptIfMissing(md, "binance")),
+            BINANCE_CONCURRENCY)
+        .then();
+  }
 
-    // 4) VEIL / VEILX / VIPL on-chain CoinGecko quote. This gives us true 24h market change instead of a
-    // Pancake spot-only fallback.
-    if ("usd".equals(currency) && coinGecko.isEnabled() && veilxDex != null) {
-      String contract = configuredBscContractForSymbol(lookup);
-
-      String onchainNetworkId = PriceMappings.COINGECKO_ONCHAIN_NETWORKS.get(56);
-      if (!contract.isBlank()
-          && onchainNetworkId != null
-          && (price == null || change24hPct == null)) {
-        PriceMarketData marketData =
-            coinGecko.fetchOnchainTokenQuotes(56, onchainNetworkId, contract, true).get(contract);
-        if (marketData != null && positiveOrNull(marketData.price()) != null) {
-          if (price == null) {
-            price = marketData.price();
-          }
-          if (change24hPct == null) {
-            change24hPct = marketData.change24hPct();
-          }
-          source = "coingecko_onchain";
-        }
-      }
+  // 4) VEIL / VEILX / VIPL on-chain CoinGecko quote. This gives us true 24h market change instead of a
+  // Pancake spot-only fallback. All configured contracts still missing data go out in one request.
+  private Mono<Void> onchainStage(List<SymbolPricing> pending, String currency, UpstreamBudget budget) {
+    String onchainNetworkId = PriceMappings.COINGECKO_ONCHAIN_NETWORKS.get(56);
+    if (!"usd".equals(currency) || !coinGecko.isEnabled() || veilxDex == null || onchainNetworkId == null) {
+      return Mono.empty();
     }
+    Map<String, List<SymbolPricing>> byContract = configuredContractTargets(pending);
+    if (byContract.isEmpty()) return Mono.empty();
 
-    // 5) DEX Screener fallback for configured long-tail BSC tokens.
-    if ("usd".equals(currency) && dexScreener != null && dexScreener.isEnabled()) {
-      String contract = configuredBscContractForSymbol(lookup);
-      if (!contract.isBlank() && (price == null || change24hPct == null)) {
-        PriceMarketData marketData =
-            dexScreener.fetchTokenQuotesByContract(56, List.of(contract)).get(contract);
-        if (marketData != null && positiveOrNull(marketData.price()) != null) {
-          if (price == null) {
-            price = marketData.price();
-          }
-          if (change24hPct == null) {
-            change24hPct = marketData.change24hPct();
-          }
-          source = source == null ? "dexscreener" : source + "+dexscreener";
-        }
-      }
+    String csv = String.join(",", byContract.keySet());
+    return budgetedRequest(
+            "coingecko_onchain",
+            budget,
+            1,
+            () -> coinGecko.fetchOnchainTokenQuotes(56, onchainNetworkId, csv, true))
+        .doOnNext(
+            got ->
+                byContract.forEach(
+                    (contract, targets) -> {
+                      PriceMarketData marketData = got.get(contract);
+                      if (marketData == null || positiveOrNull(marketData.price()) == null) return;
+                      for (SymbolPricing p : targets) {
+                        p.fillGaps(marketData);
+                        p.source = "coingecko_onchain";
+                      }
+                    }))
+        .then();
+  }
+
+  // 5) DEX Screener fallback for configured long-tail BSC tokens.
+  private Mono<Void> dexScreenerStage(List<SymbolPricing> pending, String currency, UpstreamBudget budget) {
+    if (!"usd".equals(currency) || dexScreener == null || !dexScreener.isEnabled()) return Mono.empty();
+    Map<String, List<SymbolPricing>> byContract = configuredContractTargets(pending);
+    if (byContract.isEmpty()) return Mono.empty();
+
+    return budgetedRequest(
+            "dexscreener",
+            budget,
+            DexScreenerClient.requestsFor(byContract.size()),
+            () -> dexScreener.fetchTokenQuotesByContract(56, List.copyOf(byContract.keySet())))
+        .doOnNext(
+            got ->
+                byContract.forEach(
+                    (contract, targets) -> {
+                      PriceMarketData marketData = got.get(contract);
+                      if (marketData == null || positiveOrNull(marketData.price()) == null) return;
+                      for (SymbolPricing p : targets) {
+                        p.fillGaps(marketData);
+                        p.source = p.source == null ? "dexscreener" : p.source + "+dexscreener";
+                      }
+                    }))
+        .then();
+  }
+
+  // 7) VEIL / VEILX / VIPL on-chain DEX pricing as the final fallback when market APIs do not cover them.
+  // Router calls go through blocking web3j, so they run on the bounded elastic pool.
+  private Mono<Void> veilDexStage(List<SymbolPricing> pending, String currency, UpstreamBudget budget) {
+    if (!"usd".equals(currency) || veilxDex == null || !veilxDex.isEnabled()) return Mono.empty();
+    return Flux.fromIterable(pending)
+        .filter(p -> p.price == null && VEIL_DEX_SYMBOLS.contains(p.lookup))
+        .flatMap(
+            p ->
+                budgetedRequest(
+                        "pancakeswap_v2",
+                        budget,
+                        1,
+                        () ->
+                            Mono.fromCallable(() -> fetchVeilDexPrice(p.lookup).orElse(null))
+                                .subscribeOn(Schedulers.boundedElastic()))
+                    .doOnNext(
+                        price -> {
+                          p.price = price;
+                          p.change24hPct = null;
+                          p.source = "pancakeswap_v2";
+                        }),
+            VEIL_DEX_CONCURRENCY)
+        .then();
+  }
+
+  private Optional<Double> fetchVeilDexPrice(String lookup) {
+    return switch (lookup) {
+      case "VEIL" -> veilxDex.fetchVeilUsdPrice();
+      case "VEILX" -> veilxDex.fetchVeilxUsdPrice();
+      case "VIPL" -> veilxDex.fetchViplUsdPrice();
+      default -> Optional.empty();
+    };
+  }
+
+  private Map<String, List<SymbolPricing>> configuredContractTargets(List<SymbolPricing> pending) {
+    Map<String, List<SymbolPricing>> out = new LinkedHashMap<>();
+    for (SymbolPricing p : pending) {
+      if (p.price != null && p.change24hPct != null) continue;
+      String contract = configuredBscContractForSymbol(p.lookup);
+      if (contract.isBlank()) continue;
+      out.computeIfAbsent(contract, k -> new ArrayList<>()).add(p);
     }
+    return out;
+  }
 
-    // 6) Stablecoin fallback.
-    if (price == null && "usd".equals(currency) && !lookup.isBlank() && PriceMappings.STABLECOINS.contains(lookup)) {
-      price = 1.0d;
-      change24hPct = null;
-      source = "stablecoin_fallback";
+  private Mono<Void> finalizeClaimedQuotes(
+      List<SymbolPricing> states, String currency, long ts, boolean partial) {
+    List<SymbolPricing> claimed = states.stream().filter(p -> p.claimed).toList();
+    if (claimed.isEmpty()) return Mono.empty();
+    return finalizeSymbolQuotes(claimed, currency, ts, partial)
+        .doOnNext(
+            quotes -> {
+              for (int i = 0; i < claimed.size(); i++) {
+                SymbolPricing p = claimed.get(i);
+                p.result = quotes.get(i);
+                quoteCache.complete(symbolPriceKey(p.symbol, currency), p.result);
+                p.claimed = false;
+              }
+            })
+        .then();
+  }
+
+  private Mono<List<PriceQuote>> collectSymbolQuotes(
+      List<SymbolPricing> states, boolean partial, String requestKey) {
+    List<PriceQuote> out = new ArrayList<>();
+    for (SymbolPricing p : states) {
+      out.add(p.result);
     }
 
-    // 7) VEIL / VEILX / VIPL on-chain DEX pricing as the final fallback when market APIs do not cover them.
-    if (price == null && "usd".equals(currency) && veilxDex != null && veilxDex.isEnabled()) {
-      if ("VEIL".equals(lookup)) {
-        price = veilxDex.fetchVeilUsdPrice().orElse(null);
-        if (price != null) {
-          change24hPct = null;
-          source = "pancakeswap_v2";
-        }
-      } else if ("VEILX".equals(lookup)) {
-        price = veilxDex.fetchVeilxUsdPrice().orElse(null);
-        if (price != null) {
-          change24hPct = null;
-          source = "pancakeswap_v2";
-        }
-      } else if ("VIPL".equals(lookup)) {
-        price = veilxDex.fetchViplUsdPrice().orElse(null);
-        if (price != null) {
-          change24hPct = null;
-          source = "pancakeswap_v2";
-        }
+    // A deadline-truncated response is not cached so the next request gets another shot at the providers.
+    return writeRequestCache(partial ? null : requestKey, out).thenReturn(out);
+  }
+
+  private Mono<List<PriceQuote>> finalizeSymbolQuotes(
+      List<SymbolPricing> ps, String currency, long ts, boolean partial) {
+    List<QuoteDraft> drafts = new ArrayList<>();
+    for (SymbolPricing p : ps) {
+      String symbol = p.symbol;
+      String lookup = p.lookup;
+      QuoteDraft d =
+          new QuoteDraft(
+              symbolPriceKey(symbol, currency),
+              "price:lastgood:" + symbol + ":" + currency,
+              PriceHistoryService.symbolAssetKey(lookup.isBlank() ? symbol : lookup),
+              symbol,
+              null,
+              null);
+      d.price = p.price;
+      d.change24hPct = p.change24hPct;
+      d.source = p.source;
+
+      // 6) Stablecoin fallback.
+      if (d.price == null
+          && "usd".equals(currency)
+          && !lookup.isBlank()
+          && PriceMappings.STABLECOINS.contains(lookup)) {
+        d.price = 1.0d;
+        d.change24hPct = null;
+        d.source = "stablecoin_fallback";
       }
+      drafts.add(d);
     }
+    return settleDrafts(drafts, currency, ts, partial);
+  }
 
+  /**
+   * Shared tail of the symbol and contract paths: last-known-good fallback, 24h change from market
+   * history, and the cache writes. Each step is one Redis batch for all drafts.
+   */
+  private Mono<List<PriceQuote>> settleDrafts(
+      List<QuoteDraft> drafts, String currency, long ts, boolean partial) {
     // 8) Last-known-good fallback. Long-tail on-chain tokens (VEIL/VEILX/VIPL) sit behind thin
     // liquidity and tax/anti-bot contracts, so every live source above can miss intermittently even
     // though a real price exists. Rather than surface null (-> "$0.00" client-side), serve the most
     // recent successfully-fetched price until a fresh one comes in.
-    String lastGoodKey = "price:lastgood:" + symbol + ":" + currency;
-    if (price == null) {
-      price = readLastGoodPrice(lastGoodKey);
-      if (price != null) {
-        change24hPct = null;
-        source = "stale_cache";
-      }
-    } else {
-      cache.set(lastGoodKey, price.toString(), lastGoodPriceTtlSeconds);
-    }
+    List<String> lastGoodMisses =
+        drafts.stream().filter(d -> positiveOrNull(d.price) == null).map(d -> d.lastGoodKey).toList();
 
-    if ("usd".equals(currency)
-        && priceHistory != null
-        && positiveOrNull(price) != null
-        && !"stale_cache".equals(source)) {
-      String historyAssetKey = PriceHistoryService.symbolAssetKey(lookup.isBlank() ? symbol : lookup);
-      change24hPct = priceHistory.resolveChange24hPct(historyAssetKey, price, change24hPct, ts);
-    }
+    return cache
+        .multiGet(lastGoodMisses)
+        .flatMap(
+            lastGood -> {
+              Map<String, String> lastGoodWrites = new LinkedHashMap<>();
+              List<QuoteDraft> tracked = new ArrayList<>();
+              for (QuoteDraft d : drafts) {
+                if (positiveOrNull(d.price) == null) {
+                  Double stale = parseLastGoodPrice(lastGood.get(d.lastGoodKey));
+                  if (stale != null) {
+                    d.price = stale;
+                    d.change24hPct = null;
+                    d.source = "stale_cache";
+                  }
+                } else {
+                  lastGoodWrites.put(d.lastGoodKey, d.price.toString());
+                }
+                if ("usd".equals(currency)
+                    && priceHistory != null
+                    && positiveOrNull(d.price) != null
+                    && !"stale_cache".equals(d.source)) {
+                  tracked.add(d);
+                }
+              }
+
+              Mono<List<Double>> changes =
+                  tracked.isEmpty()
+                      ? Mono.just(List.of())
+                      : priceHistory.resolveChange24hPcts(
+                          tracked.stream()
+                              .map(
+                                  d ->
+                                      new PriceHistoryService.Observation(
+                                          d.historyAssetKey, d.price, d.change24hPct, ts))
+                              .toList());
+
+              return changes.flatMap(
+                  resolved -> {
+                    for (int i = 0; i < tracked.size() && i < resolved.size(); i++) {
+                      tracked.get(i).change24hPct = resolved.get(i);
+                    }
+                    List<PriceQuote> out = new ArrayList<>();
+                    Map<String, PriceQuote> cacheable = new LinkedHashMap<>();
+                    for (QuoteDraft d : drafts) {
+                      PriceQuote q = d.toQuote(currency, ts);
+                      out.add(q);
+                      if (q.price() != null || !partial) cacheable.put(d.priceKey, q);
+                    }
+                    return Mono.when(
+                            quoteCache.putAll(cacheable),
+                            cache.multiSet(lastGoodWrites, lastGoodPriceTtlSeconds))
+                        .thenReturn(out);
+                  });
+            });
+  }
 
-    PriceQuote q = new PriceQuote(symbol, price, change24hPct, currency, ts, source, null, null);
+  private Mono<Void> writeRequestCache(String requestKey, List<PriceQuote> quotes) {
+    if (requestKey == null) return Mono.empty();
     try {
-      cache.set(key, mapper.writeValueAsString(q), priceTtlSeconds);
-    } catch (Exception ignored) {}
-    return q;
+      return cache.set(requestKey, mapper.writeValueAsString(quotes), requestTtlSeconds);
+    } catch (Exception ignored) {
+      return Mono.empty();
+    }
   }
 
-  private Double readLastGoodPrice(String key) {
-    return cache.get(key).map(v -> {
-      try {
-        return Double.valueOf(v);
-      } catch (NumberFormatException e) {
-        return null;
-      }
-    }).orElse(null);
+  private Mono<List<PriceQuote>> readCachedQuotes(String requestKey) {
+    return cache
+        .get(requestKey)
+        .mapNotNull(
+            cached -> {
+              try {
+                return mapper.readValue(cached, new TypeReference<List<PriceQuote>>() {});
+              } catch (Exception ignored) {
+                // fall through
+                return null;
+              }
+            });
+  }
+
+  static String symbolPriceKey(String symbol, String currency) {
+    return "price:symbol:" + symbol + ":" + currency;
+  }
+
+  static String contractPriceKey(int chainId, String normalizedAddress, String currency) {
+    return "price:contract:" + chainId + ":" + normalizedAddress + ":" + currency;
+  }
+
+  private static Double parseLastGoodPrice(String raw) {
+    if (raw == null) return null;
+    try {
+      return Double.valueOf(raw);
+    } catch (NumberFormatException e) {
+      return null;
+    }
   }
 
   private static boolean isSafeExchangeSymbol(String symbol) {
@@ -307,7 +714,14 @@ public class PriceAggregatorService {
     return s;
   }
 
+  /** Blocking variant of {@link #fetchPricesByContract}; see {@link #getPrices}. */
   public List<PriceQuote> getPricesByContract(int chainId, List<String> contractAddresses, String currency) {
+    List<PriceQuote> out = fetchPricesByContract(chainId, contractAddresses, currency).block();
+    return out == null ? List.of() : out;
+  }
+
+  public Mono<List<PriceQuote>> fetchPricesByContract(
+      int chainId, List<String> contractAddresses, String currency) {
     String cur = normalizeCurrency(currency);
     List<String> addrs =
         contractAddresses.stream()
@@ -317,179 +731,316 @@ public class PriceAggregatorService {
             .sorted()
             .toList();
 
-    String requestKey = "req:contracts:" + chainId + ":" + cur + ":" + sha1(String.join(",", addrs));
-    Optional<String> cached = cache.get(requestKey);
-    if (cached.isPresent()) {
-      try {
-        return mapper.readValue(cached.get(), new TypeReference<List<PriceQuote>>() {});
-      } catch (Exception ignored) {
-        // fall through
-      }
+    demand.recordContracts(chainId, addrs);
+
+    List<PriceQuote> local = new ArrayList<>();
+    for (String addr : addrs) {
+      PriceQuote q = quoteCache.getLocal(contractPriceKey(chainId, addr, cur)).orElse(null);
+      if (q == null) break;
+      local.add(q);
     }
+    if (local.size() == addrs.size()) return Mono.just(local);
+
+    String requestKey = "req:contracts:" + chainId + ":" + cur + ":" + sha1(String.join(",", addrs));
+    return readCachedQuotes(requestKey)
+        .switchIfEmpty(
+            Mono.defer(
+                () -> priceContracts(chainId, addrs, cur, requestKey, false, UpstreamBudget.UNLIMITED)));
+  }
 
+  /** Contract counterpart of {@link #refreshPrices}; {@code addrs} must already be normalized. */
+  public Mono<List<PriceQuote>> refreshPricesByContract(
+      int chainId, List<String> addrs, String currency, UpstreamBudget budget) {
+    return priceContracts(chainId, addrs, normalizeCurrency(currency), null, true, budget);
+  }
+
+  private Mono<List<PriceQuote>> priceContracts(
+      int chainId,
+      List<String> addrs,
+      String cur,
+      String requestKey,
+      boolean bypassCache,
+      UpstreamBudget budget) {
     long ts = Instant.now().toEpochMilli();
-    Map<String, PriceMarketData> quotesByAddress = new HashMap<>();
-    Map<String, String> sourceByAddress = new HashMap<>();
+    Map<String, PriceQuote> cachedByAddress = new ConcurrentHashMap<>();
+    Map<String, PriceMarketData> quotesByAddress = new ConcurrentHashMap<>();
+    Map<String, String> sourceByAddress = new ConcurrentHashMap<>();
+    AtomicBoolean deadlineExceeded = new AtomicBoolean(false);
 
-    // 1) CoinGecko Pro token_price by platform
+    Mono<Map<String, PriceQuote>> cached =
+        bypassCache
+            ? Mono.just(Map.of())
+            : quoteCache.getAll(addrs.stream().map(addr -> contractPriceKey(chainId, addr, cur)).toList());
+    return cached
+        .doOnNext(
+            hits -> {
+              for (String addr : addrs) {
+                PriceQuote hit = hits.get(contractPriceKey(chainId, addr, cur));
+                if (hit != null) cachedByAddress.put(addr, hit);
+              }
+            })
+        .then(
+            Mono.defer(
+                () -> {
+                  List<String> missing =
+                      addrs.stream().filter(addr -> !cachedByAddress.containsKey(addr)).toList();
+                  if (missing.isEmpty()) return Mono.<Void>empty();
+                  return resolveContractsFromProviders(
+                          chainId, missing, cur, quotesByAddress, sourceByAddress, budget)
+                      .timeout(
+                          requestTimeout,
+                          Mono.fromRunnable(
+                              () -> {
+                                deadlineExceeded.set(true);
+                                log.warn(
+                                    "contract price request deadline exceeded: chainId={} contracts={} timeoutMs={}",
+                                    chainId,
+                                    missing.size(),
+                                    requestTimeout.toMillis());
+                              }));
+                }))
+        .then(
+            Mono.defer(
+                () ->
+                    finalizeContractQuotes(
+                        chainId,
+                        addrs,
+                        cur,
+                        ts,
+                        cachedByAddress,
+                        quotesByAddress,
+                        sourceByAddress,
+                        deadlineExceeded.get(),
+                        requestKey)));
+  }
+
+  private Mono<Void> resolveContractsFromProviders(
+      int chainId,
+      List<String> addrs,
+      String cur,
+      Map<String, PriceMarketData> quotesByAddress,
+      Map<String, String> sourceByAddress,
+      UpstreamBudget budget) {
+    return contractCoinGeckoStage(chainId, addrs, cur, quotesByAddress, sourceByAddress, budget)
+        .then(
+            Mono.defer(
+                () -> contractOnchainStage(chainId, addrs, cur, quotesByAddress, sourceByAddress, budget)))
+        .then(
+            Mono.defer(
+                () ->
+                    contractDexScreenerStage(
+                        chainId, addrs, cur, quotesByAddress, sourceByAddress, budget)))
+        .then(
+            Mono.defer(
+                () ->
+                    contractVeilRouterStage(
+                        chainId, addrs, cur, quotesByAddress, sourceByAddress, budget)));
+  }
+
+  // 1) CoinGecko Pro token_price by platform
+  private Mono<Void> contractCoinGeckoStage(
+      int chainId,
+      List<String> addrs,
+      String cur,
+      Map<String, PriceMarketData> quotesByAddress,
+      Map<String, String> sourceByAddress,
+      UpstreamBudget budget) {
     String platformId = PriceMappings.COINGECKO_PLATFORMS.get(chainId);
-    if (coinGecko.isEnabled() && platformId != null && !addrs.isEmpty() && "usd".equals(cur)) {
-      String csv = String.join(",", addrs);
-      Map<String, PriceMarketData> got =
-          coinGecko.fetchTokenQuotesByContract(chainId, platformId, csv);
-      if (!got.isEmpty()) {
-        for (Map.Entry<String, PriceMarketData> entry : got.entrySet()) {
-          String addressKey = normalizeContractAddress(chainId, entry.getKey());
-          PriceMarketData quote = entry.getValue();
-          if (addressKey.isBlank() || quote == null || positiveOrNull(quote.price()) == null) continue;
-          quotesByAddress.put(addressKey, quote);
-          sourceByAddress.put(addressKey, "coingecko");
-        }
-      }
+    if (!coinGecko.isEnabled() || platformId == null || addrs.isEmpty() || !"usd".equals(cur)) {
+      return Mono.empty();
     }
+    String csv = String.join(",", addrs);
+    return budgetedRequest(
+            "coingecko", budget, 1, () -> coinGecko.fetchTokenQuotesByContract(chainId, platformId, csv))
+        .doOnNext(
+            got -> {
+              for (Map.Entry<String, PriceMarketData> entry : got.entrySet()) {
+                String addressKey = normalizeContractAddress(chainId, entry.getKey());
+                PriceMarketData quote = entry.getValue();
+                if (addressKey.isBlank() || quote == null || positiveOrNull(quote.price()) == null) continue;
+                quotesByAddress.put(addressKey, quote);
+                sourceByAddress.put(addressKey, "coingecko");
+              }
+            })
+        .then();
+  }
 
-    // 1a) CoinGecko Pro onchain fallback. This covers long-tail DEX tokens such as VEILX / VIPL and
-    // also gives us 24h change data for chains that aren't pure EVM.
+  // 1a) CoinGecko Pro onchain fallback. This covers long-tail DEX tokens such as VEILX / VIPL and
+  // also gives us 24h change data for chains that aren't pure EVM.
+  private Mono<Void> contractOnchainStage(
+      int chainId,
+      List<String> addrs,
+      String cur,
+      Map<String, PriceMarketData> quotesByAddress,
+      Map<String, String> sourceByAddress,
+      UpstreamBudget budget) {
     String onchainNetworkId = PriceMappings.COINGECKO_ONCHAIN_NETWORKS.get(chainId);
-    if (coinGecko.isEnabled() && onchainNetworkId != null && !addrs.isEmpty() && "usd".equals(cur)) {
-      List<String> onchainTargets =
-          addrs.stream()
-              .filter(
-                  addr -> {
-                    PriceMarketData quote = quotesByAddress.get(addr);
-                    return quote == null
-                        || positiveOrNull(quote.price()) == null
-                        || quote.change24hPct() == null;
-                  })
-              .toList();
-      if (!onchainTargets.isEmpty()) {
-        String csv = String.join(",", onchainTargets);
-        Map<String, PriceMarketData> got =
-            coinGecko.fetchOnchainTokenQuotes(chainId, onchainNetworkId, csv, true);
-        for (Map.Entry<String, PriceMarketData> entry : got.entrySet()) {
-          String addressKey = normalizeContractAddress(chainId, entry.getKey());
-          PriceMarketData incoming = entry.getValue();
-          if (addressKey.isBlank() || incoming == null || positiveOrNull(incoming.price()) == null) continue;
-          PriceMarketData existing = quotesByAddress.get(addressKey);
-          if (existing == null || positiveOrNull(existing.price()) == null) {
-            quotesByAddress.put(addressKey, incoming);
-            sourceByAddress.put(addressKey, "coingecko_onchain");
-            continue;
-          }
-          if (existing.change24hPct() == null && incoming.change24hPct() != null) {
-            quotesByAddress.put(addressKey, new PriceMarketData(existing.price(), incoming.change24hPct()));
-            sourceByAddress.put(addressKey, "coingecko+onchain");
-          }
-        }
-      }
+    if (!coinGecko.isEnabled() || onchainNetworkId == null || addrs.isEmpty() || !"usd".equals(cur)) {
+      return Mono.empty();
     }
+    List<String> onchainTargets = missingQuoteOrChange(addrs, quotesByAddress);
+    if (onchainTargets.isEmpty()) return Mono.empty();
 
-    // 1b) DEX Screener fallback for long-tail DEX tokens that CoinGecko does not cover yet.
-    if ("usd".equals(cur) && dexScreener != null && dexScreener.isEnabled()) {
-      List<String> dexScreenerTargets =
-          addrs.stream()
-              .filter(
-                  addr -> {
-                    PriceMarketData quote = quotesByAddress.get(addr);
-                    return quote == null
-                        || positiveOrNull(quote.price()) == null
-                        || quote.change24hPct() == null;
-                  })
-              .toList();
-      if (!dexScreenerTargets.isEmpty()) {
-        Map<String, PriceMarketData> got =
-            dexScreener.fetchTokenQuotesByContract(chainId, dexScreenerTargets);
-        for (Map.Entry<String, PriceMarketData> entry : got.entrySet()) {
-          String addressKey = normalizeContractAddress(chainId, entry.getKey());
-          PriceMarketData incoming = entry.getValue();
-          if (addressKey.isBlank() || incoming == null || positiveOrNull(incoming.price()) == null) continue;
-          PriceMarketData existing = quotesByAddress.get(addressKey);
-          if (existing == null || positiveOrNull(existing.price()) == null) {
-            quotesByAddress.put(addressKey, incoming);
-            sourceByAddress.put(addressKey, "dexscreener");
-            continue;
-          }
-          if (existing.change24hPct() == null && incoming.change24hPct() != null) {
-            quotesByAddress.put(addressKey, new PriceMarketData(existing.price(), incoming.change24hPct()));
-            sourceByAddress.put(addressKey, sourceByAddress.get(addressKey) + "+dexscreener");
-          }
-        }
-      }
-    }
+    String csv = String.join(",", onchainTargets);
+    return budgetedRequest(
+            "coingecko_onchain",
+            budget,
+            1,
+            () -> coinGecko.fetchOnchainTokenQuotes(chainId, onchainNetworkId, csv, true))
+        .doOnNext(
+            got -> {
+              for (Map.Entry<String, PriceMarketData> entry : got.entrySet()) {
+                String addressKey = normalizeContractAddress(chainId, entry.getKey());
+                PriceMarketData incoming = entry.getValue();
+                if (addressKey.isBlank() || incoming == null || positiveOrNull(incoming.price()) == null) continue;
+                PriceMarketData existing = quotesByAddress.get(addressKey);
+                if (existing == null || positiveOrNull(existing.price()) == null) {
+                  quotesByAddress.put(addressKey, incoming);
+                  sourceByAddress.put(addressKey, "coingecko_onchain");
+                  continue;
+                }
+                if (existing.change24hPct() == null && incoming.change24hPct() != null) {
+                  quotesByAddress.put(addressKey, new PriceMarketData(existing.price(), incoming.change24hPct()));
+                  sourceByAddress.put(addressKey, "coingecko+onchain");
+                }
+              }
+            })
+        .then();
+  }
 
-    // 1c) VEIL / VEILX / VIPL direct router fallback when indexed sources do not have a usable quote.
-    if ("usd".equals(cur) && chainId == 56 && veilxDex != null && veilxDex.isEnabled()) {
-      String veilAddr = veilxDex.veilContractLower();
-      if (!veilAddr.isBlank() && addrs.contains(veilAddr)) {
-        PriceMarketData existing = quotesByAddress.get(veilAddr);
-        if (existing == null || positiveOrNull(existing.price()) == null) {
-          Double v = veilxDex.fetchVeilUsdPrice().orElse(null);
-          if (v != null) {
-            quotesByAddress.put(veilAddr, new PriceMarketData(v, null));
-            sourceByAddress.put(veilAddr, "pancakeswap_v2");
-          }
-        }
-      }
-      String veilxAddr = veilxDex.veilxContractLower();
-      if (!veilxAddr.isBlank() && addrs.contains(veilxAddr)) {
-        PriceMarketData existing = quotesByAddress.get(veilxAddr);
-        if (existing == null || positiveOrNull(existing.price()) == null) {
-          Double v = veilxDex.fetchVeilxUsdPrice().orElse(null);
-          if (v != null) {
-            quotesByAddress.put(veilxAddr, new PriceMarketData(v, null));
-            sourceByAddress.put(veilxAddr, "pancakeswap_v2");
-          }
-        }
-      }
-      String viplAddr = veilxDex.viplContractLower();
-      if (!viplAddr.isBlank() && addrs.contains(viplAddr)) {
-        PriceMarketData existing = quotesByAddress.get(viplAddr);
-        if (existing == null || positiveOrNull(existing.price()) == null) {
-          Double v = veilxDex.fetchViplUsdPrice().orElse(null);
-          if (v != null) {
-            quotesByAddress.put(viplAddr, new PriceMarketData(v, null));
-            sourceByAddress.put(viplAddr, "pancakeswap_v2");
-          }
-        }
-      }
+  // 1b) DEX Screener fallback for long-tail DEX tokens that CoinGecko does not cover yet.
+  private Mono<Void> contractDexScreenerStage(
+      int chainId,
+      List<String> addrs,
+      String cur,
+      Map<String, PriceMarketData> quotesByAddress,
+      Map<String, String> sourceByAddress,
+      UpstreamBudget budget) {
+    if (!"usd".equals(cur) || dexScreener == null || !dexScreener.isEnabled()) return Mono.empty();
+    List<String> dexScreenerTargets = missingQuoteOrChange(addrs, quotesByAddress);
+    if (dexScreenerTargets.isEmpty()) return Mono.empty();
+
+    return budgetedRequest(
+            "dexscreener",
+            budget,
+            DexScreenerClient.requestsFor(dexScreenerTargets.size()),
+            () -> dexScreener.fetchTokenQuotesByContract(chainId, dexScreenerTargets))
+        .doOnNext(
+            got -> {
+              for (Map.Entry<String, PriceMarketData> entry : got.entrySet()) {
+                String addressKey = normalizeContractAddress(chainId, entry.getKey());
+                PriceMarketData incoming = entry.getValue();
+                if (addressKey.isBlank() || incoming == null || positiveOrNull(incoming.price()) == null) continue;
+                PriceMarketData existing = quotesByAddress.get(addressKey);
+                if (existing == null || positiveOrNull(existing.price()) == null) {
+                  quotesByAddress.put(addressKey, incoming);
+                  sourceByAddress.put(addressKey, "dexscreener");
+                  continue;
+                }
+                if (existing.change24hPct() == null && incoming.change24hPct() != null) {
+                  quotesByAddress.put(addressKey, new PriceMarketData(existing.price(), incoming.change24hPct()));
+                  sourceByAddress.put(addressKey, sourceByAddress.get(addressKey) + "+dexscreener");
+                }
+              }
+            })
+        .then();
+  }
+
+  // 1c) VEIL / VEILX / VIPL direct router fallback when indexed sources do not have a usable quote.
+  private Mono<Void> contractVeilRouterStage(
+      int chainId,
+      List<String> addrs,
+      String cur,
+      Map<String, PriceMarketData> quotesByAddress,
+      Map<String, String> sourceByAddress,
+      UpstreamBudget budget) {
+    if (!"usd".equals(cur) || chainId != 56 || veilxDex == null || !veilxDex.isEnabled()) {
+      return Mono.empty();
     }
+    Map<String, String> symbolByAddress = new LinkedHashMap<>();
+    symbolByAddress.put(veilxDex.veilContractLower(), "VEIL");
+    symbolByAddress.put(veilxDex.veilxContractLower(), "VEILX");
+    symbolByAddress.put(veilxDex.viplContractLower(), "VIPL");
 
-    List<PriceQuote> out = new ArrayList<>();
+    return Flux.fromIterable(symbolByAddress.entrySet())
+        .filter(
+            e -> {
+              String addr = e.getKey();
+              if (addr.isBlank() || !addrs.contains(addr)) return false;
+              PriceMarketData existing = quotesByAddress.get(addr);
+              return existing == null || positiveOrNull(existing.price()) == null;
+            })
+        .flatMap(
+            e ->
+                budgetedRequest(
+                        "pancakeswap_v2",
+                        budget,
+                        1,
+                        () ->
+                            Mono.fromCallable(() -> fetchVeilDexPrice(e.getValue()).orElse(null))
+                                .subscribeOn(Schedulers.boundedElastic()))
+                    .doOnNext(
+                        v -> {
+                          quotesByAddress.put(e.getKey(), new PriceMarketData(v, null));
+                          sourceByAddress.put(e.getKey(), "pancakeswap_v2");
+                        }),
+            VEIL_DEX_CONCURRENCY)
+        .then();
+  }
+
+  private static List<String> missingQuoteOrChange(
+      List<String> addrs, Map<String, PriceMarketData> quotesByAddress) {
+    return addrs.stream()
+        .filter(
+            addr -> {
+              PriceMarketData quote = quotesByAddress.get(addr);
+              return quote == null
+                  || positiveOrNull(quote.price()) == null
+                  || quote.change24hPct() == null;
+            })
+        .toList();
+  }
+
+  private Mono<List<PriceQuote>> finalizeContractQuotes(
+      int chainId,
+      List<String> addrs,
+      String cur,
+      long ts,
+      Map<String, PriceQuote> cachedByAddress,
+      Map<String, PriceMarketData> quotesByAddress,
+      Map<String, String> sourceByAddress,
+      boolean partial,
+      String requestKey) {
+    List<QuoteDraft> drafts = new ArrayList<>();
     for (String addr : addrs) {
+      if (cachedByAddress.containsKey(addr)) continue;
       PriceMarketData quote = quotesByAddress.get(addr);
-      Double price = quote != null ? quote.price() : null;
-      Double change24hPct = quote != null ? quote.change24hPct() : null;
-      String source = sourceByAddress.get(addr);
-
-      // Last-known-good fallback, mirroring getSingleSymbolPrice: long-tail contract quotes
-      // (VEIL/VEILX/VIPL) can miss intermittently even though a real price exists.
-      String lastGoodKey = "price:lastgood:contract:" + chainId + ":" + addr + ":" + cur;
-      if (positiveOrNull(price) == null) {
-        Double stale = readLastGoodPrice(lastGoodKey);
-        if (stale != null) {
-          price = stale;
-          change24hPct = null;
-          source = "stale_cache";
-        }
-      } else {
-        cache.set(lastGoodKey, price.toString(), lastGoodPriceTtlSeconds);
-      }
-
-      if ("usd".equals(cur)
-          && priceHistory != null
-          && positiveOrNull(price) != null
-          && !"stale_cache".equals(source)) {
-        String historyAssetKey = PriceHistoryService.contractAssetKey(chainId, addr);
-        change24hPct = priceHistory.resolveChange24hPct(historyAssetKey, price, change24hPct, ts);
-      }
-      out.add(new PriceQuote(null, price, change24hPct, cur, ts, source, addr, chainId));
+      // Last-known-good keys mirror the symbol path: long-tail contract quotes (VEIL/VEILX/VIPL) can
+      // miss intermittently even though a real price exists.
+      QuoteDraft d =
+          new QuoteDraft(
+              contractPriceKey(chainId, addr, cur),
+              "price:lastgood:contract:" + chainId + ":" + addr + ":" + cur,
+              PriceHistoryService.contractAssetKey(chainId, addr),
+              null,
+              addr,
+              chainId);
+      d.price = quote != null ? quote.price() : null;
+      d.change24hPct = quote != null ? quote.change24hPct() : null;
+      d.source = sourceByAddress.get(addr);
+      drafts.add(d);
     }
 
-    try {
-      cache.set(requestKey, mapper.writeValueAsString(out), requestTtlSeconds);
-    } catch (Exception ignored) {}
-
-    return out;
+    return settleDrafts(drafts, cur, ts, partial)
+        .flatMap(
+            settled -> {
+              Map<String, PriceQuote> byAddress = new LinkedHashMap<>(cachedByAddress);
+              for (PriceQuote q : settled) {
+                byAddress.put(q.contractAddress(), q);
+              }
+              List<PriceQuote> out = addrs.stream().map(byAddress::get).toList();
+              return writeRequestCache(partial ? null : requestKey, out).thenReturn(out);
+            });
   }
 
   private static String normalizeCurrency(String currency) {
@@ -528,4 +1079,87 @@ public class PriceAggregatorService {
       return Integer.toHexString(input.hashCode());
     }
   }
+
+  /** A quote on its way out of the provider chain, before fallbacks and cache writes. */
+  private static final class QuoteDraft {
+    final String priceKey;
+    final String lastGoodKey;
+    final String historyAssetKey;
+    final String symbol;
+    final String contractAddress;
+    final Integer chainId;
+    Double price;
+    Double change24hPct;
+    String source;
+
+    QuoteDraft(
+        String priceKey,
+        String lastGoodKey,
+        String historyAssetKey,
+        String symbol,
+        String contractAddress,
+        Integer chainId) {
+      this.priceKey = priceKey;
+      this.lastGoodKey = lastGoodKey;
+      this.historyAssetKey = historyAssetKey;
+      this.symbol = symbol;
+      this.contractAddress = contractAddress;
+      this.chainId = chainId;
+    }
+
+    PriceQuote toQuote(String currency, long ts) {
+      return new PriceQuote(symbol, price, change24hPct, currency, ts, source, contractAddress, chainId);
+    }
+  }
+
+  /**
+   * Upstream request allowance of one pricing call, charged before each provider request is sent. A
+   * denied request is skipped as if the provider had no quote.
+   */
+  @FunctionalInterface
+  public interface UpstreamBudget {
+    UpstreamBudget UNLIMITED = (provider, requests) -> true;
+
+    /** Reserves {@code requests} requests to {@code provider}; false if they may not be sent. */
+    boolean tryAcquire(String provider, int requests);
+  }
+
+  // run.apply(true) runs the stage as a hedge, paying for each upstream request from the budget.
+  private record MarketStage(String provider, Function<Boolean, Mono<Void>> run) {}
+
+  /** Per-symbol state threaded through the provider stages of {@link #priceSymbols}. */
+  private static final class SymbolPricing {
+    final String symbol;
+    final String lookup;
+    volatile PriceQuote result;
+    volatile Mono<PriceQuote> joined;
+    volatile boolean claimed;
+    volatile Double price;
+    volatile Double change24hPct;
+    volatile String source;
+    // Market providers already asked for this symbol, so a hedged stage is not repeated.
+    final Set<String> triedProviders = ConcurrentHashMap.newKeySet();
+
+    SymbolPricing(String symbol, String lookup) {
+      this.symbol = symbol;
+      this.lookup = lookup;
+    }
+
+    // Synchronized: with hedging two stages may deliver a price for the same symbol concurrently.
+    synchronized void acceptIfMissing(PriceMarketData marketData, String from) {
+      if (price != null || marketData == null || positiveOrNull(marketData.price()) == null) return;
+      price = marketData.price();
+      change24hPct = marketData.change24hPct();
+      source = from;
+    }
+
+    void fillGaps(PriceMarketData marketData) {
+      if (price == null) {
+        price = marketData.price();
+      }
+      if (change24hPct == null) {
+        change24hPct = marketData.change24hPct();
+      }
+    }
+  }
 }
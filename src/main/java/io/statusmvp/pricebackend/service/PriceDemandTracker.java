@@ -0,0 +1,97 @@
+package io.statusmvp.pricebackend.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exponentially decayed request counters for priced assets, fed by {@link PriceAggregatorService}.
+ *
+ * <p>Asset keys use the {@link PriceHistoryService#symbolAssetKey} / {@link
+ * PriceHistoryService#contractAssetKey} format. A hit adds 1 to the score and the score halves every
+ * {@code app.priceWarmer.halfLifeSeconds}, so the ranking follows current demand rather than
+ * all-time totals.
+ */
+@Component
+public class PriceDemandTracker {
+  private final double halfLifeMillis;
+  private final int maxTrackedAssets;
+  private final Map<String, DecayedCounter> counters = new ConcurrentHashMap<>();
+
+  public PriceDemandTracker(
+      @Value("${app.priceWarmer.halfLifeSeconds:600}") long halfLifeSeconds,
+      @Value("${app.priceWarmer.maxTrackedAssets:10000}") int maxTrackedAssets) {
+    this.halfLifeMillis = Duration.ofSeconds(Math.max(1L, halfLifeSeconds)).toMillis();
+    this.maxTrackedAssets = Math.max(100, maxTrackedAssets);
+  }
+
+  public void recordSymbols(Collection<String> normalizedSymbols) {
+    long now = System.currentTimeMillis();
+    for (String symbol : normalizedSymbols) {
+      record(PriceHistoryService.symbolAssetKey(symbol), now);
+    }
+  }
+
+  public void recordContracts(int chainId, Collection<String> normalizedAddresses) {
+    long now = System.currentTimeMillis();
+    for (String address : normalizedAddresses) {
+      record(PriceHistoryService.contractAssetKey(chainId, address), now);
+    }
+  }
+
+  /** Hottest asset keys with a decayed score of at least {@code minScore}, hottest first. */
+  public List<String> hottest(int limit, double minScore) {
+    long now = System.currentTimeMillis();
+    return counters.entrySet().stream()
+        .map(e -> Map.entry(e.getKey(), e.getValue().score(now, halfLifeMillis)))
+        .filter(e -> e.getValue() >= minScore)
+        .sorted(Map.Entry.<String, Double>comparingByValue(Comparator.reverseOrder()))
+        .limit(Math.max(0, limit))
+        .map(Map.Entry::getKey)
+        .toList();
+  }
+
+  /** Drops counters that have decayed to noise, then the coldest ones beyond the tracking cap. */
+  public void prune() {
+    long now = System.currentTimeMillis();
+    counters.entrySet().removeIf(e -> e.getValue().score(now, halfLifeMillis) < 0.01d);
+    int excess = counters.size() - maxTrackedAssets;
+    if (excess <= 0) return;
+    counters.entrySet().stream()
+        .sorted(Comparator.comparingDouble(e -> e.getValue().score(now, halfLifeMillis)))
+        .limit(excess)
+        .map(Map.Entry::getKey)
+        .toList()
+        .forEach(counters::remove);
+  }
+
+  private void record(String assetKey, long now) {
+    if (assetKey == null || assetKey.isBlank()) return;
+    counters.computeIfAbsent(assetKey, k -> new DecayedCounter()).hit(now, halfLifeMillis);
+  }
+
+  private static final class DecayedCounter {
+    private double score;
+    private long updatedAtMs;
+
+    synchronized void hit(long now, double halfLifeMillis) {
+      score = decayed(now, halfLifeMillis) + 1d;
+      updatedAtMs = now;
+    }
+
+    synchronized double score(long now, double halfLifeMillis) {
+      return decayed(now, halfLifeMillis);
+    }
+
+    private double decayed(long now, double halfLifeMillis) {
+      if (updatedAtMs == 0L) return 0d;
+      long elapsed = Math.max(0L, now - updatedAtMs);
+      return score * Math.pow(0.5d, elapsed / halfLifeMillis);
+    }
+  }
+}
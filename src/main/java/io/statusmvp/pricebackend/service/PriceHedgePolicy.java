@@ -0,0 +1,91 @@
+package io.statusmvp.pricebackend.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.statusmvp.pricebackend.client.ProviderHealthRegistry;
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * When and how often {@link PriceAggregatorService} may hedge a slow price provider with the next
+ * one in its fallback chain.
+ *
+ * <p>A provider is hedged once it has been outstanding for longer than its own recent p95 latency
+ * (never sooner than {@code minDelayMs}); providers without enough latency samples are not hedged.
+ * Extra upstream load is capped per upstream request: every primary request of the hedgeable stages
+ * earns {@code maxExtraLoadPct / 100} of a credit, up to {@code burst} credits, and every request a
+ * hedge sends spends one (a hedge over a batch may therefore only cover part of it). Hedge requests
+ * are counted as {@code price_hedge.requests{provider,result=fired|budget_exhausted}}.
+ */
+@Component
+public class PriceHedgePolicy {
+  private static final Logger log = LoggerFactory.getLogger(PriceHedgePolicy.class);
+  // Credits are kept in thousandths so that e.g. ten 10% requests add up to exactly one hedge request.
+  private static final long CREDIT = 1000L;
+
+  private final ProviderHealthRegistry providerHealth;
+  private final MeterRegistry meterRegistry;
+  private final boolean enabled;
+  private final long creditPerCall;
+  private final long maxCredits;
+  private final long minDelayMillis;
+  // Guarded by this.
+  private long credits;
+
+  public PriceHedgePolicy(
+      ProviderHealthRegistry providerHealth,
+      MeterRegistry meterRegistry,
+      @Value("${app.price.hedging.enabled:false}") boolean enabled,
+      @Value("${app.price.hedging.maxExtraLoadPct:10}") double maxExtraLoadPct,
+      @Value("${app.price.hedging.burst:5}") int burst,
+      @Value("${app.price.hedging.minDelayMs:50}") long minDelayMs) {
+    this.providerHealth = providerHealth;
+    this.meterRegistry = meterRegistry;
+    this.enabled = enabled;
+    this.creditPerCall = Math.round(Math.max(0d, Math.min(100d, maxExtraLoadPct)) * CREDIT / 100d);
+    this.maxCredits = Math.max(1, burst) * CREDIT;
+    this.minDelayMillis = Math.max(0L, minDelayMs);
+    this.credits = this.maxCredits;
+    log.info(
+        "price hedging initialized: enabled={}, maxExtraLoadPct={}, burst={}, minDelayMs={}",
+        this.enabled,
+        this.creditPerCall * 100d / CREDIT,
+        this.maxCredits / CREDIT,
+        this.minDelayMillis);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /** How long to wait for a call to {@code provider} before hedging it, or {@code null} to not hedge. */
+  public Duration hedgeAfter(String provider) {
+    if (!enabled) return null;
+    long p95 = providerHealth.provider(provider).latencyPercentileMillis(0.95d);
+    if (p95 < 0) return null;
+    return Duration.ofMillis(Math.max(minDelayMillis, p95));
+  }
+
+  /** Earns hedge budget for one primary upstream request. */
+  public void onPrimaryRequest() {
+    if (!enabled) return;
+    synchronized (this) {
+      credits = Math.min(maxCredits, credits + creditPerCall);
+    }
+  }
+
+  /** Spends one credit for a hedge request to {@code provider}; false when the budget is used up. */
+  public boolean tryAcquire(String provider) {
+    boolean acquired;
+    synchronized (this) {
+      acquired = credits >= CREDIT;
+      if (acquired) credits -= CREDIT;
+    }
+    meterRegistry
+        .counter("price_hedge.requests", "provider", provider, "result", acquired ? "fired" : "budget_exhausted")
+        .increment();
+    return acquired;
+  }
+}
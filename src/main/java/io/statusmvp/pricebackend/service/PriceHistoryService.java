@@ -3,27 +3,54 @@ package io.statusmvp.pricebackend.service;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+/**
+ * Per-asset price history used to derive a 24h change when the upstream provider has none.
+ *
+ * <p>Each asset is one sorted set ({@code market-history:series:<asset>}) scored by sample timestamp,
+ * holding at most one {@code <bucket>:<price>} member per bucket: the latest price recorded in it.
+ * Each write replaces the bucket's member, trims samples older than {@code sampleTtlSeconds} and
+ * refreshes the TTL in one script, so concurrent writers cannot leave two members in a bucket. The
+ * 24h baseline is a single ZRANGEBYSCORE over the search window; until the series covers it, the
+ * baseline falls back to the per-bucket {@code market-history:sample:<asset>:<bucket>} keys written
+ * before the series existed (they expire on their own after {@code sampleTtlSeconds}).
+ */
 @Service
 public class PriceHistoryService {
   private static final Logger log = LoggerFactory.getLogger(PriceHistoryService.class);
   private static final long DAY_MS = Duration.ofHours(24).toMillis();
+  // KEYS: series. ARGV: bucket start, bucket end, timestamp, member, expired before, TTL seconds.
+  private static final DefaultRedisScript<Long> RECORD_SAMPLE_SCRIPT =
+      new DefaultRedisScript<>(
+          "redis.call('ZREMRANGEBYSCORE', KEYS[1], ARGV[1], ARGV[2]); "
+              + "redis.call('ZADD', KEYS[1], ARGV[3], ARGV[4]); "
+              + "redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', '(' .. ARGV[5]); "
+              + "redis.call('EXPIRE', KEYS[1], ARGV[6]); "
+              + "return 1",
+          Long.class);
 
-  private final StringRedisTemplate redis;
+  private final ReactiveStringRedisTemplate redis;
   private final ObjectMapper mapper = new ObjectMapper();
   private final long bucketMillis;
   private final int searchWindowBuckets;
   private final long sampleTtlSeconds;
 
   public PriceHistoryService(
-      StringRedisTemplate redis,
+      ReactiveStringRedisTemplate redis,
       @Value("${app.marketHistory.bucketMinutes:30}") long bucketMinutes,
       @Value("${app.marketHistory.searchWindowBuckets:4}") int searchWindowBuckets,
       @Value("${app.marketHistory.sampleTtlSeconds:259200}") long sampleTtlSeconds) {
@@ -34,24 +61,67 @@ public class PriceHistoryService {
     this.sampleTtlSeconds = Math.max(3600, sampleTtlSeconds);
   }
 
-  public Double resolveChange24hPct(
+  /** One priced asset to record, and to resolve a 24h change for when upstream had none. */
+  public record Observation(String assetKey, Double price, Double upstreamChange24hPct, long timestamp) {}
+
+  /** Single-asset form of {@link #resolveChange24hPcts}; completes empty when no change is known. */
+  public Mono<Double> resolveChange24hPct(
       String assetKey, Double currentPrice, Double upstreamChange24hPct, long timestamp) {
-    Double price = positiveOrNull(currentPrice);
-    if (assetKey == null || assetKey.isBlank() || price == null) {
-      return finiteOrNull(upstreamChange24hPct);
+    return resolveChange24hPcts(
+            List.of(new Observation(assetKey, currentPrice, upstreamChange24hPct, timestamp)))
+        .mapNotNull(changes -> changes.get(0));
+  }
+
+  /**
+   * Records a sample per observation and returns the 24h change for each, aligned with the input
+   * (null where unknown). Baseline range queries for all assets are issued together and pipelined.
+   */
+  public Mono<List<Double>> resolveChange24hPcts(List<Observation> observations) {
+    Map<String, Observation> toRecord = new LinkedHashMap<>();
+    Map<String, Long> baselineAt = new LinkedHashMap<>();
+    for (Observation o : observations) {
+      if (o.assetKey() == null || o.assetKey().isBlank() || positiveOrNull(o.price()) == null) continue;
+      toRecord.put(o.assetKey(), o);
+      if (finiteOrNull(o.upstreamChange24hPct()) == null) {
+        baselineAt.putIfAbsent(o.assetKey(), o.timestamp());
+      }
     }
 
-    recordSample(assetKey, price, timestamp);
+    // Baseline buckets are a day behind the ones being written, so both can go out together.
+    Mono<Map<String, PriceSample>> baselines =
+        Flux.fromIterable(baselineAt.entrySet())
+            .flatMap(
+                e ->
+                    findBaselineSample(e.getKey(), e.getValue())
+                        .map(sample -> Map.entry(e.getKey(), sample)))
+            .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    Mono<Void> writes =
+        Flux.fromIterable(toRecord.values())
+            .flatMap(o -> recordSample(o.assetKey(), o.price(), o.timestamp()))
+            .then();
 
-    Double upstream = finiteOrNull(upstreamChange24hPct);
-    if (upstream != null) {
+    return Mono.zip(baselines, writes.thenReturn(Boolean.TRUE))
+        .map(
+            t -> {
+              List<Double> out = new ArrayList<>(observations.size());
+              for (Observation o : observations) {
+                out.add(resolveOne(o, t.getT1().get(o.assetKey())));
+              }
+              return out;
+            });
+  }
+
+  private Double resolveOne(Observation o, PriceSample baseline) {
+    Double price = positiveOrNull(o.price());
+    Double upstream = finiteOrNull(o.upstreamChange24hPct());
+    if (o.assetKey() == null || o.assetKey().isBlank() || price == null || upstream != null) {
       return upstream;
     }
 
-    PriceSample baseline = findBaselineSample(assetKey, timestamp);
     if (baseline == null || baseline.price() == null || baseline.price() <= 0d) {
       if (log.isDebugEnabled()) {
-        log.debug("market history baseline not ready yet: assetKey={} timestamp={}", assetKey, timestamp);
+        log.debug(
+            "market history baseline not ready yet: assetKey={} timestamp={}", o.assetKey(), o.timestamp());
       }
       return null;
     }
@@ -60,7 +130,7 @@ public class PriceHistoryService {
     if (!Double.isFinite(changePct)) {
       log.warn(
           "market history produced non-finite 24h change: assetKey={} currentPrice={} baselinePrice={}",
-          assetKey,
+          o.assetKey(),
           price,
           baseline.price());
       return null;
@@ -80,34 +150,97 @@ public class PriceHistoryService {
     return "contract:" + chainId + ":" + address;
   }
 
-  private void recordSample(String assetKey, Double price, long timestamp) {
-    String key = sampleKey(assetKey, bucketOf(timestamp));
-    PriceSample sample = new PriceSample(price, timestamp);
-    try {
-      redis
-          .opsForValue()
-          .set(key, mapper.writeValueAsString(sample), Duration.ofSeconds(sampleTtlSeconds));
-    } catch (Exception e) {
-      log.warn("market history sample write failed: assetKey={} key={}", assetKey, key, e);
-    }
+  /**
+   * Replaces the asset's sample for the current bucket with {@code price}, trims expired samples and
+   * refreshes the key TTL, atomically.
+   */
+  private Mono<Void> recordSample(String assetKey, Double price, long timestamp) {
+    long bucket = bucketOf(timestamp);
+    long bucketStart = bucket * bucketMillis;
+    String key = seriesKey(assetKey);
+    return redis
+        .execute(
+            RECORD_SAMPLE_SCRIPT,
+            List.of(key),
+            List.of(
+                String.valueOf(bucketStart),
+                String.valueOf(bucketStart + bucketMillis - 1),
+                String.valueOf(timestamp),
+                bucket + ":" + price,
+                String.valueOf(timestamp - sampleTtlSeconds * 1000L),
+                String.valueOf(sampleTtlSeconds)))
+        .then()
+        .onErrorResume(
+            e -> {
+              log.warn("market history sample write failed: assetKey={} key={}", assetKey, key, e);
+              return Mono.empty();
+            });
+  }
+
+  /** Baseline from the series, or from the legacy per-bucket keys while the series is too young. */
+  private Mono<PriceSample> findBaselineSample(String assetKey, long now) {
+    return findSeriesBaselineSample(assetKey, now)
+        .switchIfEmpty(Mono.defer(() -> findLegacyBaselineSample(assetKey, now)));
   }
 
-  private PriceSample findBaselineSample(String assetKey, long now) {
+  /** One ZRANGEBYSCORE over the whole search window; picks the sample closest to 24h ago. */
+  private Mono<PriceSample> findSeriesBaselineSample(String assetKey, long now) {
     long targetBucket = bucketOf(now - DAY_MS);
-    for (long candidateBucket : candidateBuckets(targetBucket)) {
-      String key = sampleKey(assetKey, candidateBucket);
-      try {
-        String raw = redis.opsForValue().get(key);
-        if (raw == null || raw.isBlank()) continue;
-        PriceSample sample = mapper.readValue(raw, PriceSample.class);
-        Double baselinePrice = positiveOrNull(sample.price());
-        if (baselinePrice == null) continue;
-        return new PriceSample(baselinePrice, sample.timestamp());
-      } catch (Exception e) {
-        log.warn("market history sample read failed: assetKey={} key={}", assetKey, key, e);
-      }
-    }
-    return null;
+    long from = Math.max(0L, targetBucket - searchWindowBuckets) * bucketMillis;
+    long to = (targetBucket + searchWindowBuckets + 1) * bucketMillis - 1;
+    String key = seriesKey(assetKey);
+
+    return redis
+        .opsForZSet()
+        .rangeByScoreWithScores(key, Range.closed((double) from, (double) to))
+        .collectMap(tuple -> bucketOfMember(tuple.getValue()), tuple -> tuple)
+        .mapNotNull(
+            byBucket -> {
+              for (long candidateBucket : candidateBuckets(targetBucket)) {
+                ZSetOperations.TypedTuple<String> tuple = byBucket.get(candidateBucket);
+                if (tuple == null) continue;
+                Double baselinePrice = positiveOrNull(priceOfMember(tuple.getValue()));
+                if (baselinePrice == null) continue;
+                Double score = tuple.getScore();
+                return new PriceSample(baselinePrice, score == null ? null : score.longValue());
+              }
+              return null;
+            })
+        .onErrorResume(
+            e -> {
+              log.warn("market history sample read failed: assetKey={} key={}", assetKey, key, e);
+              return Mono.empty();
+            });
+  }
+
+  /** One MGET over the legacy {@code market-history:sample:*} keys of the search window. */
+  private Mono<PriceSample> findLegacyBaselineSample(String assetKey, long now) {
+    List<String> keys =
+        candidateBuckets(bucketOf(now - DAY_MS)).stream()
+            .map(bucket -> legacySampleKey(assetKey, bucket))
+            .toList();
+    return redis
+        .opsForValue()
+        .multiGet(keys)
+        .mapNotNull(
+            values -> {
+              for (String raw : values) {
+                if (raw == null || raw.isBlank()) continue;
+                try {
+                  PriceSample sample = mapper.readValue(raw, PriceSample.class);
+                  Double baselinePrice = positiveOrNull(sample.price());
+                  if (baselinePrice != null) return new PriceSample(baselinePrice, sample.timestamp());
+                } catch (Exception e) {
+                  log.warn("market history legacy sample decode failed: assetKey={}", assetKey, e);
+                }
+              }
+              return null;
+            })
+        .onErrorResume(
+            e -> {
+              log.warn("market history legacy sample read failed: assetKey={}", assetKey, e);
+              return Mono.empty();
+            });
   }
 
   private List<Long> candidateBuckets(long targetBucket) {
@@ -124,10 +257,34 @@ public class PriceHistoryService {
     return Math.max(0L, timestamp / bucketMillis);
   }
 
-  private String sampleKey(String assetKey, long bucket) {
+  private static String seriesKey(String assetKey) {
+    return "market-history:series:" + assetKey;
+  }
+
+  private static String legacySampleKey(String assetKey, long bucket) {
     return "market-history:sample:" + assetKey + ":" + bucket;
   }
 
+  private static Long bucketOfMember(String member) {
+    int sep = member == null ? -1 : member.indexOf(':');
+    if (sep <= 0) return -1L;
+    try {
+      return Long.parseLong(member.substring(0, sep));
+    } catch (NumberFormatException e) {
+      return -1L;
+    }
+  }
+
+  private static Double priceOfMember(String member) {
+    int sep = member == null ? -1 : member.indexOf(':');
+    if (sep <= 0 || sep >= member.length() - 1) return null;
+    try {
+      return Double.valueOf(member.substring(sep + 1));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
   private static Double positiveOrNull(Double value) {
     if (value == null || !Double.isFinite(value) || value <= 0d) return null;
     return value;
@@ -0,0 +1,190 @@
+package io.statusmvp.pricebackend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.statusmvp.pricebackend.model.PriceQuote;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Two-tier cache for decoded per-asset {@link PriceQuote}s: a bounded in-process L1 in front of the
+ * shared Redis entry, reached through {@link ReactiveRedisCache} so lookups never block.
+ *
+ * <p>L1 entries never outlive the Redis copy: they expire at {@code min(now + l1Ttl, quote.timestamp +
+ * priceTtl)}, and every write batch publishes its keys (newline-separated) on {@link
+ * #INVALIDATION_CHANNEL} so other nodes drop their L1 copy. The cache also keeps a per-key
+ * single-flight registry so concurrent misses on one node trigger only one upstream fetch.
+ */
+@Component
+public class PriceQuoteCache implements MessageListener {
+  private static final Logger log = LoggerFactory.getLogger(PriceQuoteCache.class);
+  public static final String INVALIDATION_CHANNEL = "price:l1:invalidate";
+
+  private final ReactiveRedisCache cache;
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final long priceTtlMillis;
+  private final long l1TtlMillis;
+  private final String nodeId = UUID.randomUUID().toString();
+  private final Map<String, LocalEntry> local;
+  private final ConcurrentHashMap<String, Sinks.One<PriceQuote>> inFlight = new ConcurrentHashMap<>();
+
+  public PriceQuoteCache(
+      ReactiveRedisCache cache,
+      @Value("${app.cache.priceTtlSeconds:120}") long priceTtlSeconds,
+      @Value("${app.cache.localMaxEntries:5000}") int localMaxEntries,
+      @Value("${app.cache.localTtlSeconds:10}") long localTtlSeconds) {
+    this.cache = cache;
+    this.priceTtlMillis = Math.max(1L, priceTtlSeconds) * 1000L;
+    this.l1TtlMillis = Math.max(1L, localTtlSeconds) * 1000L;
+    int maxEntries = Math.max(16, localMaxEntries);
+    this.local =
+        Collections.synchronizedMap(
+            new LinkedHashMap<String, LocalEntry>(256, 0.75f, true) {
+              @Override
+              protected boolean removeEldestEntry(Map.Entry<String, LocalEntry> eldest) {
+                return size() > maxEntries;
+              }
+            });
+  }
+
+  /** L1-only lookup; never touches Redis. */
+  public Optional<PriceQuote> getLocal(String key) {
+    LocalEntry entry = local.get(key);
+    if (entry == null) return Optional.empty();
+    if (entry.expiresAtMs() <= System.currentTimeMillis()) {
+      local.remove(key, entry);
+      return Optional.empty();
+    }
+    return Optional.of(entry.quote());
+  }
+
+  /** L1, then Redis; completes empty on a miss. */
+  public Mono<PriceQuote> get(String key) {
+    return getAll(List.of(key)).mapNotNull(hits -> hits.get(key));
+  }
+
+  /**
+   * L1 first; everything L1 misses is read with a single MGET. Redis hits are decoded once and
+   * promoted to L1. The result only contains hits.
+   */
+  public Mono<Map<String, PriceQuote>> getAll(Collection<String> keys) {
+    Map<String, PriceQuote> hits = new HashMap<>();
+    List<String> misses = new ArrayList<>();
+    for (String key : keys) {
+      Optional<PriceQuote> hit = getLocal(key);
+      if (hit.isPresent()) hits.put(key, hit.get());
+      else misses.add(key);
+    }
+    if (misses.isEmpty()) return Mono.just(hits);
+
+    return cache
+        .multiGet(misses)
+        .map(
+            raw -> {
+              raw.forEach(
+                  (key, json) -> {
+                    try {
+                      PriceQuote quote = mapper.readValue(json, PriceQuote.class);
+                      putLocal(key, quote);
+                      hits.put(key, quote);
+                    } catch (Exception ignored) {
+                      // treat undecodable entries as misses
+                    }
+                  });
+              return hits;
+            });
+  }
+
+  public Mono<Void> put(String key, PriceQuote quote) {
+    if (key == null || quote == null) return Mono.empty();
+    return putAll(Map.of(key, quote));
+  }
+
+  /**
+   * Writes both tiers (Redis with one pipelined batch) and tells other nodes to drop their L1 copy of
+   * every written key with a single message.
+   */
+  public Mono<Void> putAll(Map<String, PriceQuote> quotes) {
+    Map<String, String> encoded = new LinkedHashMap<>();
+    quotes.forEach(
+        (key, quote) -> {
+          if (key == null || quote == null) return;
+          try {
+            encoded.put(key, mapper.writeValueAsString(quote));
+          } catch (Exception ignored) {
+            return;
+          }
+          putLocal(key, quote);
+        });
+    if (encoded.isEmpty()) return Mono.empty();
+    return cache
+        .multiSet(encoded, priceTtlMillis / 1000L)
+        .then(cache.publish(INVALIDATION_CHANNEL, nodeId + "|" + String.join("\n", encoded.keySet())));
+  }
+
+  /**
+   * Joins the in-flight fetch for {@code key} when another request on this node already owns it;
+   * otherwise claims the key and returns {@code null}. A claimant must finish with {@link #complete}
+   * or {@link #release}.
+   */
+  public Mono<PriceQuote> joinOrClaim(String key) {
+    Sinks.One<PriceQuote> mine = Sinks.one();
+    Sinks.One<PriceQuote> existing = inFlight.putIfAbsent(key, mine);
+    return existing == null ? null : existing.asMono();
+  }
+
+  public void complete(String key, PriceQuote quote) {
+    Sinks.One<PriceQuote> sink = inFlight.remove(key);
+    if (sink != null) sink.tryEmitValue(quote);
+  }
+
+  /** Gives up a claim without a result; waiters fall back on their own. Safe to call twice. */
+  public void release(String key) {
+    Sinks.One<PriceQuote> sink = inFlight.remove(key);
+    if (sink != null) sink.tryEmitEmpty();
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String body = new String(message.getBody(), StandardCharsets.UTF_8);
+    int sep = body.indexOf('|');
+    if (sep <= 0 || sep >= body.length() - 1) return;
+    if (nodeId.equals(body.substring(0, sep))) return;
+    String[] keys = body.substring(sep + 1).split("\n");
+    for (String key : keys) {
+      local.remove(key);
+    }
+    if (log.isDebugEnabled()) {
+      log.debug("price L1 invalidated by peer: keys={}", keys.length);
+    }
+  }
+
+  private void putLocal(String key, PriceQuote quote) {
+    long now = System.currentTimeMillis();
+    long expiresAt = now + l1TtlMillis;
+    if (quote.timestamp() != null) {
+      // The Redis copy was written with priceTtl shortly after the quote's timestamp.
+      expiresAt = Math.min(expiresAt, quote.timestamp() + priceTtlMillis);
+    }
+    if (expiresAt <= now) return;
+    local.put(key, new LocalEntry(quote, expiresAt));
+  }
+
+  private record LocalEntry(PriceQuote quote, long expiresAtMs) {}
+}
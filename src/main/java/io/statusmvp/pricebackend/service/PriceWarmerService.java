@@ -0,0 +1,226 @@
+package io.statusmvp.pricebackend.service;
+
+import io.statusmvp.pricebackend.model.PriceQuote;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Re-prices the most requested symbols and contracts shortly before their cached quote expires, so
+ * hot assets are served from cache instead of paying the provider chain on the request path.
+ *
+ * <p>Candidates come from {@link PriceDemandTracker}. Every provider request a refresh sends costs
+ * one unit of the per-minute upstream budget ({@code app.priceWarmer.upstreamCallsPerMinute}); once
+ * the budget is spent the pass stops, and the rest of the candidates wait for the next window and are
+ * priced on demand meanwhile.
+ */
+@Service
+public class PriceWarmerService {
+  private static final Logger log = LoggerFactory.getLogger(PriceWarmerService.class);
+  private static final long BUDGET_WINDOW_MS = 60_000L;
+
+  private final PriceDemandTracker demand;
+  private final PriceAggregatorService prices;
+  private final PriceQuoteCache quoteCache;
+  private final boolean enabled;
+  private final String currency;
+  private final int maxSymbols;
+  private final int maxContracts;
+  private final int batchSize;
+  private final int upstreamCallsPerMinute;
+  private final double minScore;
+  private final long refreshAfterMs;
+  private final AtomicBoolean running = new AtomicBoolean(false);
+  private final PriceAggregatorService.UpstreamBudget budget = this::reserveBudget;
+
+  private long budgetWindowStartMs;
+  private int budgetUsed;
+
+  public PriceWarmerService(
+      PriceDemandTracker demand,
+      PriceAggregatorService prices,
+      PriceQuoteCache quoteCache,
+      @Value("${app.priceWarmer.enabled:true}") boolean enabled,
+      @Value("${app.priceWarmer.currency:usd}") String currency,
+      @Value("${app.priceWarmer.maxSymbols:100}") int maxSymbols,
+      @Value("${app.priceWarmer.maxContracts:200}") int maxContracts,
+      @Value("${app.priceWarmer.batchSize:50}") int batchSize,
+      @Value("${app.priceWarmer.upstreamCallsPerMinute:30}") int upstreamCallsPerMinute,
+      @Value("${app.priceWarmer.minScore:2.0}") double minScore,
+      @Value("${app.priceWarmer.leadSeconds:30}") long leadSeconds,
+      @Value("${app.cache.priceTtlSeconds:120}") long priceTtlSeconds) {
+    this.demand = demand;
+    this.prices = prices;
+    this.quoteCache = quoteCache;
+    this.enabled = enabled;
+    this.currency = currency == null || currency.isBlank() ? "usd" : currency.trim();
+    this.maxSymbols = Math.max(0, maxSymbols);
+    this.maxContracts = Math.max(0, maxContracts);
+    this.batchSize = Math.max(1, batchSize);
+    this.upstreamCallsPerMinute = Math.max(0, upstreamCallsPerMinute);
+    this.minScore = Math.max(0d, minScore);
+    long ttlMs = Math.max(1L, priceTtlSeconds) * 1000L;
+    this.refreshAfterMs = Math.max(0L, ttlMs - Math.max(0L, leadSeconds) * 1000L);
+  }
+
+  @Scheduled(
+      initialDelayString = "${app.priceWarmer.intervalMs:30000}",
+      fixedDelayString = "${app.priceWarmer.intervalMs:30000}")
+  public void warm() {
+    if (!enabled) return;
+    // Shares the scheduler thread with the notification poller; the pass runs asynchronously.
+    if (!running.compareAndSet(false, true)) return;
+    Mono.defer(this::planBatches)
+        .flatMap(
+            batches ->
+                Flux.fromIterable(batches)
+                    .takeWhile(batch -> hasBudget(System.currentTimeMillis()))
+                    .concatMap(
+                        batch ->
+                            batch
+                                .run()
+                                .onErrorResume(
+                                    e -> {
+                                      log.warn("price.warmer.batch_failed error={}", e.getMessage());
+                                      return Mono.just(List.of());
+                                    }))
+                    .count()
+                    .doOnNext(
+                        warmed -> {
+                          if (warmed < batches.size() || !hasBudget(System.currentTimeMillis())) {
+                            log.info(
+                                "price.warmer.budget_exhausted due_batches={} warmed={} perMinute={}",
+                                batches.size(),
+                                warmed,
+                                upstreamCallsPerMinute);
+                          }
+                        }))
+        .doFinally(signal -> running.set(false))
+        .subscribe(
+            batches -> {
+              if (batches > 0 && log.isDebugEnabled()) {
+                log.debug("price.warmer.pass_done batches={}", batches);
+              }
+            },
+            error -> log.warn("price.warmer.pass_failed error={}", error.getMessage()));
+  }
+
+  /** Picks the hot assets whose cached quote is missing or about to expire; one MGET for all. */
+  Mono<List<Batch>> planBatches() {
+    demand.prune();
+
+    List<String> symbols = new ArrayList<>();
+    Map<String, String> symbolByKey = new LinkedHashMap<>();
+    Map<String, ContractRef> contractByKey = new LinkedHashMap<>();
+    for (String assetKey : demand.hottest(maxSymbols + maxContracts, minScore)) {
+      if (assetKey.startsWith("symbol:")) {
+        if (symbolByKey.size() >= maxSymbols) continue;
+        String symbol = assetKey.substring("symbol:".length());
+        symbolByKey.put(PriceAggregatorService.symbolPriceKey(symbol, currency), symbol);
+      } else if (assetKey.startsWith("contract:")) {
+        if (contractByKey.size() >= maxContracts) continue;
+        String[] parts = assetKey.split(":", 3);
+        if (parts.length != 3) continue;
+        int chainId;
+        try {
+          chainId = Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+          continue;
+        }
+        contractByKey.put(
+            PriceAggregatorService.contractPriceKey(chainId, parts[2], currency),
+            new ContractRef(chainId, parts[2]));
+      }
+    }
+    if (symbolByKey.isEmpty() && contractByKey.isEmpty()) return Mono.just(List.of());
+
+    List<String> keys = new ArrayList<>(symbolByKey.keySet());
+    keys.addAll(contractByKey.keySet());
+    return quoteCache
+        .getAll(keys)
+        .map(
+            cached -> {
+              long now = System.currentTimeMillis();
+              symbolByKey.forEach(
+                  (key, symbol) -> {
+                    if (isDue(cached.get(key), now)) symbols.add(symbol);
+                  });
+              Map<Integer, List<String>> contractsByChain = new LinkedHashMap<>();
+              contractByKey.forEach(
+                  (key, ref) -> {
+                    if (isDue(cached.get(key), now)) {
+                      contractsByChain.computeIfAbsent(ref.chainId(), k -> new ArrayList<>()).add(ref.address());
+                    }
+                  });
+
+              List<Batch> batches = new ArrayList<>();
+              for (List<String> chunk : chunks(symbols)) {
+                batches.add(new Batch(() -> prices.refreshPrices(chunk, currency, budget)));
+              }
+              contractsByChain.forEach(
+                  (chainId, addrs) -> {
+                    for (List<String> chunk : chunks(addrs)) {
+                      batches.add(
+                          new Batch(() -> prices.refreshPricesByContract(chainId, chunk, currency, budget)));
+                    }
+                  });
+              return batches;
+            });
+  }
+
+  private boolean isDue(PriceQuote cached, long now) {
+    if (cached == null || cached.price() == null || cached.timestamp() == null) return true;
+    return now - cached.timestamp() >= refreshAfterMs;
+  }
+
+  private List<List<String>> chunks(List<String> items) {
+    List<List<String>> out = new ArrayList<>();
+    for (int i = 0; i < items.size(); i += batchSize) {
+      out.add(List.copyOf(items.subList(i, Math.min(items.size(), i + batchSize))));
+    }
+    return out;
+  }
+
+  private synchronized boolean hasBudget(long now) {
+    rollBudgetWindow(now);
+    return budgetUsed < upstreamCallsPerMinute;
+  }
+
+  /** {@link PriceAggregatorService.UpstreamBudget} of the warmer: all or none of {@code requests}. */
+  private synchronized boolean reserveBudget(String provider, int requests) {
+    rollBudgetWindow(System.currentTimeMillis());
+    if (budgetUsed + requests > upstreamCallsPerMinute) {
+      if (log.isDebugEnabled()) {
+        log.debug("price.warmer.request_skipped provider={} requests={}", provider, requests);
+      }
+      return false;
+    }
+    budgetUsed += requests;
+    return true;
+  }
+
+  private void rollBudgetWindow(long now) {
+    if (now - budgetWindowStartMs >= BUDGET_WINDOW_MS) {
+      budgetWindowStartMs = now;
+      budgetUsed = 0;
+    }
+  }
+
+  private record ContractRef(int chainId, String address) {}
+
+  record Batch(Supplier<Mono<List<PriceQuote>>> refresh) {
+    Mono<List<PriceQuote>> run() {
+      return Mono.defer(refresh::get);
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package io.statusmvp.pricebackend.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Streaming pass-through for the upstream proxies.
+ *
+ * <p>{@link #relay} hands the upstream body to the response as the {@link DataBuffer}s arrive, so a
+ * multi-MB swap transaction or token-transfer page is never materialised as a heap {@code String}
+ * and is not subject to the WebClient's {@code maxInMemorySize}. Back-pressure comes from the
+ * response write. Only {@link #RELAYED_HEADERS} are copied from upstream. The body is buffered only
+ * for non-2xx responses when the caller asks to inspect them (for logging), and then only up to
+ * {@value #MAX_INSPECTED_BYTES} bytes: a larger error body is inspected up to that size and then
+ * streamed through unchanged.
+ */
+public final class ProxyRelay {
+  public static final MediaType DEFAULT_CONTENT_TYPE = MediaType.APPLICATION_JSON;
+  static final int MAX_INSPECTED_BYTES = 256 * 1024;
+
+  private static final List<String> RELAYED_HEADERS =
+      List.of(
+          HttpHeaders.CONTENT_TYPE,
+          HttpHeaders.CONTENT_LENGTH,
+          HttpHeaders.CONTENT_ENCODING,
+          HttpHeaders.CACHE_CONTROL,
+          HttpHeaders.ETAG,
+          HttpHeaders.LAST_MODIFIED,
+          HttpHeaders.RETRY_AFTER);
+
+  private ProxyRelay() {}
+
+  /**
+   * Sends {@code request} and relays the upstream response. {@code timeout} bounds the wait for the
+   * response headers and every gap between body chunks. Upstream error statuses are relayed, not
+   * raised; connection failures and timeouts surface as errors for the caller to map.
+   */
+  public static Mono<ResponseEntity<Flux<DataBuffer>>> relay(
+      WebClient.RequestHeadersSpec<?> request, Duration timeout) {
+    return relay(request, timeout, null);
+  }
+
+  /** {@link #relay}, passing the status and (truncated) body of non-2xx responses to {@code onError}. */
+  public static Mono<ResponseEntity<Flux<DataBuffer>>> relay(
+      WebClient.RequestHeadersSpec<?> request,
+      Duration timeout,
+      BiConsumer<HttpStatusCode, String> onError) {
+    return request
+        .retrieve()
+        .onStatus(status -> true, response -> Mono.empty())
+        .toEntityFlux(DataBuffer.class)
+        .timeout(timeout)
+        .flatMap(
+            upstream -> {
+              HttpHeaders headers = relayedHeaders(upstream.getHeaders());
+              Flux<DataBuffer> body = upstream.getBody() == null ? Flux.empty() : upstream.getBody();
+              if (onError == null || upstream.getStatusCode().is2xxSuccessful()) {
+                return Mono.just(
+                    ResponseEntity.status(upstream.getStatusCode()).headers(headers).body(body.timeout(timeout)));
+              }
+              HttpStatusCode status = upstream.getStatusCode();
+              AtomicLong seenBytes = new AtomicLong();
+              // The first batch is the whole body, or its head once it grows past the inspection limit.
+              return body.timeout(timeout)
+                  .bufferUntil(
+                      buffer -> seenBytes.addAndGet(buffer.readableByteCount()) > MAX_INSPECTED_BYTES)
+                  .switchOnFirst(
+                      (first, batches) -> {
+                        if (first.isOnError()) {
+                          return Flux.error(first.getThrowable());
+                        }
+                        List<DataBuffer> head = first.hasValue() ? first.get() : List.of();
+                        ByteArrayOutputStream inspected = new ByteArrayOutputStream();
+                        head.forEach(buffer -> copyPrefix(buffer, inspected));
+                        onError.accept(status, inspected.toString(StandardCharsets.UTF_8));
+                        if (seenBytes.get() > MAX_INSPECTED_BYTES) {
+                          return Flux.just(
+                              ResponseEntity.status(status)
+                                  .headers(headers)
+                                  .body(batches.concatMapIterable(batch -> batch)));
+                        }
+                        head.forEach(DataBufferUtils::release);
+                        byte[] bytes = inspected.toByteArray();
+                        headers.setContentLength(bytes.length);
+                        return Flux.just(
+                            ResponseEntity.status(status).headers(headers).body(Flux.just(wrap(bytes))));
+                      },
+                      false)
+                  .singleOrEmpty();
+            });
+  }
+
+  /** A locally generated response (errors, rejections) in the relayed shape. */
+  public static ResponseEntity<Flux<DataBuffer>> of(ResponseEntity<String> response) {
+    byte[] bytes = (response.getBody() == null ? "" : response.getBody()).getBytes(StandardCharsets.UTF_8);
+    HttpHeaders headers = new HttpHeaders();
+    headers.putAll(response.getHeaders());
+    if (headers.getContentType() == null) {
+      headers.setContentType(DEFAULT_CONTENT_TYPE);
+    }
+    return ResponseEntity.status(response.getStatusCode()).headers(headers).body(Flux.just(wrap(bytes)));
+  }
+
+  private static HttpHeaders relayedHeaders(HttpHeaders upstream) {
+    HttpHeaders headers = new HttpHeaders();
+    for (String name : RELAYED_HEADERS) {
+      List<String> values = upstream.get(name);
+      if (values != null && !values.isEmpty()) {
+        headers.put(name, values);
+      }
+    }
+    if (headers.getContentType() == null) {
+      headers.setContentType(DEFAULT_CONTENT_TYPE);
+    }
+    return headers;
+  }
+
+  /** Copies the start of {@code buffer} into {@code out} up to {@link #MAX_INSPECTED_BYTES} in total. */
+  private static void copyPrefix(DataBuffer buffer, ByteArrayOutputStream out) {
+    int length = Math.min(buffer.readableByteCount(), MAX_INSPECTED_BYTES - out.size());
+    if (length <= 0) {
+      return;
+    }
+    byte[] bytes = new byte[length];
+    buffer.toByteBuffer(buffer.readPosition(), ByteBuffer.wrap(bytes), 0, length);
+    out.write(bytes, 0, length);
+  }
+
+  private static DataBuffer wrap(byte[] bytes) {
+    return DefaultDataBufferFactory.sharedInstance.wrap(bytes);
+  }
+}
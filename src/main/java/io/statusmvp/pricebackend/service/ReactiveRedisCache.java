@@ -0,0 +1,88 @@
+package io.statusmvp.pricebackend.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link RedisCache} for code that runs on the WebFlux event loop.
+ *
+ * <p>Same contract: cache failures are swallowed and read as misses, so callers never need a
+ * fallback path for Redis being down. Multi-key reads are a single MGET; multi-key writes issue every
+ * SETEX without waiting on the previous reply, so Lettuce pipelines them on the shared connection.
+ */
+@Component
+public class ReactiveRedisCache {
+  private static final int WRITE_CONCURRENCY = 64;
+
+  private final ReactiveStringRedisTemplate redis;
+
+  public ReactiveRedisCache(ReactiveStringRedisTemplate redis) {
+    this.redis = redis;
+  }
+
+  /** Completes empty on a miss or a Redis error. */
+  public Mono<String> get(String key) {
+    if (key == null || key.isBlank()) return Mono.empty();
+    return Mono.defer(() -> redis.opsForValue().get(key)).onErrorResume(e -> Mono.empty());
+  }
+
+  /** One MGET for all keys; the result only contains hits. */
+  public Mono<Map<String, String>> multiGet(Collection<String> keys) {
+    List<String> distinct = new ArrayList<>(new LinkedHashSet<>(keys));
+    distinct.removeIf(k -> k == null || k.isBlank());
+    if (distinct.isEmpty()) return Mono.just(Map.of());
+    return Mono.defer(() -> redis.opsForValue().multiGet(distinct))
+        .map(
+            values -> {
+              Map<String, String> out = new HashMap<>();
+              for (int i = 0; i < distinct.size() && i < values.size(); i++) {
+                String v = values.get(i);
+                if (v != null) out.put(distinct.get(i), v);
+              }
+              return out;
+            })
+        .onErrorResume(e -> Mono.just(Map.of()))
+        .defaultIfEmpty(Map.of());
+  }
+
+  public Mono<Void> set(String key, String value, long ttlSeconds) {
+    if (key == null || value == null) return Mono.empty();
+    return Mono.defer(() -> redis.opsForValue().set(key, value, ttl(ttlSeconds)))
+        .onErrorResume(e -> Mono.empty())
+        .then();
+  }
+
+  /** Pipelined SETEX of every entry with the same TTL. */
+  public Mono<Void> multiSet(Map<String, String> entries, long ttlSeconds) {
+    if (entries == null || entries.isEmpty()) return Mono.empty();
+    Duration ttl = ttl(ttlSeconds);
+    return Flux.fromIterable(entries.entrySet())
+        .filter(e -> e.getKey() != null && e.getValue() != null)
+        .flatMap(
+            e ->
+                Mono.defer(() -> redis.opsForValue().set(e.getKey(), e.getValue(), ttl))
+                    .onErrorResume(err -> Mono.empty()),
+            WRITE_CONCURRENCY)
+        .then();
+  }
+
+  public Mono<Void> publish(String channel, String message) {
+    if (channel == null || message == null) return Mono.empty();
+    return Mono.defer(() -> redis.convertAndSend(channel, message))
+        .onErrorResume(e -> Mono.empty()) // best-effort fan-out
+        .then();
+  }
+
+  private static Duration ttl(long ttlSeconds) {
+    return Duration.ofSeconds(Math.max(1, ttlSeconds));
+  }
+}
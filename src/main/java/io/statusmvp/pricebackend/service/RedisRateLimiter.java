@@ -0,0 +1,137 @@
+package io.statusmvp.pricebackend.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Per-client request limits shared by the proxies, the Safe gateway and auth.
+ *
+ * <p>Each limit is a GCRA bucket ("{@code limit} requests per {@code window}", bursts up to {@code
+ * limit}) whose state is one theoretical-arrival-time key. All limits of a request (e.g. ip and
+ * device) are checked in a single Lua call on the Redis clock: either every one admits the request and
+ * all are advanced, or the first one that does not is reported and none are charged. The key's TTL is
+ * set in the same call, so a crash can no longer leave a counter without expiry.
+ *
+ * <p>When Redis fails, {@link #check} fails open: the proxies and the Safe gateway would rather serve
+ * unthrottled than go down with Redis. {@link #checkBlocking} lets the caller choose; auth fails
+ * closed, so an outage does not lift login and wallet-bind throttling. Decisions are counted as
+ * {@code rate_limit.allowed{limiter}} and {@code rate_limit.denied{limiter,scope}} ({@code
+ * scope=unavailable} for fail-closed denials).
+ */
+@Component
+public class RedisRateLimiter {
+  private static final Logger log = LoggerFactory.getLogger(RedisRateLimiter.class);
+  // ARGV: limit and window (ms) per key. Returns "allow", or "deny:<key index>:<retry after ms>".
+  private static final DefaultRedisScript<String> GCRA_SCRIPT =
+      new DefaultRedisScript<>(
+          "local t = redis.call('TIME'); "
+              + "local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000); "
+              + "local tats = {}; "
+              + "for i = 1, #KEYS do "
+              + "local limit = tonumber(ARGV[2 * i - 1]); local window = tonumber(ARGV[2 * i]); "
+              + "local tat = tonumber(redis.call('GET', KEYS[i])) or now; "
+              + "if tat < now then tat = now end; "
+              + "local nextTat = tat + window / limit; "
+              + "if nextTat - window > now then return 'deny:' .. i .. ':' .. math.ceil(nextTat - window - now) end; "
+              + "tats[i] = nextTat end; "
+              + "for i = 1, #KEYS do "
+              + "redis.call('SET', KEYS[i], string.format('%.3f', tats[i]), 'PX', math.ceil(tats[i] - now) + 1) end; "
+              + "return 'allow'",
+          String.class);
+
+  public record Limit(String scope, String key, int limit, Duration window) {}
+
+  public record Decision(boolean allowed, String deniedScope, int retryAfterSeconds) {
+    public static final Decision ALLOWED = new Decision(true, null, 0);
+    /** Returned by fail-closed checks when the limiter state could not be read. */
+    public static final Decision UNAVAILABLE = new Decision(false, "unavailable", 1);
+  }
+
+  private final StringRedisTemplate redis;
+  private final ReactiveStringRedisTemplate reactiveRedis;
+  private final MeterRegistry meterRegistry;
+
+  public RedisRateLimiter(
+      StringRedisTemplate redis, ReactiveStringRedisTemplate reactiveRedis, MeterRegistry meterRegistry) {
+    this.redis = redis;
+    this.reactiveRedis = reactiveRedis;
+    this.meterRegistry = meterRegistry;
+  }
+
+  /** Checks and charges every limit with a non-blank key in one round trip; allows if Redis fails. */
+  public Mono<Decision> check(String limiter, List<Limit> limits) {
+    List<Limit> applicable = applicable(limits);
+    if (applicable.isEmpty()) return Mono.just(Decision.ALLOWED);
+    return Mono.defer(() -> reactiveRedis.execute(GCRA_SCRIPT, keys(applicable), args(applicable)).next())
+        .map(reply -> decide(limiter, applicable, reply))
+        .defaultIfEmpty(Decision.ALLOWED)
+        .onErrorResume(
+            e -> {
+              log.warn("rate_limit.redis_failure limiter={} error={}", limiter, e.getMessage());
+              return Mono.just(Decision.ALLOWED);
+            });
+  }
+
+  /**
+   * Blocking {@link #check}, for callers that already run off the event loop. When Redis fails the
+   * request is allowed if {@code failOpen}, otherwise denied with {@link Decision#UNAVAILABLE}.
+   */
+  public Decision checkBlocking(String limiter, List<Limit> limits, boolean failOpen) {
+    List<Limit> applicable = applicable(limits);
+    if (applicable.isEmpty()) return Decision.ALLOWED;
+    try {
+      String reply = redis.execute(GCRA_SCRIPT, keys(applicable), args(applicable).toArray());
+      return reply == null ? Decision.ALLOWED : decide(limiter, applicable, reply);
+    } catch (Exception e) {
+      log.warn(
+          "rate_limit.redis_failure limiter={} failOpen={} error={}", limiter, failOpen, e.getMessage());
+      if (failOpen) return Decision.ALLOWED;
+      meterRegistry
+          .counter("rate_limit.denied", "limiter", limiter, "scope", Decision.UNAVAILABLE.deniedScope())
+          .increment();
+      return Decision.UNAVAILABLE;
+    }
+  }
+
+  private Decision decide(String limiter, List<Limit> limits, String reply) {
+    if (!reply.startsWith("deny:")) {
+      meterRegistry.counter("rate_limit.allowed", "limiter", limiter).increment();
+      return Decision.ALLOWED;
+    }
+    String[] parts = reply.split(":");
+    Limit denied = limits.get(Math.max(0, Math.min(limits.size() - 1, Integer.parseInt(parts[1]) - 1)));
+    long retryAfterMs = Long.parseLong(parts[2]);
+    meterRegistry.counter("rate_limit.denied", "limiter", limiter, "scope", denied.scope()).increment();
+    return new Decision(false, denied.scope(), (int) Math.max(1L, (retryAfterMs + 999L) / 1000L));
+  }
+
+  private static List<Limit> applicable(List<Limit> limits) {
+    List<Limit> out = new ArrayList<>();
+    for (Limit limit : limits) {
+      if (limit != null && limit.key() != null && !limit.key().isBlank()) out.add(limit);
+    }
+    return out;
+  }
+
+  private static List<String> keys(List<Limit> limits) {
+    return limits.stream().map(Limit::key).toList();
+  }
+
+  private static List<String> args(List<Limit> limits) {
+    List<String> args = new ArrayList<>(limits.size() * 2);
+    for (Limit limit : limits) {
+      args.add(String.valueOf(Math.max(1, limit.limit())));
+      args.add(String.valueOf(Math.max(1000L, limit.window().toMillis())));
+    }
+    return args;
+  }
+}
@@ -6,15 +6,17 @@ import java.time.Duration;
 import java.util.concurrent.TimeoutException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Service
@@ -26,9 +28,11 @@ public class RelayProxyService {
   private final String baseUrl;
   private final String apiKey;
   private final Duration timeout;
+  private final SwapQuoteCache quoteCache;
 
   public RelayProxyService(
-      WebClient webClient,
+      @Qualifier("relayWebClient") WebClient webClient,
+      SwapQuoteCache quoteCache,
       @Value("${app.bridge.relay.apiBaseUrl:https://api.relay.link}") String baseUrl,
       @Value("${app.bridge.relay.apiKey:}") String apiKey,
       @Value("${app.bridge.relay.timeoutMs:12000}") long timeoutMs) {
@@ -36,6 +40,7 @@ public class RelayProxyService {
     this.baseUrl = normalizeBaseUrl(baseUrl);
     this.apiKey = apiKey == null ? "" : apiKey.trim();
     this.timeout = Duration.ofMillis(Math.max(1000, timeoutMs));
+    this.quoteCache = quoteCache;
   }
 
   private static String normalizeBaseUrl(String value) {
@@ -45,30 +50,6 @@ public class RelayProxyService {
     return trimmed;
   }
 
-  private static MediaType responseContentType(ClientResponse response) {
-    return response.headers().contentType().orElse(DEFAULT_CONTENT_TYPE);
-  }
-
-  private static Mono<ResponseEntity<String>> toResponseEntity(
-      String operation, ClientResponse response) {
-    return response
-        .bodyToMono(String.class)
-        .defaultIfEmpty("")
-        .map(
-            body -> {
-              if (!response.statusCode().is2xxSuccessful()) {
-                log.warn(
-                    "[relay-proxy] upstream {} returned {} body={}",
-                    operation,
-                    response.statusCode().value(),
-                    truncateForLog(body));
-              }
-              return ResponseEntity.status(response.statusCode())
-                  .contentType(responseContentType(response))
-                  .body(body);
-            });
-  }
-
   private static String truncateForLog(String value) {
     if (value == null) return "";
     String trimmed = value.trim();
@@ -101,11 +82,12 @@ public class RelayProxyService {
         .toUri();
   }
 
-  private Mono<ResponseEntity<String>> exchange(
+  private Mono<ResponseEntity<Flux<DataBuffer>>> exchange(
       HttpMethod method, URI uri, JsonNode body, String operation) {
     if (baseUrl.isBlank()) {
       return Mono.just(
-          jsonErrorResponse(503, "RELAY_API_BASE_URL not set", "Relay proxy is not configured"));
+          ProxyRelay.of(
+              jsonErrorResponse(503, "RELAY_API_BASE_URL not set", "Relay proxy is not configured")));
     }
 
     WebClient.RequestBodySpec request =
@@ -121,34 +103,39 @@ public class RelayProxyService {
                   }
                 });
 
-    Mono<ResponseEntity<String>> responseMono =
-        body == null
-            ? request.exchangeToMono(resp -> toResponseEntity(operation, resp))
-            : request.bodyValue(body).exchangeToMono(resp -> toResponseEntity(operation, resp));
-
-    return responseMono
-        .timeout(timeout)
+    return ProxyRelay.relay(
+            body == null ? request : request.bodyValue(body),
+            timeout,
+            (status, errorBody) ->
+                log.warn(
+                    "[relay-proxy] upstream {} returned {} body={}",
+                    operation,
+                    status.value(),
+                    truncateForLog(errorBody)))
         .onErrorResume(
             error -> {
               if (error instanceof TimeoutException) {
                 log.warn("[relay-proxy] upstream {} timed out after {} ms", operation, timeout.toMillis());
-                return Mono.just(jsonErrorResponse(504, "upstream timeout", operation));
+                return Mono.just(ProxyRelay.of(jsonErrorResponse(504, "upstream timeout", operation)));
               }
               log.warn("[relay-proxy] upstream {} failed", operation, error);
-              return Mono.just(jsonErrorResponse(502, "upstream request failed", operation));
+              return Mono.just(ProxyRelay.of(jsonErrorResponse(502, "upstream request failed", operation)));
             });
   }
 
-  public Mono<ResponseEntity<String>> quote(JsonNode body) {
-    return exchange(HttpMethod.POST, buildUri("/quote/v2"), body, "quote");
+  public Mono<ResponseEntity<Flux<DataBuffer>>> quote(JsonNode body) {
+    return quoteCache.get(
+        "relay",
+        quoteCache.key("relay", "/quote/v2", body),
+        () -> exchange(HttpMethod.POST, buildUri("/quote/v2"), body, "quote"));
   }
 
-  public Mono<ResponseEntity<String>> quoteMultiInput(JsonNode body) {
+  public Mono<ResponseEntity<Flux<DataBuffer>>> quoteMultiInput(JsonNode body) {
     return exchange(
         HttpMethod.POST, buildUri("/execute/swap/multi-input"), body, "quote/multi-input");
   }
 
-  public Mono<ResponseEntity<String>> getIntentStatus(String requestId) {
+  public Mono<ResponseEntity<Flux<DataBuffer>>> getIntentStatus(String requestId) {
     return exchange(HttpMethod.GET, buildStatusUri(requestId), null, "intents/status");
   }
 }
@@ -4,9 +4,15 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.statusmvp.pricebackend.model.safe.SafeCollaborationDtos;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HexFormat;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -47,6 +53,8 @@ public class SafeCollaborationService {
   private static final int OWNER_CHAIN_CONCURRENCY = 1;
   private static final int SAFE_CONCURRENCY = 2;
   private static final int TX_DETAIL_CONCURRENCY = 2;
+  private static final int MAX_WATERMARKED_SAFES = 50_000;
+  private static final long WATERMARK_RESYNC_MS = Duration.ofMinutes(30).toMillis();
 
   private static final Pattern EVM_ADDRESS_PATTERN = Pattern.compile("^0x[0-9a-fA-F]{40}$");
 
@@ -60,6 +68,15 @@ public class SafeCollaborationService {
 
   private final SafeTxServiceGatewayService gateway;
   private final ObjectMapper objectMapper;
+  // Safe id -> change-detection watermark of its last notification poll (LRU-bounded).
+  private final Map<String, SafeWatermark> watermarks =
+      Collections.synchronizedMap(
+          new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SafeWatermark> eldest) {
+              return size() > MAX_WATERMARKED_SAFES;
+            }
+          });
 
   public SafeCollaborationService(
       SafeTxServiceGatewayService gateway, ObjectMapper objectMapper) {
@@ -405,6 +422,18 @@ public class SafeCollaborationService {
         .onErrorResume(error -> Mono.just(new SafeInboxBatch(List.of(), Set.of(safeId))));
   }
 
+  /**
+   * Notification candidates for one Safe, driven by a per-Safe watermark.
+   *
+   * <p>Every poll starts with one probe: page 1 of the Safe's multisig transactions ordered by
+   * {@code -modified}. Its content hash (total count plus each item's hash, modified timestamp,
+   * confirmation count and execution flag) is the watermark; while it is unchanged the candidates of
+   * the last poll are returned as-is. When it moved and the page still reaches back to a transaction
+   * we already know unchanged, everything that changed is on the page, so only those safeTxHashes are
+   * re-fetched. Otherwise (first poll, deletions, a burst larger than a page, or the periodic resync)
+   * the pending and executed queues are walked as before, still reusing details whose fingerprint did
+   * not move. A failed detail fetch leaves the watermark unset so the next poll retries.
+   */
   private Mono<List<SafeNotificationCandidate>> fetchNotificationCandidatesForSafe(
       SafeCollaborationDtos.DiscoveryItem discoveryItem,
       int queueLimit,
@@ -416,11 +445,88 @@ public class SafeCollaborationService {
     }
 
     String safeId = safeKey(discoveryItem.chainId(), discoveryItem.safeAddress());
+    long now = System.currentTimeMillis();
+    SafeWatermark previous = watermarks.get(safeId);
+    SafeWatermark known =
+        previous != null && previous.queueLimit() == queueLimit && now < previous.resyncAt() ? previous : null;
+
+    return fetchQueueProbe(chain, discoveryItem.safeAddress(), clientIp, deviceId)
+        .map(Optional::of)
+        .onErrorResume(
+            error -> {
+              log.warn(
+                  "safe.notifications.candidates.probe_failure safeId={} error={}",
+                  safeId,
+                  error.getMessage());
+              return Mono.just(Optional.empty());
+            })
+        .flatMap(
+            probe -> {
+              QueuePage page = probe.orElse(null);
+              String pageHash = page == null ? null : page.contentHash();
+              if (known != null && pageHash != null && pageHash.equals(known.pageHash())) {
+                return Mono.just(known.candidates());
+              }
+
+              final boolean[] hadFailure = {false};
+              Map<String, TrackedTx> previousTxs = previous == null ? Map.of() : previous.txs();
+              boolean incremental = known != null && page != null && page.coversChangesSince(known);
+              Mono<List<QueueItem>> items =
+                  incremental
+                      ? Mono.just(page.items())
+                      : walkNotificationQueues(chain, discoveryItem.safeAddress(), queueLimit, safeId, hadFailure, clientIp, deviceId);
+
+              return items
+                  .flatMap(
+                      queueItems ->
+                          resolveTrackedTxs(
+                              discoveryItem, chain, safeId, queueItems, previousTxs, hadFailure, clientIp, deviceId))
+                  .map(
+                      resolved -> {
+                        LinkedHashMap<String, TrackedTx> txs = new LinkedHashMap<>();
+                        if (incremental) {
+                          Set<String> onPage = new LinkedHashSet<>();
+                          page.items().forEach(item -> onPage.add(item.safeTxHash().toLowerCase(Locale.ROOT)));
+                          // Keep open candidates and the fingerprints the next probe will compare against.
+                          known.txs().forEach(
+                              (hash, tx) -> {
+                                if (onPage.contains(hash)
+                                    || (tx.candidate() != null && page.nextOffset().isPresent())) {
+                                  txs.put(hash, tx);
+                                }
+                              });
+                        }
+                        txs.putAll(resolved);
+                        SafeWatermark watermark =
+                            new SafeWatermark(
+                                queueLimit,
+                                hadFailure[0] ? null : pageHash,
+                                page == null ? null : page.count(),
+                                incremental ? known.resyncAt() : now + WATERMARK_RESYNC_MS,
+                                Map.copyOf(txs),
+                                txs.values().stream()
+                                    .map(TrackedTx::candidate)
+                                    .filter(candidate -> candidate != null)
+                                    .toList());
+                        watermarks.put(safeId, watermark);
+                        return watermark.candidates();
+                      });
+            });
+  }
 
+  private Mono<List<QueueItem>> walkNotificationQueues(
+      SafeChain chain,
+      String safeAddress,
+      int queueLimit,
+      String safeId,
+      boolean[] hadFailure,
+      String clientIp,
+      String deviceId) {
     Mono<List<QueueItem>> pendingQueue =
-        fetchMultisigQueue(chain, discoveryItem.safeAddress(), false, queueLimit, clientIp, deviceId)
+        fetchMultisigQueue(chain, safeAddress, false, queueLimit, clientIp, deviceId)
             .onErrorResume(
                 error -> {
+                  hadFailure[0] = true;
                   log.warn(
                       "safe.notifications.candidates.pending_queue_failure safeId={} error={}",
                       safeId,
@@ -430,13 +536,14 @@ public class SafeCollaborationService {
     Mono<List<QueueItem>> executedQueue =
         fetchMultisigQueue(
                 chain,
-                discoveryItem.safeAddress(),
+                safeAddress,
                 true,
                 Math.min(queueLimit, SAFE_QUEUE_PAGE_LIMIT),
                 clientIp,
                 deviceId)
             .onErrorResume(
                 error -> {
+                  hadFailure[0] = true;
                   log.warn(
                       "safe.notifications.candidates.executed_queue_failure safeId={} error={}",
                       safeId,
@@ -445,7 +552,7 @@ public class SafeCollaborationService {
                 });
 
     return Mono.zip(pendingQueue, executedQueue)
-        .flatMap(
+        .map(
             queues -> {
               LinkedHashMap<String, QueueItem> byHash = new LinkedHashMap<>();
               for (QueueItem item : queues.getT1()) {
@@ -454,31 +561,90 @@ public class SafeCollaborationService {
               for (QueueItem item : queues.getT2()) {
                 byHash.putIfAbsent(item.safeTxHash().toLowerCase(Locale.ROOT), item);
               }
-              if (byHash.isEmpty()) {
-                return Mono.just(List.of());
-              }
+              return List.copyOf(byHash.values());
+            });
+  }
 
-              return Flux.fromIterable(byHash.values())
-                  .flatMap(
-                      queueItem ->
-                          fetchTransactionDetail(chain, queueItem.safeTxHash(), clientIp, deviceId)
-                              .map(detail -> buildNotificationCandidate(discoveryItem, detail))
-                              .onErrorResume(
-                                  error -> {
-                                    log.warn(
-                                        "safe.notifications.candidates.detail_failure safeId={} safeTxHash={} error={}",
-                                        safeId,
-                                        queueItem.safeTxHash(),
-                                        error.getMessage());
-                                    return Mono.just(Optional.<SafeNotificationCandidate>empty());
-                                  }),
-                      TX_DETAIL_CONCURRENCY)
-                  .collectList()
+  /** Re-fetches details only for queue items whose fingerprint differs from the one last seen. */
+  private Mono<Map<String, TrackedTx>> resolveTrackedTxs(
+      SafeCollaborationDtos.DiscoveryItem discoveryItem,
+      SafeChain chain,
+      String safeId,
+      List<QueueItem> queueItems,
+      Map<String, TrackedTx> previousTxs,
+      boolean[] hadFailure,
+      String clientIp,
+      String deviceId) {
+    if (queueItems.isEmpty()) {
+      return Mono.just(Map.of());
+    }
+
+    return Flux.fromIterable(queueItems)
+        .flatMap(
+            queueItem -> {
+              String hash = queueItem.safeTxHash().toLowerCase(Locale.ROOT);
+              TrackedTx tracked = previousTxs.get(hash);
+              if (tracked != null
+                  && queueItem.fingerprint() != null
+                  && queueItem.fingerprint().equals(tracked.fingerprint())) {
+                return Mono.just(Map.entry(hash, tracked));
+              }
+              return fetchTransactionDetail(chain, queueItem.safeTxHash(), clientIp, deviceId)
                   .map(
-                      optionalCandidates ->
-                          optionalCandidates.stream()
-                              .flatMap(Optional::stream)
-                              .toList());
+                      detail ->
+                          Map.entry(
+                              hash,
+                              new TrackedTx(
+                                  queueItem.fingerprint(),
+                                  buildNotificationCandidate(discoveryItem, detail).orElse(null))))
+                  .onErrorResume(
+                      error -> {
+                        hadFailure[0] = true;
+                        log.warn(
+                            "safe.notifications.candidates.detail_failure safeId={} safeTxHash={} error={}",
+                            safeId,
+                            queueItem.safeTxHash(),
+                            error.getMessage());
+                        return tracked == null ? Mono.empty() : Mono.just(Map.entry(hash, tracked));
+                      });
+            },
+            TX_DETAIL_CONCURRENCY)
+        .collectList()
+        .map(
+            entries -> {
+              LinkedHashMap<String, TrackedTx> resolved = new LinkedHashMap<>();
+              entries.forEach(entry -> resolved.put(entry.getKey(), entry.getValue()));
+              return resolved;
+            });
+  }
+
+  private Mono<QueuePage> fetchQueueProbe(
+      SafeChain chain, String safeAddress, String clientIp, String deviceId) {
+    MultiValueMap<String, String> query = new LinkedMultiValueMap<>();
+    query.add("ordering", "-modified");
+    query.add("limit", String.valueOf(SAFE_QUEUE_PAGE_LIMIT));
+    query.add("offset", "0");
+
+    return gateway
+        .get(
+            chain.code(),
+            "/api/v2/safes/" + safeAddress + "/multisig-transactions/",
+            query,
+            clientIp,
+            deviceId,
+            QUEUE_CACHE)
+        .flatMap(
+            response -> {
+              int status = response.getStatusCode().value();
+              if (status == 404) {
+                return Mono.just(new QueuePage(List.of(), Optional.empty(), 0));
+              }
+              if (status < 200 || status >= 300) {
+                return Mono.error(
+                    new IllegalStateException(
+                        "safe queue probe upstream returned " + status + " for " + safeAddress));
+              }
+              return Mono.just(parsePendingQueue(response));
             });
   }
 
@@ -772,9 +938,14 @@ public class SafeCollaborationService {
       if (safeTxHash == null || safeTxHash.isBlank()) {
         continue;
       }
-      items.add(new QueueItem(safeTxHash));
+      String modified = textOrNull(item.get("modified"));
+      String fingerprint =
+          modified == null
+              ? null
+              : modified + "|" + item.path("confirmations").size() + "|" + booleanOrNull(item.get("isExecuted"));
+      items.add(new QueueItem(safeTxHash, fingerprint));
     }
-    return new QueuePage(items, parseOffset(textOrNull(root.get("next"))));
+    return new QueuePage(items, parseOffset(textOrNull(root.get("next"))), intOrNull(root.get("count")));
   }
 
   private TransactionDetail parseTransactionDetail(ResponseEntity<String> response) {
@@ -960,6 +1131,16 @@ public class SafeCollaborationService {
     }
   }
 
+  /** Safe id ({@code <chainId>:<address>}) for a Safe Tx Service chain code, or null if unsupported. */
+  public static String safeKeyForChainCode(String code, String safeAddress) {
+    for (SafeChain chain : SUPPORTED_CHAINS) {
+      if (chain.code().equalsIgnoreCase(code == null ? "" : code.trim())) {
+        return safeKey(chain.chainId(), safeAddress == null ? null : safeAddress.trim());
+      }
+    }
+    return null;
+  }
+
   private static SafeChain chainById(int chainId) {
     for (SafeChain chain : SUPPORTED_CHAINS) {
       if (chain.chainId() == chainId) {
@@ -969,7 +1150,7 @@ public class SafeCollaborationService {
     return null;
   }
 
-  private static Instant sortTimestamp(String primary, String fallback) {
+  static Instant sortTimestamp(String primary, String fallback) {
     return parseInstant(firstNonBlank(primary, fallback)).orElse(Instant.EPOCH);
   }
 
@@ -1009,9 +1190,62 @@ public class SafeCollaborationService {
 
   private record SafesByOwnerPage(List<String> safeAddresses, Optional<Integer> nextOffset) {}
 
-  private record QueueItem(String safeTxHash) {}
+  /** {@code fingerprint} changes whenever the transaction does; null if the listing lacks the fields. */
+  private record QueueItem(String safeTxHash, String fingerprint) {}
+
+  private record QueuePage(List<QueueItem> items, Optional<Integer> nextOffset, Integer count) {
+    /** Watermark of the page, or null when an item cannot be fingerprinted. */
+    private String contentHash() {
+      StringBuilder content = new StringBuilder().append(count).append(';');
+      for (QueueItem item : items) {
+        if (item.fingerprint() == null) {
+          return null;
+        }
+        content
+            .append(item.safeTxHash().toLowerCase(Locale.ROOT))
+            .append('=')
+            .append(item.fingerprint())
+            .append(';');
+      }
+      try {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        return HexFormat.of().formatHex(digest.digest(content.toString().getBytes(StandardCharsets.UTF_8)));
+      } catch (NoSuchAlgorithmException error) {
+        throw new IllegalStateException(error);
+      }
+    }
+
+    /**
+     * True if every change since {@code watermark} is on this page: pages are ordered by {@code
+     * -modified}, so once an item is unchanged everything below it is too. A shrinking count means a
+     * deletion somewhere, which only a full walk notices.
+     */
+    private boolean coversChangesSince(SafeWatermark watermark) {
+      if (count != null && watermark.count() != null && count < watermark.count()) {
+        return false;
+      }
+      if (nextOffset.isEmpty()) {
+        return true;
+      }
+      for (QueueItem item : items) {
+        TrackedTx tracked = watermark.txs().get(item.safeTxHash().toLowerCase(Locale.ROOT));
+        if (tracked != null && item.fingerprint() != null && item.fingerprint().equals(tracked.fingerprint())) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
 
-  private record QueuePage(List<QueueItem> items, Optional<Integer> nextOffset) {}
+  private record TrackedTx(String fingerprint, SafeNotificationCandidate candidate) {}
+
+  private record SafeWatermark(
+      int queueLimit,
+      String pageHash,
+      Integer count,
+      long resyncAt,
+      Map<String, TrackedTx> txs,
+      List<SafeNotificationCandidate> candidates) {}
 
   private record TransactionDetail(
       String safeTxHash,
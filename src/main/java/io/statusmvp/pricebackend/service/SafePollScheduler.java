@@ -0,0 +1,142 @@
+package io.statusmvp.pricebackend.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides when each Safe is next polled for notifications.
+ *
+ * <p>Safes with an open transaction (awaiting confirmations or execution) are polled every {@code
+ * activeIntervalMs}. Idle Safes back off exponentially from {@code pollDelayMs} up to {@code
+ * maxIdleIntervalMs}. A Safe is due again immediately when a device (re-)subscribes to it or a
+ * transaction is proposed for it through the gateway; since that request may land on a replica that
+ * does not own the Safe's shard, wake-ups go through a per-shard Redis set the owner drains each
+ * tick. Due times themselves are local: a replica that takes over a shard polls its Safes once right
+ * away and then settles into their cadence.
+ */
+@Component
+public class SafePollScheduler {
+  private static final int MAX_WAKEUPS_PER_DRAIN = 1000;
+  private static final int MAX_IDLE_STREAK = 16;
+
+  private final StringRedisTemplate redis;
+  private final SafePollShardLeases shardLeases;
+  private final long activeIntervalMs;
+  private final long idleBaseIntervalMs;
+  private final long maxIdleIntervalMs;
+  private final Duration wakeupTtl;
+  private final Map<String, Schedule> schedules = new ConcurrentHashMap<>();
+
+  public SafePollScheduler(
+      StringRedisTemplate redis,
+      SafePollShardLeases shardLeases,
+      @Value("${app.safe.notifications.activeIntervalMs:15000}") long activeIntervalMs,
+      @Value("${app.safe.notifications.pollDelayMs:45000}") long idleBaseIntervalMs,
+      @Value("${app.safe.notifications.maxIdleIntervalMs:1800000}") long maxIdleIntervalMs) {
+    this.redis = redis;
+    this.shardLeases = shardLeases;
+    this.activeIntervalMs = Math.max(1000L, activeIntervalMs);
+    this.idleBaseIntervalMs = Math.max(this.activeIntervalMs, idleBaseIntervalMs);
+    this.maxIdleIntervalMs = Math.max(this.idleBaseIntervalMs, maxIdleIntervalMs);
+    this.wakeupTtl = Duration.ofMillis(this.maxIdleIntervalMs * 2);
+  }
+
+  public boolean isDue(String safeId, long now) {
+    Schedule schedule = schedules.get(safeId);
+    return schedule == null || now >= schedule.nextPollAt();
+  }
+
+  /** Schedules the next poll after a successful one; {@code active} = an open transaction exists. */
+  public void recordPoll(String safeId, boolean active, long now) {
+    schedules.compute(
+        safeId,
+        (id, previous) -> {
+          if (active) {
+            return new Schedule(now + activeIntervalMs, 0);
+          }
+          int streak = previous == null ? 0 : Math.min(MAX_IDLE_STREAK, previous.idleStreak());
+          long interval = Math.min(maxIdleIntervalMs, idleBaseIntervalMs << streak);
+          return new Schedule(now + interval, streak + 1);
+        });
+  }
+
+  /** Upstream failed for this Safe: retry at the base cadence without growing the backoff. */
+  public void recordFailure(String safeId, long now) {
+    schedules.compute(
+        safeId,
+        (id, previous) ->
+            new Schedule(now + idleBaseIntervalMs, previous == null ? 0 : previous.idleStreak()));
+  }
+
+  /** Makes the Safe due on whichever replica owns it. Blocking; best effort. */
+  public void wake(String safeId) {
+    wakeAll(safeId == null ? List.of() : List.of(safeId));
+  }
+
+  /** {@link #wake} for several Safes, in one pipeline. */
+  public void wakeAll(Collection<String> safeIds) {
+    Map<String, List<String>> safeIdsByKey = new HashMap<>();
+    for (String safeId : safeIds) {
+      if (safeId == null || safeId.isBlank()) {
+        continue;
+      }
+      schedules.remove(safeId);
+      safeIdsByKey.computeIfAbsent(wakeupsKey(shardLeases.shardOf(safeId)), k -> new ArrayList<>()).add(safeId);
+    }
+    if (safeIdsByKey.isEmpty()) {
+      return;
+    }
+    try {
+      redis.executePipelined(
+          new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+              RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+              safeIdsByKey.forEach(
+                  (key, ids) -> {
+                    ops.opsForSet().add(key, ids.toArray(new String[0]));
+                    ops.expire(key, wakeupTtl);
+                  });
+              return null;
+            }
+          });
+    } catch (Exception ignored) {
+      // the Safes are still picked up by their regular cadence
+    }
+  }
+
+  /** Applies wake-ups recorded (possibly by other replicas) for a shard this replica owns. */
+  public void drainWakeups(int shard) {
+    try {
+      List<String> woken = redis.opsForSet().pop(wakeupsKey(shard), MAX_WAKEUPS_PER_DRAIN);
+      if (woken != null) {
+        woken.forEach(schedules::remove);
+      }
+    } catch (Exception ignored) {
+      // ignore wake-up failures
+    }
+  }
+
+  /** Drops schedules for Safes in shards this replica no longer owns. */
+  public void retainShards(Set<Integer> ownedShards) {
+    schedules.keySet().removeIf(safeId -> !ownedShards.contains(shardLeases.shardOf(safeId)));
+  }
+
+  private String wakeupsKey(int shard) {
+    return "safe:notif:wake:" + shardLeases.shardCount() + ":" + shard;
+  }
+
+  private record Schedule(long nextPollAt, int idleStreak) {}
+}
@@ -0,0 +1,152 @@
+package io.statusmvp.pricebackend.service;
+
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+/**
+ * Splits Safe notification polling across replicas.
+ *
+ * <p>Safe ids hash into a fixed number of shards; a replica only polls shards it holds a lease on
+ * ({@code safe:notif:shard:<n>:lease}, value = node id, PX = lease TTL). Every cycle the replica
+ * heartbeats into {@code safe:notif:pollers}, renews its leases, gives back any above its fair share
+ * ({@code ceil(shards / live replicas)}) and claims free ones up to it. A replica that dies simply
+ * stops renewing and its shards are picked up by the others once the lease expires.
+ */
+@Component
+public class SafePollShardLeases {
+  private static final Logger log = LoggerFactory.getLogger(SafePollShardLeases.class);
+  private static final String POLLERS_KEY = "safe:notif:pollers";
+  private static final DefaultRedisScript<Long> RENEW_SCRIPT =
+      new DefaultRedisScript<>(
+          "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+              + "return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end; "
+              + "return 0",
+          Long.class);
+  private static final DefaultRedisScript<Long> RELEASE_SCRIPT =
+      new DefaultRedisScript<>(
+          "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+              + "return redis.call('DEL', KEYS[1]) end; "
+              + "return 0",
+          Long.class);
+
+  private final StringRedisTemplate redis;
+  private final int shardCount;
+  private final Duration leaseTtl;
+  private final String nodeId = UUID.randomUUID().toString();
+  // Shard -> local deadline (epoch ms) before which we are certain the lease is still ours.
+  private final Map<Integer, Long> owned = new ConcurrentHashMap<>();
+
+  public SafePollShardLeases(
+      StringRedisTemplate redis,
+      @Value("${app.safe.notifications.shards:16}") int shardCount,
+      @Value("${app.safe.notifications.leaseTtlSeconds:135}") long leaseTtlSeconds) {
+    this.redis = redis;
+    this.shardCount = Math.max(1, Math.min(1024, shardCount));
+    this.leaseTtl = Duration.ofSeconds(Math.max(10L, leaseTtlSeconds));
+  }
+
+  public int shardCount() {
+    return shardCount;
+  }
+
+  public int shardOf(String safeId) {
+    CRC32 crc = new CRC32();
+    crc.update((safeId == null ? "" : safeId).getBytes(StandardCharsets.UTF_8));
+    return (int) (crc.getValue() % shardCount);
+  }
+
+  /** Heartbeats, renews, rebalances and claims leases; returns the shards owned for this cycle. */
+  public NavigableSet<Integer> refresh() {
+    long now = System.currentTimeMillis();
+    int target = fairShare(now);
+
+    for (Integer shard : new ArrayList<>(owned.keySet())) {
+      Long renewed =
+          redis.execute(RENEW_SCRIPT, List.of(leaseKey(shard)), nodeId, String.valueOf(leaseTtl.toMillis()));
+      if (renewed != null && renewed > 0) {
+        owned.put(shard, deadline(now));
+      } else {
+        owned.remove(shard);
+        log.info("safe.notifications.shard_lease_lost shard={} nodeId={}", shard, nodeId);
+      }
+    }
+
+    if (owned.size() > target) {
+      List<Integer> extra = new ArrayList<>(new TreeSet<>(owned.keySet()).descendingSet());
+      for (Integer shard : extra.subList(0, owned.size() - target)) {
+        release(shard);
+      }
+    }
+
+    int start = Math.floorMod(nodeId.hashCode(), shardCount);
+    for (int i = 0; i < shardCount && owned.size() < target; i++) {
+      int shard = (start + i) % shardCount;
+      if (owned.containsKey(shard)) continue;
+      Boolean acquired = redis.opsForValue().setIfAbsent(leaseKey(shard), nodeId, leaseTtl);
+      if (Boolean.TRUE.equals(acquired)) {
+        owned.put(shard, deadline(now));
+        log.info("safe.notifications.shard_lease_acquired shard={} nodeId={}", shard, nodeId);
+      }
+    }
+    return new TreeSet<>(owned.keySet());
+  }
+
+  /** True while the lease is certainly still ours; checked before acting on a shard's results. */
+  public boolean stillOwns(int shard) {
+    Long until = owned.get(shard);
+    return until != null && System.currentTimeMillis() < until;
+  }
+
+  @PreDestroy
+  public void releaseAll() {
+    for (Integer shard : new ArrayList<>(owned.keySet())) {
+      try {
+        release(shard);
+      } catch (Exception ignored) {
+        // the lease expires on its own
+      }
+    }
+    try {
+      redis.opsForZSet().remove(POLLERS_KEY, nodeId);
+    } catch (Exception ignored) {
+      // dropped from the heartbeat set once stale
+    }
+  }
+
+  private int fairShare(long now) {
+    redis.opsForZSet().add(POLLERS_KEY, nodeId, now);
+    redis.opsForZSet().removeRangeByScore(POLLERS_KEY, Double.NEGATIVE_INFINITY, now - leaseTtl.toMillis());
+    Long live = redis.opsForZSet().zCard(POLLERS_KEY);
+    int replicas = live == null || live < 1 ? 1 : live.intValue();
+    return (shardCount + replicas - 1) / replicas;
+  }
+
+  private void release(int shard) {
+    owned.remove(shard);
+    redis.execute(RELEASE_SCRIPT, List.of(leaseKey(shard)), nodeId);
+  }
+
+  private long deadline(long now) {
+    // Leave a margin for clock drift and the Redis round trip.
+    return now + leaseTtl.toMillis() * 4 / 5;
+  }
+
+  private static String leaseKey(int shard) {
+    return "safe:notif:shard:" + shard + ":lease";
+  }
+}
@@ -3,70 +3,94 @@ package io.statusmvp.pricebackend.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.statusmvp.pricebackend.client.SafeTxServiceClient;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.util.MultiValueMap;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 @Service
 public class SafeTxServiceGatewayService {
-  private static final String CACHE_FRESH_PREFIX = "safe:tx:gw:fresh:";
-  private static final String CACHE_STALE_PREFIX = "safe:tx:gw:stale:";
+  private static final String CACHE_ENTRY_PREFIX = "safe:tx:gw:entry:";
+  private static final int COMPRESS_MIN_BYTES = 1024;
   private static final MediaType DEFAULT_CONTENT_TYPE = MediaType.APPLICATION_JSON;
+  // Upstream queue of background revalidations, so they don't use up the triggering caller's turn.
+  private static final String REVALIDATION_CALLER_KEY = "internal:revalidate";
 
   public record CachePolicy(long freshTtlSeconds, long staleTtlSeconds, long notFoundTtlSeconds) {}
 
-  private record CachedResponse(int status, String contentType, String body) {}
+  /**
+   * One cached upstream response: served as-is until {@code freshUntil}, then served while a
+   * background refresh runs until {@code staleUntil} (also its Redis TTL). Bodies of {@value
+   * #COMPRESS_MIN_BYTES} bytes or more are kept gzipped in {@code gzipBody}.
+   */
+  private record CachedEntry(
+      int status,
+      String contentType,
+      String body,
+      String gzipBody,
+      String etag,
+      String lastModified,
+      long freshUntil,
+      long staleUntil) {
+    private CachedEntry withDeadlines(long fresh, long stale) {
+      return new CachedEntry(status, contentType, body, gzipBody, etag, lastModified, fresh, stale);
+    }
 
-  private record RateLimitDecision(boolean allowed, int retryAfterSeconds) {}
+    private String decodedBody() {
+      if (gzipBody != null) return gunzipBase64(gzipBody);
+      return body == null ? "" : body;
+    }
+  }
 
   private final SafeTxServiceClient safeTxService;
-  private final RedisCache cache;
-  private final StringRedisTemplate redis;
+  private final ReactiveRedisCache cache;
+  private final RedisRateLimiter rateLimiter;
   private final ObjectMapper objectMapper;
 
   private final int windowSeconds;
   private final int ipLimit;
   private final int deviceLimit;
-  private final UpstreamTokenBucket upstreamRateLimiter;
+  private final SafeTxUpstreamRateLimiter upstreamRateLimiter;
 
   private final ConcurrentHashMap<String, Mono<ResponseEntity<String>>> inflight = new ConcurrentHashMap<>();
 
   public SafeTxServiceGatewayService(
       SafeTxServiceClient safeTxService,
-      RedisCache cache,
-      StringRedisTemplate redis,
+      ReactiveRedisCache cache,
+      RedisRateLimiter rateLimiter,
       ObjectMapper objectMapper,
+      SafeTxUpstreamRateLimiter upstreamRateLimiter,
       @Value("${SAFE_TX_GW_RL_WINDOW_SECONDS:60}") int windowSeconds,
       @Value("${SAFE_TX_GW_RL_IP_LIMIT:600}") int ipLimit,
-      @Value("${SAFE_TX_GW_RL_DEVICE_LIMIT:300}") int deviceLimit,
-      @Value("${SAFE_TX_UPSTREAM_RPS:4}") double upstreamRps,
-      @Value("${SAFE_TX_UPSTREAM_BURST:4}") int upstreamBurst) {
+      @Value("${SAFE_TX_GW_RL_DEVICE_LIMIT:300}") int deviceLimit) {
     this.safeTxService = safeTxService;
     this.cache = cache;
-    this.redis = redis;
+    this.rateLimiter = rateLimiter;
     this.objectMapper = objectMapper;
     this.windowSeconds = Math.max(1, windowSeconds);
     this.ipLimit = Math.max(1, ipLimit);
     this.deviceLimit = Math.max(1, deviceLimit);
-    this.upstreamRateLimiter = new UpstreamTokenBucket(upstreamRps, upstreamBurst);
+    this.upstreamRateLimiter = upstreamRateLimiter;
   }
 
   public Mono<ResponseEntity<String>> get(
@@ -77,8 +101,7 @@ public class SafeTxServiceGatewayService {
       String deviceId,
       CachePolicy policy) {
     CachePolicy p = policy == null ? new CachePolicy(0, 0, 0) : policy;
-    String freshKey = cacheKey(CACHE_FRESH_PREFIX, chain, path, query);
-    String staleKey = cacheKey(CACHE_STALE_PREFIX, chain, path, query);
+    String entryKey = cacheKey(CACHE_ENTRY_PREFIX, chain, path, query);
 
     return checkRateLimits(clientIp, deviceId)
         .flatMap(
@@ -86,13 +109,22 @@ public class SafeTxServiceGatewayService {
               if (!rl.allowed()) {
                 return Mono.just(rateLimitedResponse(rl.retryAfterSeconds()));
               }
-              return readCache(freshKey)
+              return readCache(entryKey)
                   .flatMap(
                       cached -> {
-                        if (cached.isPresent()) {
-                          return Mono.just(toResponseEntity(cached.get(), false));
+                        long now = System.currentTimeMillis();
+                        CachedEntry entry = cached.filter(e -> now < e.staleUntil()).orElse(null);
+                        if (entry == null) {
+                          return getInflight(entryKey, null, chain, path, query, p, callerKey(clientIp, deviceId))
+                              .map(SafeTxServiceGatewayService::withMissHeader);
                         }
-                        return getInflight(freshKey, staleKey, chain, path, query, p);
+                        if (now < entry.freshUntil()) {
+                          return Mono.just(toResponseEntity(entry, "HIT"));
+                        }
+                        // Stale: answer now and let one background refresh bring the entry up to date.
+                        getInflight(entryKey, entry, chain, path, query, p, REVALIDATION_CALLER_KEY)
+                            .subscribe(ignored -> {}, ignored -> {});
+                        return Mono.just(toResponseEntity(entry, "STALE"));
                       });
             });
   }
@@ -110,128 +142,121 @@ public class SafeTxServiceGatewayService {
               if (!rl.allowed()) {
                 return Mono.just(rateLimitedResponse(rl.retryAfterSeconds()));
               }
-              return awaitUpstreamPermit().then(safeTxService.post(chain, path, query, body));
+              return upstreamRateLimiter
+                  .acquire(callerKey(clientIp, deviceId))
+                  .then(safeTxService.post(chain, path, query, body))
+                  .onErrorResume(
+                      SafeTxUpstreamRateLimiter.UpstreamBudgetExhaustedException.class,
+                      err -> Mono.just(rateLimitedResponse(1)));
             });
   }
 
+  /**
+   * Single-flight upstream fetch for {@code entryKey}. With a {@code previous} entry the request is
+   * conditional on its validators, and a 304 only pushes the entry's deadlines out; upstream
+   * failures fall back to {@code previous}.
+   */
   private Mono<ResponseEntity<String>> getInflight(
-      String freshKey,
-      String staleKey,
+      String entryKey,
+      CachedEntry previous,
       String chain,
       String path,
       MultiValueMap<String, String> query,
-      CachePolicy policy) {
+      CachePolicy policy,
+      String callerKey) {
     return inflight.computeIfAbsent(
-        freshKey,
+        entryKey,
         k ->
-            awaitUpstreamPermit()
-                .then(safeTxService.get(chain, path, query))
+            upstreamRateLimiter
+                .acquire(callerKey)
+                .then(
+                    Mono.defer(
+                        () ->
+                            previous == null
+                                ? safeTxService.get(chain, path, query)
+                                : safeTxService.get(chain, path, query, previous.etag(), previous.lastModified())))
                 .flatMap(
                     resp -> {
                       int status = resp.getStatusCode().value();
-                      if (status >= 200 && status < 300) {
-                        CachedResponse cached = toCachedResponse(resp);
-                        return Mono.when(
-                                writeCache(freshKey, cached, policy.freshTtlSeconds()),
-                                writeCache(staleKey, cached, policy.staleTtlSeconds()))
-                            .thenReturn(resp);
+                      long now = System.currentTimeMillis();
+                      if (status == 304 && previous != null) {
+                        CachedEntry revalidated =
+                            previous.withDeadlines(
+                                now + policy.freshTtlSeconds() * 1000L,
+                                now + Math.max(policy.freshTtlSeconds(), policy.staleTtlSeconds()) * 1000L);
+                        return writeCache(entryKey, revalidated).thenReturn(toResponseEntity(revalidated, "REVALIDATED"));
+                      }
+
+                      if (status >= 200 && status < 300 && policy.freshTtlSeconds() > 0) {
+                        CachedEntry entry =
+                            toCachedEntry(
+                                resp,
+                                now + policy.freshTtlSeconds() * 1000L,
+                                now + Math.max(policy.freshTtlSeconds(), policy.staleTtlSeconds()) * 1000L);
+                        return writeCache(entryKey, entry).thenReturn(resp);
                       }
 
                       if (status == 404 && policy.notFoundTtlSeconds() > 0) {
-                        CachedResponse cached = toCachedResponse(resp);
-                        return writeCache(freshKey, cached, policy.notFoundTtlSeconds()).thenReturn(resp);
+                        long until = now + policy.notFoundTtlSeconds() * 1000L;
+                        return writeCache(entryKey, toCachedEntry(resp, until, until)).thenReturn(resp);
                       }
 
-                      if (status == 429 || status >= 500) {
-                        return readCache(staleKey)
-                            .map(stale -> stale.map(v -> toResponseEntity(v, true)).orElse(resp));
+                      if ((status == 429 || status >= 500) && previous != null) {
+                        return Mono.just(toResponseEntity(previous, "STALE"));
                       }
 
                       return Mono.just(resp);
                     })
                 .onErrorResume(
-                    err ->
-                        readCache(staleKey)
-                            .flatMap(
-                                stale -> {
-                                  if (stale.isPresent()) return Mono.just(toResponseEntity(stale.get(), true));
-                                  return Mono.error(err);
-                                }))
+                    err -> {
+                      if (previous != null) return Mono.just(toResponseEntity(previous, "STALE"));
+                      if (err instanceof SafeTxUpstreamRateLimiter.UpstreamBudgetExhaustedException) {
+                        return Mono.just(rateLimitedResponse(1));
+                      }
+                      return Mono.error(err);
+                    })
                 .doFinally(sig -> inflight.remove(k))
                 .cache());
   }
 
-  private Mono<Void> awaitUpstreamPermit() {
-    long delayMs = upstreamRateLimiter.reserveDelayMillis();
-    if (delayMs <= 0) {
-      return Mono.empty();
-    }
-    return Mono.delay(Duration.ofMillis(delayMs)).then();
-  }
-
-  private Mono<Optional<CachedResponse>> readCache(String key) {
-    return Mono.fromCallable(
-            () -> {
-              Optional<String> raw = cache.get(key);
-              if (raw.isEmpty()) return Optional.<CachedResponse>empty();
+  private Mono<Optional<CachedEntry>> readCache(String key) {
+    return cache
+        .get(key)
+        .map(
+            raw -> {
               try {
-                return Optional.of(objectMapper.readValue(raw.get(), CachedResponse.class));
+                return Optional.of(objectMapper.readValue(raw, CachedEntry.class));
               } catch (Exception ignored) {
-                return Optional.<CachedResponse>empty();
+                return Optional.<CachedEntry>empty();
               }
             })
-        .subscribeOn(Schedulers.boundedElastic());
+        .defaultIfEmpty(Optional.empty());
   }
 
-  private Mono<Void> writeCache(String key, CachedResponse payload, long ttlSeconds) {
+  private Mono<Void> writeCache(String key, CachedEntry entry) {
+    long ttlSeconds = (entry.staleUntil() - System.currentTimeMillis() + 999L) / 1000L;
     if (ttlSeconds <= 0) return Mono.empty();
-    return Mono.fromRunnable(
-            () -> {
-              try {
-                cache.set(key, objectMapper.writeValueAsString(payload), ttlSeconds);
-              } catch (Exception ignored) {
-                // ignore cache failures
-              }
-            })
-        .subscribeOn(Schedulers.boundedElastic())
-        .then();
+    try {
+      return cache.set(key, objectMapper.writeValueAsString(entry), ttlSeconds);
+    } catch (Exception ignored) {
+      // ignore cache failures
+      return Mono.empty();
+    }
   }
 
-  private Mono<RateLimitDecision> checkRateLimits(String ip, String deviceId) {
-    return Mono.fromCallable(
-            () -> {
-              int retryAfter = 0;
-              if (ip != null && !ip.isBlank()) {
-                retryAfter = Math.max(retryAfter, checkLimit("ip", key("ip", normalizeKey(ip)), ipLimit));
-              }
-              if (deviceId != null && !deviceId.isBlank()) {
-                retryAfter =
-                    Math.max(
-                        retryAfter,
-                        checkLimit("device", key("device", normalizeKey(deviceId)), deviceLimit));
-              }
-              if (retryAfter > 0) return new RateLimitDecision(false, retryAfter);
-              return new RateLimitDecision(true, 0);
-            })
-        .subscribeOn(Schedulers.boundedElastic());
+  private Mono<RedisRateLimiter.Decision> checkRateLimits(String ip, String deviceId) {
+    Duration window = Duration.ofSeconds(windowSeconds);
+    return rateLimiter.check(
+        "safe-tx-gateway",
+        List.of(
+            new RedisRateLimiter.Limit("ip", key("ip", normalizeKey(ip)), ipLimit, window),
+            new RedisRateLimiter.Limit("device", key("device", normalizeKey(deviceId)), deviceLimit, window)));
   }
 
-  private int checkLimit(String scope, String key, int limit) {
-    if (key == null || key.isBlank()) return 0;
-    try {
-      Long count = redis.opsForValue().increment(key);
-      if (count != null && count == 1L) {
-        redis.expire(key, Duration.ofSeconds(windowSeconds));
-      }
-      if (count != null && count > limit) {
-        Long ttl = redis.getExpire(key, TimeUnit.SECONDS);
-        int retryAfter = ttl == null || ttl < 1 ? windowSeconds : ttl.intValue();
-        return Math.max(1, retryAfter);
-      }
-      return 0;
-    } catch (Exception ignored) {
-      return 0;
-    }
+  /** Upstream queue a call waits in: per device when known, else per client IP. */
+  private static String callerKey(String clientIp, String deviceId) {
+    if (deviceId != null && !deviceId.isBlank()) return "device:" + deviceId.trim();
+    return "ip:" + (clientIp == null ? "" : clientIp.trim());
   }
 
   private static String key(String prefix, String suffix) {
@@ -252,22 +277,59 @@ public class SafeTxServiceGatewayService {
         .body("{\"error\":\"rate limited\",\"retryAfterSeconds\":" + retry + "}");
   }
 
-  private static CachedResponse toCachedResponse(ResponseEntity<String> resp) {
+  private static CachedEntry toCachedEntry(ResponseEntity<String> resp, long freshUntil, long staleUntil) {
     MediaType ct = resp.getHeaders().getContentType();
     String contentType = ct == null ? DEFAULT_CONTENT_TYPE.toString() : ct.toString();
     String body = resp.getBody() == null ? "" : resp.getBody();
-    return new CachedResponse(resp.getStatusCode().value(), contentType, body);
+    byte[] raw = body.getBytes(StandardCharsets.UTF_8);
+    String gzipBody = raw.length >= COMPRESS_MIN_BYTES ? gzipBase64(raw) : null;
+    return new CachedEntry(
+        resp.getStatusCode().value(),
+        contentType,
+        gzipBody == null ? body : null,
+        gzipBody,
+        resp.getHeaders().getETag(),
+        resp.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED),
+        freshUntil,
+        staleUntil);
   }
 
-  private static ResponseEntity<String> toResponseEntity(CachedResponse cached, boolean stale) {
+  private static ResponseEntity<String> toResponseEntity(CachedEntry cached, String cacheStatus) {
     ResponseEntity.BodyBuilder b = ResponseEntity.status(cached.status());
     try {
       b.contentType(MediaType.parseMediaType(cached.contentType()));
     } catch (Exception ignored) {
       b.contentType(DEFAULT_CONTENT_TYPE);
     }
-    b.header("X-Cache", stale ? "STALE" : "HIT");
-    return b.body(cached.body() == null ? "" : cached.body());
+    b.header("X-Cache", cacheStatus);
+    return b.body(cached.decodedBody());
+  }
+
+  /** Marks an upstream response as a cache miss, unless it was answered from a cached entry. */
+  private static ResponseEntity<String> withMissHeader(ResponseEntity<String> resp) {
+    if (resp.getHeaders().containsKey("X-Cache")) return resp;
+    HttpHeaders headers = new HttpHeaders();
+    headers.addAll(resp.getHeaders());
+    headers.set("X-Cache", "MISS");
+    return new ResponseEntity<>(resp.getBody(), headers, resp.getStatusCode());
+  }
+
+  private static String gzipBase64(byte[] raw) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4 + 64);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(raw);
+    } catch (IOException e) {
+      return null;
+    }
+    return Base64.getEncoder().encodeToString(out.toByteArray());
+  }
+
+  private static String gunzipBase64(String encoded) {
+    try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(encoded)))) {
+      return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException | IllegalArgumentException e) {
+      return "";
+    }
   }
 
   private static String cacheKey(
@@ -303,36 +365,4 @@ public class SafeTxServiceGatewayService {
       return Integer.toHexString((input == null ? "" : input).hashCode());
     }
   }
-
-  static final class UpstreamTokenBucket {
-    private final double refillPerSecond;
-    private final int burstCapacity;
-    private double storedTokens;
-    private long lastRefillNanos;
-
-    UpstreamTokenBucket(double refillPerSecond, int burstCapacity) {
-      this.refillPerSecond = Math.max(0.1d, refillPerSecond);
-      this.burstCapacity = Math.max(1, burstCapacity);
-      this.storedTokens = this.burstCapacity;
-      this.lastRefillNanos = System.nanoTime();
-    }
-
-    synchronized long reserveDelayMillis() {
-      long now = System.nanoTime();
-      long elapsedNanos = Math.max(0L, now - lastRefillNanos);
-      if (elapsedNanos > 0) {
-        double replenished = (elapsedNanos / 1_000_000_000d) * refillPerSecond;
-        storedTokens = Math.min(burstCapacity, storedTokens + replenished);
-        lastRefillNanos = now;
-      }
-
-      storedTokens -= 1d;
-      if (storedTokens >= 0d) {
-        return 0L;
-      }
-
-      double deficit = -storedTokens;
-      return (long) Math.ceil((deficit / refillPerSecond) * 1000d);
-    }
-  }
 }
@@ -0,0 +1,261 @@
+package io.statusmvp.pricebackend.service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+/**
+ * One Safe Tx Service upstream budget ({@code SAFE_TX_UPSTREAM_RPS}, {@code SAFE_TX_UPSTREAM_BURST})
+ * shared by every replica.
+ *
+ * <p>The bucket lives in Redis ({@code safe:tx:gw:upstream:bucket}) and is refilled and drawn from
+ * by one Lua script using the Redis clock. Replicas lease tokens in batches (what is queued plus
+ * {@code SAFE_TX_UPSTREAM_PREFETCH}) and hand them out locally, so a busy replica pays one round trip
+ * per batch rather than per call; leased tokens not used within {@code SAFE_TX_UPSTREAM_LEASE_MS} are
+ * dropped so they cannot pile up into a burst. Callers without a token wait in per-caller FIFO queues
+ * served round-robin, so one chatty device (or the notifier) cannot starve the others; the queue is
+ * bounded and so is the wait. If Redis is unavailable the replica falls back to a local bucket with
+ * the same settings.
+ */
+@Component
+public class SafeTxUpstreamRateLimiter {
+  private static final Logger log = LoggerFactory.getLogger(SafeTxUpstreamRateLimiter.class);
+  private static final String BUCKET_KEY = "safe:tx:gw:upstream:bucket";
+  // ARGV: refill per second, burst, tokens wanted. Returns tokens granted (> 0), or -(ms until the next token).
+  private static final DefaultRedisScript<Long> LEASE_SCRIPT =
+      new DefaultRedisScript<>(
+          "local rate = tonumber(ARGV[1]); local burst = tonumber(ARGV[2]); local want = tonumber(ARGV[3]); "
+              + "local t = redis.call('TIME'); "
+              + "local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000); "
+              + "local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts'); "
+              + "local tokens = tonumber(state[1]) or burst; local ts = tonumber(state[2]) or now; "
+              + "if now > ts then tokens = math.min(burst, tokens + (now - ts) * rate / 1000); ts = now end; "
+              + "local granted = math.min(want, math.floor(tokens)); "
+              + "tokens = tokens - granted; "
+              + "redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(ts)); "
+              + "redis.call('PEXPIRE', KEYS[1], math.ceil(burst * 1000 / rate) + 1000); "
+              + "if granted > 0 then return granted end; "
+              + "return -math.max(1, math.ceil((1 - tokens) * 1000 / rate))",
+          Long.class);
+
+  private final ReactiveStringRedisTemplate redis;
+  private final double refillPerSecond;
+  private final int burstCapacity;
+  private final int prefetch;
+  private final long leaseNanos;
+  private final int maxQueued;
+  private final Duration maxWait;
+  private final UpstreamTokenBucket fallback;
+
+  // Guarded by this.
+  private final Map<String, ArrayDeque<Waiter>> queues = new LinkedHashMap<>();
+  private int queued;
+  private long leasedTokens;
+  private long leaseExpiresAtNanos;
+  private boolean leasing;
+
+  public SafeTxUpstreamRateLimiter(
+      ReactiveStringRedisTemplate redis,
+      @Value("${SAFE_TX_UPSTREAM_RPS:4}") double upstreamRps,
+      @Value("${SAFE_TX_UPSTREAM_BURST:4}") int upstreamBurst,
+      @Value("${SAFE_TX_UPSTREAM_PREFETCH:1}") int prefetch,
+      @Value("${SAFE_TX_UPSTREAM_LEASE_MS:1000}") long leaseMs,
+      @Value("${SAFE_TX_UPSTREAM_MAX_QUEUED:1000}") int maxQueued,
+      @Value("${SAFE_TX_UPSTREAM_MAX_WAIT_MS:10000}") long maxWaitMs) {
+    this.redis = redis;
+    this.refillPerSecond = Math.max(0.1d, upstreamRps);
+    this.burstCapacity = Math.max(1, upstreamBurst);
+    this.prefetch = Math.max(0, Math.min(prefetch, this.burstCapacity));
+    this.leaseNanos = Duration.ofMillis(Math.max(100L, leaseMs)).toNanos();
+    this.maxQueued = Math.max(1, maxQueued);
+    this.maxWait = Duration.ofMillis(Math.max(100L, maxWaitMs));
+    this.fallback = new UpstreamTokenBucket(this.refillPerSecond, this.burstCapacity);
+  }
+
+  /**
+   * Completes once the call may go upstream; errors with {@link UpstreamBudgetExhaustedException}
+   * when the queue is full or the wait exceeds {@code SAFE_TX_UPSTREAM_MAX_WAIT_MS}.
+   */
+  public Mono<Void> acquire(String callerKey) {
+    String key = callerKey == null || callerKey.isBlank() ? "" : callerKey;
+    return Mono.<Void>create(sink -> enqueue(key, sink))
+        .timeout(maxWait, Mono.error(() -> new UpstreamBudgetExhaustedException("upstream wait timed out")));
+  }
+
+  private void enqueue(String key, MonoSink<Void> sink) {
+    Waiter waiter = new Waiter(sink);
+    sink.onCancel(() -> cancel(key, waiter));
+    boolean accepted;
+    synchronized (this) {
+      accepted = queued < maxQueued;
+      if (accepted) {
+        queues.computeIfAbsent(key, k -> new ArrayDeque<>()).add(waiter);
+        queued++;
+      }
+    }
+    if (!accepted) {
+      sink.error(new UpstreamBudgetExhaustedException("upstream queue full"));
+      return;
+    }
+    drain();
+  }
+
+  /** Drops a waiter whose caller went away so it no longer counts towards the next lease. */
+  private synchronized void cancel(String key, Waiter waiter) {
+    // May run before enqueue has queued the waiter; nextWaiter then skips it.
+    waiter.cancelled = true;
+    ArrayDeque<Waiter> queue = queues.get(key);
+    if (queue != null && queue.remove(waiter)) {
+      queued--;
+      if (queue.isEmpty()) {
+        queues.remove(key);
+      }
+    }
+  }
+
+  private void drain() {
+    List<Waiter> granted = new ArrayList<>();
+    int want = 0;
+    synchronized (this) {
+      if (System.nanoTime() >= leaseExpiresAtNanos) {
+        leasedTokens = 0;
+      }
+      while (leasedTokens > 0) {
+        Waiter next = nextWaiter();
+        if (next == null) {
+          break;
+        }
+        leasedTokens--;
+        granted.add(next);
+      }
+      if (queued > 0 && !leasing) {
+        leasing = true;
+        want = Math.min(burstCapacity, queued + prefetch);
+      }
+    }
+    granted.forEach(waiter -> waiter.sink.success());
+    if (want > 0) {
+      lease(want);
+    }
+  }
+
+  /** Head of the next non-empty caller queue; that caller then moves to the back of the rotation. */
+  private Waiter nextWaiter() {
+    while (!queues.isEmpty()) {
+      String key = queues.keySet().iterator().next();
+      ArrayDeque<Waiter> queue = queues.remove(key);
+      Waiter waiter = queue.poll();
+      while (waiter != null && waiter.cancelled) {
+        queued--;
+        waiter = queue.poll();
+      }
+      if (waiter != null) {
+        queued--;
+      }
+      if (!queue.isEmpty()) {
+        queues.put(key, queue);
+      }
+      if (waiter != null) {
+        return waiter;
+      }
+    }
+    return null;
+  }
+
+  private void lease(int want) {
+    redis
+        .execute(
+            LEASE_SCRIPT,
+            List.of(BUCKET_KEY),
+            List.of(String.valueOf(refillPerSecond), String.valueOf(burstCapacity), String.valueOf(want)))
+        .next()
+        .switchIfEmpty(Mono.error(new IllegalStateException("empty lease reply")))
+        .subscribe(this::onLease, this::onLeaseFailure);
+  }
+
+  private void onLease(long result) {
+    if (result <= 0) {
+      Mono.delay(Duration.ofMillis(-result)).subscribe(tick -> onLeaseSettled(0));
+      return;
+    }
+    onLeaseSettled(result);
+  }
+
+  private void onLeaseFailure(Throwable error) {
+    log.warn("safe.tx.upstream.lease_failure error={}", error.getMessage());
+    long delayMs = fallback.reserveDelayMillis();
+    Mono.delay(Duration.ofMillis(Math.max(0L, delayMs))).subscribe(tick -> onLeaseSettled(1));
+  }
+
+  private void onLeaseSettled(long tokens) {
+    synchronized (this) {
+      leasing = false;
+      if (tokens > 0) {
+        long now = System.nanoTime();
+        leasedTokens = (now >= leaseExpiresAtNanos ? 0 : leasedTokens) + tokens;
+        leaseExpiresAtNanos = now + leaseNanos;
+      }
+    }
+    drain();
+  }
+
+  /** The upstream budget is exhausted for longer than callers are allowed to wait. */
+  public static final class UpstreamBudgetExhaustedException extends IllegalStateException {
+    UpstreamBudgetExhaustedException(String message) {
+      super(message);
+    }
+  }
+
+  private static final class Waiter {
+    private final MonoSink<Void> sink;
+    private volatile boolean cancelled;
+
+    private Waiter(MonoSink<Void> sink) {
+      this.sink = sink;
+    }
+  }
+
+  /** Process-local bucket used while Redis is unreachable. */
+  static final class UpstreamTokenBucket {
+    private final double refillPerSecond;
+    private final int burstCapacity;
+    private double storedTokens;
+    private long lastRefillNanos;
+
+    UpstreamTokenBucket(double refillPerSecond, int burstCapacity) {
+      this.refillPerSecond = Math.max(0.1d, refillPerSecond);
+      this.burstCapacity = Math.max(1, burstCapacity);
+      this.storedTokens = this.burstCapacity;
+      this.lastRefillNanos = System.nanoTime();
+    }
+
+    synchronized long reserveDelayMillis() {
+      long now = System.nanoTime();
+      long elapsedNanos = Math.max(0L, now - lastRefillNanos);
+      if (elapsedNanos > 0) {
+        double replenished = (elapsedNanos / 1_000_000_000d) * refillPerSecond;
+        storedTokens = Math.min(burstCapacity, storedTokens + replenished);
+        lastRefillNanos = now;
+      }
+
+      storedTokens -= 1d;
+      if (storedTokens >= 0d) {
+        return 0L;
+      }
+
+      double deficit = -storedTokens;
+      return (long) Math.ceil((deficit / refillPerSecond) * 1000d);
+    }
+  }
+}
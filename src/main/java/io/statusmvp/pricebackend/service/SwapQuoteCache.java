@@ -0,0 +1,262 @@
+package io.statusmvp.pricebackend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Short-lived cache for swap quotes, shared by the DEX and bridge quote proxies.
+ *
+ * <p>Quotes are keyed by provider, endpoint and the canonicalized request (query parameters sorted,
+ * JSON object fields sorted), so the same quote asked for in a different parameter order is one
+ * entry. Successful quotes are kept for {@code app.quoteCache.ttlMs} (clamped to 1-5 s); identical
+ * quotes that arrive while one is already upstream wait for it instead of sending their own. Error
+ * responses are shared with those waiters but never stored.
+ *
+ * <p>By default amounts must match exactly. {@code app.quoteCache.amountSignificantDigits} rounds the
+ * {@code amount} field to that many significant digits in the key only, so nearby amounts share an
+ * entry; the cached body still describes the amount of the request that filled it, so only enable it
+ * where callers re-quote before building a transaction.
+ *
+ * <p>The cache is per replica: at these TTLs a Redis hop would cost about as much as it saves.
+ * Transaction-building endpoints must not use it. Lookups are counted as {@code
+ * quote_cache.requests{provider,result=hit|coalesced|miss}}.
+ */
+@Component
+public class SwapQuoteCache {
+  private static final Logger log = LoggerFactory.getLogger(SwapQuoteCache.class);
+  private static final String AMOUNT_FIELD = "amount";
+
+  private final MeterRegistry meterRegistry;
+  private final boolean enabled;
+  private final long ttlMillis;
+  private final int amountSignificantDigits;
+  private final Map<String, Entry> entries;
+  private final ConcurrentHashMap<String, Sinks.One<Entry>> inFlight = new ConcurrentHashMap<>();
+
+  public SwapQuoteCache(
+      MeterRegistry meterRegistry,
+      @Value("${app.quoteCache.enabled:true}") boolean enabled,
+      @Value("${app.quoteCache.ttlMs:2000}") long ttlMs,
+      @Value("${app.quoteCache.maxEntries:10000}") int maxEntries,
+      @Value("${app.quoteCache.amountSignificantDigits:0}") int amountSignificantDigits) {
+    this.meterRegistry = meterRegistry;
+    this.enabled = enabled;
+    this.ttlMillis = Math.max(1000L, Math.min(5000L, ttlMs));
+    this.amountSignificantDigits = Math.max(0, amountSignificantDigits);
+    int capacity = Math.max(16, maxEntries);
+    this.entries =
+        Collections.synchronizedMap(
+            new LinkedHashMap<String, Entry>(256, 0.75f, true) {
+              @Override
+              protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > capacity;
+              }
+            });
+    log.info(
+        "swap quote cache initialized: enabled={}, ttlMs={}, maxEntries={}, amountSignificantDigits={}",
+        this.enabled,
+        this.ttlMillis,
+        capacity,
+        this.amountSignificantDigits);
+  }
+
+  /** Cache key for a GET quote; the order of parameters and of repeated values does not matter. */
+  public String key(String provider, String endpoint, MultiValueMap<String, String> query) {
+    StringBuilder canonical = new StringBuilder();
+    if (query != null) {
+      TreeMap<String, List<String>> sorted = new TreeMap<>();
+      query.forEach(
+          (name, values) -> {
+            List<String> normalized = new ArrayList<>();
+            for (String value : values == null ? List.<String>of() : values) {
+              String trimmed = value == null ? "" : value.trim();
+              normalized.add(AMOUNT_FIELD.equals(name) ? bucketAmount(trimmed) : trimmed);
+            }
+            Collections.sort(normalized);
+            sorted.put(name, normalized);
+          });
+      sorted.forEach((name, values) -> canonical.append(name).append('=').append(values).append('&'));
+    }
+    return provider + ":" + endpoint + ":" + sha256(canonical.toString());
+  }
+
+  /** Cache key for a POST quote; JSON object field order does not matter. */
+  public String key(String provider, String endpoint, JsonNode body) {
+    JsonNode canonical = body == null ? JsonNodeFactory.instance.objectNode() : canonicalize(body);
+    return provider + ":" + endpoint + ":" + sha256(canonical.toString());
+  }
+
+  /**
+   * Serves {@code key} from the cache, from an identical quote already in flight, or by subscribing
+   * to {@code upstream}. Only 2xx responses are stored.
+   */
+  public Mono<ResponseEntity<Flux<DataBuffer>>> get(
+      String provider, String key, Supplier<Mono<ResponseEntity<Flux<DataBuffer>>>> upstream) {
+    if (!enabled) {
+      return upstream.get();
+    }
+    return Mono.defer(
+        () -> {
+          Entry cached = fresh(key);
+          if (cached != null) {
+            count(provider, "hit");
+            return Mono.just(cached.toResponse("HIT"));
+          }
+          Sinks.One<Entry> mine = Sinks.one();
+          Sinks.One<Entry> existing = inFlight.putIfAbsent(key, mine);
+          if (existing != null) {
+            count(provider, "coalesced");
+            // The leader gave up (e.g. its client went away): fetch on our own rather than fail.
+            return existing
+                .asMono()
+                .map(entry -> entry.toResponse("MISS"))
+                .switchIfEmpty(Mono.defer(() -> fetch(key, upstream, null)));
+          }
+          count(provider, "miss");
+          return fetch(key, upstream, mine);
+        });
+  }
+
+  private Mono<ResponseEntity<Flux<DataBuffer>>> fetch(
+      String key, Supplier<Mono<ResponseEntity<Flux<DataBuffer>>>> upstream, Sinks.One<Entry> claim) {
+    return upstream
+        .get()
+        .flatMap(SwapQuoteCache::buffer)
+        .doOnNext(
+            entry -> {
+              if (entry.status().is2xxSuccessful()) {
+                entries.put(key, entry.withExpiry(System.currentTimeMillis() + ttlMillis));
+              }
+              if (claim != null && inFlight.remove(key, claim)) {
+                claim.tryEmitValue(entry);
+              }
+            })
+        .doFinally(
+            signal -> {
+              if (claim != null && inFlight.remove(key, claim)) {
+                claim.tryEmitEmpty();
+              }
+            })
+        .map(entry -> entry.toResponse("MISS"));
+  }
+
+  private Entry fresh(String key) {
+    Entry entry = entries.get(key);
+    if (entry == null) return null;
+    if (entry.expiresAtMs() <= System.currentTimeMillis()) {
+      entries.remove(key, entry);
+      return null;
+    }
+    return entry;
+  }
+
+  private void count(String provider, String result) {
+    meterRegistry.counter("quote_cache.requests", "provider", provider, "result", result).increment();
+  }
+
+  private static Mono<Entry> buffer(ResponseEntity<Flux<DataBuffer>> response) {
+    Flux<DataBuffer> body = response.getBody() == null ? Flux.empty() : response.getBody();
+    return DataBufferUtils.join(body)
+        .map(
+            joined -> {
+              byte[] bytes = new byte[joined.readableByteCount()];
+              joined.read(bytes);
+              DataBufferUtils.release(joined);
+              return bytes;
+            })
+        .defaultIfEmpty(new byte[0])
+        .map(bytes -> new Entry(response.getStatusCode(), response.getHeaders(), bytes, 0L));
+  }
+
+  private JsonNode canonicalize(JsonNode node) {
+    if (node.isObject()) {
+      ObjectNode sorted = JsonNodeFactory.instance.objectNode();
+      List<String> names = new ArrayList<>();
+      node.fieldNames().forEachRemaining(names::add);
+      Collections.sort(names);
+      for (String name : names) {
+        JsonNode value = node.get(name);
+        if (AMOUNT_FIELD.equals(name) && value.isValueNode()) {
+          sorted.put(name, bucketAmount(value.asText("").trim()));
+        } else {
+          sorted.set(name, canonicalize(value));
+        }
+      }
+      return sorted;
+    }
+    if (node.isArray()) {
+      ArrayNode array = JsonNodeFactory.instance.arrayNode();
+      node.forEach(element -> array.add(canonicalize(element)));
+      return array;
+    }
+    return node;
+  }
+
+  private String bucketAmount(String amount) {
+    if (amountSignificantDigits == 0 || amount.isEmpty()) return amount;
+    try {
+      return new BigDecimal(amount)
+          .round(new MathContext(amountSignificantDigits, RoundingMode.HALF_UP))
+          .stripTrailingZeros()
+          .toPlainString();
+    } catch (NumberFormatException e) {
+      return amount;
+    }
+  }
+
+  private static String sha256(String value) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private record Entry(HttpStatusCode status, HttpHeaders headers, byte[] body, long expiresAtMs) {
+    Entry withExpiry(long expiresAtMs) {
+      return new Entry(status, headers, body, expiresAtMs);
+    }
+
+    ResponseEntity<Flux<DataBuffer>> toResponse(String cacheStatus) {
+      HttpHeaders out = new HttpHeaders();
+      out.putAll(headers);
+      out.set("X-Cache", cacheStatus);
+      return ResponseEntity.status(status)
+          .headers(out)
+          .body(Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body))));
+    }
+  }
+}
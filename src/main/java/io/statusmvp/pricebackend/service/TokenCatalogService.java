@@ -33,6 +33,7 @@ public class TokenCatalogService {
   private static final Logger log = LoggerFactory.getLogger(TokenCatalogService.class);
 
   private static final String CACHE_PREFIX = "token-catalog:v1:merged:";
+  private static final String VERSION_PREFIX = "token-catalog:v1:version:";
   private static final String SOURCE_DEFAULT = "default";
   private static final String SOURCE_OPENOCEAN = "openocean";
   private static final String SOURCE_TRUSTWALLET = "trustwallet";
@@ -83,7 +84,10 @@ public class TokenCatalogService {
   private final String trustWalletBaseUrl;
   private final String jupiterTokenListUrl;
   private final String alchemyApiKey;
+  private final long localCheckMs;
   private final Set<Integer> refreshInFlight = ConcurrentHashMap.newKeySet();
+  private final Map<Integer, LocalCatalog> localCatalogs = new ConcurrentHashMap<>();
+  private final Map<Integer, Object> loadLocks = new ConcurrentHashMap<>();
 
   public TokenCatalogService(
       WebClient webClient,
@@ -98,7 +102,8 @@ public class TokenCatalogService {
       @Value("${app.tokenCatalog.openOceanBaseUrl:https://open-api.openocean.finance/v3}") String openOceanBaseUrl,
       @Value("${app.tokenCatalog.trustWalletBaseUrl:https://cdn.jsdelivr.net/gh/trustwallet/assets@master/blockchains}") String trustWalletBaseUrl,
       @Value("${app.tokenCatalog.jupiterTokenListUrl:https://token.jup.ag/strict}") String jupiterTokenListUrl,
-      @Value("${app.tokenCatalog.alchemyApiKey:}") String alchemyApiKey) {
+      @Value("${app.tokenCatalog.alchemyApiKey:}") String alchemyApiKey,
+      @Value("${app.tokenCatalog.localCheckSeconds:30}") long localCheckSeconds) {
     this.webClient = webClient;
     this.cache = cache;
     this.mapper = mapper;
@@ -112,6 +117,7 @@ public class TokenCatalogService {
     this.trustWalletBaseUrl = normalizeBaseUrl(trustWalletBaseUrl);
     this.jupiterTokenListUrl = jupiterTokenListUrl == null ? "" : jupiterTokenListUrl.trim();
     this.alchemyApiKey = alchemyApiKey == null ? "" : alchemyApiKey.trim();
+    this.localCheckMs = Math.max(1L, localCheckSeconds) * 1000L;
   }
 
   public boolean isEnabled() {
@@ -128,11 +134,7 @@ public class TokenCatalogService {
     int max = clampLimit(limit);
     List<TokenSearchItem> results =
         new ArrayList<>(
-            catalog.items().stream()
-                .filter(item -> matches(item, normalizedQuery))
-                .sorted(searchComparator(normalizedQuery))
-                .limit(max)
-                .toList());
+            catalog.index().search(normalizedQuery, max, shouldMatchAddressQuery(normalizedQuery)));
 
     if (isLikelyEvmAddress(normalizedQuery)
         && results.stream().noneMatch(item -> addressKey(chainId, item.address()).equals(addressKey(chainId, normalizedQuery)))) {
@@ -148,12 +150,8 @@ public class TokenCatalogService {
 
   public TokenSearchResponse lookup(int chainId, String address) {
     CatalogSnapshot catalog = loadCatalog(chainId);
-    String key = addressKey(chainId, address);
     List<TokenSearchItem> out =
-        catalog.items().stream()
-            .filter(item -> addressKey(chainId, item.address()).equals(key))
-            .limit(1)
-            .toList();
+        catalog.index().findByAddressKey(addressKey(chainId, address)).stream().toList();
     if (out.isEmpty()) {
       Optional<TokenSearchItem> onchain = lookupOnchainEvmToken(chainId, address);
       if (onchain.isPresent()) out = List.of(onchain.get());
@@ -161,24 +159,84 @@ public class TokenCatalogService {
     return new TokenSearchResponse(chainId, address == null ? "" : address.trim(), catalog.fetchedAt(), catalog.stale(), out);
   }
 
+  /**
+   * Serves from this node's index. At most every {@code localCheckSeconds} the tiny version key in
+   * Redis is compared with the local snapshot, and the full snapshot is only read and re-indexed when
+   * another node has published a newer one.
+   */
   private CatalogSnapshot loadCatalog(int chainId) {
     long now = Instant.now().toEpochMilli();
-    Optional<CachedCatalog> cached = readCachedCatalog(chainId);
-    if (cached.isPresent()) {
-      CachedCatalog c = cached.get();
-      boolean stale = now - c.fetchedAt() > refreshTtlSeconds * 1000L;
+    LocalCatalog local = localCatalogs.get(chainId);
+    if (local == null || now - local.checkedAt() >= localCheckMs) {
+      local = syncLocalCatalog(chainId, now);
+    }
+    if (local != null) {
+      boolean stale = now - local.fetchedAt() > refreshTtlSeconds * 1000L;
       if (stale) triggerBackgroundRefresh(chainId);
-      return new CatalogSnapshot(c.fetchedAt(), stale, c.items());
+      return new CatalogSnapshot(local.fetchedAt(), stale, local.index());
     }
     try {
-      CachedCatalog fresh = refreshCatalog(chainId);
-      return new CatalogSnapshot(fresh.fetchedAt(), false, fresh.items());
+      LocalCatalog fresh = coldLoad(chainId);
+      return new CatalogSnapshot(fresh.fetchedAt(), false, fresh.index());
     } catch (Exception e) {
       log.warn("token catalog cold refresh failed: chainId={}", chainId, e);
-      return new CatalogSnapshot(now, true, List.of());
+      return new CatalogSnapshot(now, true, TokenSearchIndex.build(chainId, List.of()));
     }
   }
 
+  private LocalCatalog syncLocalCatalog(int chainId, long now) {
+    synchronized (loadLocks.computeIfAbsent(chainId, k -> new Object())) {
+      LocalCatalog local = localCatalogs.get(chainId);
+      if (local != null && now - local.checkedAt() < localCheckMs) return local;
+
+      Long version = cache.get(versionKey(chainId)).map(TokenCatalogService::parseLongOrNull).orElse(null);
+      if (local != null && (version == null || version <= local.fetchedAt())) {
+        return touchLocal(chainId, local, now);
+      }
+      Optional<CachedCatalog> cached = readCachedCatalog(chainId);
+      if (cached.isEmpty()) return local == null ? null : touchLocal(chainId, local, now);
+      CachedCatalog c = cached.get();
+      if (version == null) {
+        // Snapshot written before version keys existed; publish one so peers stop re-reading it.
+        cache.set(versionKey(chainId), String.valueOf(c.fetchedAt()), redisTtlSeconds);
+      }
+      if (local != null && c.fetchedAt() <= local.fetchedAt()) return touchLocal(chainId, local, now);
+      return installLocal(chainId, c, now);
+    }
+  }
+
+  /** Cold start with nothing in Redis: one upstream build per chain, other callers wait for it. */
+  private LocalCatalog coldLoad(int chainId) {
+    synchronized (loadLocks.computeIfAbsent(chainId, k -> new Object())) {
+      LocalCatalog local = localCatalogs.get(chainId);
+      if (local != null) return local;
+      refreshCatalog(chainId);
+      return localCatalogs.get(chainId);
+    }
+  }
+
+  private LocalCatalog touchLocal(int chainId, LocalCatalog local, long now) {
+    LocalCatalog touched = new LocalCatalog(local.fetchedAt(), now, local.index());
+    // A background refresh may have installed a newer index meanwhile; never roll it back.
+    return localCatalogs.merge(
+        chainId, touched, (prev, next) -> prev.fetchedAt() > next.fetchedAt() ? prev : next);
+  }
+
+  private LocalCatalog installLocal(int chainId, CachedCatalog catalog, long now) {
+    long started = System.nanoTime();
+    LocalCatalog built =
+        new LocalCatalog(catalog.fetchedAt(), now, TokenSearchIndex.build(chainId, catalog.items()));
+    LocalCatalog installed =
+        localCatalogs.merge(
+            chainId, built, (prev, next) -> next.fetchedAt() >= prev.fetchedAt() ? next : prev);
+    log.info(
+        "token catalog index built: chainId={} items={} tookMs={}",
+        chainId,
+        built.index().size(),
+        (System.nanoTime() - started) / 1_000_000L);
+    return installed;
+  }
+
   private void triggerBackgroundRefresh(int chainId) {
     if (!refreshInFlight.add(chainId)) return;
     CompletableFuture.runAsync(
@@ -208,11 +266,13 @@ public class TokenCatalogService {
     List<TokenSearchItem> items =
         merged.values().stream()
             .map(MutableToken::toItem)
-            .sorted(searchComparator(""))
+            .sorted(CATALOG_ORDER)
             .toList();
     CachedCatalog payload = new CachedCatalog(chainId, Instant.now().toEpochMilli(), items);
+    installLocal(chainId, payload, payload.fetchedAt());
     try {
       cache.set(cacheKey(chainId), mapper.writeValueAsString(payload), redisTtlSeconds);
+      cache.set(versionKey(chainId), String.valueOf(payload.fetchedAt()), redisTtlSeconds);
     } catch (Exception e) {
       log.warn("token catalog cache write failed: chainId={}", chainId, e);
     }
@@ -382,19 +442,11 @@ public class TokenCatalogService {
     }
   }
 
-  private Comparator<TokenSearchItem> searchComparator(String query) {
-    return (left, right) -> {
-      int scoreDiff = score(left, query) - score(right, query);
-      if (scoreDiff != 0) return scoreDiff;
-      if (query == null || query.isBlank()) {
-        int popularDiff = popularRank(left) - popularRank(right);
-        if (popularDiff != 0) return popularDiff;
-      }
-      int confidenceDiff = confidenceRank(left.confidence()) - confidenceRank(right.confidence());
-      if (confidenceDiff != 0) return confidenceDiff;
-      return left.symbol().compareToIgnoreCase(right.symbol());
-    };
-  }
+  /** Order of blank-query results; the search index keeps catalog items in this order. */
+  private static final Comparator<TokenSearchItem> CATALOG_ORDER =
+      Comparator.comparingInt(TokenCatalogService::popularRank)
+          .thenComparingInt(item -> confidenceRank(item.confidence()))
+          .thenComparing((left, right) -> left.symbol().compareToIgnoreCase(right.symbol()));
 
   private static int popularRank(TokenSearchItem item) {
     String symbol = upper(item.symbol());
@@ -444,31 +496,6 @@ public class TokenCatalogService {
     return globalRank == null ? 20_000 : 1_000 + globalRank;
   }
 
-  private static int score(TokenSearchItem item, String query) {
-    if (query == null || query.isBlank()) return 0;
-    String q = query.trim().toLowerCase(Locale.ROOT);
-    String symbol = lower(item.symbol());
-    String name = lower(item.name());
-    String address = lower(item.address());
-    boolean canMatchAddress = shouldMatchAddressQuery(q);
-    if (symbol.equals(q)) return 0;
-    if (name.equals(q)) return 1;
-    if (symbol.startsWith(q)) return 2;
-    if (name.startsWith(q)) return 3;
-    if (canMatchAddress && address.equals(q)) return 4;
-    if (symbol.contains(q)) return 5;
-    if (name.contains(q)) return 6;
-    if (canMatchAddress && address.contains(q)) return 7;
-    return 99;
-  }
-
-  private static boolean matches(TokenSearchItem item, String query) {
-    if (query == null || query.isBlank()) return true;
-    String q = query.trim().toLowerCase(Locale.ROOT);
-    if (lower(item.symbol()).contains(q) || lower(item.name()).contains(q)) return true;
-    return shouldMatchAddressQuery(q) && lower(item.address()).contains(q);
-  }
-
   private static boolean shouldMatchAddressQuery(String normalizedQuery) {
     if (normalizedQuery == null || normalizedQuery.isBlank()) return false;
     if (normalizedQuery.startsWith("0x")) {
@@ -480,7 +507,7 @@ public class TokenCatalogService {
         && normalizedQuery.matches(".*\\d.*");
   }
 
-  private static int confidenceRank(String confidence) {
+  static int confidenceRank(String confidence) {
     return switch (confidence == null ? "" : confidence) {
       case "default" -> 0;
       case "curated" -> 1;
@@ -507,7 +534,19 @@ public class TokenCatalogService {
     return CACHE_PREFIX + chainId;
   }
 
-  private static String addressKey(int chainId, String address) {
+  private static String versionKey(int chainId) {
+    return VERSION_PREFIX + chainId;
+  }
+
+  private static Long parseLongOrNull(String raw) {
+    try {
+      return Long.parseLong(raw.trim());
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  static String addressKey(int chainId, String address) {
     String value = address == null ? "" : address.trim();
     if (value.isBlank()) return "";
     if (chainId == 501 || chainId == 195) return chainId + ":" + value;
@@ -554,10 +593,6 @@ public class TokenCatalogService {
     return trimmed.isBlank() ? null : trimmed;
   }
 
-  private static String lower(String raw) {
-    return raw == null ? "" : raw.toLowerCase(Locale.ROOT);
-  }
-
   private static String upper(String raw) {
     return raw == null ? "" : raw.toUpperCase(Locale.ROOT);
   }
@@ -589,7 +624,9 @@ public class TokenCatalogService {
     return out;
   }
 
-  private record CatalogSnapshot(long fetchedAt, boolean stale, List<TokenSearchItem> items) {}
+  private record CatalogSnapshot(long fetchedAt, boolean stale, TokenSearchIndex index) {}
+
+  private record LocalCatalog(long fetchedAt, long checkedAt, TokenSearchIndex index) {}
 
   private record CachedCatalog(int chainId, long fetchedAt, List<TokenSearchItem> items) {}
 
@@ -0,0 +1,301 @@
+package io.statusmvp.pricebackend.service;
+
+import io.statusmvp.pricebackend.model.token.TokenSearchItem;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable in-process search index over one chain's merged token catalog, built once per catalog
+ * snapshot by {@link TokenCatalogService}.
+ *
+ * <p>Lowercased symbol, name and address are computed at build time. Substring matches on symbol and
+ * name come from an n-gram index mapping every 1-3 character gram to the sorted ids of the entries
+ * containing it: queries of up to three characters are a single posting-list lookup, longer ones
+ * intersect their trigram lists and verify the survivors. Exact addresses are a hash lookup and
+ * {@code 0x} prefixes a binary search over the sorted addresses. Ranking is the catalog's usual one
+ * (match quality, then confidence, then symbol); the symbol order is precomputed too, so each match
+ * ranks as a single {@code long} and only the top {@code limit} are kept, in a primitive heap.
+ */
+final class TokenSearchIndex {
+  private static final int GRAM = 3;
+  // Names past this length are spam-like; their tail is not worth indexing.
+  private static final int MAX_INDEXED_LENGTH = 64;
+  private static final int NO_MATCH = 99;
+  private static final int[] NONE = new int[0];
+
+  private final Entry[] entries;
+  private final Map<String, int[]> grams;
+  private final Map<String, Integer> idByAddressKey;
+  private final int[] idsByAddress;
+  // Position of each entry when ordered by symbol (case-insensitive, then id), and its inverse.
+  private final int[] symbolRankById;
+  private final int[] idBySymbolRank;
+
+  private TokenSearchIndex(
+      Entry[] entries,
+      Map<String, int[]> grams,
+      Map<String, Integer> idByAddressKey,
+      int[] idsByAddress,
+      int[] idBySymbolRank) {
+    this.entries = entries;
+    this.grams = grams;
+    this.idByAddressKey = idByAddressKey;
+    this.idsByAddress = idsByAddress;
+    this.idBySymbolRank = idBySymbolRank;
+    this.symbolRankById = new int[idBySymbolRank.length];
+    for (int rank = 0; rank < idBySymbolRank.length; rank++) symbolRankById[idBySymbolRank[rank]] = rank;
+  }
+
+  /** Indexes {@code items} in the given order, which is also the order of blank-query results. */
+  static TokenSearchIndex build(int chainId, List<TokenSearchItem> items) {
+    Entry[] entries = new Entry[items.size()];
+    Map<String, IntList> postings = new HashMap<>();
+    Map<String, Integer> idByAddressKey = new HashMap<>(Math.max(16, items.size() * 2));
+    for (int id = 0; id < entries.length; id++) {
+      TokenSearchItem item = items.get(id);
+      Entry entry =
+          new Entry(
+              id,
+              item,
+              lower(item.symbol()),
+              lower(item.name()),
+              lower(item.address()),
+              TokenCatalogService.confidenceRank(item.confidence()));
+      entries[id] = entry;
+      addGrams(postings, entry.symbol(), id);
+      addGrams(postings, entry.name(), id);
+      String addressKey = TokenCatalogService.addressKey(chainId, item.address());
+      if (!addressKey.isBlank()) idByAddressKey.putIfAbsent(addressKey, id);
+    }
+
+    Map<String, int[]> grams = new HashMap<>(Math.max(16, postings.size() * 2));
+    postings.forEach((gram, ids) -> grams.put(gram, ids.toArray()));
+    int[] idsByAddress =
+        Arrays.stream(entries)
+            .sorted(Comparator.comparing(Entry::address))
+            .mapToInt(Entry::id)
+            .toArray();
+    int[] idBySymbolRank =
+        Arrays.stream(entries)
+            .sorted(
+                Comparator.comparing((Entry e) -> e.item().symbol(), String::compareToIgnoreCase)
+                    .thenComparingInt(Entry::id))
+            .mapToInt(Entry::id)
+            .toArray();
+    return new TokenSearchIndex(entries, grams, Map.copyOf(idByAddressKey), idsByAddress, idBySymbolRank);
+  }
+
+  int size() {
+    return entries.length;
+  }
+
+  Optional<TokenSearchItem> findByAddressKey(String addressKey) {
+    Integer id = addressKey == null ? null : idByAddressKey.get(addressKey);
+    return id == null ? Optional.empty() : Optional.of(entries[id].item());
+  }
+
+  /**
+   * Best {@code limit} matches for an already trimmed and lowercased query. Addresses are only
+   * matched when {@code matchAddress} is set, i.e. when the query looks like (part of) an address.
+   */
+  List<TokenSearchItem> search(String query, int limit, boolean matchAddress) {
+    if (limit <= 0) return List.of();
+    if (query == null || query.isBlank()) {
+      List<TokenSearchItem> out = new ArrayList<>(Math.min(limit, entries.length));
+      for (int i = 0; i < entries.length && out.size() < limit; i++) out.add(entries[i].item());
+      return out;
+    }
+
+    int[] candidates = symbolOrNameCandidates(query);
+    if (matchAddress) candidates = union(candidates, addressCandidates(query));
+
+    TopK top = new TopK(limit);
+    for (int id : candidates) {
+      Entry entry = entries[id];
+      int score = entry.score(query, matchAddress);
+      if (score >= NO_MATCH) continue;
+      top.offer(((long) score << 40) | ((long) entry.confidenceRank() << 32) | symbolRankById[id]);
+    }
+    long[] keys = top.sorted();
+    List<TokenSearchItem> out = new ArrayList<>(keys.length);
+    for (long key : keys) out.add(entries[idBySymbolRank[(int) key]].item());
+    return out;
+  }
+
+  /** Ids whose symbol or name may contain {@code query}; exact for queries up to {@link #GRAM}. */
+  private int[] symbolOrNameCandidates(String query) {
+    if (query.length() <= GRAM) return grams.getOrDefault(query, NONE);
+    List<int[]> lists = new ArrayList<>();
+    for (int i = 0; i + GRAM <= query.length(); i++) {
+      int[] ids = grams.get(query.substring(i, i + GRAM));
+      if (ids == null) return NONE;
+      lists.add(ids);
+    }
+    lists.sort(Comparator.comparingInt(ids -> ids.length));
+    int[] out = lists.get(0);
+    for (int i = 1; i < lists.size() && out.length > 0; i++) out = intersect(out, lists.get(i));
+    return out;
+  }
+
+  private int[] addressCandidates(String query) {
+    if (query.startsWith("0x")) {
+      // Hex addresses only contain "0x" at the start, so a substring match is a prefix match.
+      int lo = 0;
+      int hi = idsByAddress.length;
+      while (lo < hi) {
+        int mid = (lo + hi) >>> 1;
+        if (entries[idsByAddress[mid]].address().compareTo(query) < 0) lo = mid + 1;
+        else hi = mid;
+      }
+      IntList ids = new IntList();
+      for (int i = lo; i < idsByAddress.length; i++) {
+        if (!entries[idsByAddress[i]].address().startsWith(query)) break;
+        ids.add(idsByAddress[i]);
+      }
+      int[] out = ids.toArray();
+      Arrays.sort(out);
+      return out;
+    }
+    // Bare hex / base58 fragments can sit anywhere in the address; rare enough for a scan.
+    IntList ids = new IntList();
+    for (Entry entry : entries) {
+      if (entry.address().contains(query)) ids.add(entry.id());
+    }
+    return ids.toArray();
+  }
+
+  private static void addGrams(Map<String, IntList> postings, String value, int id) {
+    String text = value.length() > MAX_INDEXED_LENGTH ? value.substring(0, MAX_INDEXED_LENGTH) : value;
+    for (int len = 1; len <= GRAM; len++) {
+      for (int i = 0; i + len <= text.length(); i++) {
+        postings.computeIfAbsent(text.substring(i, i + len), k -> new IntList()).addIfNotLast(id);
+      }
+    }
+  }
+
+  private static int[] intersect(int[] a, int[] b) {
+    int[] out = new int[Math.min(a.length, b.length)];
+    int n = 0;
+    for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+      if (a[i] < b[j]) i++;
+      else if (a[i] > b[j]) j++;
+      else {
+        out[n++] = a[i];
+        i++;
+        j++;
+      }
+    }
+    return Arrays.copyOf(out, n);
+  }
+
+  private static int[] union(int[] a, int[] b) {
+    if (b.length == 0) return a;
+    if (a.length == 0) return b;
+    int[] out = new int[a.length + b.length];
+    int n = 0;
+    int i = 0;
+    int j = 0;
+    while (i < a.length || j < b.length) {
+      int next;
+      if (j >= b.length || (i < a.length && a[i] < b[j])) next = a[i++];
+      else if (i >= a.length || b[j] < a[i]) next = b[j++];
+      else {
+        next = a[i++];
+        j++;
+      }
+      out[n++] = next;
+    }
+    return Arrays.copyOf(out, n);
+  }
+
+  private static String lower(String raw) {
+    return raw == null ? "" : raw.trim().toLowerCase(Locale.ROOT);
+  }
+
+  private record Entry(
+      int id, TokenSearchItem item, String symbol, String name, String address, int confidenceRank) {
+    int score(String q, boolean matchAddress) {
+      if (symbol.equals(q)) return 0;
+      if (name.equals(q)) return 1;
+      if (symbol.startsWith(q)) return 2;
+      if (name.startsWith(q)) return 3;
+      if (matchAddress && address.equals(q)) return 4;
+      if (symbol.contains(q)) return 5;
+      if (name.contains(q)) return 6;
+      if (matchAddress && address.contains(q)) return 7;
+      return NO_MATCH;
+    }
+  }
+
+  /** Bounded max-heap keeping the {@code limit} smallest rank keys. */
+  private static final class TopK {
+    private final long[] heap;
+    private int size;
+
+    TopK(int limit) {
+      this.heap = new long[limit];
+    }
+
+    void offer(long key) {
+      if (size < heap.length) {
+        int i = size++;
+        heap[i] = key;
+        while (i > 0 && heap[(i - 1) / 2] < heap[i]) {
+          swap(i, (i - 1) / 2);
+          i = (i - 1) / 2;
+        }
+        return;
+      }
+      if (key >= heap[0]) return;
+      heap[0] = key;
+      int i = 0;
+      while (true) {
+        int largest = i;
+        int left = 2 * i + 1;
+        int right = left + 1;
+        if (left < size && heap[left] > heap[largest]) largest = left;
+        if (right < size && heap[right] > heap[largest]) largest = right;
+        if (largest == i) return;
+        swap(i, largest);
+        i = largest;
+      }
+    }
+
+    long[] sorted() {
+      long[] out = Arrays.copyOf(heap, size);
+      Arrays.sort(out);
+      return out;
+    }
+
+    private void swap(int a, int b) {
+      long tmp = heap[a];
+      heap[a] = heap[b];
+      heap[b] = tmp;
+    }
+  }
+
+  /** Growable sorted id list used while building postings. */
+  private static final class IntList {
+    private int[] values = new int[4];
+    private int size;
+
+    void add(int value) {
+      if (size == values.length) values = Arrays.copyOf(values, size * 2);
+      values[size++] = value;
+    }
+
+    void addIfNotLast(int value) {
+      if (size == 0 || values[size - 1] != value) add(value);
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(values, size);
+    }
+  }
+}
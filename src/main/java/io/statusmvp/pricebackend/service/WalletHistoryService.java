@@ -24,6 +24,7 @@ import java.util.concurrent.TimeoutException;
 import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -58,7 +59,7 @@ public class WalletHistoryService {
   private final Duration timeout;
 
   public WalletHistoryService(
-      WebClient webClient,
+      @Qualifier("ankrWebClient") WebClient webClient,
       ObjectMapper mapper,
       @Value("${app.portfolio.ankrBaseUrl:https://rpc.ankr.com/multichain}") String ankrBaseUrl,
       @Value("${app.portfolio.ankrApiKey:}") String ankrApiKey,
@@ -0,0 +1,40 @@
+package io.statusmvp.pricebackend.auth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.statusmvp.pricebackend.service.RedisRateLimiter;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+class AuthRiskServiceTest {
+
+  @Test
+  void rejectsLoginsWhileTheRateLimiterIsUnavailable() {
+    StringRedisTemplate redis = mock(StringRedisTemplate.class);
+    when(redis.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+        .thenThrow(new RedisConnectionFailureException("redis down"));
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    AuthProperties authProperties = new AuthProperties();
+    AuthRiskService riskService =
+        new AuthRiskService(
+            new RedisRateLimiter(redis, mock(ReactiveStringRedisTemplate.class), meterRegistry),
+            authProperties,
+            new AuthMetrics(meterRegistry, authProperties));
+
+    AuthException error =
+        assertThrows(AuthException.class, () -> riskService.checkLoginRateLimits("203.0.113.7", "device-1"));
+
+    assertEquals(AuthErrorCode.RATE_LIMITED, error.getCode());
+    assertEquals(429, error.getHttpStatus());
+    assertEquals("unavailable", error.getDetails().get("scope"));
+  }
+}
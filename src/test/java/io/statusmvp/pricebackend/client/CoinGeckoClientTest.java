@@ -0,0 +1,68 @@
+package io.statusmvp.pricebackend.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.statusmvp.pricebackend.model.PriceMarketData;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+class CoinGeckoClientTest {
+
+  @Test
+  void fetchSimpleUsdQuotesBatchesIdsIntoOneRequest() {
+    AtomicInteger requests = new AtomicInteger();
+    WebClient webClient =
+        WebClient.builder()
+            .exchangeFunction(
+                request -> {
+                  requests.incrementAndGet();
+                  assertEquals("/api/v3/simple/price", request.url().getRawPath());
+                  assertTrue(request.url().getRawQuery().contains("ids=bitcoin,ethereum,unknown-coin"));
+                  return Mono.just(
+                      ClientResponse.create(HttpStatus.OK)
+                          .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                          .body(
+                              """
+                              {
+                                "bitcoin": { "usd": 65000.5, "usd_24h_change": 1.5 },
+                                "ethereum": { "usd": "3200.25", "usd_24h_change": -2.25 }
+                              }
+                              """)
+                          .build());
+                })
+            .build();
+    CoinGeckoClient client = new CoinGeckoClient(webClient, providerHealth(), "test-key", false);
+
+    Map<String, PriceMarketData> quotes =
+        client.fetchSimpleUsdQuotes(List.of("bitcoin", "ethereum", "bitcoin", "unknown-coin")).block();
+
+    assertEquals(1, requests.get());
+    assertEquals(65000.5d, quotes.get("bitcoin").price(), 0.0000001d);
+    assertEquals(1.5d, quotes.get("bitcoin").change24hPct(), 0.0000001d);
+    assertEquals(3200.25d, quotes.get("ethereum").price(), 0.0000001d);
+    assertFalse(quotes.containsKey("unknown-coin"));
+  }
+
+  @Test
+  void fetchSimpleUsdQuotesSkipsWhenDisabled() {
+    CoinGeckoClient client =
+        new CoinGeckoClient(WebClient.builder().build(), providerHealth(), "", false);
+
+    assertTrue(client.fetchSimpleUsdQuotes(List.of("bitcoin")).block().isEmpty());
+  }
+
+  private static ProviderHealthRegistry providerHealth() {
+    return new ProviderHealthRegistry(new SimpleMeterRegistry(), 100, 10, 0.5d, 30_000L, 1.5d, 1_000L);
+  }
+}
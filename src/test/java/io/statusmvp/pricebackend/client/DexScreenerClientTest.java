@@ -3,6 +3,7 @@ package io.statusmvp.pricebackend.client;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.statusmvp.pricebackend.model.PriceMarketData;
 import java.util.List;
 import java.util.Map;
@@ -66,10 +67,11 @@ class DexScreenerClientTest {
                           .build());
                 })
             .build();
-    DexScreenerClient client = new DexScreenerClient(webClient, true, "https://api.dexscreener.com");
+    DexScreenerClient client =
+        new DexScreenerClient(webClient, providerHealth(), true, "https://api.dexscreener.com");
 
     Map<String, PriceMarketData> quotes =
-        client.fetchTokenQuotesByContract(56, List.of(VEILX, VEIL));
+        client.fetchTokenQuotesByContract(56, List.of(VEILX, VEIL)).block();
 
     assertEquals(0.0123d, quotes.get(VEILX).price(), 0.0000001d);
     assertEquals(4.56d, quotes.get(VEILX).change24hPct(), 0.0000001d);
@@ -80,8 +82,13 @@ class DexScreenerClientTest {
   @Test
   void fetchTokenQuotesByContractSkipsUnsupportedChains() {
     DexScreenerClient client =
-        new DexScreenerClient(WebClient.builder().build(), true, "https://api.dexscreener.com");
+        new DexScreenerClient(
+            WebClient.builder().build(), providerHealth(), true, "https://api.dexscreener.com");
+
+    assertTrue(client.fetchTokenQuotesByContract(999, List.of(VEILX)).block().isEmpty());
+  }
 
-    assertTrue(client.fetchTokenQuotesByContract(999, List.of(VEILX)).isEmpty());
+  private static ProviderHealthRegistry providerHealth() {
+    return new ProviderHealthRegistry(new SimpleMeterRegistry(), 100, 10, 0.5d, 30_000L, 1.5d, 1_000L);
   }
 }
@@ -0,0 +1,143 @@
+package io.statusmvp.pricebackend.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+class ProviderHealthRegistryTest {
+
+  @Test
+  void opensAfterFailuresAndSkipsCallsWhileOpen() {
+    ProviderHealthRegistry.ProviderHealth health = registry(1_000L).provider("binance");
+    for (int i = 0; i < 10; i++) {
+      call(health, Mono.error(new WebClientResponseException(503, "unavailable", null, null, null)));
+    }
+
+    AtomicInteger upstreamCalls = new AtomicInteger();
+    String result = call(health, Mono.fromCallable(() -> "price-" + upstreamCalls.incrementAndGet()));
+
+    assertNull(result);
+    assertEquals(0, upstreamCalls.get());
+    assertEquals(ProviderHealthRegistry.State.OPEN, health.snapshot().state());
+  }
+
+  @Test
+  void clientErrorsDoNotOpenTheBreaker() {
+    ProviderHealthRegistry.ProviderHealth health = registry(1_000L).provider("binance");
+    for (int i = 0; i < 10; i++) {
+      call(health, Mono.error(new WebClientResponseException(400, "invalid symbol", null, null, null)));
+    }
+
+    assertEquals(ProviderHealthRegistry.State.CLOSED, health.snapshot().state());
+    assertEquals("ok", call(health, Mono.just("ok")));
+  }
+
+  @Test
+  void halfOpenProbeClosesTheBreakerOnSuccess() {
+    TestClock clock = new TestClock();
+    ProviderHealthRegistry.ProviderHealth health = registry(1_000L, clock).provider("coingecko");
+    for (int i = 0; i < 10; i++) {
+      call(health, Mono.error(new IllegalStateException("connection reset")));
+    }
+    assertNull(call(health, Mono.just("too early")));
+
+    clock.advance(Duration.ofMillis(1_000L));
+
+    assertEquals("probe", call(health, Mono.just("probe")));
+    assertEquals(ProviderHealthRegistry.State.CLOSED, health.snapshot().state());
+    assertEquals(1, health.snapshot().calls());
+  }
+
+  @Test
+  void timeoutFollowsObservedLatencyWithinBounds() {
+    ProviderHealthRegistry.ProviderHealth health = registry(1_000L).provider("dexscreener");
+    assertEquals(10_000L, health.timeoutMillis(10_000L));
+
+    for (int i = 0; i < 20; i++) {
+      call(health, Mono.just("ok").delayElement(Duration.ofMillis(1)));
+    }
+
+    // Fast provider: the adaptive timeout bottoms out at minTimeoutMs, never above the ceiling.
+    assertEquals(1_000L, health.timeoutMillis(10_000L));
+    assertEquals(500L, health.timeoutMillis(500L));
+  }
+
+  @Test
+  void recordsCallsCancelledPastTheAdaptiveTimeoutAsSlow() {
+    ProviderHealthRegistry.ProviderHealth health = registry(1_000L).provider("coinmarketcap");
+    for (int i = 0; i < 20; i++) {
+      call(health, Mono.just("ok").delayElement(Duration.ofMillis(1)));
+    }
+
+    // The caller gives up after 100 ms, well past p99 * 1.5 of these ~1 ms calls.
+    Mono.<String>never()
+        .transform(health.guard(Duration.ofSeconds(10)))
+        .timeout(Duration.ofMillis(100), Mono.empty())
+        .block(Duration.ofSeconds(5));
+
+    assertEquals(21, health.snapshot().calls());
+    assertTrue(health.latencyPercentileMillis(0.99d) >= 100L);
+  }
+
+  @Test
+  void ignoresCancelledCallsWithoutALatencyBaseline() {
+    ProviderHealthRegistry.ProviderHealth health = registry(1_000L).provider("coinmarketcap");
+
+    Mono.<String>never()
+        .transform(health.guard(Duration.ofSeconds(10)))
+        .timeout(Duration.ofMillis(50), Mono.empty())
+        .block(Duration.ofSeconds(5));
+
+    assertEquals(0, health.snapshot().calls());
+  }
+
+  private static ProviderHealthRegistry registry(long openMs) {
+    return registry(openMs, Clock.systemUTC());
+  }
+
+  private static ProviderHealthRegistry registry(long openMs, Clock clock) {
+    return new ProviderHealthRegistry(new SimpleMeterRegistry(), 100, 10, 0.5d, openMs, 1.5d, 1_000L, clock);
+  }
+
+  private static String call(ProviderHealthRegistry.ProviderHealth health, Mono<String> upstream) {
+    return upstream
+        .transform(health.guard(Duration.ofSeconds(10)))
+        .onErrorResume(ignored -> Mono.empty())
+        .block(Duration.ofSeconds(5));
+  }
+
+  private static final class TestClock extends Clock {
+    private Instant now = Instant.parse("2026-03-06T10:00:00Z");
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
@@ -6,6 +6,7 @@ import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.verify;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import io.statusmvp.pricebackend.service.ProxyRelay;
 import io.statusmvp.pricebackend.service.UniswapProxyService;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -25,7 +26,7 @@ class UniswapProxyControllerTest {
 
   @Test
   void checkApprovalSanitizesBodyAndForwardsToService() {
-    given(uniswap.checkApproval(any(), any())).willReturn(Mono.just(ResponseEntity.ok("{}")));
+    given(uniswap.checkApproval(any(), any())).willReturn(Mono.just(ProxyRelay.of(ResponseEntity.ok("{}"))));
 
     webTestClient
         .post()
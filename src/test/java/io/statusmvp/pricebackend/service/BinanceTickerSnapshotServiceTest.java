@@ -0,0 +1,46 @@
+package io.statusmvp.pricebackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.statusmvp.pricebackend.client.BinanceClient;
+import io.statusmvp.pricebackend.model.PriceMarketData;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+class BinanceTickerSnapshotServiceTest {
+
+  @Test
+  void servesQuotesFromTheLatestSnapshot() {
+    BinanceClient binance = mock(BinanceClient.class);
+    when(binance.fetchUsdtTickers())
+        .thenReturn(Mono.just(Map.of("ETH", new PriceMarketData(3200.5d, 1.25d))));
+    BinanceTickerSnapshotService snapshot = new BinanceTickerSnapshotService(binance, true, 60000);
+
+    assertFalse(snapshot.isFresh());
+    snapshot.refresh();
+
+    assertTrue(snapshot.isFresh());
+    assertEquals(3200.5d, snapshot.quote("eth").orElseThrow().price(), 0.0000001d);
+    assertTrue(snapshot.isListed("ETH"));
+    assertFalse(snapshot.isListed("NOPE"));
+  }
+
+  @Test
+  void keepsPreviousSnapshotWhenRefreshFails() {
+    BinanceClient binance = mock(BinanceClient.class);
+    when(binance.fetchUsdtTickers())
+        .thenReturn(Mono.just(Map.of("BTC", new PriceMarketData(65000d, null))))
+        .thenReturn(Mono.error(new IllegalStateException("boom")));
+    BinanceTickerSnapshotService snapshot = new BinanceTickerSnapshotService(binance, true, 60000);
+
+    snapshot.refresh();
+    snapshot.refresh();
+
+    assertEquals(65000d, snapshot.quote("BTC").orElseThrow().price(), 0.0000001d);
+  }
+}
@@ -0,0 +1,183 @@
+package io.statusmvp.pricebackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.statusmvp.pricebackend.client.BinanceClient;
+import io.statusmvp.pricebackend.client.CoinGeckoClient;
+import io.statusmvp.pricebackend.model.CandleResponse;
+import io.statusmvp.pricebackend.model.PriceCandle;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CandleAggregatorServiceTest {
+  private static final long HOUR = 3_600_000L;
+  private static final String SERIES = "binance:ETH";
+
+  private final BinanceClient binance = mock(BinanceClient.class);
+  private final CoinGeckoClient coinGecko = mock(CoinGeckoClient.class);
+  private final BinanceTickerSnapshotService tickers = mock(BinanceTickerSnapshotService.class);
+  private final InMemorySeriesStore store = new InMemorySeriesStore();
+  private final CandleAggregatorService candles =
+      new CandleAggregatorService(
+          binance, coinGecko, mock(CoinGeckoIdResolver.class), tickers, mock(RedisCache.class), store);
+
+  private long currentHour;
+
+  @BeforeEach
+  void setUp() {
+    currentHour = (System.currentTimeMillis() / HOUR) * HOUR;
+    when(coinGecko.isEnabled()).thenReturn(false);
+    when(tickers.isFresh()).thenReturn(false);
+    when(binance.fetchKlinesViaUsdtPair(eq("ETH"), anyString(), anyInt()))
+        .thenAnswer(
+            invocation -> {
+              String iv = invocation.getArgument(1);
+              long step = CandleAggregatorService.intervalMillis(iv);
+              return candlesEndingAt((currentHour / step) * step, step, invocation.getArgument(2));
+            });
+  }
+
+  @Test
+  void fetchesTheFullWindowOnceAndServesRepeatsFromTheStore() {
+    CandleResponse first = candles.getCandles(1, "", "ETH", "1h", 20);
+    CandleResponse second = candles.getCandles(1, "", "ETH", "1h", 20);
+
+    verify(binance, times(1)).fetchKlinesViaUsdtPair(anyString(), anyString(), anyInt());
+    verify(binance).fetchKlinesViaUsdtPair("ETH", "1h", 20);
+    assertEquals(20, first.candles().size());
+    assertEquals(first.candles(), second.candles());
+    assertEquals(currentHour, second.to());
+  }
+
+  @Test
+  void syncsOnlyTheCandlesSinceTheLastStoredClose() {
+    // Closed up to three hours ago: two missing closes, the open candle and two overlapping ones.
+    store.seed(SERIES, "1h", candlesEndingAt(currentHour - 3 * HOUR, HOUR, 30), 20);
+
+    CandleResponse response = candles.getLiveCandles(1, "", "ETH", "1h", 20);
+
+    verify(binance).fetchKlinesViaUsdtPair("ETH", "1h", 5);
+    assertEquals(20, response.candles().size());
+    assertEquals(currentHour, response.to());
+    assertEquals(32, store.closedCount(SERIES, "1h"));
+  }
+
+  @Test
+  void doesNotRefetchASeriesTheProviderCannotExtend() {
+    // The provider was asked for the full window last time and only had five closed candles.
+    store.seed(SERIES, "1h", candlesEndingAt(currentHour - HOUR, HOUR, 5), 20);
+
+    CandleResponse response = candles.getCandles(1, "", "ETH", "1h", 20);
+
+    verify(binance, never()).fetchKlinesViaUsdtPair(anyString(), anyString(), anyInt());
+    assertEquals(5, response.candles().size());
+  }
+
+  @Test
+  void startsTheSeriesOverWhenItIsTooFarBehindToStitch() {
+    store.seed(SERIES, "1h", candlesEndingAt(currentHour - 600 * HOUR, HOUR, 30), 20);
+
+    CandleResponse response = candles.getLiveCandles(1, "", "ETH", "1h", 20);
+
+    verify(binance).fetchKlinesViaUsdtPair("ETH", "1h", 20);
+    assertEquals(1, store.clears);
+    assertEquals(currentHour - 19 * HOUR, response.from());
+    assertEquals(19, store.closedCount(SERIES, "1h"));
+  }
+
+  @Test
+  void rollsFourHourCandlesUpFromTheHourlySeriesOnlyWhenItReachesBackFarEnough() {
+    // (20 + 1) four-hour buckets of hourly history.
+    store.seed(SERIES, "1h", candlesEndingAt(currentHour - HOUR, HOUR, 84), 84);
+
+    CandleResponse rolled = candles.getCandles(1, "", "ETH", "4h", 20);
+
+    verify(binance, never()).fetchKlinesViaUsdtPair(anyString(), anyString(), anyInt());
+    assertEquals(20, rolled.candles().size());
+    assertEquals(((currentHour - HOUR) / (4 * HOUR)) * 4 * HOUR, rolled.to());
+
+    store.seed("binance:BTC", "1h", candlesEndingAt(currentHour - HOUR, HOUR, 83), 84);
+    when(binance.fetchKlinesViaUsdtPair(eq("BTC"), eq("4h"), anyInt()))
+        .thenReturn(candlesEndingAt((currentHour / (4 * HOUR)) * 4 * HOUR, 4 * HOUR, 20));
+
+    candles.getCandles(1, "", "BTC", "4h", 20);
+
+    verify(binance).fetchKlinesViaUsdtPair("BTC", "4h", 20);
+  }
+
+  private static List<PriceCandle> candlesEndingAt(long last, long step, int count) {
+    List<PriceCandle> out = new ArrayList<>(count);
+    for (int i = count - 1; i >= 0; i--) {
+      long t = last - i * step;
+      out.add(new PriceCandle(t, 1d, 2d, 0.5d, 1.5d, 10d, 1L));
+    }
+    return out;
+  }
+
+  /** {@link CandleSeriesStore} over plain maps, so the sync decisions can be asserted directly. */
+  private static final class InMemorySeriesStore extends CandleSeriesStore {
+    private final Map<String, TreeMap<Long, PriceCandle>> closed = new HashMap<>();
+    private final Map<String, SyncState> states = new HashMap<>();
+    private int clears;
+
+    InMemorySeriesStore() {
+      super(null);
+    }
+
+    void seed(String series, String interval, List<PriceCandle> candles, int depth) {
+      putClosed(series, interval, candles);
+      states.put(series + ":" + interval, new SyncState(depth, null));
+    }
+
+    @Override
+    public List<PriceCandle> closedTail(String series, String interval, int limit) {
+      List<PriceCandle> all = new ArrayList<>(set(series, interval).values());
+      return all.subList(Math.max(0, all.size() - limit), all.size());
+    }
+
+    @Override
+    public long closedCount(String series, String interval) {
+      return set(series, interval).size();
+    }
+
+    @Override
+    public void putClosed(String series, String interval, List<PriceCandle> candles) {
+      candles.forEach(c -> set(series, interval).put(c.time(), c));
+    }
+
+    @Override
+    public void clear(String series, String interval) {
+      clears++;
+      closed.remove(series + ":" + interval);
+      states.remove(series + ":" + interval);
+    }
+
+    @Override
+    public Optional<SyncState> syncState(String series, String interval) {
+      return Optional.ofNullable(states.get(series + ":" + interval));
+    }
+
+    @Override
+    public void putSyncState(String series, String interval, SyncState state, long ttlSeconds) {
+      states.put(series + ":" + interval, state);
+    }
+
+    private TreeMap<Long, PriceCandle> set(String series, String interval) {
+      return closed.computeIfAbsent(series + ":" + interval, k -> new TreeMap<>());
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package io.statusmvp.pricebackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.statusmvp.pricebackend.model.PriceCandle;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CandleSeriesStoreTest {
+  private static final long HOUR = 3_600_000L;
+
+  @Test
+  void rollsHourlyCandlesUpIntoUtcAlignedBuckets() {
+    List<PriceCandle> hourly =
+        List.of(
+            new PriceCandle(3 * HOUR, 9d, 10d, 8d, 9.5d, 1d, 1L),
+            new PriceCandle(4 * HOUR, 10d, 12d, 9d, 11d, 2d, 2L),
+            new PriceCandle(5 * HOUR, 11d, 11.5d, 7d, 8d, null, 3L),
+            new PriceCandle(7 * HOUR, 8d, 9d, 7.5d, 8.5d, 4d, null));
+
+    List<PriceCandle> rolled = CandleSeriesStore.rollUp(hourly, 4 * HOUR);
+
+    assertEquals(2, rolled.size());
+    assertEquals(new PriceCandle(0L, 9d, 10d, 8d, 9.5d, 1d, 1L), rolled.get(0));
+    assertEquals(new PriceCandle(4 * HOUR, 10d, 12d, 7d, 8.5d, 6d, 5L), rolled.get(1));
+  }
+
+  @Test
+  void encodesCandlesCompactlyAndBack() {
+    PriceCandle full = new PriceCandle(1_700_000_000_000L, 1.5d, 2d, 1d, 1.75d, 123.4d, 42L);
+    PriceCandle sparse = new PriceCandle(1_700_000_000_000L, 1.5d, 2d, 1d, 1.75d, null, null);
+
+    assertEquals(full, CandleSeriesStore.decode(CandleSeriesStore.encode(full)));
+    assertEquals(sparse, CandleSeriesStore.decode(CandleSeriesStore.encode(sparse)));
+    assertNull(CandleSeriesStore.decode("garbage"));
+  }
+}
@@ -0,0 +1,83 @@
+package io.statusmvp.pricebackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.statusmvp.pricebackend.model.CandleResponse;
+import io.statusmvp.pricebackend.model.PriceCandle;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.Disposable;
+
+class CandleStreamServiceTest {
+  private final CandleAggregatorService candles = mock(CandleAggregatorService.class);
+  private final CandleStreamService streams = new CandleStreamService(candles, 1000, 300_000, 15, 0);
+
+  @Test
+  void sendsTheSnapshotFirstAndThenOnlyChangedTailCandles() {
+    CandleResponse snapshot = response(candle(0, 1d));
+    when(candles.getCandles(any(), any(), anyString(), anyString(), anyInt())).thenReturn(snapshot);
+    when(candles.getLiveCandles(any(), any(), anyString(), anyString(), anyInt()))
+        .thenReturn(response(candle(60_000, 1d), candle(120_000, 2d)))
+        // Unchanged tail: nothing to send.
+        .thenReturn(response(candle(60_000, 1d), candle(120_000, 2d)))
+        .thenReturn(response(candle(60_000, 1d), candle(120_000, 3d)));
+
+    List<ServerSentEvent<Object>> events =
+        streams.stream(1, "", "ETH", "1m", 20).take(4).collectList().block(Duration.ofSeconds(10));
+
+    assertEquals("snapshot", events.get(0).event());
+    assertSame(snapshot, events.get(0).data());
+    assertEquals(
+        List.of(candle(60_000, 1d), candle(120_000, 2d), candle(120_000, 3d)),
+        events.subList(1, 4).stream().map(ServerSentEvent::data).toList());
+    verify(candles, times(3)).getLiveCandles(any(), any(), anyString(), anyString(), anyInt());
+  }
+
+  @Test
+  void subscribersOfTheSameSeriesShareOnePoller() throws InterruptedException {
+    when(candles.getCandles(any(), any(), anyString(), anyString(), anyInt())).thenReturn(response());
+    when(candles.getLiveCandles(any(), any(), anyString(), anyString(), anyInt()))
+        .thenReturn(response(candle(60_000, 1d)));
+    List<ServerSentEvent<Object>> first = new CopyOnWriteArrayList<>();
+    List<ServerSentEvent<Object>> second = new CopyOnWriteArrayList<>();
+
+    Disposable a = streams.stream(1, "", "ETH", "1m", 20).subscribe(first::add);
+    Disposable b = streams.stream(1, "", "eth", "1m", 20).subscribe(second::add);
+    try {
+      // Well within the 1s poll period: a second poller would already have polled once.
+      Thread.sleep(500);
+      verify(candles, times(1)).getLiveCandles(any(), any(), anyString(), anyString(), anyInt());
+      assertEquals("snapshot", first.get(0).event());
+      assertEquals("snapshot", second.get(0).event());
+    } finally {
+      a.dispose();
+      b.dispose();
+    }
+  }
+
+  @Test
+  void scalesThePollPeriodWithTheCandleInterval() {
+    assertEquals(Duration.ofSeconds(1), streams.pollInterval("1m"));
+    assertEquals(Duration.ofSeconds(60), streams.pollInterval("1h"));
+    assertEquals(Duration.ofMinutes(5), streams.pollInterval("1d"));
+  }
+
+  private static PriceCandle candle(long time, double close) {
+    return new PriceCandle(time, 1d, close, 1d, close, null, null);
+  }
+
+  private static CandleResponse response(PriceCandle... window) {
+    return new CandleResponse("ETH", "ETH", 1, "", "1m", "usd", "test", 0L, 0L, List.of(window));
+  }
+}
@@ -2,25 +2,37 @@ package io.statusmvp.pricebackend.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.statusmvp.pricebackend.client.BinanceClient;
 import io.statusmvp.pricebackend.client.CoinGeckoClient;
 import io.statusmvp.pricebackend.client.CoinMarketCapClient;
 import io.statusmvp.pricebackend.client.DexScreenerClient;
+import io.statusmvp.pricebackend.client.ProviderHealthRegistry;
+import io.statusmvp.pricebackend.model.PriceMarketData;
 import io.statusmvp.pricebackend.model.PriceQuote;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import reactor.core.publisher.Mono;
 
 class PriceAggregatorServiceTest {
   private final Map<String, String> store = new HashMap<>();
@@ -28,25 +40,15 @@ class PriceAggregatorServiceTest {
 
   @BeforeEach
   void setUp() {
-    @SuppressWarnings("unchecked")
-    ValueOperations<String, String> valueOps = mock(ValueOperations.class);
-    StringRedisTemplate redis = mock(StringRedisTemplate.class);
-    when(redis.opsForValue()).thenReturn(valueOps);
-    when(valueOps.get(anyString())).thenAnswer(invocation -> store.get(invocation.getArgument(0)));
-    doAnswer(
-            invocation -> {
-              store.put(invocation.getArgument(0), invocation.getArgument(1));
-              return null;
-            })
-        .when(valueOps)
-        .set(anyString(), anyString(), any(Duration.class));
-    RedisCache cache = new RedisCache(redis);
+    ReactiveRedisCache cache = reactiveCache(store);
 
     CoinGeckoClient coinGecko = mock(CoinGeckoClient.class);
     when(coinGecko.isEnabled()).thenReturn(false);
     CoinMarketCapClient cmc = mock(CoinMarketCapClient.class);
     when(cmc.isEnabled()).thenReturn(false);
     BinanceClient binance = mock(BinanceClient.class);
+    when(binance.fetchUsdQuoteViaUsdtPair(anyString())).thenReturn(Mono.empty());
+    BinanceTickerSnapshotService binanceTickers = mock(BinanceTickerSnapshotService.class);
     DexScreenerClient dexScreener = mock(DexScreenerClient.class);
     when(dexScreener.isEnabled()).thenReturn(false);
     CoinGeckoIdResolver coinGeckoIds = mock(CoinGeckoIdResolver.class);
@@ -59,14 +61,18 @@ class PriceAggregatorServiceTest {
             coinGecko,
             cmc,
             binance,
+            binanceTickers,
             dexScreener,
             cache,
+            new PriceQuoteCache(cache, 120, 1000, 10),
+            new PriceDemandTracker(600, 10000),
             coinGeckoIds,
             veilxDex,
             priceHistory,
-            /* priceTtlSeconds= */ 120,
+            hedgePolicy(false, providerHealth()),
             /* requestTtlSeconds= */ 30,
-            /* lastGoodPriceTtlSeconds= */ 259200);
+            /* lastGoodPriceTtlSeconds= */ 259200,
+            /* requestTimeoutMs= */ 12000);
   }
 
   @Test
@@ -93,49 +99,309 @@ class PriceAggregatorServiceTest {
     when(veilxDex.isEnabled()).thenReturn(true);
     when(veilxDex.fetchVeilxUsdPrice()).thenReturn(java.util.Optional.of(0.02d));
 
-    @SuppressWarnings("unchecked")
-    ValueOperations<String, String> valueOps = mock(ValueOperations.class);
-    StringRedisTemplate redis = mock(StringRedisTemplate.class);
-    when(redis.opsForValue()).thenReturn(valueOps);
-    when(valueOps.get(anyString())).thenAnswer(invocation -> store.get(invocation.getArgument(0)));
-    doAnswer(
-            invocation -> {
-              store.put(invocation.getArgument(0), invocation.getArgument(1));
-              return null;
-            })
-        .when(valueOps)
-        .set(anyString(), anyString(), any(Duration.class));
-    RedisCache cache = new RedisCache(redis);
+    ReactiveRedisCache cache = reactiveCache(store);
 
     CoinGeckoClient coinGecko = mock(CoinGeckoClient.class);
     when(coinGecko.isEnabled()).thenReturn(false);
     CoinMarketCapClient cmc = mock(CoinMarketCapClient.class);
     when(cmc.isEnabled()).thenReturn(false);
     BinanceClient binance = mock(BinanceClient.class);
+    when(binance.fetchUsdQuoteViaUsdtPair(anyString())).thenReturn(Mono.empty());
+    BinanceTickerSnapshotService binanceTickers = mock(BinanceTickerSnapshotService.class);
     DexScreenerClient dexScreener = mock(DexScreenerClient.class);
     when(dexScreener.isEnabled()).thenReturn(false);
     CoinGeckoIdResolver coinGeckoIds = mock(CoinGeckoIdResolver.class);
     PriceHistoryService priceHistory = mock(PriceHistoryService.class);
-    when(priceHistory.resolveChange24hPct(anyString(), any(), any(), org.mockito.ArgumentMatchers.anyLong()))
-        .thenReturn(null);
+    when(priceHistory.resolveChange24hPcts(anyList()))
+        .thenAnswer(
+            invocation ->
+                Mono.just(
+                    new ArrayList<Double>(
+                        Collections.nCopies(((List<?>) invocation.getArgument(0)).size(), null))));
 
     PriceAggregatorService liveService =
         new PriceAggregatorService(
             coinGecko,
             cmc,
             binance,
+            binanceTickers,
             dexScreener,
             cache,
+            new PriceQuoteCache(cache, 120, 1000, 10),
+            new PriceDemandTracker(600, 10000),
             coinGeckoIds,
             veilxDex,
             priceHistory,
-            120,
+            hedgePolicy(false, providerHealth()),
             30,
-            259200);
+            259200,
+            12000);
 
     List<PriceQuote> quotes = liveService.getPrices(List.of("VEILX"), "usd");
 
     assertEquals(0.02, quotes.get(0).price());
     assertEquals("0.02", store.get("price:lastgood:VEILX:usd"));
   }
+
+  @Test
+  void hedgesASlowCoinGeckoWithCoinMarketCap() {
+    ReactiveRedisCache cache = reactiveCache(store);
+
+    CoinGeckoClient coinGecko = mock(CoinGeckoClient.class);
+    when(coinGecko.isEnabled()).thenReturn(true);
+    when(coinGecko.fetchSimpleUsdQuotes(anyCollection())).thenReturn(Mono.never());
+    CoinMarketCapClient cmc = mock(CoinMarketCapClient.class);
+    when(cmc.isEnabled()).thenReturn(true);
+    when(cmc.fetchUsdQuoteBySymbol("BTC")).thenReturn(Mono.just(new PriceMarketData(65000d, 1.5d)));
+    BinanceClient binance = mock(BinanceClient.class);
+    when(binance.fetchUsdQuoteViaUsdtPair(anyString())).thenReturn(Mono.empty());
+    DexScreenerClient dexScreener = mock(DexScreenerClient.class);
+    when(dexScreener.isEnabled()).thenReturn(false);
+    CoinGeckoIdResolver coinGeckoIds = mock(CoinGeckoIdResolver.class);
+    when(coinGeckoIds.resolve("BTC")).thenReturn("bitcoin");
+    VeilxDexPriceService veilxDex = mock(VeilxDexPriceService.class);
+    when(veilxDex.isEnabled()).thenReturn(false);
+    PriceHistoryService priceHistory = mock(PriceHistoryService.class);
+    when(priceHistory.resolveChange24hPcts(anyList()))
+        .thenAnswer(invocation -> Mono.just(List.of(1.5d)));
+
+    // CoinGecko normally answers within a few ms, so a call still pending after 50 ms gets hedged.
+    ProviderHealthRegistry providerHealth = providerHealth();
+    for (int i = 0; i < 10; i++) {
+      Mono.just("ok")
+          .transform(providerHealth.provider("coingecko").guard(Duration.ofSeconds(10)))
+          .block();
+    }
+
+    PriceAggregatorService hedgingService =
+        new PriceAggregatorService(
+            coinGecko,
+            cmc,
+            binance,
+            mock(BinanceTickerSnapshotService.class),
+            dexScreener,
+            cache,
+            new PriceQuoteCache(cache, 120, 1000, 10),
+            new PriceDemandTracker(600, 10000),
+            coinGeckoIds,
+            veilxDex,
+            priceHistory,
+            hedgePolicy(true, providerHealth),
+            30,
+            259200,
+            12000);
+
+    List<PriceQuote> quotes =
+        hedgingService.fetchPrices(List.of("BTC"), "usd").block(Duration.ofSeconds(5));
+
+    assertEquals(65000d, quotes.get(0).price());
+    assertEquals("coinmarketcap", quotes.get(0).source());
+  }
+
+  @Test
+  void hedgeRequestsForABatchStayWithinTheBudget() {
+    ReactiveRedisCache cache = reactiveCache(store);
+
+    CoinGeckoClient coinGecko = mock(CoinGeckoClient.class);
+    when(coinGecko.isEnabled()).thenReturn(true);
+    when(coinGecko.fetchSimpleUsdQuotes(anyCollection())).thenReturn(Mono.never());
+    CoinMarketCapClient cmc = mock(CoinMarketCapClient.class);
+    when(cmc.isEnabled()).thenReturn(true);
+    AtomicInteger cmcRequests = new AtomicInteger();
+    when(cmc.fetchUsdQuoteBySymbol(anyString()))
+        .thenAnswer(invocation -> Mono.fromRunnable(cmcRequests::incrementAndGet));
+    BinanceClient binance = mock(BinanceClient.class);
+    when(binance.fetchUsdQuoteViaUsdtPair(anyString())).thenReturn(Mono.empty());
+    DexScreenerClient dexScreener = mock(DexScreenerClient.class);
+    when(dexScreener.isEnabled()).thenReturn(false);
+    CoinGeckoIdResolver coinGeckoIds = mock(CoinGeckoIdResolver.class);
+    when(coinGeckoIds.resolve(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+    VeilxDexPriceService veilxDex = mock(VeilxDexPriceService.class);
+    when(veilxDex.isEnabled()).thenReturn(false);
+
+    ProviderHealthRegistry providerHealth = providerHealth();
+    for (int i = 0; i < 10; i++) {
+      Mono.just("ok")
+          .transform(providerHealth.provider("coingecko").guard(Duration.ofSeconds(10)))
+          .block();
+    }
+    // Budget: a burst of 2 plus 10% of the single batched CoinGecko request.
+    PriceHedgePolicy hedgePolicy =
+        new PriceHedgePolicy(providerHealth, new SimpleMeterRegistry(), true, 10d, 2, 50L);
+
+    PriceAggregatorService hedgingService =
+        new PriceAggregatorService(
+            coinGecko,
+            cmc,
+            binance,
+            mock(BinanceTickerSnapshotService.class),
+            dexScreener,
+            cache,
+            new PriceQuoteCache(cache, 120, 1000, 10),
+            new PriceDemandTracker(600, 10000),
+            coinGeckoIds,
+            veilxDex,
+            mock(PriceHistoryService.class),
+            hedgePolicy,
+            30,
+            259200,
+            1000);
+
+    List<String> symbols = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      symbols.add("TOKEN" + i);
+    }
+    hedgingService.fetchPrices(symbols, "usd").block(Duration.ofSeconds(5));
+
+    assertEquals(2, cmcRequests.get());
+  }
+
+  @Test
+  void asksTheSymbolsOfAStageConcurrently() {
+    CoinMarketCapClient cmc = mock(CoinMarketCapClient.class);
+    when(cmc.isEnabled()).thenReturn(true);
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    when(cmc.fetchUsdQuoteBySymbol(anyString()))
+        .thenAnswer(
+            invocation ->
+                Mono.delay(Duration.ofMillis(200))
+                    .map(tick -> new PriceMarketData(1d, 0d))
+                    .doOnSubscribe(s -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                    .doFinally(signal -> inFlight.decrementAndGet()));
+
+    List<PriceQuote> quotes =
+        aggregator(disabledCoinGecko(), cmc, emptyBinance(), 12000)
+            .fetchPrices(List.of("AAA", "BBB", "CCC", "DDD"), "usd")
+            .block(Duration.ofSeconds(5));
+
+    assertEquals(4, quotes.stream().filter(q -> q.price() != null).count());
+    assertEquals(4, maxInFlight.get());
+  }
+
+  @Test
+  void returnsWhatWasPricedWhenTheDeadlinePasses() {
+    CoinMarketCapClient cmc = mock(CoinMarketCapClient.class);
+    when(cmc.isEnabled()).thenReturn(true);
+    when(cmc.fetchUsdQuoteBySymbol("BTC")).thenReturn(Mono.just(new PriceMarketData(65000d, 1.5d)));
+    when(cmc.fetchUsdQuoteBySymbol("ETH")).thenReturn(Mono.never());
+
+    long started = System.nanoTime();
+    List<PriceQuote> quotes =
+        aggregator(disabledCoinGecko(), cmc, emptyBinance(), 1000)
+            .fetchPrices(List.of("BTC", "ETH"), "usd")
+            .block(Duration.ofSeconds(5));
+
+    assertTrue(Duration.ofNanos(System.nanoTime() - started).compareTo(Duration.ofSeconds(3)) < 0);
+    assertEquals(List.of("BTC", "ETH"), quotes.stream().map(PriceQuote::symbol).toList());
+    assertEquals(65000d, quotes.get(0).price());
+    assertNull(quotes.get(1).price());
+    // A truncated answer is not cached as the response to the whole request.
+    assertTrue(store.keySet().stream().noneMatch(key -> key.startsWith("req:prices:")));
+  }
+
+  @Test
+  void fallbackStagesOnlyAskForSymbolsStillUnresolved() {
+    CoinGeckoClient coinGecko = mock(CoinGeckoClient.class);
+    when(coinGecko.isEnabled()).thenReturn(true);
+    when(coinGecko.fetchSimpleUsdQuotes(anyCollection()))
+        .thenReturn(Mono.just(Map.of("bitcoin", new PriceMarketData(65000d, 1.5d))));
+    CoinMarketCapClient cmc = mock(CoinMarketCapClient.class);
+    when(cmc.isEnabled()).thenReturn(true);
+    when(cmc.fetchUsdQuoteBySymbol("ETH")).thenReturn(Mono.just(new PriceMarketData(3000d, 2d)));
+    when(cmc.fetchUsdQuoteBySymbol("SOL")).thenReturn(Mono.empty());
+    BinanceClient binance = emptyBinance();
+    when(binance.fetchUsdQuoteViaUsdtPair("SOL")).thenReturn(Mono.just(new PriceMarketData(150d, 3d)));
+
+    List<PriceQuote> quotes =
+        aggregator(coinGecko, cmc, binance, 12000)
+            .fetchPrices(List.of("BTC", "ETH", "SOL"), "usd")
+            .block(Duration.ofSeconds(5));
+
+    assertEquals(
+        List.of("coingecko", "coinmarketcap", "binance"), quotes.stream().map(PriceQuote::source).toList());
+    verify(cmc, never()).fetchUsdQuoteBySymbol("BTC");
+    verify(binance, never()).fetchUsdQuoteViaUsdtPair("BTC");
+    verify(binance, never()).fetchUsdQuoteViaUsdtPair("ETH");
+  }
+
+  private PriceAggregatorService aggregator(
+      CoinGeckoClient coinGecko, CoinMarketCapClient cmc, BinanceClient binance, long requestTimeoutMs) {
+    ReactiveRedisCache cache = reactiveCache(store);
+    DexScreenerClient dexScreener = mock(DexScreenerClient.class);
+    when(dexScreener.isEnabled()).thenReturn(false);
+    CoinGeckoIdResolver coinGeckoIds = mock(CoinGeckoIdResolver.class);
+    when(coinGeckoIds.resolve("BTC")).thenReturn("bitcoin");
+    VeilxDexPriceService veilxDex = mock(VeilxDexPriceService.class);
+    when(veilxDex.isEnabled()).thenReturn(false);
+    PriceHistoryService priceHistory = mock(PriceHistoryService.class);
+    when(priceHistory.resolveChange24hPcts(anyList()))
+        .thenAnswer(
+            invocation ->
+                Mono.just(
+                    new ArrayList<Double>(
+                        Collections.nCopies(((List<?>) invocation.getArgument(0)).size(), null))));
+    return new PriceAggregatorService(
+        coinGecko,
+        cmc,
+        binance,
+        mock(BinanceTickerSnapshotService.class),
+        dexScreener,
+        cache,
+        new PriceQuoteCache(cache, 120, 1000, 10),
+        new PriceDemandTracker(600, 10000),
+        coinGeckoIds,
+        veilxDex,
+        priceHistory,
+        hedgePolicy(false, providerHealth()),
+        30,
+        259200,
+        requestTimeoutMs);
+  }
+
+  private static CoinGeckoClient disabledCoinGecko() {
+    CoinGeckoClient coinGecko = mock(CoinGeckoClient.class);
+    when(coinGecko.isEnabled()).thenReturn(false);
+    return coinGecko;
+  }
+
+  private static BinanceClient emptyBinance() {
+    BinanceClient binance = mock(BinanceClient.class);
+    when(binance.fetchUsdQuoteViaUsdtPair(anyString())).thenReturn(Mono.empty());
+    return binance;
+  }
+
+  private static ProviderHealthRegistry providerHealth() {
+    return new ProviderHealthRegistry(new SimpleMeterRegistry(), 100, 10, 0.5d, 30_000L, 1.5d, 1_000L);
+  }
+
+  private static PriceHedgePolicy hedgePolicy(boolean enabled, ProviderHealthRegistry providerHealth) {
+    return new PriceHedgePolicy(providerHealth, new SimpleMeterRegistry(), enabled, 10d, 5, 50L);
+  }
+
+  static ReactiveRedisCache reactiveCache(Map<String, String> store) {
+    @SuppressWarnings("unchecked")
+    ReactiveValueOperations<String, String> valueOps = mock(ReactiveValueOperations.class);
+    ReactiveStringRedisTemplate redis = mock(ReactiveStringRedisTemplate.class);
+    when(redis.opsForValue()).thenReturn(valueOps);
+    when(redis.convertAndSend(anyString(), anyString())).thenReturn(Mono.just(0L));
+    when(valueOps.get(anyString()))
+        .thenAnswer(invocation -> Mono.justOrEmpty(store.get(invocation.getArgument(0))));
+    when(valueOps.multiGet(anyCollection()))
+        .thenAnswer(
+            invocation -> {
+              List<String> values = new ArrayList<>();
+              for (Object key : (Collection<?>) invocation.getArgument(0)) {
+                values.add(store.get(key));
+              }
+              return Mono.just(values);
+            });
+    when(valueOps.set(anyString(), anyString(), any(Duration.class)))
+        .thenAnswer(
+            invocation -> {
+              store.put(invocation.getArgument(0), invocation.getArgument(1));
+              return Mono.just(true);
+            });
+    return new ReactiveRedisCache(redis);
+  }
 }
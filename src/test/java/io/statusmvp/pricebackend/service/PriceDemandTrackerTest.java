@@ -0,0 +1,23 @@
+package io.statusmvp.pricebackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PriceDemandTrackerTest {
+
+  @Test
+  void ranksAssetsByRequestCount() {
+    PriceDemandTracker demand = new PriceDemandTracker(600, 10000);
+    demand.recordSymbols(List.of("ETH", "BTC"));
+    demand.recordSymbols(List.of("ETH"));
+    demand.recordContracts(56, List.of("0xabc"));
+    demand.recordContracts(56, List.of("0xabc"));
+    demand.recordContracts(56, List.of("0xabc"));
+
+    assertEquals(List.of("contract:56:0xabc", "symbol:ETH", "symbol:BTC"), demand.hottest(10, 0.5d));
+    assertEquals(List.of("contract:56:0xabc", "symbol:ETH"), demand.hottest(10, 1.5d));
+    assertEquals(List.of("contract:56:0xabc"), demand.hottest(1, 0d));
+  }
+}
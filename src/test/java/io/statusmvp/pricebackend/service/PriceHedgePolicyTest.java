@@ -0,0 +1,54 @@
+package io.statusmvp.pricebackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.statusmvp.pricebackend.client.ProviderHealthRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+class PriceHedgePolicyTest {
+  private final ProviderHealthRegistry providerHealth =
+      new ProviderHealthRegistry(new SimpleMeterRegistry(), 100, 10, 0.5d, 30_000L, 1.5d, 1_000L);
+
+  @Test
+  void doesNotHedgeWhenDisabledOrWithoutLatencySamples() {
+    PriceHedgePolicy disabled =
+        new PriceHedgePolicy(providerHealth, new SimpleMeterRegistry(), false, 10d, 5, 50L);
+    // A minimum delay well above any warm-up latency keeps the expected delay deterministic.
+    PriceHedgePolicy enabled =
+        new PriceHedgePolicy(providerHealth, new SimpleMeterRegistry(), true, 10d, 5, 5_000L);
+
+    assertNull(enabled.hedgeAfter("coingecko"));
+    warmUp("coingecko");
+    assertNull(disabled.hedgeAfter("coingecko"));
+    assertEquals(Duration.ofMillis(5_000L), enabled.hedgeAfter("coingecko"));
+  }
+
+  @Test
+  void capsHedgeRequestsToTheConfiguredShareOfPrimaryRequests() {
+    PriceHedgePolicy policy =
+        new PriceHedgePolicy(providerHealth, new SimpleMeterRegistry(), true, 10d, 1, 50L);
+    warmUp("coingecko");
+
+    assertTrue(policy.tryAcquire("coingecko"));
+    assertFalse(policy.tryAcquire("coingecko"));
+    for (int i = 0; i < 10; i++) {
+      policy.onPrimaryRequest();
+    }
+    assertTrue(policy.tryAcquire("coingecko"));
+    assertFalse(policy.tryAcquire("coingecko"));
+  }
+
+  private void warmUp(String provider) {
+    for (int i = 0; i < 10; i++) {
+      Mono.just("ok")
+          .transform(providerHealth.provider(provider).guard(Duration.ofSeconds(10)))
+          .block();
+    }
+  }
+}
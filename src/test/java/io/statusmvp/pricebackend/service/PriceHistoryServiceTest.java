@@ -3,43 +3,85 @@ package io.statusmvp.pricebackend.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.ReactiveZSetOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 class PriceHistoryServiceTest {
-  private final Map<String, String> store = new HashMap<>();
+  private final Map<String, Map<String, Double>> series = new HashMap<>();
+  private final Map<String, String> legacySamples = new HashMap<>();
+  private ReactiveStringRedisTemplate redis;
   private PriceHistoryService service;
 
   @BeforeEach
+  @SuppressWarnings("unchecked")
   void setUp() {
-    @SuppressWarnings("unchecked")
-    ValueOperations<String, String> valueOps = mock(ValueOperations.class);
-    StringRedisTemplate redis = mock(StringRedisTemplate.class);
+    ReactiveZSetOperations<String, String> zsetOps = mock(ReactiveZSetOperations.class);
+    ReactiveValueOperations<String, String> valueOps = mock(ReactiveValueOperations.class);
+    redis = mock(ReactiveStringRedisTemplate.class);
 
+    when(redis.opsForZSet()).thenReturn(zsetOps);
     when(redis.opsForValue()).thenReturn(valueOps);
-    when(valueOps.get(anyString())).thenAnswer(invocation -> store.get(invocation.getArgument(0)));
-    doAnswer(
+    // Replays the record-sample script against the in-memory series.
+    when(redis.execute(any(RedisScript.class), anyList(), anyList()))
+        .thenAnswer(
             invocation -> {
-              String key = invocation.getArgument(0);
-              String value = invocation.getArgument(1);
-              store.put(key, value);
-              return null;
-            })
-        .when(valueOps)
-        .set(anyString(), anyString(), any(Duration.class));
+              String key = invocation.<List<String>>getArgument(1).get(0);
+              List<String> args = invocation.getArgument(2);
+              double bucketStart = Double.parseDouble(args.get(0));
+              double bucketEnd = Double.parseDouble(args.get(1));
+              double expiredBefore = Double.parseDouble(args.get(4));
+              Map<String, Double> members = series.computeIfAbsent(key, k -> new HashMap<>());
+              members.values().removeIf(score -> score >= bucketStart && score <= bucketEnd);
+              members.put(args.get(3), Double.parseDouble(args.get(2)));
+              members.values().removeIf(score -> score < expiredBefore);
+              return Flux.just(1L);
+            });
+    when(valueOps.multiGet(anyList()))
+        .thenAnswer(
+            invocation -> {
+              List<String> values = new ArrayList<>();
+              for (String key : invocation.<List<String>>getArgument(0)) {
+                values.add(legacySamples.get(key));
+              }
+              return Mono.just(values);
+            });
+    when(zsetOps.rangeByScoreWithScores(anyString(), any(Range.class)))
+        .thenAnswer(
+            invocation -> {
+              Range<Double> range = invocation.getArgument(1);
+              List<ZSetOperations.TypedTuple<String>> hits = new ArrayList<>();
+              series
+                  .getOrDefault(invocation.getArgument(0), Map.of())
+                  .forEach(
+                      (member, score) -> {
+                        if (range.contains(score)) hits.add(new DefaultTypedTuple<>(member, score));
+                      });
+              return Flux.fromIterable(hits);
+            });
 
     service = new PriceHistoryService(redis, 60, 0, 259200);
-    store.clear();
   }
 
   @Test
@@ -48,8 +90,8 @@ class PriceHistoryServiceTest {
     long firstTs = Duration.ofHours(1).toMillis();
     long secondTs = Duration.ofHours(25).toMillis();
 
-    Double initial = service.resolveChange24hPct(assetKey, 100d, null, firstTs);
-    Double computed = service.resolveChange24hPct(assetKey, 110d, null, secondTs);
+    Double initial = service.resolveChange24hPct(assetKey, 100d, null, firstTs).block();
+    Double computed = service.resolveChange24hPct(assetKey, 110d, null, secondTs).block();
 
     assertNull(initial);
     assertEquals(10d, computed, 0.000001d);
@@ -58,10 +100,60 @@ class PriceHistoryServiceTest {
   @Test
   void keepsUpstream24hChangeWhenProviderAlreadyReturnedIt() {
     String assetKey = PriceHistoryService.contractAssetKey(56, "0x1234");
-    Double resolved = service.resolveChange24hPct(assetKey, 1.23d, -0.42d, Duration.ofHours(8).toMillis());
+    Double resolved =
+        service.resolveChange24hPct(assetKey, 1.23d, -0.42d, Duration.ofHours(8).toMillis()).block();
     assertEquals(-0.42d, resolved, 0.000001d);
   }
 
+  @Test
+  void resolvesABatchAlignedWithItsInput() {
+    long firstTs = Duration.ofHours(1).toMillis();
+    long secondTs = Duration.ofHours(25).toMillis();
+    service
+        .resolveChange24hPcts(
+            List.of(new PriceHistoryService.Observation(PriceHistoryService.symbolAssetKey("ETH"), 2000d, null, firstTs)))
+        .block();
+
+    List<Double> changes =
+        service
+            .resolveChange24hPcts(
+                List.of(
+                    new PriceHistoryService.Observation(PriceHistoryService.symbolAssetKey("BTC"), 60000d, null, secondTs),
+                    new PriceHistoryService.Observation(PriceHistoryService.symbolAssetKey("ETH"), 1800d, null, secondTs),
+                    new PriceHistoryService.Observation(PriceHistoryService.symbolAssetKey("SOL"), 150d, 3.5d, secondTs)))
+            .block();
+
+    assertNull(changes.get(0));
+    assertEquals(-10d, changes.get(1), 0.000001d);
+    assertEquals(3.5d, changes.get(2), 0.000001d);
+  }
+
+  @Test
+  void keepsTheLatestSamplePerBucketPerAsset() {
+    String assetKey = PriceHistoryService.symbolAssetKey("ETH");
+    long ts = Duration.ofHours(3).toMillis();
+
+    service.resolveChange24hPct(assetKey, 2000d, 1d, ts).block();
+    service.resolveChange24hPct(assetKey, 2001d, 1d, ts + 1000).block();
+    service.resolveChange24hPct(assetKey, 2002d, 1d, ts + Duration.ofHours(1).toMillis()).block();
+
+    verify(redis, times(3)).execute(any(RedisScript.class), anyList(), anyList());
+    assertEquals(Set.of("3:2001.0", "4:2002.0"), series.get("market-history:series:" + assetKey).keySet());
+  }
+
+  @Test
+  void fallsBackToLegacySampleKeysForTheBaseline() {
+    String assetKey = PriceHistoryService.symbolAssetKey("BTC");
+    long firstTs = Duration.ofHours(1).toMillis();
+    legacySamples.put(
+        "market-history:sample:" + assetKey + ":1", "{\"price\":50000.0,\"timestamp\":" + firstTs + "}");
+
+    Double computed =
+        service.resolveChange24hPct(assetKey, 55000d, null, Duration.ofHours(25).toMillis()).block();
+
+    assertEquals(10d, computed, 0.000001d);
+  }
+
   @Test
   void buildsStableAssetKeys() {
     assertEquals("symbol:USDT", PriceHistoryService.symbolAssetKey("usdt"));
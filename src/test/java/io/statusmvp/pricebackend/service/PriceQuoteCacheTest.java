@@ -0,0 +1,130 @@
+package io.statusmvp.pricebackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.statusmvp.pricebackend.model.PriceQuote;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import reactor.core.publisher.Mono;
+
+class PriceQuoteCacheTest {
+  private static final String KEY = "price:symbol:ETH:usd";
+
+  private final Map<String, String> store = new HashMap<>();
+  private ReactiveStringRedisTemplate redis;
+  private PriceQuoteCache quoteCache;
+
+  @BeforeEach
+  void setUp() {
+    @SuppressWarnings("unchecked")
+    ReactiveValueOperations<String, String> valueOps = mock(ReactiveValueOperations.class);
+    redis = mock(ReactiveStringRedisTemplate.class);
+    when(redis.opsForValue()).thenReturn(valueOps);
+    when(redis.convertAndSend(anyString(), anyString())).thenReturn(Mono.just(1L));
+    when(valueOps.multiGet(anyCollection()))
+        .thenAnswer(
+            invocation -> {
+              List<String> values = new ArrayList<>();
+              for (Object key : (Collection<?>) invocation.getArgument(0)) {
+                values.add(store.get(key));
+              }
+              return Mono.just(values);
+            });
+    when(valueOps.set(anyString(), anyString(), any(Duration.class)))
+        .thenAnswer(
+            invocation -> {
+              store.put(invocation.getArgument(0), invocation.getArgument(1));
+              return Mono.just(true);
+            });
+    quoteCache = new PriceQuoteCache(new ReactiveRedisCache(redis), 120, 100, 10);
+  }
+
+  @Test
+  void putServesLaterReadsFromLocalTierAndPublishesInvalidation() {
+    quoteCache.put(KEY, quote(3200d)).block();
+    store.clear();
+
+    assertEquals(3200d, quoteCache.getLocal(KEY).orElseThrow().price());
+    assertEquals(3200d, quoteCache.get(KEY).block().price());
+    verify(redis).convertAndSend(eq(PriceQuoteCache.INVALIDATION_CHANNEL), anyString());
+  }
+
+  @Test
+  void redisHitIsPromotedToLocalTier() {
+    store.put(KEY, "{\"symbol\":\"ETH\",\"price\":3100.0,\"currency\":\"usd\",\"timestamp\":" + System.currentTimeMillis() + "}");
+
+    assertTrue(quoteCache.getLocal(KEY).isEmpty());
+    assertEquals(3100d, quoteCache.get(KEY).block().price());
+    assertEquals(3100d, quoteCache.getLocal(KEY).orElseThrow().price());
+  }
+
+  @Test
+  void localEntryNeverOutlivesTheRedisTtl() {
+    long pricedLongAgo = System.currentTimeMillis() - Duration.ofSeconds(121).toMillis();
+    quoteCache.put(KEY, new PriceQuote("ETH", 3200d, null, "usd", pricedLongAgo, "coingecko", null, null)).block();
+
+    assertTrue(quoteCache.getLocal(KEY).isEmpty());
+  }
+
+  @Test
+  void peerInvalidationDropsLocalEntry() {
+    quoteCache.put(KEY, quote(3200d)).block();
+
+    quoteCache.onMessage(
+        new DefaultMessage(
+            PriceQuoteCache.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+            ("other-node|" + KEY).getBytes(StandardCharsets.UTF_8)),
+        null);
+
+    assertTrue(quoteCache.getLocal(KEY).isEmpty());
+  }
+
+  @Test
+  void batchedLookupReadsAllLocalMissesWithOneMget() {
+    String btc = "price:symbol:BTC:usd";
+    quoteCache.put(KEY, quote(3200d)).block();
+    store.put(btc, "{\"symbol\":\"BTC\",\"price\":65000.0,\"currency\":\"usd\",\"timestamp\":" + System.currentTimeMillis() + "}");
+
+    Map<String, PriceQuote> hits = quoteCache.getAll(List.of(KEY, btc, "price:symbol:NOPE:usd")).block();
+
+    assertEquals(2, hits.size());
+    assertEquals(65000d, hits.get(btc).price());
+    verify(redis.opsForValue()).multiGet(List.of(btc, "price:symbol:NOPE:usd"));
+  }
+
+  @Test
+  void concurrentMissesJoinTheFirstClaim() {
+    assertNull(quoteCache.joinOrClaim(KEY));
+    Mono<PriceQuote> joined = quoteCache.joinOrClaim(KEY);
+    assertNotNull(joined);
+
+    quoteCache.complete(KEY, quote(3300d));
+
+    assertEquals(3300d, joined.block().price());
+    assertNull(quoteCache.joinOrClaim(KEY));
+  }
+
+  private static PriceQuote quote(double price) {
+    return new PriceQuote("ETH", price, 1.0d, "usd", System.currentTimeMillis(), "coingecko", null, null);
+  }
+}
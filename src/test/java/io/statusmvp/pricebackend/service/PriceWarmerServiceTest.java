@@ -0,0 +1,84 @@
+package io.statusmvp.pricebackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.statusmvp.pricebackend.model.PriceQuote;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Mono;
+
+class PriceWarmerServiceTest {
+  private final PriceDemandTracker demand = new PriceDemandTracker(600, 10000);
+  private final PriceAggregatorService prices = mock(PriceAggregatorService.class);
+  private final PriceQuoteCache quoteCache = mock(PriceQuoteCache.class);
+
+  @Test
+  void plansBatchesForDueAssetsOnly() {
+    for (int i = 0; i < 2; i++) {
+      demand.recordSymbols(List.of("ETH", "BTC", "SOL"));
+      demand.recordContracts(56, List.of("0xa", "0xb"));
+      demand.recordContracts(1, List.of("0xc"));
+    }
+    PriceQuote fresh =
+        new PriceQuote("SOL", 150d, null, "usd", System.currentTimeMillis(), "coingecko", null, null);
+    when(quoteCache.getAll(anyCollection()))
+        .thenReturn(Mono.just(Map.of(PriceAggregatorService.symbolPriceKey("SOL", "usd"), fresh)));
+    when(prices.refreshPrices(anyList(), eq("usd"), any())).thenReturn(Mono.just(List.of()));
+    when(prices.refreshPricesByContract(anyInt(), anyList(), eq("usd"), any()))
+        .thenReturn(Mono.just(List.of()));
+
+    List<PriceWarmerService.Batch> batches = warmer(2, 30).planBatches().block();
+
+    assertEquals(3, batches.size());
+    batches.forEach(batch -> batch.run().block());
+    ArgumentCaptor<List<String>> symbols = ArgumentCaptor.forClass(List.class);
+    verify(prices).refreshPrices(symbols.capture(), eq("usd"), any());
+    assertEquals(Set.of("ETH", "BTC"), new HashSet<>(symbols.getValue()));
+    ArgumentCaptor<List<String>> bscContracts = ArgumentCaptor.forClass(List.class);
+    verify(prices).refreshPricesByContract(eq(56), bscContracts.capture(), eq("usd"), any());
+    assertEquals(Set.of("0xa", "0xb"), new HashSet<>(bscContracts.getValue()));
+    verify(prices).refreshPricesByContract(eq(1), eq(List.of("0xc")), eq("usd"), any());
+  }
+
+  @Test
+  void chargesEveryProviderRequestAndStopsOnceTheBudgetIsSpent() {
+    for (int i = 0; i < 2; i++) {
+      demand.recordSymbols(List.of("ETH", "BTC", "SOL"));
+    }
+    when(quoteCache.getAll(anyCollection())).thenReturn(Mono.just(Map.of()));
+    List<Boolean> granted = new ArrayList<>();
+    when(prices.refreshPrices(anyList(), eq("usd"), any()))
+        .thenAnswer(
+            invocation -> {
+              PriceAggregatorService.UpstreamBudget budget = invocation.getArgument(2);
+              // A batch that asks two providers, one request each.
+              granted.add(budget.tryAcquire("coingecko", 1));
+              granted.add(budget.tryAcquire("coinmarketcap", 1));
+              return Mono.just(List.of());
+            });
+
+    warmer(1, 3).warm();
+
+    verify(prices, times(2)).refreshPrices(anyList(), eq("usd"), any());
+    assertEquals(List.of(true, true, true, false), granted);
+  }
+
+  private PriceWarmerService warmer(int batchSize, int upstreamCallsPerMinute) {
+    return new PriceWarmerService(
+        demand, prices, quoteCache, true, "usd", 100, 200, batchSize, upstreamCallsPerMinute, 1.5d, 30, 120);
+  }
+}
@@ -0,0 +1,107 @@
+package io.statusmvp.pricebackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class ProxyRelayTest {
+  @Test
+  void relaysTheBodyAndOnlyAllowlistedHeaders() {
+    WebClient webClient =
+        webClient(
+            ClientResponse.create(HttpStatus.OK)
+                .header("Content-Type", "application/json")
+                .header("ETag", "\"v1\"")
+                .header("Set-Cookie", "session=upstream")
+                .body("{\"quote\":\"1\"}")
+                .build());
+
+    ResponseEntity<Flux<DataBuffer>> response =
+        ProxyRelay.relay(webClient.get().uri("https://upstream.test/quote"), Duration.ofSeconds(5)).block();
+
+    assertNotNull(response);
+    assertEquals(200, response.getStatusCode().value());
+    assertEquals("\"v1\"", response.getHeaders().getETag());
+    assertNull(response.getHeaders().getFirst("Set-Cookie"));
+    assertEquals("{\"quote\":\"1\"}", read(response));
+  }
+
+  @Test
+  void buffersErrorBodiesOnlyForCallersThatInspectThem() {
+    WebClient webClient =
+        webClient(
+            ClientResponse.create(HttpStatus.BAD_REQUEST)
+                .header("Content-Type", "application/json")
+                .body("{\"error\":\"bad amount\"}")
+                .build());
+    AtomicReference<String> logged = new AtomicReference<>();
+
+    ResponseEntity<Flux<DataBuffer>> response =
+        ProxyRelay.relay(
+                webClient.get().uri("https://upstream.test/quote"),
+                Duration.ofSeconds(5),
+                (status, body) -> logged.set(status.value() + " " + body))
+            .block();
+
+    assertNotNull(response);
+    assertEquals(400, response.getStatusCode().value());
+    assertEquals("400 {\"error\":\"bad amount\"}", logged.get());
+    assertEquals("{\"error\":\"bad amount\"}", read(response));
+  }
+
+  @Test
+  void streamsOversizeErrorBodiesThroughAndInspectsOnlyTheirStart() {
+    String chunk = "x".repeat(100 * 1024);
+    String errorBody = chunk.repeat(3);
+    WebClient webClient =
+        webClient(
+            ClientResponse.create(HttpStatus.BAD_GATEWAY)
+                .header("Content-Type", "text/html")
+                .body(Flux.range(0, 3).map(i -> buffer(chunk)))
+                .build());
+    AtomicReference<String> logged = new AtomicReference<>();
+
+    ResponseEntity<Flux<DataBuffer>> response =
+        ProxyRelay.relay(
+                webClient.get().uri("https://upstream.test/quote"),
+                Duration.ofSeconds(5),
+                (status, body) -> logged.set(body))
+            .block();
+
+    assertNotNull(response);
+    assertEquals(502, response.getStatusCode().value());
+    assertEquals(errorBody, read(response));
+    assertEquals(errorBody.substring(0, ProxyRelay.MAX_INSPECTED_BYTES), logged.get());
+  }
+
+  private static WebClient webClient(ClientResponse response) {
+    return WebClient.builder().exchangeFunction(request -> Mono.just(response)).build();
+  }
+
+  private static DataBuffer buffer(String text) {
+    return DefaultDataBufferFactory.sharedInstance.wrap(text.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String read(ResponseEntity<Flux<DataBuffer>> response) {
+    DataBuffer joined = DataBufferUtils.join(response.getBody()).block();
+    assertNotNull(joined);
+    byte[] bytes = new byte[joined.readableByteCount()];
+    joined.read(bytes);
+    DataBufferUtils.release(joined);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
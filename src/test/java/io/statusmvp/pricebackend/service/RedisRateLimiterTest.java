@@ -0,0 +1,88 @@
+package io.statusmvp.pricebackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+
+class RedisRateLimiterTest {
+  private static final Duration WINDOW = Duration.ofSeconds(60);
+
+  private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+  private final ReactiveStringRedisTemplate reactiveRedis = mock(ReactiveStringRedisTemplate.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final RedisRateLimiter limiter = new RedisRateLimiter(redis, reactiveRedis, meterRegistry);
+
+  @Test
+  void checksEveryScopeInOneCallAndReportsTheDeniedOne() {
+    when(reactiveRedis.execute(any(RedisScript.class), anyList(), anyList()))
+        .thenAnswer(invocation -> Flux.just("deny:2:1500"));
+
+    RedisRateLimiter.Decision decision =
+        limiter
+            .check(
+                "gateway",
+                List.of(
+                    new RedisRateLimiter.Limit("ip", "rl:ip:1", 600, WINDOW),
+                    new RedisRateLimiter.Limit("device", "rl:device:d", 300, WINDOW),
+                    new RedisRateLimiter.Limit("wallet", "", 10, WINDOW)))
+            .block();
+
+    assertFalse(decision.allowed());
+    assertEquals("device", decision.deniedScope());
+    assertEquals(2, decision.retryAfterSeconds());
+    verify(reactiveRedis)
+        .execute(any(RedisScript.class), eq(List.of("rl:ip:1", "rl:device:d")), eq(List.of("600", "60000", "300", "60000")));
+    assertEquals(1d, meterRegistry.counter("rate_limit.denied", "limiter", "gateway", "scope", "device").count());
+  }
+
+  @Test
+  void failsOpenOrClosedAsRequestedWhenRedisIsUnavailable() {
+    when(redis.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+        .thenThrow(new IllegalStateException("redis down"));
+    List<RedisRateLimiter.Limit> limits = List.of(new RedisRateLimiter.Limit("login-ip", "rl:ip:1", 5, WINDOW));
+
+    assertTrue(limiter.checkBlocking("proxy", limits, true).allowed());
+    RedisRateLimiter.Decision closed = limiter.checkBlocking("auth", limits, false);
+    assertFalse(closed.allowed());
+    assertEquals("unavailable", closed.deniedScope());
+  }
+
+  @Test
+  void reactiveCheckFailsOpenWhenRedisIsUnavailable() {
+    when(reactiveRedis.execute(any(RedisScript.class), anyList(), anyList()))
+        .thenAnswer(invocation -> Flux.error(new IllegalStateException("redis down")));
+
+    assertTrue(
+        limiter
+            .check("gateway", List.of(new RedisRateLimiter.Limit("ip", "rl:ip:1", 600, WINDOW)))
+            .block()
+            .allowed());
+  }
+
+  @Test
+  void countsAllowedDecisions() {
+    when(redis.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn("allow");
+
+    assertTrue(
+        limiter
+            .checkBlocking(
+                "auth", List.of(new RedisRateLimiter.Limit("login-ip", "rl:ip:1", 5, WINDOW)), false)
+            .allowed());
+    assertEquals(1d, meterRegistry.counter("rate_limit.allowed", "limiter", "auth").count());
+  }
+}
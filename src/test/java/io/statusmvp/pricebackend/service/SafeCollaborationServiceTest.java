@@ -6,12 +6,16 @@ import static org.junit.jupiter.api.Assertions.assertIterableEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.statusmvp.pricebackend.model.safe.SafeCollaborationDtos;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.ResponseEntity;
@@ -524,6 +528,65 @@ class SafeCollaborationServiceTest {
     assertEquals(false, response.get(1).executionFailed());
   }
 
+  @Test
+  void queryNotificationCandidatesShortCircuitsWhileTheQueueWatermarkIsUnchanged() {
+    AtomicReference<String> modified = new AtomicReference<>("2026-03-06T10:01:00Z");
+    AtomicReference<String> confirmations =
+        new AtomicReference<>("[{\"owner\":\"" + OWNER_1 + "\"}]");
+    when(gateway.get(anyString(), anyString(), any(), anyString(), anyString(), any()))
+        .thenAnswer(
+            invocation -> {
+              String path = invocation.getArgument(1, String.class);
+              @SuppressWarnings("unchecked")
+              MultiValueMap<String, String> query = invocation.getArgument(2, MultiValueMap.class);
+              String tx =
+                  "{\"safeTxHash\":\""
+                      + SAFE_TX_1
+                      + "\",\"safe\":\""
+                      + SAFE_A
+                      + "\",\"confirmationsRequired\":2,\"isExecuted\":false,"
+                      + "\"submissionDate\":\"2026-03-06T10:00:00Z\",\"modified\":\""
+                      + modified.get()
+                      + "\",\"confirmations\":"
+                      + confirmations.get()
+                      + "}";
+
+              if (path.endsWith("/safes/" + SAFE_A_CHECKSUM + "/multisig-transactions/")) {
+                if ("true".equals(query.getFirst("executed"))) {
+                  return Mono.just(ResponseEntity.ok("{\"count\":0,\"results\":[],\"next\":null}"));
+                }
+                return Mono.just(
+                    ResponseEntity.ok("{\"count\":1,\"results\":[" + tx + "],\"next\":null}"));
+              }
+              if (path.endsWith("/multisig-transactions/" + SAFE_TX_1 + "/")) {
+                return Mono.just(ResponseEntity.ok(tx));
+              }
+              return Mono.just(ResponseEntity.status(404).body("{}"));
+            });
+    List<SafeCollaborationDtos.DiscoveryItem> safes =
+        List.of(new SafeCollaborationDtos.DiscoveryItem(1, SAFE_A_CHECKSUM, List.of(OWNER_1_CHECKSUM)));
+
+    assertEquals(1, service.queryNotificationCandidatesForSafes(safes, 10, "127.0.0.1", "device-1").block().size());
+    verify(gateway, times(4)).get(anyString(), anyString(), any(), anyString(), anyString(), any());
+
+    clearInvocations(gateway);
+    List<SafeCollaborationService.SafeNotificationCandidate> unchanged =
+        service.queryNotificationCandidatesForSafes(safes, 10, "127.0.0.1", "device-1").block();
+    assertNotNull(unchanged);
+    assertEquals(1, unchanged.get(0).confirmationsSubmitted());
+    verify(gateway, times(1)).get(anyString(), anyString(), any(), anyString(), anyString(), any());
+
+    clearInvocations(gateway);
+    modified.set("2026-03-06T10:05:00Z");
+    confirmations.set("[{\"owner\":\"" + OWNER_1 + "\"},{\"owner\":\"" + OWNER_2 + "\"}]");
+    List<SafeCollaborationService.SafeNotificationCandidate> changed =
+        service.queryNotificationCandidatesForSafes(safes, 10, "127.0.0.1", "device-1").block();
+    assertNotNull(changed);
+    assertEquals(2, changed.get(0).confirmationsSubmitted());
+    // The probe plus the one changed transaction; no queue walk.
+    verify(gateway, times(2)).get(anyString(), anyString(), any(), anyString(), anyString(), any());
+  }
+
   @Test
   void queryInboxDoesNotTreatFilteredTransactionsAsDetailFailures() {
     when(gateway.get(anyString(), anyString(), any(), anyString(), anyString(), any()))
@@ -1,22 +1,52 @@
 package io.statusmvp.pricebackend.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.AdditionalAnswers.delegatesTo;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.statusmvp.pricebackend.model.safe.SafeCollaborationDtos;
 import io.statusmvp.pricebackend.model.safe.SafeNotificationDtos;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.listeners.InvocationListener;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StreamOperations;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Mono;
 
 class SafeNotificationServiceTest {
   private static final String SAFE = "0xaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa";
@@ -30,24 +60,57 @@ class SafeNotificationServiceTest {
   private final ValueOperations<String, String> valueOps = mock(ValueOperations.class);
   @SuppressWarnings("unchecked")
   private final SetOperations<String, String> setOps = mock(SetOperations.class);
+  @SuppressWarnings("unchecked")
+  private final HashOperations<String, Object, Object> hashOps = mock(HashOperations.class);
+  private final SafeCollaborationService collaborationService = mock(SafeCollaborationService.class);
+  private final SafePollShardLeases shardLeases = mock(SafePollShardLeases.class);
+  private final SafePollScheduler pollScheduler = mock(SafePollScheduler.class);
+  // Pipelined commands run against the mocks above; their replies are collected in order, as
+  // executePipelined returns them.
+  private final StringRedisTemplate pipeline = mock(StringRedisTemplate.class);
+  private final List<Object> pipelineReplies = new ArrayList<>();
   private SafeNotificationService service;
 
   @BeforeEach
+  @SuppressWarnings("unchecked")
   void setUp() {
     when(redis.opsForValue()).thenReturn(valueOps);
     when(redis.opsForSet()).thenReturn(setOps);
+    when(redis.opsForHash()).thenReturn(hashOps);
     when(setOps.members(anyString())).thenReturn(Collections.emptySet());
+    when(valueOps.multiGet(anyCollection()))
+        .thenAnswer(invocation -> invocation.<Collection<String>>getArgument(0).stream().map(valueOps::get).toList());
+    InvocationListener collect = report -> pipelineReplies.add(report.getReturnedValue());
+    when(pipeline.opsForSet())
+        .thenReturn(mock(SetOperations.class, withSettings().defaultAnswer(delegatesTo(setOps)).invocationListeners(collect)));
+    when(pipeline.opsForHash())
+        .thenReturn(mock(HashOperations.class, withSettings().defaultAnswer(delegatesTo(hashOps)).invocationListeners(collect)));
+    when(pipeline.opsForValue())
+        .thenReturn(mock(ValueOperations.class, withSettings().defaultAnswer(delegatesTo(valueOps)).invocationListeners(collect)));
+    when(redis.executePipelined(any(SessionCallback.class)))
+        .thenAnswer(
+            invocation -> {
+              pipelineReplies.clear();
+              invocation.<SessionCallback<?>>getArgument(0).execute(pipeline);
+              return new ArrayList<>(pipelineReplies);
+            });
     doAnswer(invocation -> null).when(valueOps).set(anyString(), anyString(), any(Duration.class));
 
-    service =
-        new SafeNotificationService(
-            redis,
+    service = service(50);
+  }
+
+  private SafeNotificationService service(int inboxLimit) {
+    return new SafeNotificationService(
+        redis,
+        new ObjectMapper(),
+        collaborationService,
+        shardLeases,
+        pollScheduler,
+        new SafePushDispatcher(
             new ObjectMapper(),
-            mock(SafeCollaborationService.class),
-            true,
-            50,
-            20,
-            1209600,
+            100,
+            4,
+            3,
             true,
             "firebase-project",
             "firebase@example.test",
@@ -57,7 +120,14 @@ class SafeNotificationServiceTest {
             "",
             "",
             "",
-            true);
+            true),
+        true,
+        inboxLimit,
+        20,
+        1209600,
+        500,
+        25,
+        1000);
   }
 
   @Test
@@ -104,6 +174,27 @@ class SafeNotificationServiceTest {
     assertEquals("remote_push", response.transport());
   }
 
+  @Test
+  void registersAllSafesOfADeviceInOnePipeline() {
+    List<SafeNotificationDtos.SafeSubscription> safes = new ArrayList<>();
+    for (int i = 1; i <= 20; i++) {
+      safes.add(
+          new SafeNotificationDtos.SafeSubscription(
+              1,
+              String.format("0x%040x", i),
+              List.of("0x0000000000000000000000000000000000000002"),
+              List.of(SafeNotificationService.TYPE_CONFIRMATION_REQUEST)));
+    }
+
+    service
+        .register(new SafeNotificationDtos.RegisterRequest("device-1", "android", "", "none", safes), null)
+        .block();
+
+    verify(redis, times(1)).executePipelined(any(SessionCallback.class));
+    verify(setOps, times(20)).add(eq("safe:notif:device:device-1:safes"), anyString());
+    verify(valueOps, times(20)).set(startsWith("safe:notif:device:device-1:sub:1:0x"), anyString(), any(Duration.class));
+  }
+
   @Test
   void newPendingTransactionCanNotifyProposalOrConfirmationRequest() {
     List<String> types =
@@ -184,6 +275,163 @@ class SafeNotificationServiceTest {
     assertEquals(List.of(), repeatedTypes);
   }
 
+  @Test
+  void pollsEachSafeOnceAndFansOutToEverySubscribedDevice() {
+    String safeId = "1:" + SAFE;
+    String subscription =
+        "{\"chainId\":1,\"safeAddress\":\"" + SAFE + "\",\"ownerAddresses\":[\"0x0000000000000000000000000000000000000002\"],"
+            + "\"notificationTypes\":[\"" + SafeNotificationService.TYPE_TRANSACTION_PROPOSED + "\"]}";
+    when(shardLeases.refresh()).thenReturn(new TreeSet<>(Set.of(0)));
+    when(shardLeases.stillOwns(0)).thenReturn(true);
+    when(shardLeases.shardCount()).thenReturn(1);
+    when(pollScheduler.isDue(anyString(), anyLong())).thenReturn(true);
+    when(setOps.members("safe:notif:safes:1:0")).thenReturn(Set.of(safeId));
+    when(setOps.members("safe:notif:safe:" + safeId + ":devices")).thenReturn(Set.of("device-1", "device-2"));
+    when(valueOps.get("safe:notif:device:device-1:sub:" + safeId)).thenReturn(subscription);
+    when(valueOps.get("safe:notif:device:device-2:sub:" + safeId)).thenReturn(subscription);
+    when(hashOps.entries(anyString())).thenReturn(Map.of());
+    when(collaborationService.queryNotificationCandidatesForSafes(anyList(), anyInt(), anyString(), anyString()))
+        .thenReturn(Mono.just(List.of(candidate(0, 2, false, ""))));
+
+    service.pollOnce();
+
+    verify(collaborationService, times(1))
+        .queryNotificationCandidatesForSafes(anyList(), anyInt(), anyString(), anyString());
+    verify(redis)
+        .execute(any(RedisScript.class), eq(List.of("safe:notif:device:device-1:inbox")), any(), any(), any());
+    verify(redis)
+        .execute(any(RedisScript.class), eq(List.of("safe:notif:device:device-2:inbox")), any(), any(), any());
+    verify(pollScheduler).recordPoll(eq(safeId), eq(true), anyLong());
+  }
+
+  @Test
+  void capsEachDeviceAtTheNewestNotificationsAcrossAllItsSafes() {
+    String otherSafe = "0xdddddddddddddddddddddddddddddddddddddddd";
+    when(shardLeases.refresh()).thenReturn(new TreeSet<>(Set.of(0)));
+    when(shardLeases.stillOwns(0)).thenReturn(true);
+    when(shardLeases.shardCount()).thenReturn(1);
+    when(pollScheduler.isDue(anyString(), anyLong())).thenReturn(true);
+    when(setOps.members("safe:notif:safes:1:0")).thenReturn(new TreeSet<>(Set.of("1:" + SAFE, "1:" + otherSafe)));
+    for (String safe : List.of(SAFE, otherSafe)) {
+      when(setOps.members("safe:notif:safe:1:" + safe + ":devices")).thenReturn(Set.of("device-1"));
+      when(valueOps.get("safe:notif:device:device-1:sub:1:" + safe))
+          .thenReturn(
+              "{\"chainId\":1,\"safeAddress\":\"" + safe + "\",\"ownerAddresses\":[\"0x0000000000000000000000000000000000000002\"],"
+                  + "\"notificationTypes\":[\"" + SafeNotificationService.TYPE_TRANSACTION_PROPOSED + "\"]}");
+    }
+    when(hashOps.entries(anyString())).thenReturn(Map.of());
+    when(collaborationService.queryNotificationCandidatesForSafes(anyList(), anyInt(), anyString(), anyString()))
+        .thenAnswer(
+            invocation -> {
+              List<SafeCollaborationDtos.DiscoveryItem> items = invocation.getArgument(0);
+              String safe = items.get(0).safeAddress();
+              // The other Safe's transaction saw activity later.
+              String activityAt = safe.equals(otherSafe) ? "2026-03-06T11:00:00Z" : "2026-03-06T10:01:00Z";
+              return Mono.just(
+                  List.of(
+                      new SafeCollaborationService.SafeNotificationCandidate(
+                          1, safe, SAFE_TX_HASH, 7, 0, 2, List.of(), "", false, "2026-03-06T10:00:00Z", activityAt)));
+            });
+
+    service(1).pollOnce();
+
+    verify(redis, times(1))
+        .execute(any(RedisScript.class), eq(List.of("safe:notif:device:device-1:inbox")), any(), any(), any());
+    verify(redis)
+        .execute(
+            any(RedisScript.class),
+            eq(List.of("safe:notif:device:device-1:inbox")),
+            any(),
+            contains(otherSafe),
+            any());
+  }
+
+  @Test
+  void migratesLegacyDeviceStatesIntoPerSafeHashesOnce() {
+    String safeId = "1:" + SAFE;
+    Map<String, String> legacy =
+        Map.of(
+            "1:" + SAFE_TX_HASH,
+            SafeNotificationService.buildNotificationStateToken(
+                SafeNotificationService.TYPE_TRANSACTION_PROPOSED, "pending", 0, 2, ""));
+    when(shardLeases.refresh()).thenReturn(new TreeSet<>(Set.of(0)));
+    when(shardLeases.shardCount()).thenReturn(1);
+    when(valueOps.setIfAbsent(eq("safe:notif:states:per_safe:migrating"), anyString(), any(Duration.class)))
+        .thenReturn(true);
+    when(setOps.members("safe:notif:devices")).thenReturn(Set.of("device-1"));
+    when(setOps.members("safe:notif:device:device-1:safes")).thenReturn(Set.of(safeId));
+    when(hashOps.entries(anyString())).thenReturn(Map.of());
+    when(hashOps.entries("safe:notif:device:device-1:state")).thenReturn(new HashMap<>(legacy));
+
+    service.pollOnce();
+    service.pollOnce();
+
+    verify(hashOps).putAll("safe:notif:device:device-1:state:" + safeId, legacy);
+    verify(pipeline).delete("safe:notif:device:device-1:state");
+    verify(valueOps).set(eq("safe:notif:states:per_safe:ready"), anyString());
+    verify(valueOps, times(1))
+        .setIfAbsent(eq("safe:notif:states:per_safe:migrating"), anyString(), any(Duration.class));
+  }
+
+  @Test
+  void skipsTheLegacyStateFallbackOnceMigrated() {
+    String safeId = "1:" + SAFE;
+    String subscription =
+        "{\"chainId\":1,\"safeAddress\":\"" + SAFE + "\",\"ownerAddresses\":[\"0x0000000000000000000000000000000000000002\"],"
+            + "\"notificationTypes\":[\"" + SafeNotificationService.TYPE_TRANSACTION_PROPOSED + "\"]}";
+    when(redis.hasKey("safe:notif:states:per_safe:ready")).thenReturn(true);
+    when(shardLeases.refresh()).thenReturn(new TreeSet<>(Set.of(0)));
+    when(shardLeases.stillOwns(0)).thenReturn(true);
+    when(shardLeases.shardCount()).thenReturn(1);
+    when(pollScheduler.isDue(anyString(), anyLong())).thenReturn(true);
+    when(setOps.members("safe:notif:safes:1:0")).thenReturn(Set.of(safeId));
+    when(setOps.members("safe:notif:safe:" + safeId + ":devices")).thenReturn(Set.of("device-1"));
+    when(valueOps.get("safe:notif:device:device-1:sub:" + safeId)).thenReturn(subscription);
+    when(hashOps.entries(anyString())).thenReturn(Map.of());
+    when(collaborationService.queryNotificationCandidatesForSafes(anyList(), anyInt(), anyString(), anyString()))
+        .thenReturn(Mono.just(List.of(candidate(0, 2, false, ""))));
+
+    service.pollOnce();
+
+    verify(hashOps).entries("safe:notif:device:device-1:state:" + safeId);
+    verify(hashOps, never()).entries("safe:notif:device:device-1:state");
+  }
+
+  @Test
+  void pullAcknowledgesUpToTheCursorAndReadsOnlyWhatFollows() {
+    @SuppressWarnings("unchecked")
+    StreamOperations<String, Object, Object> streamOps = mock(StreamOperations.class);
+    when(redis.opsForStream()).thenReturn(streamOps);
+    String state =
+        SafeNotificationService.buildNotificationStateToken(
+            SafeNotificationService.TYPE_TRANSACTION_PROPOSED, "pending", 0, 2, "");
+    when(hashOps.entries(anyString())).thenReturn(Map.of("1:" + SAFE_TX_HASH, state));
+    String record =
+        "{\"id\":\"n-1\",\"notificationType\":\"TRANSACTION_PROPOSED\",\"chainId\":1,"
+            + "\"safeAddress\":\"" + SAFE + "\",\"safeTxHash\":\"" + SAFE_TX_HASH + "\","
+            + "\"confirmationsSubmitted\":0,\"confirmationsRequired\":2,\"transactionHash\":\"\","
+            + "\"eventState\":\"" + state + "\",\"createdAt\":\"2026-03-06T10:00:00Z\"}";
+    MapRecord<String, Object, Object> entry =
+        StreamRecords.newRecord()
+            .in("safe:notif:device:device-1:inbox")
+            .withId(RecordId.of("1700000000000-3"))
+            .ofMap(Map.<Object, Object>of("record", record));
+    when(streamOps.range(eq("safe:notif:device:device-1:inbox"), any(Range.class), any(Limit.class)))
+        .thenReturn(List.of(entry));
+
+    SafeNotificationDtos.PullResponse response =
+        service
+            .pull(new SafeNotificationDtos.PullRequest("device-1", 10, "1700000000000-1", null), null)
+            .block();
+
+    assertEquals(
+        List.of("n-1"), response.items().stream().map(SafeNotificationDtos.NotificationItem::id).toList());
+    assertEquals("1700000000000-3", response.nextCursor());
+    verify(redis)
+        .execute(
+            any(RedisScript.class), eq(List.of("safe:notif:device:device-1:inbox")), eq("1700000000000-2"));
+  }
+
   private static SafeCollaborationService.SafeNotificationCandidate candidate(
       int submitted, int required, boolean failed, String transactionHash) {
     return new SafeCollaborationService.SafeNotificationCandidate(
@@ -0,0 +1,88 @@
+package io.statusmvp.pricebackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+class SafePollSchedulerTest {
+  private static final String SAFE_ID = "1:0xaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa";
+
+  private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+  @SuppressWarnings("unchecked")
+  private final SetOperations<String, String> setOps = mock(SetOperations.class);
+  private final SafePollShardLeases shardLeases = mock(SafePollShardLeases.class);
+  private final SafePollScheduler scheduler =
+      new SafePollScheduler(redis, shardLeases, 15_000, 45_000, 180_000);
+
+  @BeforeEach
+  void setUp() {
+    when(redis.opsForSet()).thenReturn(setOps);
+    when(redis.executePipelined(any(SessionCallback.class)))
+        .thenAnswer(
+            invocation -> {
+              invocation.<SessionCallback<?>>getArgument(0).execute(redis);
+              return List.of();
+            });
+    when(shardLeases.shardCount()).thenReturn(1);
+    when(shardLeases.shardOf(anyString())).thenReturn(0);
+  }
+
+  @Test
+  void pollsActiveSafesAtTheActiveInterval() {
+    assertTrue(scheduler.isDue(SAFE_ID, 0));
+    scheduler.recordPoll(SAFE_ID, true, 0);
+
+    assertFalse(scheduler.isDue(SAFE_ID, 14_999));
+    assertTrue(scheduler.isDue(SAFE_ID, 15_000));
+  }
+
+  @Test
+  void backsOffIdleSafesUpToTheCapAndResetsOnActivity() {
+    scheduler.recordPoll(SAFE_ID, false, 0);
+    assertTrue(scheduler.isDue(SAFE_ID, 45_000));
+    scheduler.recordPoll(SAFE_ID, false, 45_000);
+    assertFalse(scheduler.isDue(SAFE_ID, 134_999));
+    assertTrue(scheduler.isDue(SAFE_ID, 135_000));
+    scheduler.recordPoll(SAFE_ID, false, 135_000);
+    scheduler.recordPoll(SAFE_ID, false, 135_000);
+    assertTrue(scheduler.isDue(SAFE_ID, 315_000));
+
+    scheduler.recordPoll(SAFE_ID, true, 315_000);
+    scheduler.recordPoll(SAFE_ID, false, 330_000);
+    assertTrue(scheduler.isDue(SAFE_ID, 375_000));
+  }
+
+  @Test
+  void wakesSafesLocallyAndThroughTheShardWakeupSet() {
+    scheduler.recordPoll(SAFE_ID, false, 0);
+    scheduler.wake(SAFE_ID);
+
+    assertTrue(scheduler.isDue(SAFE_ID, 1));
+    verify(setOps).add("safe:notif:wake:1:0", SAFE_ID);
+
+    scheduler.recordPoll(SAFE_ID, false, 0);
+    when(setOps.pop("safe:notif:wake:1:0", 1000L)).thenReturn(List.of(SAFE_ID));
+    scheduler.drainWakeups(0);
+    assertTrue(scheduler.isDue(SAFE_ID, 1));
+  }
+
+  @Test
+  void forgetsSafesOfShardsNoLongerOwned() {
+    scheduler.recordPoll(SAFE_ID, false, 0);
+    scheduler.retainShards(Set.of(3));
+
+    assertTrue(scheduler.isDue(SAFE_ID, 1));
+  }
+}
@@ -0,0 +1,59 @@
+package io.statusmvp.pricebackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+
+class SafePollShardLeasesTest {
+  private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+  @SuppressWarnings("unchecked")
+  private final ValueOperations<String, String> valueOps = mock(ValueOperations.class);
+  @SuppressWarnings("unchecked")
+  private final ZSetOperations<String, String> zSetOps = mock(ZSetOperations.class);
+  private final SafePollShardLeases leases = new SafePollShardLeases(redis, 16, 135);
+
+  @BeforeEach
+  void setUp() {
+    when(redis.opsForValue()).thenReturn(valueOps);
+    when(redis.opsForZSet()).thenReturn(zSetOps);
+    when(zSetOps.add(anyString(), anyString(), anyDouble())).thenReturn(true);
+  }
+
+  @Test
+  void claimsOnlyItsFairShareOfFreeShards() {
+    when(zSetOps.zCard("safe:notif:pollers")).thenReturn(3L);
+    when(valueOps.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+
+    Set<Integer> owned = leases.refresh();
+
+    assertEquals(6, owned.size());
+    owned.forEach(shard -> assertTrue(leases.stillOwns(shard)));
+  }
+
+  @Test
+  void ownsNothingWhileEveryShardIsLeasedElsewhere() {
+    when(zSetOps.zCard("safe:notif:pollers")).thenReturn(1L);
+    when(valueOps.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+
+    assertTrue(leases.refresh().isEmpty());
+  }
+
+  @Test
+  void hashesSafesToStableShards() {
+    String safeId = "1:0xaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa";
+    assertEquals(leases.shardOf(safeId), new SafePollShardLeases(redis, 16, 135).shardOf(safeId));
+    assertTrue(leases.shardOf(safeId) >= 0 && leases.shardOf(safeId) < 16);
+  }
+}
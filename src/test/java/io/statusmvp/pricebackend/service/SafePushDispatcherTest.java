@@ -0,0 +1,54 @@
+package io.statusmvp.pricebackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.Test;
+
+class SafePushDispatcherTest {
+  private static final SafePushDispatcher.PushMessage MESSAGE =
+      new SafePushDispatcher.PushMessage("id-1", "TRANSACTION_PROPOSED", "New Safe proposal", "Open VeilWallet");
+
+  // Not started: submitted pushes stay in the outbox.
+  private final SafePushDispatcher dispatcher =
+      new SafePushDispatcher(
+          new ObjectMapper(),
+          1,
+          4,
+          3,
+          true,
+          "firebase-project",
+          "firebase@example.test",
+          "not-parsed-until-sent",
+          false,
+          "",
+          "",
+          "",
+          "",
+          true);
+
+  @Test
+  void acceptsOnlyConfiguredProvidersAndRejectsWhenTheOutboxIsFull() {
+    assertFalse(dispatcher.submit("device-1", "ios", "apns", "apns-token", MESSAGE, null));
+    assertFalse(dispatcher.submit("device-1", "android", "fcm", "", MESSAGE, null));
+
+    assertTrue(dispatcher.submit("device-1", "android", "fcm", "fcm-token", MESSAGE, null));
+    assertFalse(dispatcher.submit("device-2", "android", "fcm", "fcm-token", MESSAGE, null));
+  }
+
+  @Test
+  void retriesTransientFailuresOnly() {
+    assertTrue(SafePushDispatcher.isRetryable(new SafePushDispatcher.PushRejectedException("fcm", 503, false)));
+    assertTrue(SafePushDispatcher.isRetryable(new SafePushDispatcher.PushRejectedException("fcm", 429, false)));
+    assertTrue(SafePushDispatcher.isRetryable(new SafePushDispatcher.PushRejectedException("fcm", 401, true)));
+    assertTrue(SafePushDispatcher.isRetryable(new CompletionException(new HttpTimeoutException("timeout"))));
+    assertTrue(SafePushDispatcher.isRetryable(new IOException("reset")));
+
+    assertFalse(SafePushDispatcher.isRetryable(new SafePushDispatcher.PushRejectedException("apns", 410, false)));
+    assertFalse(SafePushDispatcher.isRetryable(new SafePushDispatcher.PushRejectedException("fcm", 400, false)));
+  }
+}
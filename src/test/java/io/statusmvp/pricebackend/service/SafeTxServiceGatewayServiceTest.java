@@ -0,0 +1,105 @@
+package io.statusmvp.pricebackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.statusmvp.pricebackend.client.SafeTxServiceClient;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+class SafeTxServiceGatewayServiceTest {
+  private static final SafeTxServiceGatewayService.CachePolicy POLICY =
+      new SafeTxServiceGatewayService.CachePolicy(45, 120, 5);
+  private static final String PATH = "/api/v1/safes/0xaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa/";
+
+  private final SafeTxServiceClient client = mock(SafeTxServiceClient.class);
+  private final ReactiveRedisCache cache = mock(ReactiveRedisCache.class);
+  private final RedisRateLimiter rateLimiter = mock(RedisRateLimiter.class);
+  private final SafeTxUpstreamRateLimiter upstreamRateLimiter = mock(SafeTxUpstreamRateLimiter.class);
+  private final AtomicReference<String> stored = new AtomicReference<>();
+  private SafeTxServiceGatewayService gateway;
+
+  @BeforeEach
+  void setUp() {
+    when(rateLimiter.check(anyString(), anyList())).thenReturn(Mono.just(RedisRateLimiter.Decision.ALLOWED));
+    when(upstreamRateLimiter.acquire(anyString())).thenReturn(Mono.empty());
+    when(cache.get(anyString())).thenAnswer(invocation -> Mono.justOrEmpty(stored.get()));
+    when(cache.set(anyString(), anyString(), anyLong()))
+        .thenAnswer(
+            invocation -> {
+              stored.set(invocation.getArgument(1, String.class));
+              return Mono.empty();
+            });
+    gateway =
+        new SafeTxServiceGatewayService(
+            client, cache, rateLimiter, new ObjectMapper(), upstreamRateLimiter, 60, 600, 300);
+  }
+
+  @Test
+  void servesStaleEntriesImmediatelyAndRevalidatesThemInTheBackground() throws Exception {
+    long now = System.currentTimeMillis();
+    stored.set(
+        "{\"status\":200,\"contentType\":\"application/json\",\"body\":\"{\\\"nonce\\\":7}\","
+            + "\"etag\":\"\\\"v1\\\"\",\"freshUntil\":"
+            + (now - 1_000)
+            + ",\"staleUntil\":"
+            + (now + 60_000)
+            + "}");
+    when(client.get(eq("eth"), eq(PATH), isNull(), eq("\"v1\""), isNull()))
+        .thenReturn(Mono.just(ResponseEntity.status(304).<String>build()));
+
+    ResponseEntity<String> response = gateway.get("eth", PATH, null, "127.0.0.1", "device-1", POLICY).block();
+
+    assertNotNull(response);
+    assertEquals("{\"nonce\":7}", response.getBody());
+    assertEquals("STALE", response.getHeaders().getFirst("X-Cache"));
+    verify(client, timeout(1_000)).get(eq("eth"), eq(PATH), isNull(), eq("\"v1\""), isNull());
+    verify(upstreamRateLimiter).acquire("internal:revalidate");
+    verify(upstreamRateLimiter, never()).acquire("device:device-1");
+    ArgumentCaptor<String> written = ArgumentCaptor.forClass(String.class);
+    verify(cache, timeout(1_000)).set(anyString(), written.capture(), anyLong());
+    JsonNode revalidated = new ObjectMapper().readTree(written.getValue());
+    assertEquals("\"v1\"", revalidated.path("etag").asText());
+    assertTrue(revalidated.path("freshUntil").asLong() > now);
+
+    ResponseEntity<String> refreshed = gateway.get("eth", PATH, null, "127.0.0.1", "device-1", POLICY).block();
+    assertNotNull(refreshed);
+    assertEquals("HIT", refreshed.getHeaders().getFirst("X-Cache"));
+  }
+
+  @Test
+  void keepsLargeBodiesGzippedInTheCache() {
+    String body = "{\"results\":\"" + "a".repeat(4_000) + "\"}";
+    when(client.get(eq("eth"), eq(PATH), any())).thenReturn(Mono.just(ResponseEntity.ok(body)));
+
+    ResponseEntity<String> miss = gateway.get("eth", PATH, null, "127.0.0.1", "device-1", POLICY).block();
+    assertNotNull(miss);
+    assertEquals(body, miss.getBody());
+    assertEquals("MISS", miss.getHeaders().getFirst("X-Cache"));
+    assertFalse(stored.get().contains("aaaa"));
+
+    ResponseEntity<String> hit = gateway.get("eth", PATH, null, "127.0.0.1", "device-1", POLICY).block();
+    assertNotNull(hit);
+    assertEquals(body, hit.getBody());
+    assertEquals("HIT", hit.getHeaders().getFirst("X-Cache"));
+  }
+}
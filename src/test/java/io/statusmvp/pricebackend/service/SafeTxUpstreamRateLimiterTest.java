@@ -0,0 +1,82 @@
+package io.statusmvp.pricebackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class SafeTxUpstreamRateLimiterTest {
+  private final ReactiveStringRedisTemplate redis = mock(ReactiveStringRedisTemplate.class);
+  private final SafeTxUpstreamRateLimiter limiter =
+      new SafeTxUpstreamRateLimiter(redis, 4, 4, 1, 1000, 100, 5000);
+
+  @Test
+  void handsOutPrefetchedTokensWithoutAnotherRoundTrip() {
+    when(redis.execute(any(RedisScript.class), anyList(), anyList())).thenAnswer(invocation -> Flux.just(2L));
+
+    limiter.acquire("device:a").block(Duration.ofSeconds(5));
+    limiter.acquire("device:a").block(Duration.ofSeconds(5));
+
+    verify(redis, times(1)).execute(any(RedisScript.class), anyList(), anyList());
+  }
+
+  @Test
+  void servesQueuedCallersRoundRobin() {
+    AtomicInteger leases = new AtomicInteger();
+    when(redis.execute(any(RedisScript.class), anyList(), anyList()))
+        .thenAnswer(invocation -> Flux.just(leases.getAndIncrement() == 0 ? -20L : 1L));
+    List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+    Mono.when(
+            limiter.acquire("device:a").doOnSuccess(ignored -> order.add("a1")),
+            limiter.acquire("device:a").doOnSuccess(ignored -> order.add("a2")),
+            limiter.acquire("device:b").doOnSuccess(ignored -> order.add("b1")))
+        .block(Duration.ofSeconds(5));
+
+    assertEquals(List.of("a1", "b1", "a2"), order);
+  }
+
+  @Test
+  void cancelledCallersDoNotCountTowardsTheNextLease() {
+    AtomicInteger leases = new AtomicInteger();
+    when(redis.execute(any(RedisScript.class), anyList(), anyList()))
+        .thenAnswer(invocation -> Flux.just(leases.getAndIncrement() == 0 ? -50L : 1L));
+
+    List<Disposable> abandoned =
+        List.of(
+            limiter.acquire("device:a").subscribe(),
+            limiter.acquire("device:a").subscribe(),
+            limiter.acquire("device:b").subscribe());
+    abandoned.forEach(Disposable::dispose);
+    limiter.acquire("device:c").block(Duration.ofSeconds(5));
+
+    ArgumentCaptor<List<String>> args = ArgumentCaptor.forClass(List.class);
+    verify(redis, times(2)).execute(any(RedisScript.class), anyList(), args.capture());
+    // One live waiter plus the prefetch of one.
+    assertEquals("2", args.getAllValues().get(1).get(2));
+  }
+
+  @Test
+  void fallsBackToTheLocalBucketWhenRedisFails() {
+    when(redis.execute(any(RedisScript.class), anyList(), anyList()))
+        .thenAnswer(invocation -> Flux.error(new IllegalStateException("redis down")));
+
+    limiter.acquire("ip:127.0.0.1").block(Duration.ofSeconds(5));
+  }
+}
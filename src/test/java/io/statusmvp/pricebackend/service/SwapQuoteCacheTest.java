@@ -0,0 +1,127 @@
+package io.statusmvp.pricebackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class SwapQuoteCacheTest {
+  private final SwapQuoteCache cache = new SwapQuoteCache(new SimpleMeterRegistry(), true, 5000, 100, 0);
+
+  @Test
+  void coalescesIdenticalQuotesAndServesTheResultFromCache() {
+    AtomicInteger upstreamCalls = new AtomicInteger();
+    Sinks.One<ResponseEntity<String>> upstream = Sinks.one();
+    String key = cache.key("openocean", "1/quote", query("inTokenAddress", "0xa", "amount", "5"));
+
+    Mono<ResponseEntity<Flux<DataBuffer>>> first =
+        cache.get(
+            "openocean",
+            key,
+            () -> {
+              upstreamCalls.incrementAndGet();
+              return upstream.asMono().map(ProxyRelay::of);
+            });
+    Mono<ResponseEntity<Flux<DataBuffer>>> second =
+        cache.get(
+            "openocean",
+            key,
+            () -> {
+              upstreamCalls.incrementAndGet();
+              return Mono.just(ProxyRelay.of(ResponseEntity.ok("{\"quote\":\"other\"}")));
+            });
+
+    Mono<String> firstBody = first.flatMap(SwapQuoteCacheTest::read).cache();
+    Mono<String> secondBody = second.flatMap(SwapQuoteCacheTest::read).cache();
+    firstBody.subscribe();
+    secondBody.subscribe();
+    upstream.tryEmitValue(ResponseEntity.ok("{\"quote\":\"1\"}"));
+
+    assertEquals("{\"quote\":\"1\"}", firstBody.block(Duration.ofSeconds(5)));
+    assertEquals("{\"quote\":\"1\"}", secondBody.block(Duration.ofSeconds(5)));
+
+    ResponseEntity<Flux<DataBuffer>> hit =
+        cache.get("openocean", key, () -> Mono.error(new IllegalStateException("should be cached"))).block();
+    assertNotNull(hit);
+    assertEquals("HIT", hit.getHeaders().getFirst("X-Cache"));
+    assertEquals("{\"quote\":\"1\"}", read(hit).block());
+    assertEquals(1, upstreamCalls.get());
+  }
+
+  @Test
+  void doesNotStoreErrorResponses() {
+    AtomicInteger upstreamCalls = new AtomicInteger();
+    String key = cache.key("jupiter", "/quote", query("amount", "5"));
+
+    for (int i = 0; i < 2; i++) {
+      cache
+          .get(
+              "jupiter",
+              key,
+              () -> {
+                upstreamCalls.incrementAndGet();
+                return Mono.just(ProxyRelay.of(ResponseEntity.status(429).body("{\"error\":\"rate limited\"}")));
+              })
+          .block();
+    }
+
+    assertEquals(2, upstreamCalls.get());
+  }
+
+  @Test
+  void keysIgnoreParameterAndFieldOrder() throws Exception {
+    ObjectMapper mapper = new ObjectMapper();
+
+    assertEquals(
+        cache.key("jupiter", "/quote", query("inputMint", "So1", "amount", "5")),
+        cache.key("jupiter", "/quote", query("amount", "5", "inputMint", "So1")));
+    assertEquals(
+        cache.key("uniswap", "/quote", mapper.readTree("{\"tokenIn\":\"0xa\",\"amount\":\"5\"}")),
+        cache.key("uniswap", "/quote", mapper.readTree("{\"amount\":\"5\",\"tokenIn\":\"0xa\"}")));
+    assertNotEquals(
+        cache.key("uniswap", "/quote", mapper.readTree("{\"amount\":\"5\"}")),
+        cache.key("uniswap", "/quote", mapper.readTree("{\"amount\":\"6\"}")));
+  }
+
+  @Test
+  void bucketsAmountsWhenConfigured() {
+    SwapQuoteCache bucketed = new SwapQuoteCache(new SimpleMeterRegistry(), true, 2000, 100, 3);
+
+    assertEquals(
+        bucketed.key("jupiter", "/quote", query("amount", "1234567")),
+        bucketed.key("jupiter", "/quote", query("amount", "1230001")));
+  }
+
+  private static MultiValueMap<String, String> query(String... pairs) {
+    MultiValueMap<String, String> query = new LinkedMultiValueMap<>();
+    for (int i = 0; i < pairs.length; i += 2) {
+      query.add(pairs[i], pairs[i + 1]);
+    }
+    return query;
+  }
+
+  private static Mono<String> read(ResponseEntity<Flux<DataBuffer>> response) {
+    return DataBufferUtils.join(response.getBody())
+        .map(
+            joined -> {
+              byte[] bytes = new byte[joined.readableByteCount()];
+              joined.read(bytes);
+              DataBufferUtils.release(joined);
+              return new String(bytes, StandardCharsets.UTF_8);
+            });
+  }
+}
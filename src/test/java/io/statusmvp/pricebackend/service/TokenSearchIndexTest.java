@@ -0,0 +1,63 @@
+package io.statusmvp.pricebackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.statusmvp.pricebackend.model.token.TokenSearchItem;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TokenSearchIndexTest {
+  private static final String USDC = "0xA0b86991c6218b36c1d19D4a2e9Eb0cE3606eB48";
+  private static final String USDT = "0xdAC17F958D2ee523a2206206994597C13D831ec7";
+  private static final String SUSD = "0x57Ab1ec28D129707052df4dF418D58a2D46d5f51";
+  private static final String USDE = "0x4c9EDD5852cd905f086C759E8383e09bff1E68B3";
+
+  private final TokenSearchIndex index =
+      TokenSearchIndex.build(
+          1,
+          List.of(
+              item(USDC, "USDC", "USD Coin", "default"),
+              item(USDT, "USDT", "Tether USD", "default"),
+              item(SUSD, "sUSD", "Synth sUSD", "dex-list"),
+              item(USDE, "USDe", "USDe", "curated")));
+
+  @Test
+  void ranksExactThenPrefixThenSubstringMatches() {
+    assertEquals(List.of("sUSD"), symbols(index.search("susd", 10, false)));
+    assertEquals(List.of("USDC", "USDT", "USDe", "sUSD"), symbols(index.search("usd", 10, false)));
+    assertEquals(List.of("USDT"), symbols(index.search("tether", 10, false)));
+    assertEquals(List.of("USDC"), symbols(index.search("usd coin", 10, false)));
+  }
+
+  @Test
+  void keepsOnlyTheBestResultsUpToTheLimit() {
+    assertEquals(List.of("USDC", "USDT"), symbols(index.search("usd", 2, false)));
+    assertEquals(List.of("USDC", "USDT", "sUSD"), symbols(index.search("", 3, false)));
+    assertTrue(index.search("nothing-like-this", 10, false).isEmpty());
+  }
+
+  @Test
+  void matchesAddressesOnlyWhenAsked() {
+    assertTrue(index.search("0xdac17f", 10, false).isEmpty());
+    assertEquals(List.of("USDT"), symbols(index.search("0xdac17f", 10, true)));
+    assertEquals(List.of("USDT"), symbols(index.search(USDT.toLowerCase(), 10, true)));
+    assertEquals(List.of("sUSD"), symbols(index.search("1ec28d1297", 10, true)));
+  }
+
+  @Test
+  void findsTokensByAddressKey() {
+    assertEquals(
+        "USDC",
+        index.findByAddressKey(TokenCatalogService.addressKey(1, USDC.toLowerCase())).orElseThrow().symbol());
+    assertTrue(index.findByAddressKey(TokenCatalogService.addressKey(1, "0x00")).isEmpty());
+  }
+
+  private static TokenSearchItem item(String address, String symbol, String name, String confidence) {
+    return new TokenSearchItem(1, address, "erc20", symbol, name, 18, null, List.of("test"), confidence);
+  }
+
+  private static List<String> symbols(List<TokenSearchItem> items) {
+    return items.stream().map(TokenSearchItem::symbol).toList();
+  }
+}